@@ -0,0 +1,125 @@
+package de.antibotdeluxe.delivery.benchmarks;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.event.DeliveryEventHandler;
+import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import io.netty.channel.ChannelHandlerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the {@link DeliveryEventManager} takes to dispatch a {@link DeliveryPacket} to its handlers, both for a type with
+ * handlers and for one only the global handler listens for. Run with <code>./gradlew jmh</code>.
+ *
+ * @author jhz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventDispatchBenchmark {
+
+    /**
+     * Amount of handlers bound to the type of {@link DeliveryPacket} which is dispatched.
+     */
+    @Param({"1", "4", "16"})
+    public int handlers;
+
+    private DeliveryEventManager eventManager;
+    private DeliveryPacket handledPacket;
+    private DeliveryPacket unhandledPacket;
+
+    /**
+     * Binds the handlers which count the dispatched {@link DeliveryPacket}'s into the {@link Blackhole}.
+     *
+     * @param blackhole
+     *          {@link Blackhole} provided by JMH
+     */
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.eventManager = new DeliveryEventManager();
+        this.eventManager.bindHandlers(new ConsumingHandler(DeliveryPacket.class, blackhole));
+        for (int i = 0; i < this.handlers; i++)
+            this.eventManager.bindHandlers(new ConsumingHandler(HandledPacket.class, blackhole));
+        this.handledPacket = new HandledPacket();
+        this.unhandledPacket = new UnhandledPacket();
+    }
+
+    /**
+     * Dispatches a {@link DeliveryPacket} with specific handlers on a single thread.
+     */
+    @Benchmark
+    public void dispatchHandled() {
+        this.eventManager.callHandlers(this.handledPacket, null);
+    }
+
+    /**
+     * Dispatches a {@link DeliveryPacket} only the global handler listens for.
+     */
+    @Benchmark
+    public void dispatchGlobalOnly() {
+        this.eventManager.callHandlers(this.unhandledPacket, null);
+    }
+
+    /**
+     * Dispatches a {@link DeliveryPacket} with specific handlers from as many threads as an event loop group usually has.
+     */
+    @Benchmark
+    @Threads(4)
+    public void dispatchHandledConcurrently() {
+        this.eventManager.callHandlers(this.handledPacket, null);
+    }
+
+    private static final class ConsumingHandler extends DeliveryEventHandler {
+
+        private final Class<? extends DeliveryPacket> capture;
+        private final Blackhole blackhole;
+
+        private ConsumingHandler(Class<? extends DeliveryPacket> capture, Blackhole blackhole) {
+            this.capture = capture;
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+            this.blackhole.consume(packet);
+        }
+
+        @Override
+        public Class<? extends DeliveryPacket> getPacketCapture() {
+            return this.capture;
+        }
+
+    }
+
+    public static final class HandledPacket implements DeliveryPacket {
+
+        @Override
+        public void write(DeliveryByteBuf buf) { }
+
+        @Override
+        public void read(DeliveryByteBuf buf) { }
+
+    }
+
+    public static final class UnhandledPacket implements DeliveryPacket {
+
+        @Override
+        public void write(DeliveryByteBuf buf) { }
+
+        @Override
+        public void read(DeliveryByteBuf buf) { }
+
+    }
+
+}
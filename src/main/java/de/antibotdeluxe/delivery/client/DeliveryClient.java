@@ -2,19 +2,40 @@ package de.antibotdeluxe.delivery.client;
 
 import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
 import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryCompression;
+import de.antibotdeluxe.delivery.codec.DeliveryCorrelationHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryFileReceiver;
+import de.antibotdeluxe.delivery.codec.DeliveryFileTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryFlushHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryFlushPolicy;
+import de.antibotdeluxe.delivery.codec.DeliveryHandshakeHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryLazyPacket;
 import de.antibotdeluxe.delivery.codec.DeliveryPacket;
 import de.antibotdeluxe.delivery.codec.DeliveryPacketVault;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamReceiver;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryTransferHandler;
 import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import de.antibotdeluxe.delivery.event.DeliveryHandlerExecutor;
+import de.antibotdeluxe.delivery.event.DeliveryPacketPublisher;
+import de.antibotdeluxe.delivery.misc.Utility;
 import de.antibotdeluxe.delivery.misc.exceptions.AlreadyConnectedException;
 import de.antibotdeluxe.delivery.misc.exceptions.ConnectionFailedException;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.epoll.EpollSocketChannel;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,8 +51,20 @@ public class DeliveryClient {
     private final DeliveryEventManager eventManager;
     private final DeliveryPacketVault packetVault;
 
-    private final EventLoopGroup masterGroup;
-    private Channel channel;
+    private EventLoopGroup masterGroup;
+    private volatile Channel channel;
+    private CompletableFuture<Channel> connectFuture;
+    private ChannelFuture connectAttempt;
+    private String connectHost;
+    private int connectPort;
+    private int maxFrameSize = DeliveryByteDecoder.DEFAULT_MAX_FRAME_SIZE;
+    private boolean preferDirectBuffers = true;
+    private DeliveryCompression compression = DeliveryCompression.NONE;
+    private int compressionThreshold = DeliveryByteEncoder.DEFAULT_COMPRESSION_THRESHOLD;
+    private DeliveryFlushPolicy flushPolicy = DeliveryFlushPolicy.immediate();
+    private DeliveryFileReceiver fileReceiver;
+    private DeliveryStreamReceiver streamReceiver;
+    private final DeliveryClientConfig config;
 
     public DeliveryClient() {
         this(new DeliveryPacketVault());
@@ -44,53 +77,178 @@ public class DeliveryClient {
      *          {@link DeliveryPacketVault} where all {@link DeliveryPacket}'s are stored.
      */
     public DeliveryClient(DeliveryPacketVault vault) {
+        this(vault, DeliveryClientConfig.defaults());
+    }
+
+    /**
+     * Initialize the {@link DeliveryClient}
+     *
+     * @param vault
+     *          {@link DeliveryPacketVault} where all {@link DeliveryPacket}'s are stored.
+     * @param config
+     *          {@link DeliveryClientConfig} with the transport, threads and {@link ChannelOption}'s applied on connect
+     */
+    public DeliveryClient(DeliveryPacketVault vault, DeliveryClientConfig config) {
         this.eventManager = new DeliveryEventManager();
         this.packetVault = vault;
-        this.masterGroup = (Epoll.isAvailable()) ? new EpollEventLoopGroup() : new NioEventLoopGroup();
+        this.config = config;
     }
 
     /**
-     * Connects the {@link DeliveryClient} to a {@link de.antibotdeluxe.delivery.server.DeliveryServer}
+     * Connects the {@link DeliveryClient} to a {@link de.antibotdeluxe.delivery.server.DeliveryServer} without blocking. If the
+     * connection can't be established the returned future fails with a {@link ConnectionFailedException}. Calling it again while
+     * connecting returns the same future.
+     * <p>
+     * <strong>Note</strong><br>
+     * The {@link DeliveryPacketVault} will be frozen, so all {@link DeliveryPacket}'s have to be registered before. The
+     * {@link EventLoopGroup} is created on the first connect.
      *
      * @param host
      *          {@link de.antibotdeluxe.delivery.server.DeliveryServer} host address
      * @param port
      *          {@link de.antibotdeluxe.delivery.server.DeliveryServer} host port
+     * @return future which completes with the {@link Channel} as soon as the connection is established
+     * @throws AlreadyConnectedException
+     *          if the {@link DeliveryClient} is already connected
      */
-    public void connectClient(String host, int port) {
-        LOGGER.log(Level.SEVERE, () -> "Connecting to " + host + ":" + port + " ...");
+    public synchronized CompletableFuture<Channel> connect(String host, int port) {
         if (this.channel != null)
             throw new AlreadyConnectedException(this.channel);
+        if (this.connectFuture != null)
+            return this.connectFuture;
+        LOGGER.log(Level.SEVERE, () -> "Connecting to " + host + ":" + port + " ...");
+        CompletableFuture<Channel> future = new CompletableFuture<>();
+        this.connectFuture = future;
+        this.connectHost = host;
+        this.connectPort = port;
+        ChannelFuture connect;
         try {
+            this.packetVault.freeze();
+            if (this.masterGroup == null)
+                this.masterGroup = this.config.getTransport().newEventLoopGroup(this.config.getThreads(), "delivery-client");
             Bootstrap bootstrap = new Bootstrap();
+            this.config.apply(bootstrap);
             bootstrap
                     .group(masterGroup)
-                    .channel((Epoll.isAvailable()) ? EpollSocketChannel.class : NioSocketChannel.class)
+                    .channel(this.config.getTransport().getChannelClass())
                     .handler(new ChannelInitializer<>() {
                         @Override
                         protected void initChannel(Channel channel) {
-                            channel.pipeline().addLast(new DeliveryByteDecoder(getPacketVault()));
-                            channel.pipeline().addLast(new DeliveryByteEncoder(getPacketVault()));
+                            DeliveryByteEncoder encoder = new DeliveryByteEncoder(getPacketVault(), getMaxFrameSize(),
+                                    isPreferDirectBuffers());
+                            encoder.setCompressionThreshold(getCompressionThreshold());
+                            channel.pipeline().addLast(new DeliveryByteDecoder(getPacketVault(), getMaxFrameSize(), getEventManager()));
+                            channel.pipeline().addLast(encoder);
+                            channel.pipeline().addLast(new DeliveryHandshakeHandler(encoder, getCompression(), false));
+                            channel.pipeline().addLast(new DeliveryCorrelationHandler());
+                            channel.pipeline().addLast(new DeliveryTransferHandler(getFileReceiver()));
+                            channel.pipeline().addLast(new DeliveryStreamHandler(getStreamReceiver()));
+                            channel.pipeline().addLast(new DeliveryFlushHandler(getFlushPolicy()));
                             channel.pipeline().addLast(new DeliveryClientNetworkAdapter(DeliveryClient.this));
                         }
                     });
-            this.channel = bootstrap.connect(host, port).sync().channel();
-        } catch (Exception exception) {
-            exception.printStackTrace();
-            throw new ConnectionFailedException(host, port);
+            connect = bootstrap.connect(host, port);
+            this.connectAttempt = connect;
+        } catch (RuntimeException exception) {
+            this.connectFuture = null;
+            this.releaseGroup();
+            future.completeExceptionally(new ConnectionFailedException(host, port, exception));
+            return future;
         }
-        LOGGER.log(Level.SEVERE, () -> "Connection established");
+        connect.addListener((ChannelFutureListener) result -> {
+            synchronized (this) {
+                if (this.connectFuture != future) {
+                    if (result.isSuccess())
+                        result.channel().close();
+                    return;
+                }
+                this.connectFuture = null;
+                this.connectAttempt = null;
+                if (result.isSuccess())
+                    this.channel = result.channel();
+                else
+                    this.releaseGroup();
+            }
+            if (result.isSuccess()) {
+                LOGGER.log(Level.SEVERE, () -> "Connection established");
+                future.complete(result.channel());
+            } else {
+                future.completeExceptionally(new ConnectionFailedException(host, port, result.cause()));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Shuts down the {@link EventLoopGroup} after a failed connect, so no threads are left behind. The next connect creates a new one.
+     */
+    private void releaseGroup() {
+        if (this.channel != null || this.masterGroup == null)
+            return;
+        this.masterGroup.shutdownGracefully(0, 15, TimeUnit.SECONDS);
+        this.masterGroup = null;
+    }
+
+    /**
+     * Connects the {@link DeliveryClient} to a {@link de.antibotdeluxe.delivery.server.DeliveryServer}, blocking until the connection
+     * is established.
+     * <p>
+     * <strong>Note</strong><br>
+     * The {@link DeliveryPacketVault} will be frozen, so all {@link DeliveryPacket}'s have to be registered before.
+     *
+     * @param host
+     *          {@link de.antibotdeluxe.delivery.server.DeliveryServer} host address
+     * @param port
+     *          {@link de.antibotdeluxe.delivery.server.DeliveryServer} host port
+     * @throws ConnectionFailedException
+     *          if the connection can't be established
+     */
+    public void connectClient(String host, int port) {
+        try {
+            this.connect(host, port).join();
+        } catch (CompletionException exception) {
+            throw (ConnectionFailedException) exception.getCause();
+        }
+    }
+
+    /**
+     * Disconnects the {@link DeliveryClient} from the {@link de.antibotdeluxe.delivery.server.DeliveryServer} without blocking and
+     * shuts down the {@link EventLoopGroup}, followed by the {@link DeliveryHandlerExecutor} of the {@link DeliveryEventManager}.
+     * Afterwards it can connect again. A connect which is still pending is aborted and its
+     * future fails with a {@link ConnectionFailedException}.
+     *
+     * @return future which completes as soon as the {@link EventLoopGroup} is terminated
+     */
+    public synchronized CompletableFuture<Void> disconnect() {
+        LOGGER.log(Level.SEVERE, () -> "Closing connection...");
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        if (this.connectFuture != null) {
+            if (!this.connectAttempt.cancel(false))
+                futures.add(Utility.toCompletableFuture(this.connectAttempt.channel().close()));
+            this.connectFuture.completeExceptionally(new ConnectionFailedException(this.connectHost, this.connectPort,
+                    new ClosedChannelException()));
+            this.connectFuture = null;
+            this.connectAttempt = null;
+        }
+        if (this.channel != null)
+            futures.add(Utility.toCompletableFuture(this.channel.close()));
+        if (this.masterGroup != null)
+            futures.add(Utility.toCompletableFuture(this.masterGroup.shutdownGracefully(0, 15, TimeUnit.SECONDS)));
+        this.channel = null;
+        this.masterGroup = null;
+        CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        DeliveryHandlerExecutor executor = this.eventManager.detachExecutor();
+        if (executor != null)
+            future = future.whenComplete((ignored, throwable) -> executor.shutdown());
+        future.thenRun(() -> LOGGER.log(Level.SEVERE, () -> "Successfully closed connection!"));
+        return future;
     }
 
     /**
      * Disconnects the {@link DeliveryClient} from the {@link de.antibotdeluxe.delivery.server.DeliveryServer}.
      */
     public void disconnectClient() {
-        LOGGER.log(Level.SEVERE, () -> "Closing connection...");
-        this.channel.disconnect();
-        this.channel.close();
-        this.masterGroup.shutdownGracefully();
-        LOGGER.log(Level.SEVERE, () -> "Successfully closed connection!");
+        this.disconnect();
     }
 
     /**
@@ -105,6 +263,96 @@ public class DeliveryClient {
         getChannel().writeAndFlush(deliveryPacket);
     }
 
+    /**
+     * Queues a {@link DeliveryPacket} for the {@link de.antibotdeluxe.delivery.server.DeliveryServer} without flushing it. It is
+     * sent as soon as the {@link DeliveryFlushPolicy} decides so or <code>flush()</code> is called.
+     *
+     * @param deliveryPacket
+     *          {@link DeliveryPacket} which should be sent
+     */
+    public void queueDeliveryPacket(DeliveryPacket deliveryPacket) {
+        if (deliveryPacket == null)
+            throw new NullPointerException();
+        getChannel().write(deliveryPacket);
+    }
+
+    /**
+     * Sends a {@link DeliveryPacket} as request to the {@link de.antibotdeluxe.delivery.server.DeliveryServer} and waits for the
+     * response, which is sent by a {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler} of the server with
+     * {@link de.antibotdeluxe.delivery.codec.DeliveryReply}. Any amount of requests can be in flight at the same time.
+     * <p>
+     * <strong>Note</strong><br>
+     * The future is completed on the event loop of the connection, blocking work should be moved to the async variants of the
+     * {@link CompletableFuture}. A {@link de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket} response has to be released by
+     * the caller once it was handled.
+     *
+     * @param deliveryPacket
+     *          {@link DeliveryPacket} which should be sent
+     * @param timeout
+     *          time to wait for the response
+     * @param <R>
+     *          type of the expected response
+     * @return future which completes with the response or a
+     *          {@link de.antibotdeluxe.delivery.misc.exceptions.RequestTimeoutException}
+     */
+    public <R extends DeliveryPacket> CompletableFuture<R> request(DeliveryPacket deliveryPacket, Duration timeout) {
+        if (deliveryPacket == null)
+            throw new NullPointerException();
+        Channel channel = getChannel();
+        return channel.pipeline().get(DeliveryCorrelationHandler.class).request(channel, deliveryPacket, timeout);
+    }
+
+    /**
+     * Sends the content of a file to the {@link de.antibotdeluxe.delivery.server.DeliveryServer} without loading it into memory. The
+     * server writes it into the file provided by its {@link DeliveryFileReceiver}.
+     *
+     * @param file
+     *          {@link Path} of the file which should be sent
+     * @return ChannelFuture which completes as soon as the whole file was written
+     * @throws IOException
+     *          if the file can't be opened
+     */
+    public ChannelFuture sendFile(Path file) throws IOException {
+        return DeliveryFileTransfer.send(getChannel(), file);
+    }
+
+    /**
+     * Sends the bytes of the {@link InputStream} as stream of chunks to the {@link de.antibotdeluxe.delivery.server.DeliveryServer},
+     * which passes them chunk by chunk to its {@link DeliveryStreamReceiver}. The next chunk is only read while the connection is
+     * writable, so the payload can be of any size.
+     *
+     * @param header
+     *          registered {@link DeliveryPacket} describing the stream
+     * @param source
+     *          {@link InputStream} the bytes are read from, closed once it was sent
+     * @return ChannelFuture which completes as soon as the whole stream was written
+     */
+    public ChannelFuture sendStream(DeliveryPacket header, InputStream source) {
+        return DeliveryStreamTransfer.send(getChannel(), header, source);
+    }
+
+    /**
+     * Returns a {@link java.util.concurrent.Flow.Publisher} of the {@link DeliveryPacket}'s of the type received from the
+     * {@link de.antibotdeluxe.delivery.server.DeliveryServer}. The connection stops being read while the subscriber has no demand left,
+     * so a slow consumer throttles the connection instead of buffering without limit.
+     *
+     * @param packetClass
+     *          type of the {@link DeliveryPacket}
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     * @return DeliveryPacketPublisher
+     */
+    public <T extends DeliveryPacket> DeliveryPacketPublisher<T> getPublisher(Class<T> packetClass) {
+        return DeliveryPacketPublisher.of(this.eventManager, getChannel(), packetClass);
+    }
+
+    /**
+     * Flushes all queued {@link DeliveryPacket}'s to the {@link de.antibotdeluxe.delivery.server.DeliveryServer}.
+     */
+    public void flush() {
+        getChannel().flush();
+    }
+
     /**
      * Returns the {@link de.antibotdeluxe.delivery.server.DeliveryServer} host address.
      *
@@ -129,7 +377,8 @@ public class DeliveryClient {
 
         /**
          * Calls {@link DeliveryEventManager} which then calls the {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s for the
-         * correct {@link DeliveryPacket}.
+         * correct {@link DeliveryPacket}. A {@link DeliveryRecyclablePacket} or {@link DeliveryLazyPacket} is
+         * released afterwards.
          *
          * @param ctx
          *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
@@ -138,7 +387,36 @@ public class DeliveryClient {
          */
         @Override
         protected void channelRead0(ChannelHandlerContext ctx, DeliveryPacket msg) {
-            this.client.getEventManager().callHandlers(msg, ctx);
+            try {
+                this.client.getEventManager().callHandlers(msg, ctx);
+            } finally {
+                if (msg instanceof DeliveryRecyclablePacket)
+                    ((DeliveryRecyclablePacket) msg).release();
+                else if (msg instanceof DeliveryLazyPacket)
+                    ((DeliveryLazyPacket) msg).release();
+            }
+        }
+
+        /**
+         * Lets the {@link DeliveryEventManager} handle the batches collected during the read cycle.
+         *
+         * @param ctx
+         *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+         */
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            this.client.getEventManager().readComplete(ctx);
+        }
+
+        /**
+         * Lets the {@link DeliveryEventManager} handle the remaining batches of the lost connection.
+         *
+         * @param ctx
+         *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+         */
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            this.client.getEventManager().channelInactive(ctx);
         }
 
     }
@@ -161,19 +439,173 @@ public class DeliveryClient {
         return this.eventManager;
     }
 
+    /**
+     * Returns the maximum size of a single frame in bytes.
+     *
+     * @return maximum frame size
+     */
+    public int getMaxFrameSize() {
+        return this.maxFrameSize;
+    }
+
+    /**
+     * Sets the maximum size of a single frame in bytes. Has to be set before connecting.
+     *
+     * @param maxFrameSize
+     *          maximum frame size, has to be positive
+     */
+    public void setMaxFrameSize(int maxFrameSize) {
+        if (maxFrameSize <= 0)
+            throw new IllegalArgumentException("The maximum frame size has to be positive {maxFrameSize: " + maxFrameSize + "}");
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Returns whether outgoing frames are written to direct buffers instead of heap buffers.
+     *
+     * @return Boolean whether direct buffers are preferred
+     */
+    public boolean isPreferDirectBuffers() {
+        return this.preferDirectBuffers;
+    }
+
+    /**
+     * Sets whether outgoing frames are written to direct buffers, which is the default, or to heap buffers.<br>
+     * Has to be set before connecting.
+     *
+     * @param preferDirectBuffers
+     *          whether direct buffers should be preferred
+     */
+    public void setPreferDirectBuffers(boolean preferDirectBuffers) {
+        this.preferDirectBuffers = preferDirectBuffers;
+    }
+
+    /**
+     * Returns the {@link DeliveryFileReceiver} which decides where received files are written to.
+     *
+     * @return file receiver or <code>null</code> if received files are dropped
+     */
+    public DeliveryFileReceiver getFileReceiver() {
+        return this.fileReceiver;
+    }
+
+    /**
+     * Sets the {@link DeliveryFileReceiver} which decides where received files are written to. Takes effect on the next connect.
+     *
+     * @param fileReceiver
+     *          file receiver, <code>null</code> to drop received files
+     */
+    public void setFileReceiver(DeliveryFileReceiver fileReceiver) {
+        this.fileReceiver = fileReceiver;
+    }
+
+    /**
+     * Returns the {@link DeliveryStreamReceiver} which processes received streams.
+     *
+     * @return stream receiver or <code>null</code> if received streams are dropped
+     */
+    public DeliveryStreamReceiver getStreamReceiver() {
+        return this.streamReceiver;
+    }
+
+    /**
+     * Sets the {@link DeliveryStreamReceiver} which processes received streams. Takes effect on the next connect.
+     *
+     * @param streamReceiver
+     *          stream receiver, <code>null</code> to drop received streams
+     */
+    public void setStreamReceiver(DeliveryStreamReceiver streamReceiver) {
+        this.streamReceiver = streamReceiver;
+    }
+
+    /**
+     * Returns the {@link DeliveryFlushPolicy} which decides when queued {@link DeliveryPacket}'s are flushed.
+     *
+     * @return flush policy
+     */
+    public DeliveryFlushPolicy getFlushPolicy() {
+        return this.flushPolicy;
+    }
+
+    /**
+     * Sets the {@link DeliveryFlushPolicy} which decides when queued {@link DeliveryPacket}'s are flushed. Takes effect on the next
+     * connect.
+     *
+     * @param flushPolicy
+     *          flush policy
+     */
+    public void setFlushPolicy(DeliveryFlushPolicy flushPolicy) {
+        if (flushPolicy == null)
+            throw new NullPointerException("The flush policy must not be null");
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Returns the {@link DeliveryCompression} the {@link DeliveryClient} prefers.
+     *
+     * @return preferred compression
+     */
+    public DeliveryCompression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Sets the {@link DeliveryCompression} the {@link DeliveryClient} prefers. It is only used if the
+     * {@link de.antibotdeluxe.delivery.server.DeliveryServer} has no preference itself. Takes effect on the next connect.
+     *
+     * @param compression
+     *          preferred compression
+     */
+    public void setCompression(DeliveryCompression compression) {
+        if (compression == null)
+            throw new NullPointerException("The compression must not be null");
+        this.compression = compression;
+    }
+
+    /**
+     * Returns the minimum size of a payload in bytes before it gets compressed.
+     *
+     * @return compression threshold
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of a payload in bytes before it gets compressed. Takes effect on the next connect.
+     *
+     * @param compressionThreshold
+     *          compression threshold, must not be negative
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0)
+            throw new IllegalArgumentException("The compression threshold must not be negative {compressionThreshold: "
+                    + compressionThreshold + "}");
+        this.compressionThreshold = compressionThreshold;
+    }
+
     /**
      * Return the {@link EventLoopGroup}
      *
-     * @return EventLoopGroup
+     * @return EventLoopGroup or <code>null</code> if the {@link DeliveryClient} never connected
      */
     public EventLoopGroup getMasterGroup() {
         return this.masterGroup;
     }
 
+    /**
+     * Returns the {@link DeliveryClientConfig} with the network settings of the {@link DeliveryClient}.
+     *
+     * @return DeliveryClientConfig
+     */
+    public DeliveryClientConfig getConfig() {
+        return this.config;
+    }
+
     /**
      * Returns the {@link Channel} with the current active connection.
      *
-     * @return Channel
+     * @return Channel or <code>null</code> if the {@link DeliveryClient} is not connected
      */
     public Channel getChannel() {
         return this.channel;
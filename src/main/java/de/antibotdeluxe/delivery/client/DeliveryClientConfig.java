@@ -0,0 +1,266 @@
+package de.antibotdeluxe.delivery.client;
+
+import de.antibotdeluxe.delivery.misc.DeliveryTransport;
+import de.antibotdeluxe.delivery.misc.exceptions.TransportUnavailableException;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable network settings of a {@link DeliveryClient}: the {@link DeliveryTransport}, the amount of threads and the
+ * {@link ChannelOption}'s of the connection. Everything which is not set keeps the default of
+ * <a target="_blank" href="http://netty.io">Netty.io</a>.
+ * <p>
+ * Options which only exist for epoll, e.g. <code>TCP_QUICKACK</code>, are ignored with a warning by the other transports.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryClientConfig {
+
+    private final DeliveryTransport transport;
+    private final int threads;
+    private final Map<ChannelOption<?>, Object> options;
+
+    private DeliveryClientConfig(Builder builder) {
+        this.transport = builder.transport;
+        this.threads = builder.threads;
+        this.options = Collections.unmodifiableMap(new LinkedHashMap<>(builder.options));
+    }
+
+    /**
+     * Returns a {@link DeliveryClientConfig} which keeps every default.
+     *
+     * @return DeliveryClientConfig
+     */
+    public static DeliveryClientConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a new {@link Builder} starting with the defaults.
+     *
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Applies the {@link ChannelOption}'s to the {@link Bootstrap}.
+     *
+     * @param bootstrap
+     *          {@link Bootstrap} of the {@link DeliveryClient}
+     */
+    @SuppressWarnings("unchecked")
+    void apply(Bootstrap bootstrap) {
+        this.options.forEach((option, value) -> bootstrap.option((ChannelOption<Object>) option, value));
+    }
+
+    /**
+     * Returns the {@link DeliveryTransport} the {@link DeliveryClient} runs on.
+     *
+     * @return DeliveryTransport
+     */
+    public DeliveryTransport getTransport() {
+        return this.transport;
+    }
+
+    /**
+     * Returns the amount of threads of the {@link io.netty.channel.EventLoopGroup}.
+     *
+     * @return amount of threads, <code>0</code> for twice the amount of cores
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Returns the {@link ChannelOption}'s of the connection.
+     *
+     * @return unmodifiable map of the options
+     */
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Collects the settings of a {@link DeliveryClientConfig}.
+     */
+    public static final class Builder {
+
+        private DeliveryTransport transport = DeliveryTransport.getDefault();
+        private int threads = 1;
+        private final Map<ChannelOption<?>, Object> options = new LinkedHashMap<>();
+
+        private Builder() { }
+
+        /**
+         * Sets the {@link DeliveryTransport}, the fastest available one is used by default.
+         *
+         * @param transport
+         *          {@link DeliveryTransport}
+         * @return this Builder
+         * @throws TransportUnavailableException
+         *          if the {@link DeliveryTransport} is not available on this machine
+         */
+        public Builder transport(DeliveryTransport transport) {
+            if (!transport.isAvailable())
+                throw new TransportUnavailableException(transport, null);
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sets the amount of threads of the {@link io.netty.channel.EventLoopGroup}. A single connection only ever uses one of them.
+         *
+         * @param threads
+         *          amount of threads, <code>0</code> for twice the amount of cores
+         * @return this Builder
+         */
+        public Builder threads(int threads) {
+            if (threads < 0)
+                throw new IllegalArgumentException("The amount of threads must not be negative {threads: " + threads + "}");
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets how long connecting may take before it fails.
+         *
+         * @param connectTimeoutMillis
+         *          timeout in milliseconds
+         * @return this Builder
+         */
+        public Builder connectTimeoutMillis(int connectTimeoutMillis) {
+            return this.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis);
+        }
+
+        /**
+         * Enables or disables Nagle's algorithm. Disabling it lowers the latency of small writes.
+         *
+         * @param tcpNoDelay
+         *          <code>true</code> to send small writes right away
+         * @return this Builder
+         */
+        public Builder tcpNoDelay(boolean tcpNoDelay) {
+            return this.option(ChannelOption.TCP_NODELAY, tcpNoDelay);
+        }
+
+        /**
+         * Sets the size of the socket send buffer.
+         *
+         * @param sendBufferSize
+         *          size in bytes
+         * @return this Builder
+         */
+        public Builder sendBufferSize(int sendBufferSize) {
+            return this.option(ChannelOption.SO_SNDBUF, sendBufferSize);
+        }
+
+        /**
+         * Sets the size of the socket receive buffer.
+         *
+         * @param receiveBufferSize
+         *          size in bytes
+         * @return this Builder
+         */
+        public Builder receiveBufferSize(int receiveBufferSize) {
+            return this.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        }
+
+        /**
+         * Sets the amount of pending outbound bytes at which the connection turns unwritable and writable again.
+         *
+         * @param low
+         *          bytes below which the connection turns writable again
+         * @param high
+         *          bytes above which the connection turns unwritable
+         * @return this Builder
+         */
+        public Builder writeBufferWaterMark(int low, int high) {
+            return this.option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(low, high));
+        }
+
+        /**
+         * Sets the {@link RecvByteBufAllocator} which decides how large the buffers for reading the connection are.
+         *
+         * @param allocator
+         *          {@link RecvByteBufAllocator}, e.g. a <code>FixedRecvByteBufAllocator</code> for equally sized frames
+         * @return this Builder
+         */
+        public Builder receiveBufferAllocator(RecvByteBufAllocator allocator) {
+            return this.option(ChannelOption.RCVBUF_ALLOCATOR, allocator);
+        }
+
+        /**
+         * Sets the {@link ByteBufAllocator} of the connection.
+         *
+         * @param allocator
+         *          {@link ByteBufAllocator}
+         * @return this Builder
+         */
+        public Builder allocator(ByteBufAllocator allocator) {
+            return this.option(ChannelOption.ALLOCATOR, allocator);
+        }
+
+        /**
+         * Enables or disables delayed acknowledgements, epoll only.
+         *
+         * @param tcpQuickAck
+         *          <code>true</code> to acknowledge received segments right away
+         * @return this Builder
+         */
+        public Builder tcpQuickAck(boolean tcpQuickAck) {
+            return this.option(EpollChannelOption.TCP_QUICKACK, tcpQuickAck);
+        }
+
+        /**
+         * Enables or disables TCP Fast Open while connecting, epoll only.
+         *
+         * @param tcpFastOpen
+         *          <code>true</code> to send data with the SYN if the server supports it
+         * @return this Builder
+         */
+        public Builder tcpFastOpen(boolean tcpFastOpen) {
+            return this.option(EpollChannelOption.TCP_FASTOPEN_CONNECT, tcpFastOpen);
+        }
+
+        /**
+         * Sets any {@link ChannelOption} of the connection.
+         *
+         * @param option
+         *          {@link ChannelOption}
+         * @param value
+         *          value of the option, <code>null</code> to remove it
+         * @param <T>
+         *          Type of the value
+         * @return this Builder
+         */
+        public <T> Builder option(ChannelOption<T> option, T value) {
+            if (value == null)
+                this.options.remove(option);
+            else
+                this.options.put(option, value);
+            return this;
+        }
+
+        /**
+         * Creates the {@link DeliveryClientConfig}.
+         *
+         * @return DeliveryClientConfig
+         */
+        public DeliveryClientConfig build() {
+            return new DeliveryClientConfig(this);
+        }
+
+    }
+
+}
@@ -1,10 +1,19 @@
 package de.antibotdeluxe.delivery.codec;
 
-import de.antibotdeluxe.delivery.misc.Utility;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.CorruptedFrameException;
 
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Class holds additional methods and provides easier access to the original ByteBuf by
@@ -133,32 +142,232 @@ public class DeliveryByteBuf {
     }
 
     /**
-     * Writes a {@link String} to the {@link ByteBuf}
+     * Writes a {@link Float} to the {@link ByteBuf}
+     *
+     * @param param
+     *          {@link Float} which should be written to the {@link ByteBuf}
+     */
+    public void writeFloat(float param) {
+        this.buf.writeFloat(param);
+    }
+
+    /**
+     * Will return a {@link Float} which was red from the {@link ByteBuf}.
+     *
+     * @return {@link Float} from the {@link ByteBuf}
+     */
+    public float readFloat() {
+        return this.buf.readFloat();
+    }
+
+    /**
+     * Writes a {@link Double} to the {@link ByteBuf}
+     *
+     * @param param
+     *          {@link Double} which should be written to the {@link ByteBuf}
+     */
+    public void writeDouble(double param) {
+        this.buf.writeDouble(param);
+    }
+
+    /**
+     * Will return a {@link Double} which was red from the {@link ByteBuf}.
+     *
+     * @return {@link Double} from the {@link ByteBuf}
+     */
+    public double readDouble() {
+        return this.buf.readDouble();
+    }
+
+    /**
+     * Writes an {@link Integer} as <code>VarInt</code> to the {@link ByteBuf}.<br>
+     * Small positive values take up less bytes than with <code>writeInt(int param)</code>, negative values always take up 5 bytes
+     * and should be written with <code>writeSignedVarInt(int param)</code> instead.
+     *
+     * @param param
+     *          {@link Integer} which should be written to the {@link ByteBuf}
+     */
+    public void writeVarInt(int param) {
+        writeVarInt(this.buf, param);
+    }
+
+    /**
+     * Will return an {@link Integer} which was written as <code>VarInt</code> and red from the {@link ByteBuf}.
+     *
+     * @return {@link Integer} from the {@link ByteBuf}
+     */
+    public int readVarInt() {
+        return readVarInt(this.buf);
+    }
+
+    /**
+     * Writes a {@link Long} as <code>VarLong</code> to the {@link ByteBuf}.<br>
+     * Small positive values take up less bytes than with <code>writeLong(long param)</code>, negative values always take up 10 bytes
+     * and should be written with <code>writeSignedVarLong(long param)</code> instead.
+     *
+     * @param param
+     *          {@link Long} which should be written to the {@link ByteBuf}
+     */
+    public void writeVarLong(long param) {
+        writeVarLong(this.buf, param);
+    }
+
+    /**
+     * Will return a {@link Long} which was written as <code>VarLong</code> and red from the {@link ByteBuf}.
+     *
+     * @return {@link Long} from the {@link ByteBuf}
+     */
+    public long readVarLong() {
+        return readVarLong(this.buf);
+    }
+
+    /**
+     * Writes an {@link Integer} <code>ZigZag</code> encoded as <code>VarInt</code> to the {@link ByteBuf}, so values close to zero
+     * take up less bytes whether they are positive or negative.
+     *
+     * @param param
+     *          {@link Integer} which should be written to the {@link ByteBuf}
+     */
+    public void writeSignedVarInt(int param) {
+        writeVarInt(this.buf, (param << 1) ^ (param >> 31));
+    }
+
+    /**
+     * Will return an {@link Integer} which was written <code>ZigZag</code> encoded and red from the {@link ByteBuf}.
+     *
+     * @return {@link Integer} from the {@link ByteBuf}
+     */
+    public int readSignedVarInt() {
+        int value = readVarInt(this.buf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a {@link Long} <code>ZigZag</code> encoded as <code>VarLong</code> to the {@link ByteBuf}, so values close to zero
+     * take up less bytes whether they are positive or negative.
+     *
+     * @param param
+     *          {@link Long} which should be written to the {@link ByteBuf}
+     */
+    public void writeSignedVarLong(long param) {
+        writeVarLong(this.buf, (param << 1) ^ (param >> 63));
+    }
+
+    /**
+     * Will return a {@link Long} which was written <code>ZigZag</code> encoded and red from the {@link ByteBuf}.
+     *
+     * @return {@link Long} from the {@link ByteBuf}
+     */
+    public long readSignedVarLong() {
+        long value = readVarLong(this.buf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a {@link String} UTF-8 encoded to the {@link ByteBuf}.<br>
+     * The amount of bytes is written as <code>VarInt</code> in front of the characters which are encoded straight into the
+     * {@link ByteBuf} without an intermediate array. An empty {@link String} is written as length <code>0</code>.
      *
      * @param param
      *          {@link String} which should be written to the {@link ByteBuf}
      */
     public void writeString(String param) {
-        if (param == null || param.isEmpty())
-            throw new NullPointerException("The given parameter which should be written in the DeliveryByteBuf is empty or null");
-        this.buf.writeInt(param.length());
-        this.buf.writeBytes(param.getBytes());
+        if (param == null)
+            throw new NullPointerException("The given parameter which should be written in the DeliveryByteBuf is null");
+        int length = ByteBufUtil.utf8Bytes(param);
+        writeVarInt(this.buf, length);
+        ByteBufUtil.reserveAndWriteUtf8(this.buf, param, length);
     }
 
     /**
      * Will return a {@link String} which was red from the {@link ByteBuf}.
      *
-     * @return {@link Long} from the {@link ByteBuf}
+     * @return {@link String} from the {@link ByteBuf}
      */
     public String readString() {
-        int length = this.buf.readInt();
-        byte[] bytes = new byte[length];
-        this.buf.readBytes(bytes, 0, length);
-        return new String(bytes, StandardCharsets.UTF_8);
+        int length = this.readStringLength();
+        String value = this.buf.toString(this.buf.readerIndex(), length, StandardCharsets.UTF_8);
+        this.buf.skipBytes(length);
+        return value;
+    }
+
+    /**
+     * Will return a {@link String} which was red from the {@link ByteBuf}. If the same {@link String} was already red before and is
+     * still stored in the given {@link DeliveryStringCache} the cached instance will be returned instead of decoding a new one.
+     *
+     * @param cache
+     *          {@link DeliveryStringCache} which holds the {@link String}'s that are received often
+     * @return {@link String} from the {@link ByteBuf}
+     */
+    public String readString(DeliveryStringCache cache) {
+        int length = this.readStringLength();
+        String value = cache.get(this.buf, this.buf.readerIndex(), length);
+        this.buf.skipBytes(length);
+        return value;
     }
 
     /**
-     * Writes a {@link List} to the {@link ByteBuf}
+     * Will return a {@link String} written by <code>writeString(String param)</code> as {@link DeliveryCharSequence} which reads
+     * the characters from the {@link ByteBuf} without copying them.
+     * <p>
+     * <strong>Notice</strong><br>
+     * The {@link DeliveryCharSequence} is only valid until <code>read(DeliveryByteBuf buf)</code> of the {@link DeliveryPacket}
+     * returns.
+     *
+     * @return {@link DeliveryCharSequence} from the {@link ByteBuf}
+     */
+    public DeliveryCharSequence readCharSequence() {
+        int length = this.readStringLength();
+        DeliveryCharSequence value = new DeliveryCharSequence(this.buf, this.buf.readerIndex(), length);
+        this.buf.skipBytes(length);
+        return value;
+    }
+
+    /**
+     * Reads the amount of bytes of the next {@link String} and checks if they are available.
+     *
+     * @return amount of bytes
+     */
+    private int readStringLength() {
+        int length = readVarInt(this.buf);
+        if (length < 0 || length > this.buf.readableBytes())
+            throw new CorruptedFrameException("The length of the String exceeds the readable bytes {length: " + length + "}");
+        return length;
+    }
+
+    /**
+     * Writes an {@link Enum} constant as <code>VarInt</code> of its ordinal to the {@link ByteBuf}.
+     *
+     * @param param
+     *          {@link Enum} constant which should be written to the {@link ByteBuf}
+     * @param <E>
+     *          Type of the {@link Enum}
+     */
+    public <E extends Enum<E>> void writeEnum(E param) {
+        writeVarInt(this.buf, param.ordinal());
+    }
+
+    /**
+     * Will return an {@link Enum} constant whose ordinal was written as <code>VarInt</code> and red from the {@link ByteBuf}.
+     *
+     * @param values
+     *          constants of the {@link Enum} in the order of their ordinals, usually cached from <code>values()</code>
+     * @param <E>
+     *          Type of the {@link Enum}
+     * @return {@link Enum} constant from the {@link ByteBuf}
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        int ordinal = readVarInt(this.buf);
+        if (ordinal < 0 || ordinal >= values.length)
+            throw new CorruptedFrameException("The ordinal of the Enum is out of range {ordinal: " + ordinal + ", constants: "
+                    + values.length + "}");
+        return values[ordinal];
+    }
+
+    /**
+     * Writes a {@link List} to the {@link ByteBuf}.<br>
+     * Every element is written as {@link String} by calling <code>toString()</code>, so the type of the elements is lost. Use
+     * <code>writeList(List list, DeliveryElementCodec codec)</code> to keep the type.
      *
      * @param param
      *          {@link List} which should be written to the {@link ByteBuf}
@@ -166,7 +375,9 @@ public class DeliveryByteBuf {
      *          Type of the {@link List}
      */
     public <T> void writeList(List<T> param) {
-        this.writeString(Utility.convertListToString(param));
+        writeVarInt(this.buf, param.size());
+        for (T element : param)
+            this.writeString(element.toString());
     }
 
     /**
@@ -175,7 +386,374 @@ public class DeliveryByteBuf {
      * @return {@link List} from the {@link ByteBuf}
      */
     public List<String> readList() {
-        return Utility.convertStringToList(this.readString());
+        return this.readList(DeliveryElementCodec.STRING);
+    }
+
+    /**
+     * Writes a {@link List} to the {@link ByteBuf}. The amount of elements is written in front of the elements.
+     *
+     * @param param
+     *          {@link List} which should be written to the {@link ByteBuf}
+     * @param codec
+     *          {@link DeliveryElementCodec} which writes the single elements
+     * @param <T>
+     *          Type of the elements
+     */
+    public <T> void writeList(List<T> param, DeliveryElementCodec<T> codec) {
+        this.writeCollection(param, codec);
+    }
+
+    /**
+     * Will return a {@link List} which was written by <code>writeList(List list, DeliveryElementCodec codec)</code> and red from the
+     * {@link ByteBuf}.
+     *
+     * @param codec
+     *          {@link DeliveryElementCodec} which reads the single elements
+     * @param <T>
+     *          Type of the elements
+     * @return {@link List} from the {@link ByteBuf}
+     */
+    public <T> List<T> readList(DeliveryElementCodec<T> codec) {
+        int size = this.readCollectionSize();
+        List<T> list = new ArrayList<>(Math.min(size, this.buf.readableBytes()));
+        for (int i = 0; i < size; i++)
+            list.add(codec.read(this));
+        return list;
+    }
+
+    /**
+     * Writes a {@link Set} to the {@link ByteBuf}. The amount of elements is written in front of the elements.
+     *
+     * @param param
+     *          {@link Set} which should be written to the {@link ByteBuf}
+     * @param codec
+     *          {@link DeliveryElementCodec} which writes the single elements
+     * @param <T>
+     *          Type of the elements
+     */
+    public <T> void writeSet(Set<T> param, DeliveryElementCodec<T> codec) {
+        this.writeCollection(param, codec);
+    }
+
+    /**
+     * Will return a {@link Set} which was written by <code>writeSet(Set set, DeliveryElementCodec codec)</code> and red from the
+     * {@link ByteBuf}.
+     *
+     * @param codec
+     *          {@link DeliveryElementCodec} which reads the single elements
+     * @param <T>
+     *          Type of the elements
+     * @return {@link Set} from the {@link ByteBuf}
+     */
+    public <T> Set<T> readSet(DeliveryElementCodec<T> codec) {
+        int size = this.readCollectionSize();
+        Set<T> set = new HashSet<>(hashCapacity(size));
+        for (int i = 0; i < size; i++)
+            set.add(codec.read(this));
+        return set;
+    }
+
+    /**
+     * Writes a {@link Map} to the {@link ByteBuf}. The amount of entries is written in front of the entries.
+     *
+     * @param param
+     *          {@link Map} which should be written to the {@link ByteBuf}
+     * @param keyCodec
+     *          {@link DeliveryElementCodec} which writes the keys
+     * @param valueCodec
+     *          {@link DeliveryElementCodec} which writes the values
+     * @param <K>
+     *          Type of the keys
+     * @param <V>
+     *          Type of the values
+     */
+    public <K, V> void writeMap(Map<K, V> param, DeliveryElementCodec<K> keyCodec, DeliveryElementCodec<V> valueCodec) {
+        writeVarInt(this.buf, param.size());
+        for (Map.Entry<K, V> entry : param.entrySet()) {
+            keyCodec.write(this, entry.getKey());
+            valueCodec.write(this, entry.getValue());
+        }
+    }
+
+    /**
+     * Will return a {@link Map} which was written by <code>writeMap(Map map, DeliveryElementCodec keyCodec,
+     * DeliveryElementCodec valueCodec)</code> and red from the {@link ByteBuf}.
+     *
+     * @param keyCodec
+     *          {@link DeliveryElementCodec} which reads the keys
+     * @param valueCodec
+     *          {@link DeliveryElementCodec} which reads the values
+     * @param <K>
+     *          Type of the keys
+     * @param <V>
+     *          Type of the values
+     * @return {@link Map} from the {@link ByteBuf}
+     */
+    public <K, V> Map<K, V> readMap(DeliveryElementCodec<K> keyCodec, DeliveryElementCodec<V> valueCodec) {
+        int size = this.readCollectionSize();
+        Map<K, V> map = new HashMap<>(hashCapacity(size));
+        for (int i = 0; i < size; i++)
+            map.put(keyCodec.read(this), valueCodec.read(this));
+        return map;
+    }
+
+    /**
+     * Writes a nested {@link DeliveryPacket} to the {@link ByteBuf}. The type is not written, so the reading side has to know it.
+     *
+     * @param param
+     *          {@link DeliveryPacket} which should be written to the {@link ByteBuf}
+     */
+    public void writePacket(DeliveryPacket param) {
+        param.write(this);
+    }
+
+    /**
+     * Will return a nested {@link DeliveryPacket} which was written by <code>writePacket(DeliveryPacket packet)</code> and red from
+     * the {@link ByteBuf}.
+     *
+     * @param factory
+     *          creates the empty {@link DeliveryPacket} the data will be red into
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     * @return {@link DeliveryPacket} from the {@link ByteBuf}
+     */
+    public <T extends DeliveryPacket> T readPacket(Supplier<T> factory) {
+        T packet = factory.get();
+        packet.read(this);
+        return packet;
+    }
+
+    /**
+     * Writes an {@link Integer} array to the {@link ByteBuf}. The values are copied into the {@link ByteBuf} in a single bulk
+     * operation.
+     *
+     * @param param
+     *          array which should be written to the {@link ByteBuf}
+     */
+    public void writeIntArray(int[] param) {
+        writeVarInt(this.buf, param.length);
+        int bytes = param.length * Integer.BYTES;
+        this.buf.ensureWritable(bytes);
+        if (this.buf.nioBufferCount() == 1) {
+            this.buf.nioBuffer(this.buf.writerIndex(), bytes).order(ByteOrder.BIG_ENDIAN).asIntBuffer().put(param);
+            this.buf.writerIndex(this.buf.writerIndex() + bytes);
+            return;
+        }
+        for (int value : param)
+            this.buf.writeInt(value);
+    }
+
+    /**
+     * Will return an {@link Integer} array which was red from the {@link ByteBuf}.
+     *
+     * @return array from the {@link ByteBuf}
+     */
+    public int[] readIntArray() {
+        int[] array = new int[this.readArrayLength(Integer.BYTES)];
+        int bytes = array.length * Integer.BYTES;
+        if (this.buf.nioBufferCount() == 1) {
+            this.buf.nioBuffer(this.buf.readerIndex(), bytes).order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(array);
+            this.buf.skipBytes(bytes);
+            return array;
+        }
+        for (int i = 0; i < array.length; i++)
+            array[i] = this.buf.readInt();
+        return array;
+    }
+
+    /**
+     * Writes a {@link Long} array to the {@link ByteBuf}. The values are copied into the {@link ByteBuf} in a single bulk
+     * operation.
+     *
+     * @param param
+     *          array which should be written to the {@link ByteBuf}
+     */
+    public void writeLongArray(long[] param) {
+        writeVarInt(this.buf, param.length);
+        int bytes = param.length * Long.BYTES;
+        this.buf.ensureWritable(bytes);
+        if (this.buf.nioBufferCount() == 1) {
+            this.buf.nioBuffer(this.buf.writerIndex(), bytes).order(ByteOrder.BIG_ENDIAN).asLongBuffer().put(param);
+            this.buf.writerIndex(this.buf.writerIndex() + bytes);
+            return;
+        }
+        for (long value : param)
+            this.buf.writeLong(value);
+    }
+
+    /**
+     * Will return a {@link Long} array which was red from the {@link ByteBuf}.
+     *
+     * @return array from the {@link ByteBuf}
+     */
+    public long[] readLongArray() {
+        long[] array = new long[this.readArrayLength(Long.BYTES)];
+        int bytes = array.length * Long.BYTES;
+        if (this.buf.nioBufferCount() == 1) {
+            this.buf.nioBuffer(this.buf.readerIndex(), bytes).order(ByteOrder.BIG_ENDIAN).asLongBuffer().get(array);
+            this.buf.skipBytes(bytes);
+            return array;
+        }
+        for (int i = 0; i < array.length; i++)
+            array[i] = this.buf.readLong();
+        return array;
+    }
+
+    /**
+     * Writes a {@link Double} array to the {@link ByteBuf}. The values are copied into the {@link ByteBuf} in a single bulk
+     * operation.
+     *
+     * @param param
+     *          array which should be written to the {@link ByteBuf}
+     */
+    public void writeDoubleArray(double[] param) {
+        writeVarInt(this.buf, param.length);
+        int bytes = param.length * Double.BYTES;
+        this.buf.ensureWritable(bytes);
+        if (this.buf.nioBufferCount() == 1) {
+            this.buf.nioBuffer(this.buf.writerIndex(), bytes).order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().put(param);
+            this.buf.writerIndex(this.buf.writerIndex() + bytes);
+            return;
+        }
+        for (double value : param)
+            this.buf.writeDouble(value);
+    }
+
+    /**
+     * Will return a {@link Double} array which was red from the {@link ByteBuf}.
+     *
+     * @return array from the {@link ByteBuf}
+     */
+    public double[] readDoubleArray() {
+        double[] array = new double[this.readArrayLength(Double.BYTES)];
+        int bytes = array.length * Double.BYTES;
+        if (this.buf.nioBufferCount() == 1) {
+            this.buf.nioBuffer(this.buf.readerIndex(), bytes).order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().get(array);
+            this.buf.skipBytes(bytes);
+            return array;
+        }
+        for (int i = 0; i < array.length; i++)
+            array[i] = this.buf.readDouble();
+        return array;
+    }
+
+    /**
+     * Writes the amount of elements followed by every element of the {@link Collection}.
+     */
+    private <T> void writeCollection(Collection<T> param, DeliveryElementCodec<T> codec) {
+        writeVarInt(this.buf, param.size());
+        for (T element : param)
+            codec.write(this, element);
+    }
+
+    /**
+     * Reads the amount of elements of a collection.<br>
+     * The amount is only used as initial capacity up to the amount of readable bytes, so a corrupted amount is not able to allocate a
+     * huge collection.
+     */
+    private int readCollectionSize() {
+        int size = readVarInt(this.buf);
+        if (size < 0)
+            throw new CorruptedFrameException("Negative collection size {size: " + size + "}");
+        return size;
+    }
+
+    /**
+     * Reads the length of a primitive array and checks if all of its elements are available.
+     */
+    private int readArrayLength(int elementSize) {
+        int length = readVarInt(this.buf);
+        if (length < 0 || (long) length * elementSize > this.buf.readableBytes())
+            throw new CorruptedFrameException("The length of the array exceeds the readable bytes {length: " + length + "}");
+        return length;
+    }
+
+    private int hashCapacity(int size) {
+        return (int) (Math.min(size, this.buf.readableBytes()) / 0.75f) + 1;
+    }
+
+    /**
+     * Returns the amount of bytes the given value takes up as <code>VarInt</code>.
+     *
+     * @param value
+     *          Value which should be measured
+     * @return Amount of bytes between 1 and 5
+     */
+    static int varIntSize(int value) {
+        if ((value & 0xFFFFFF80) == 0) return 1;
+        if ((value & 0xFFFFC000) == 0) return 2;
+        if ((value & 0xFFE00000) == 0) return 3;
+        if ((value & 0xF0000000) == 0) return 4;
+        return 5;
+    }
+
+    /**
+     * Writes the given value as <code>VarInt</code> (7 bits per byte, the highest bit marks that another byte follows) to the
+     * {@link ByteBuf}.
+     *
+     * @param buf
+     *          {@link ByteBuf} the value should be written to
+     * @param value
+     *          Value which should be written
+     */
+    static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & 0xFFFFFF80) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    /**
+     * Reads a <code>VarInt</code> from the {@link ByteBuf}.
+     *
+     * @param buf
+     *          {@link ByteBuf} the value should be red from
+     * @return Value which was red
+     */
+    static int readVarInt(ByteBuf buf) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte current = buf.readByte();
+            result |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0)
+                return result;
+        }
+        throw new CorruptedFrameException("VarInt is longer than 5 bytes");
+    }
+
+    /**
+     * Writes the given value as <code>VarLong</code> to the {@link ByteBuf}.
+     *
+     * @param buf
+     *          {@link ByteBuf} the value should be written to
+     * @param value
+     *          Value which should be written
+     */
+    static void writeVarLong(ByteBuf buf, long value) {
+        while ((value & 0xFFFFFFFFFFFFFF80L) != 0) {
+            buf.writeByte(((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte((int) value);
+    }
+
+    /**
+     * Reads a <code>VarLong</code> from the {@link ByteBuf}.
+     *
+     * @param buf
+     *          {@link ByteBuf} the value should be red from
+     * @return Value which was red
+     */
+    static long readVarLong(ByteBuf buf) {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte current = buf.readByte();
+            result |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0)
+                return result;
+        }
+        throw new CorruptedFrameException("VarLong is longer than 10 bytes");
     }
 
     /**
@@ -1,49 +1,338 @@
 package de.antibotdeluxe.delivery.codec;
 
+import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import de.antibotdeluxe.delivery.misc.exceptions.FrameTooLargeException;
 import de.antibotdeluxe.delivery.misc.exceptions.NoSuchPacketException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Class will decode the {@link ByteBuf} from <a target="_blank" href="http://netty.io">Netty.io</a>
  * and parse it into a {@link DeliveryByteBuf} which will then be used to create the {@link DeliveryPacket} in order to work with the data.
+ * <p>
+ * The incoming bytes are split into the frames written by the {@link DeliveryByteEncoder}. A single read may contain several frames
+ * or only a part of one, incomplete frames stay in the cumulation buffer until the remaining bytes have arrived. Compressed payloads
+ * are decompressed with the {@link DeliveryCompression} named in the flags of the frame.
+ * <p>
+ * If a {@link DeliveryEventManager} is passed, frames of {@link DeliveryPacket}'s nobody listens for are skipped without decoding or
+ * allocating anything, and {@link DeliveryPacket}'s whose handlers all accept it are passed as {@link DeliveryLazyPacket}.
+ * <p>
+ * The raw bytes following a {@link DeliveryTransferPacket} are passed on as retained slices of the received {@link ByteBuf}'s without
+ * copying them. The same applies to the chunks of a stream, which are passed on inside a {@link DeliveryStreamFrame}.
  *
  * @author jhz
  */
 @SuppressWarnings("unused")
 public class DeliveryByteDecoder extends ByteToMessageDecoder {
 
+    /**
+     * Default maximum size of a frame body in bytes (2 MiB).
+     */
+    public static final int DEFAULT_MAX_FRAME_SIZE = 2 * 1024 * 1024;
+
     private final DeliveryPacketVault vault;
+    private final int maxFrameSize;
+    private final DeliveryEventManager eventManager;
+
+    /**
+     * Amount of bytes which still have to be skipped from a frame that exceeded the maximum frame size.
+     */
+    private long bytesToDiscard;
+
+    /**
+     * Amount of raw bytes of a file transfer which still have to be passed on unframed.
+     */
+    private long transferRemaining;
+
+    /**
+     * Maps the {@link DeliveryPacket} ids of the other side to the own ones, <code>null</code> if both sides use the same ids.
+     */
+    private volatile int[] packetIdMapping;
 
     public DeliveryByteDecoder(DeliveryPacketVault vault) {
+        this(vault, DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Initialize the {@link DeliveryByteDecoder}
+     *
+     * @param vault
+     *          {@link DeliveryPacketVault} where all {@link DeliveryPacket}'s are stored.
+     * @param maxFrameSize
+     *          Maximum size of a frame body in bytes
+     */
+    public DeliveryByteDecoder(DeliveryPacketVault vault, int maxFrameSize) {
+        this(vault, maxFrameSize, null);
+    }
+
+    /**
+     * Initialize the {@link DeliveryByteDecoder}
+     *
+     * @param vault
+     *          {@link DeliveryPacketVault} where all {@link DeliveryPacket}'s are stored.
+     * @param maxFrameSize
+     *          Maximum size of a frame body in bytes
+     * @param eventManager
+     *          {@link DeliveryEventManager} which is asked if a {@link DeliveryPacket} has to be decoded at all, <code>null</code> to
+     *          decode every frame
+     */
+    public DeliveryByteDecoder(DeliveryPacketVault vault, int maxFrameSize, DeliveryEventManager eventManager) {
+        if (maxFrameSize <= 0)
+            throw new IllegalArgumentException("The maximum frame size has to be positive {maxFrameSize: " + maxFrameSize + "}");
         this.vault = vault;
+        this.maxFrameSize = maxFrameSize;
+        this.eventManager = eventManager;
     }
 
     /**
-     * Will decode the bytes from <a target="_blank" href="http://netty.io">Netty.io</a> into a {@link DeliveryPacket}.
+     * Will decode every complete frame in the bytes from <a target="_blank" href="http://netty.io">Netty.io</a> into a
+     * {@link DeliveryPacket}.
      *
      * @param ctx
      *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
      * @param in
      *          {@link ByteBuf} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
      * @param out
-     *          {@link List} the finished decoded {@link DeliveryPacket} wil be added to
+     *          {@link List} the finished decoded {@link DeliveryPacket}'s wil be added to
      * @throws Exception
      *          Exception
      */
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        int packetId = in.readInt();
-        Class<? extends DeliveryPacket> packetClass = this.vault.getPacket(packetId);
-        if (packetClass == null)
-            throw new NoSuchPacketException(packetId);
-        DeliveryPacket packet = packetClass.getDeclaredConstructor().newInstance();
-        packet.read(new DeliveryByteBuf(in));
-        in.clear();
-        out.add(packet);
+        if (this.bytesToDiscard > 0) {
+            int discard = (int) Math.min(this.bytesToDiscard, in.readableBytes());
+            in.skipBytes(discard);
+            this.bytesToDiscard -= discard;
+            if (this.bytesToDiscard > 0)
+                return;
+        }
+
+        while (in.isReadable()) {
+            if (this.transferRemaining > 0) {
+                int chunk = (int) Math.min(this.transferRemaining, in.readableBytes());
+                out.add(in.readRetainedSlice(chunk));
+                this.transferRemaining -= chunk;
+                continue;
+            }
+            int frameStart = in.readerIndex();
+            int length = readFrameLength(in);
+            if (length == -1)
+                return;
+            if (length > this.maxFrameSize) {
+                int discard = Math.min(length, in.readableBytes());
+                in.skipBytes(discard);
+                this.bytesToDiscard = length - discard;
+                throw new FrameTooLargeException(length, this.maxFrameSize);
+            }
+            if (in.readableBytes() < length) {
+                in.readerIndex(frameStart);
+                return;
+            }
+            int bodyStart = in.readerIndex();
+            if ((this.eventManager != null || this.packetIdMapping != null) && this.isUnwanted(in, bodyStart, length)) {
+                in.skipBytes(length);
+                continue;
+            }
+            ByteBuf frame = in.slice(bodyStart, length);
+            in.skipBytes(length);
+            DeliveryPacket packet = this.decodePacket(ctx, frame);
+            out.add(packet);
+            // the handshake may change how the following frames are decoded, so it's passed on before decoding them
+            if (packet instanceof DeliveryHandshakePacket)
+                return;
+        }
+    }
+
+    /**
+     * Checks whether nobody listens for the {@link DeliveryPacket} of the frame or only the other side knows it, without creating
+     * anything. Control frames, requests and responses are always decoded.
+     *
+     * @param in
+     *          {@link ByteBuf} containing the complete frame body at the given index
+     * @param bodyStart
+     *          index of the frame body
+     * @param length
+     *          length of the frame body
+     * @return <code>true</code> if the frame can be skipped
+     */
+    private boolean isUnwanted(ByteBuf in, int bodyStart, int length) {
+        if (length == 0 || (in.getUnsignedByte(bodyStart) & ~DeliveryFrame.COMPRESSION_MASK) != 0)
+            return false;
+        int end = bodyStart + length;
+        int packetId = 0;
+        for (int index = bodyStart + 1, shift = 0; index < end && shift < 35; index++, shift += 7) {
+            byte current = in.getByte(index);
+            packetId |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                int localId = this.mapPacketId(packetId);
+                if (localId == -1)
+                    return this.packetIdMapping != null;
+                Class<? extends DeliveryPacket> packetClass = this.vault.getPacket(localId);
+                return packetClass != null && this.eventManager != null && !this.eventManager.hasHandlers(packetClass);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the {@link DeliveryPacket} from the body of a single frame.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param frame
+     *          {@link ByteBuf} containing exactly one frame body
+     * @return DeliveryPacket
+     */
+    private DeliveryPacket decodePacket(ChannelHandlerContext ctx, ByteBuf frame) {
+        int flags = frame.readUnsignedByte();
+        if ((flags & DeliveryFrame.FLAG_CONTROL) != 0)
+            return this.decodeControlPacket(frame);
+        DeliveryCompression compression = DeliveryCompression.byId(flags & DeliveryFrame.COMPRESSION_MASK);
+        if (compression == null)
+            throw new CorruptedFrameException("Unknown compression {id: " + (flags & DeliveryFrame.COMPRESSION_MASK) + "}");
+
+        boolean correlated = (flags & (DeliveryFrame.FLAG_REQUEST | DeliveryFrame.FLAG_RESPONSE)) != 0;
+        int correlationId = correlated ? DeliveryByteBuf.readVarInt(frame) : 0;
+        int remoteId = DeliveryByteBuf.readVarInt(frame);
+        int packetId = this.mapPacketId(remoteId);
+        Supplier<? extends DeliveryPacket> factory = this.vault.getPacketFactory(packetId);
+        if (factory == null)
+            throw new NoSuchPacketException(remoteId);
+        if (!correlated && this.eventManager != null) {
+            Class<? extends DeliveryPacket> packetClass = this.vault.getPacket(packetId);
+            if (this.eventManager.acceptsLazyPacket(packetClass))
+                return new DeliveryLazyPacket(packetId, packetClass, factory, compression, frame.retainedSlice(), ctx.alloc(),
+                        this.maxFrameSize);
+        }
+        DeliveryPacket packet = factory.get();
+        readPayload(packet, frame, compression, ctx.alloc(), this.maxFrameSize);
+        return correlated
+                ? new DeliveryCorrelatedPacket(correlationId, (flags & DeliveryFrame.FLAG_RESPONSE) != 0, packet)
+                : packet;
+    }
+
+    private DeliveryPacket decodeControlPacket(ByteBuf frame) {
+        int controlType = frame.readUnsignedByte();
+        if (controlType == DeliveryControlPacket.STREAM)
+            return DeliveryStreamFrame.decode(frame, this);
+        DeliveryControlPacket packet;
+        switch (controlType) {
+            case DeliveryControlPacket.HANDSHAKE:
+                packet = new DeliveryHandshakePacket();
+                break;
+            case DeliveryControlPacket.TRANSFER:
+                packet = new DeliveryTransferPacket();
+                break;
+            default:
+                throw new CorruptedFrameException("Unknown control type {controlType: " + controlType + "}");
+        }
+        packet.read(new DeliveryByteBuf(frame));
+        if (packet instanceof DeliveryTransferPacket)
+            this.transferRemaining = ((DeliveryTransferPacket) packet).getLength();
+        return packet;
+    }
+
+    /**
+     * Returns the factory of the {@link DeliveryPacket} the other side sent with the given id.
+     *
+     * @param remoteId
+     *          {@link DeliveryPacket} id used by the other side
+     * @return factory or <code>null</code> if the {@link DeliveryPacket} is unknown
+     */
+    Supplier<? extends DeliveryPacket> getPacketFactory(int remoteId) {
+        return this.vault.getPacketFactory(this.mapPacketId(remoteId));
+    }
+
+    private int mapPacketId(int remoteId) {
+        int[] mapping = this.packetIdMapping;
+        if (mapping == null)
+            return remoteId;
+        return (remoteId >= 0 && remoteId < mapping.length) ? mapping[remoteId] : -1;
+    }
+
+    /**
+     * Sets the table which maps the {@link DeliveryPacket} ids of the other side to the own ones. Set by the
+     * {@link DeliveryHandshakeHandler} if the {@link DeliveryPacketVault}'s of both sides differ.
+     *
+     * @param packetIdMapping
+     *          table with the own id at the index of the id of the other side, <code>-1</code> for unknown {@link DeliveryPacket}'s.
+     *          <code>null</code> if both sides use the same ids
+     */
+    public void setPacketIdMapping(int[] packetIdMapping) {
+        this.packetIdMapping = packetIdMapping;
+    }
+
+    /**
+     * Reads the payload of a frame into the {@link DeliveryPacket} and decompresses it first if needed.
+     *
+     * @param packet
+     *          {@link DeliveryPacket} the payload is red into
+     * @param payload
+     *          {@link ByteBuf} containing the payload
+     * @param compression
+     *          {@link DeliveryCompression} of the payload
+     * @param alloc
+     *          {@link ByteBufAllocator} the decompressed payload is allocated from
+     * @param maxFrameSize
+     *          Maximum size of the decompressed payload in bytes
+     */
+    static void readPayload(DeliveryPacket packet, ByteBuf payload, DeliveryCompression compression, ByteBufAllocator alloc,
+                            int maxFrameSize) {
+        if (compression == DeliveryCompression.NONE) {
+            packet.read(new DeliveryByteBuf(payload));
+            return;
+        }
+        int length = DeliveryByteBuf.readVarInt(payload);
+        if (length < 0 || length > maxFrameSize)
+            throw new FrameTooLargeException(length, maxFrameSize);
+        ByteBuf decompressed = alloc.buffer(length, length);
+        try {
+            compression.decompress(payload, decompressed, length);
+            packet.read(new DeliveryByteBuf(decompressed));
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    /**
+     * Reads the <code>VarInt</code> length prefix of the next frame.
+     *
+     * @param in
+     *          {@link ByteBuf} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @return length of the frame body or <code>-1</code> if the prefix is not complete yet
+     */
+    private static int readFrameLength(ByteBuf in) {
+        int start = in.readerIndex();
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!in.isReadable()) {
+                in.readerIndex(start);
+                return -1;
+            }
+            byte current = in.readByte();
+            result |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                if (result < 0)
+                    throw new CorruptedFrameException("Negative frame length {length: " + result + "}");
+                return result;
+            }
+        }
+        throw new CorruptedFrameException("The frame length prefix is longer than 5 bytes");
+    }
+
+    /**
+     * Returns the maximum size of a frame body in bytes.
+     *
+     * @return maximum frame size
+     */
+    public int getMaxFrameSize() {
+        return this.maxFrameSize;
     }
 
 }
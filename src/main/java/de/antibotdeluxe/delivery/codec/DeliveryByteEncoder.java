@@ -1,6 +1,9 @@
 package de.antibotdeluxe.delivery.codec;
 
+import de.antibotdeluxe.delivery.misc.exceptions.FrameTooLargeException;
+import de.antibotdeluxe.delivery.misc.exceptions.NoSuchPacketException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
@@ -8,23 +11,78 @@ import io.netty.handler.codec.MessageToByteEncoder;
  * Class will encode the {@link DeliveryPacket} and write it to the {@link ByteBuf} so
  * <a target="_blank" href="http://netty.io">Netty.io</a> is able to transfer the raw data.
  * <p>
- * The encoding is really simple.
+ * Every {@link DeliveryPacket} is written as a single frame. The frame starts with the length of its body as <code>VarInt</code>
+ * followed by the body itself, so the {@link DeliveryByteDecoder} is able to split the stream into frames again.
+ * <p>
+ * If a {@link DeliveryCompression} is set, payloads which reach the compression threshold are compressed. A payload is only sent
+ * compressed if that actually saves bytes. See {@link DeliveryFrame} for the layout of a frame.
  *
  * @author jhz
  */
 @SuppressWarnings("unused")
 public class DeliveryByteEncoder extends MessageToByteEncoder<DeliveryPacket> {
 
+    /**
+     * Default minimum size of a payload in bytes before it gets compressed.
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 256;
+
+    /**
+     * Initial capacity of the buffer if the {@link DeliveryPacket} has no size estimate.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+
     private final DeliveryPacketVault vault;
+    private final int maxFrameSize;
+    private final boolean preferDirect;
+
+    private volatile int frameSizeLimit;
+    private volatile DeliveryCompression compression = DeliveryCompression.NONE;
+    private volatile int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
 
     public DeliveryByteEncoder(DeliveryPacketVault vault) {
+        this(vault, DeliveryByteDecoder.DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Initialize the {@link DeliveryByteEncoder}
+     *
+     * @param vault
+     *          {@link DeliveryPacketVault} where all {@link DeliveryPacket}'s are stored.
+     * @param maxFrameSize
+     *          Maximum size of a frame body in bytes
+     */
+    public DeliveryByteEncoder(DeliveryPacketVault vault, int maxFrameSize) {
+        this(vault, maxFrameSize, true);
+    }
+
+    /**
+     * Initialize the {@link DeliveryByteEncoder}
+     *
+     * @param vault
+     *          {@link DeliveryPacketVault} where all {@link DeliveryPacket}'s are stored.
+     * @param maxFrameSize
+     *          Maximum size of a frame body in bytes
+     * @param preferDirect
+     *          whether the frames should be written to direct buffers instead of heap buffers
+     */
+    public DeliveryByteEncoder(DeliveryPacketVault vault, int maxFrameSize, boolean preferDirect) {
+        super(preferDirect);
+        if (maxFrameSize <= 0)
+            throw new IllegalArgumentException("The maximum frame size has to be positive {maxFrameSize: " + maxFrameSize + "}");
         this.vault = vault;
+        this.maxFrameSize = maxFrameSize;
+        this.frameSizeLimit = maxFrameSize;
+        this.preferDirect = preferDirect;
     }
 
     /**
      * Will write the data from the {@link DeliveryPacket} to the {@link DeliveryByteBuf} and then transfers it.
-     * The {@link DeliveryPacket} id will be written in front of the data so the {@link DeliveryByteEncoder} is able to recognize the
-     * {@link DeliveryPacket} and can parse it in the right {@link DeliveryPacket}.
+     * The {@link DeliveryPacket} id will be written as <code>VarInt</code> in front of the data so the {@link DeliveryByteEncoder} is
+     * able to recognize the {@link DeliveryPacket} and can parse it in the right {@link DeliveryPacket}.
+     * <p>
+     * The length prefix is unknown until the body is written, so the maximum amount of bytes is reserved up front and the prefix is
+     * written right in front of the body afterwards. The unused bytes are skipped by moving the reader index.
      *
      * @param ctx
      *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
@@ -35,9 +93,212 @@ public class DeliveryByteEncoder extends MessageToByteEncoder<DeliveryPacket> {
      */
     @Override
     protected void encode(ChannelHandlerContext ctx, DeliveryPacket msg, ByteBuf out) {
-        int packetId = this.vault.getPacketId(msg);
-        out.writeInt(packetId);
-        msg.write(new DeliveryByteBuf(out));
+        this.writeFrame(msg, out, this.compression);
+    }
+
+    /**
+     * Encodes the {@link DeliveryPacket} into a new frame outside of the pipeline. The frame can be written to any channel which
+     * uses an equal {@link DeliveryByteEncoder}, because the encoder passes already encoded frames through unchanged. This way the
+     * same {@link DeliveryPacket} only needs to be encoded once if it's sent to many channels.
+     *
+     * @param alloc
+     *          {@link ByteBufAllocator} the frame should be allocated from
+     * @param msg
+     *          {@link DeliveryPacket} which should be encoded
+     * @return ByteBuf containing the complete frame, has to be released by the caller
+     */
+    public ByteBuf encodeFrame(ByteBufAllocator alloc, DeliveryPacket msg) {
+        return this.encodeFrame(alloc, msg, this.compression);
+    }
+
+    /**
+     * Encodes the {@link DeliveryPacket} into a new frame outside of the pipeline with the given {@link DeliveryCompression}
+     * instead of the one set on this encoder.
+     *
+     * @param alloc
+     *          {@link ByteBufAllocator} the frame should be allocated from
+     * @param msg
+     *          {@link DeliveryPacket} which should be encoded
+     * @param compression
+     *          {@link DeliveryCompression} used if the payload reaches the compression threshold
+     * @return ByteBuf containing the complete frame, has to be released by the caller
+     */
+    public ByteBuf encodeFrame(ByteBufAllocator alloc, DeliveryPacket msg, DeliveryCompression compression) {
+        ByteBuf out = this.allocateFrame(alloc, msg, this.preferDirect);
+        try {
+            this.writeFrame(msg, out, compression);
+            return out;
+        } catch (Throwable throwable) {
+            out.release();
+            throw throwable;
+        }
+    }
+
+    private void writeFrame(DeliveryPacket msg, ByteBuf out, DeliveryCompression compression) {
+        int frameStart = out.writerIndex();
+        out.writeZero(DeliveryFrame.MAX_LENGTH_PREFIX_SIZE);
+        int flagsIndex = out.writerIndex();
+        out.writeByte(0);
+        if (msg instanceof DeliveryControlPacket) {
+            out.setByte(flagsIndex, DeliveryFrame.FLAG_CONTROL);
+            DeliveryControlPacket control = (DeliveryControlPacket) msg;
+            out.writeByte(control.getControlType());
+            control.writeControl(new DeliveryByteBuf(out), this.vault);
+        } else {
+            DeliveryPacket packet = msg;
+            int flags = 0;
+            if (msg instanceof DeliveryCorrelatedPacket) {
+                DeliveryCorrelatedPacket correlated = (DeliveryCorrelatedPacket) msg;
+                packet = correlated.getPacket();
+                flags = correlated.isResponse() ? DeliveryFrame.FLAG_RESPONSE : DeliveryFrame.FLAG_REQUEST;
+                out.setByte(flagsIndex, flags);
+                DeliveryByteBuf.writeVarInt(out, correlated.getCorrelationId());
+            }
+            int packetId = this.vault.getPacketId(packet);
+            if (packetId == -1)
+                throw new NoSuchPacketException(packet.getClass());
+            DeliveryByteBuf.writeVarInt(out, packetId);
+            int payloadStart = out.writerIndex();
+            packet.write(new DeliveryByteBuf(out));
+            int payloadLength = out.writerIndex() - payloadStart;
+            if (compression != DeliveryCompression.NONE && payloadLength >= this.compressionThreshold
+                    && payloadLength <= this.maxFrameSize)
+                compressPayload(out, flagsIndex, flags, payloadStart, payloadLength, compression);
+        }
+
+        int frameEnd = out.writerIndex();
+        int length = frameEnd - frameStart - DeliveryFrame.MAX_LENGTH_PREFIX_SIZE;
+        int limit = this.frameSizeLimit;
+        if (length > limit)
+            throw new FrameTooLargeException(length, limit);
+        int prefixStart = frameStart + DeliveryFrame.MAX_LENGTH_PREFIX_SIZE - DeliveryByteBuf.varIntSize(length);
+        out.writerIndex(prefixStart);
+        DeliveryByteBuf.writeVarInt(out, length);
+        out.writerIndex(frameEnd);
+        out.readerIndex(prefixStart);
+    }
+
+    /**
+     * Replaces the payload with its compressed form if that is smaller, including the uncompressed length in front of it.
+     */
+    private static void compressPayload(ByteBuf out, int flagsIndex, int flags, int payloadStart, int payloadLength,
+                                        DeliveryCompression compression) {
+        ByteBuf compressed = out.alloc().buffer(payloadLength);
+        try {
+            compression.compress(out.slice(payloadStart, payloadLength), compressed);
+            if (DeliveryByteBuf.varIntSize(payloadLength) + compressed.readableBytes() >= payloadLength)
+                return;
+            out.writerIndex(payloadStart);
+            DeliveryByteBuf.writeVarInt(out, payloadLength);
+            out.writeBytes(compressed);
+            out.setByte(flagsIndex, flags | compression.getId());
+        } finally {
+            compressed.release();
+        }
+    }
+
+    /**
+     * Allocates the buffer for a single frame from the {@link io.netty.buffer.ByteBufAllocator} of the channel, which is pooled by
+     * default. The capacity is taken from <code>estimateSize()</code> of the {@link DeliveryPacket} if available.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param msg
+     *          {@link DeliveryPacket} which should be encoded
+     * @param preferDirect
+     *          whether a direct buffer should be allocated
+     * @return ByteBuf the frame will be written to
+     */
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, DeliveryPacket msg, boolean preferDirect) {
+        return this.allocateFrame(ctx.alloc(), msg, preferDirect);
+    }
+
+    private ByteBuf allocateFrame(ByteBufAllocator alloc, DeliveryPacket msg, boolean preferDirect) {
+        int estimate = msg.estimateSize();
+        int capacity = (estimate >= 0)
+                ? DeliveryFrame.MAX_LENGTH_PREFIX_SIZE + 6 + Math.min(estimate, this.maxFrameSize)
+                : DEFAULT_INITIAL_CAPACITY;
+        return preferDirect ? alloc.ioBuffer(capacity) : alloc.heapBuffer(capacity);
+    }
+
+    /**
+     * Returns the maximum size of a frame body in bytes.
+     *
+     * @return maximum frame size
+     */
+    public int getMaxFrameSize() {
+        return this.maxFrameSize;
+    }
+
+    /**
+     * Lowers the maximum size of a written frame body to the maximum the other side of the connection accepts, if that is smaller.
+     *
+     * @param peerMaxFrameSize
+     *          maximum size of a frame body the other side accepts
+     */
+    void limitFrameSize(int peerMaxFrameSize) {
+        if (peerMaxFrameSize > 0)
+            this.frameSizeLimit = Math.min(this.maxFrameSize, peerMaxFrameSize);
+    }
+
+    /**
+     * Returns the maximum size of a written frame body, which is lowered to the one of the other side once the handshake is
+     * completed.
+     *
+     * @return maximum size of a written frame body in bytes
+     */
+    int getFrameSizeLimit() {
+        return this.frameSizeLimit;
+    }
+
+    DeliveryPacketVault getVault() {
+        return this.vault;
+    }
+
+    /**
+     * Returns the {@link DeliveryCompression} used for payloads which reach the compression threshold.
+     *
+     * @return compression
+     */
+    public DeliveryCompression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Sets the {@link DeliveryCompression} used for payloads which reach the compression threshold. The other side of the connection
+     * has to support the algorithm, which is ensured by the {@link DeliveryHandshakeHandler}.
+     *
+     * @param compression
+     *          compression, {@link DeliveryCompression#NONE} disables compression
+     */
+    public void setCompression(DeliveryCompression compression) {
+        if (compression == null)
+            throw new NullPointerException("The compression must not be null");
+        this.compression = compression;
+    }
+
+    /**
+     * Returns the minimum size of a payload in bytes before it gets compressed.
+     *
+     * @return compression threshold
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of a payload in bytes before it gets compressed. Small payloads barely shrink, compressing them only costs
+     * time.
+     *
+     * @param compressionThreshold
+     *          compression threshold
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0)
+            throw new IllegalArgumentException("The compression threshold must not be negative {compressionThreshold: "
+                    + compressionThreshold + "}");
+        this.compressionThreshold = compressionThreshold;
     }
 
 }
@@ -0,0 +1,85 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link CharSequence} view on UTF-8 encoded bytes inside a {@link ByteBuf}, returned by
+ * <code>DeliveryByteBuf.readCharSequence()</code>.
+ * <p>
+ * As long as the bytes only contain ASCII characters the view reads the characters straight from the {@link ByteBuf} without
+ * copying them. Any other content is decoded once into a {@link String} on first access.
+ * <p>
+ * <strong>Notice</strong><br>
+ * The view is only valid while the {@link DeliveryPacket} is read in <code>read(DeliveryByteBuf buf)</code>. Afterwards the
+ * underlying bytes may be reused by <a target="_blank" href="http://netty.io">Netty.io</a>, call <code>toString()</code> to keep
+ * the value.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryCharSequence implements CharSequence {
+
+    private final ByteBuf buf;
+    private final int offset;
+    private final int length;
+    private final boolean ascii;
+    private String decoded;
+
+    DeliveryCharSequence(ByteBuf buf, int offset, int length) {
+        this.buf = buf;
+        this.offset = offset;
+        this.length = length;
+        this.ascii = buf.forEachByte(offset, length, value -> value >= 0) == -1;
+    }
+
+    @Override
+    public int length() {
+        return this.ascii ? this.length : this.decode().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (!this.ascii)
+            return this.decode().charAt(index);
+        if (index < 0 || index >= this.length)
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + this.length);
+        return (char) this.buf.getByte(this.offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (!this.ascii)
+            return this.decode().subSequence(start, end);
+        if (start < 0 || end > this.length || start > end)
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + this.length);
+        return new DeliveryCharSequence(this.buf, this.offset + start, end - start);
+    }
+
+    /**
+     * Returns whether the content only consists of ASCII characters and is therefore read without copying.
+     *
+     * @return Boolean whether the content is ASCII only
+     */
+    public boolean isAscii() {
+        return this.ascii;
+    }
+
+    /**
+     * Copies the content into a new {@link String}.
+     *
+     * @return content as {@link String}
+     */
+    @Override
+    public String toString() {
+        return this.decode();
+    }
+
+    private String decode() {
+        if (this.decoded == null)
+            this.decoded = this.buf.toString(this.offset, this.length, StandardCharsets.UTF_8);
+        return this.decoded;
+    }
+
+}
@@ -0,0 +1,141 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads a stream chunk by chunk and turns every chunk into a complete frame, so the {@link DeliveryByteEncoder} passes it through
+ * unchanged. The bytes are read straight from the source into the frame buffer.
+ * <p>
+ * After the source is exhausted a final frame closes the stream on the other side. Every chunk is cut down to fit into a single
+ * frame of the other side, as far as the {@link DeliveryByteEncoder} of the connection knows its maximum frame size.
+ *
+ * @author jhz
+ */
+final class DeliveryChunkedStream implements ChunkedInput<ByteBuf> {
+
+    /**
+     * Bytes in front of the data: length prefix, flags, control type, stream id and kind.
+     */
+    private static final int HEADER_SIZE = DeliveryFrame.MAX_LENGTH_PREFIX_SIZE + 3 + 5;
+
+    private final int streamId;
+    private final ReadableByteChannel source;
+    private final int chunkSize;
+    private final DeliveryByteEncoder encoder;
+
+    private long progress;
+    private boolean sourceEnded;
+    private boolean ended;
+
+    DeliveryChunkedStream(int streamId, ReadableByteChannel source, int chunkSize, DeliveryByteEncoder encoder) {
+        this.streamId = streamId;
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return this.ended;
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.source.close();
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+        return this.readChunk(ctx.alloc());
+    }
+
+    /**
+     * Reads the next chunk from the source into a new frame. A source which has no bytes available right now, e.g. a non-blocking
+     * one, yields no chunk and is asked again later.
+     *
+     * @param allocator
+     *          {@link ByteBufAllocator} the frame is allocated from
+     * @return ByteBuf containing a complete frame or <code>null</code> if no bytes are available
+     * @throws Exception
+     *          if the source can't be read
+     */
+    @Override
+    public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+        if (this.ended)
+            return null;
+        int chunkSize = this.getChunkSize();
+        ByteBuf frame = allocator.ioBuffer(this.sourceEnded ? HEADER_SIZE : HEADER_SIZE + chunkSize);
+        boolean release = true;
+        try {
+            frame.writeZero(DeliveryFrame.MAX_LENGTH_PREFIX_SIZE);
+            frame.writeByte(DeliveryFrame.FLAG_CONTROL);
+            frame.writeByte(DeliveryControlPacket.STREAM);
+            DeliveryByteBuf.writeVarInt(frame, this.streamId);
+            int kindIndex = frame.writerIndex();
+            frame.writeByte(DeliveryStreamFrame.DATA);
+            int dataStart = frame.writerIndex();
+            while (!this.sourceEnded && frame.writerIndex() - dataStart < chunkSize) {
+                int wanted = chunkSize - (frame.writerIndex() - dataStart);
+                frame.ensureWritable(wanted);
+                int read = this.source.read(frame.internalNioBuffer(frame.writerIndex(), wanted));
+                if (read > 0)
+                    frame.writerIndex(frame.writerIndex() + read);
+                else if (read < 0)
+                    this.sourceEnded = true;
+                else
+                    break;
+            }
+            int length = frame.writerIndex() - dataStart;
+            if (length == 0) {
+                if (!this.sourceEnded)
+                    return null;
+                frame.setByte(kindIndex, DeliveryStreamFrame.END);
+                this.ended = true;
+            }
+            this.progress += length;
+
+            int frameEnd = frame.writerIndex();
+            int bodyLength = frameEnd - DeliveryFrame.MAX_LENGTH_PREFIX_SIZE;
+            int prefixStart = DeliveryFrame.MAX_LENGTH_PREFIX_SIZE - DeliveryByteBuf.varIntSize(bodyLength);
+            frame.writerIndex(prefixStart);
+            DeliveryByteBuf.writeVarInt(frame, bodyLength);
+            frame.writerIndex(frameEnd);
+            frame.readerIndex(prefixStart);
+            release = false;
+            return frame;
+        } finally {
+            if (release)
+                frame.release();
+        }
+    }
+
+    @Override
+    public long length() {
+        return -1;
+    }
+
+    @Override
+    public long progress() {
+        return this.progress;
+    }
+
+    /**
+     * Returns the chunk size cut down to the maximum frame size the {@link DeliveryByteEncoder} currently writes, which is the one of
+     * the other side once the handshake is completed.
+     *
+     * @return maximum amount of bytes in the next chunk
+     */
+    private int getChunkSize() {
+        if (this.encoder == null)
+            return this.chunkSize;
+        int limit = this.encoder.getFrameSizeLimit() - (HEADER_SIZE - DeliveryFrame.MAX_LENGTH_PREFIX_SIZE);
+        return Math.max(1, Math.min(this.chunkSize, limit));
+    }
+
+}
@@ -0,0 +1,219 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.compression.Snappy;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Algorithms which can be used to compress the body of a frame. All of them are available without any native library.
+ * <p>
+ * The {@link DeliveryByteEncoder} only compresses frames larger than the configured threshold and marks them in the flags of the
+ * frame, so the {@link DeliveryByteDecoder} is able to decompress them. Which algorithm is used on a connection is agreed on by the
+ * {@link DeliveryHandshakeHandler} when the connection is established.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public enum DeliveryCompression {
+
+    /**
+     * Frames are never compressed.
+     */
+    NONE(0) {
+        @Override
+        void compress(ByteBuf in, ByteBuf out) {
+            out.writeBytes(in);
+        }
+
+        @Override
+        void decompress(ByteBuf in, ByteBuf out, int length) {
+            out.writeBytes(in, length);
+        }
+    },
+
+    /**
+     * Compression with the {@link Deflater} of the JDK. Slower than {@link #SNAPPY} but with a much better ratio, suited for
+     * connections which are limited by their bandwidth.
+     */
+    DEFLATE(1) {
+        @Override
+        void compress(ByteBuf in, ByteBuf out) {
+            Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            deflater.setInput(in.nioBuffer());
+            deflater.finish();
+            while (!deflater.finished()) {
+                out.ensureWritable(Math.max(64, in.readableBytes() >>> 1));
+                ByteBuffer target = out.nioBuffer(out.writerIndex(), out.writableBytes());
+                out.writerIndex(out.writerIndex() + deflater.deflate(target));
+            }
+            in.skipBytes(in.readableBytes());
+        }
+
+        @Override
+        void decompress(ByteBuf in, ByteBuf out, int length) {
+            Inflater inflater = INFLATER.get();
+            inflater.reset();
+            inflater.setInput(in.nioBuffer());
+            out.ensureWritable(length);
+            try {
+                int inflated = inflater.inflate(out.nioBuffer(out.writerIndex(), length));
+                if (inflated != length || !inflater.finished())
+                    throw new CorruptedFrameException("The inflated frame has not the announced length {length: " + length + "}");
+                out.writerIndex(out.writerIndex() + inflated);
+            } catch (DataFormatException exception) {
+                throw new CorruptedFrameException(exception);
+            }
+            in.skipBytes(in.readableBytes());
+        }
+    },
+
+    /**
+     * Compression with the {@link Snappy} implementation of <a target="_blank" href="http://netty.io">Netty.io</a>. Very fast with
+     * a moderate ratio, suited for connections with high throughput.
+     */
+    SNAPPY(2) {
+        @Override
+        void compress(ByteBuf in, ByteBuf out) {
+            Snappy snappy = SNAPPY_CODEC.get();
+            snappy.reset();
+            snappy.encode(in, out, in.readableBytes());
+        }
+
+        @Override
+        void decompress(ByteBuf in, ByteBuf out, int length) {
+            int preamble = readPreamble(in);
+            if (preamble != length)
+                throw new CorruptedFrameException("The decompressed size differs from the announced length {length: " + length
+                        + ", preamble: " + preamble + "}");
+            Snappy snappy = SNAPPY_CODEC.get();
+            snappy.reset();
+            try {
+                snappy.decode(in, out);
+            } catch (IndexOutOfBoundsException exception) {
+                throw new CorruptedFrameException("The decompressed frame exceeds the announced length {length: " + length + "}");
+            }
+            if (out.readableBytes() != length)
+                throw new CorruptedFrameException("The decompressed frame has not the announced length {length: " + length + "}");
+        }
+    };
+
+    private static final DeliveryCompression[] BY_ID = {NONE, DEFLATE, SNAPPY};
+
+    private static final FastThreadLocal<Deflater> DEFLATER = new FastThreadLocal<>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+
+        @Override
+        protected void onRemoval(Deflater value) {
+            value.end();
+        }
+    };
+
+    private static final FastThreadLocal<Snappy> SNAPPY_CODEC = new FastThreadLocal<>() {
+        @Override
+        protected Snappy initialValue() {
+            return new Snappy();
+        }
+    };
+
+    private static final FastThreadLocal<Inflater> INFLATER = new FastThreadLocal<>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+
+        @Override
+        protected void onRemoval(Inflater value) {
+            value.end();
+        }
+    };
+
+    private final int id;
+
+    DeliveryCompression(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Compresses all readable bytes of the input.
+     *
+     * @param in
+     *          {@link ByteBuf} containing the uncompressed bytes
+     * @param out
+     *          {@link ByteBuf} the compressed bytes will be written to
+     */
+    abstract void compress(ByteBuf in, ByteBuf out);
+
+    /**
+     * Decompresses all readable bytes of the input.
+     *
+     * @param in
+     *          {@link ByteBuf} containing the compressed bytes
+     * @param out
+     *          {@link ByteBuf} the decompressed bytes will be written to
+     * @param length
+     *          amount of bytes the decompressed data has
+     */
+    abstract void decompress(ByteBuf in, ByteBuf out, int length);
+
+    /**
+     * Returns the identifier of the algorithm which is written in the flags of a frame.
+     *
+     * @return identifier
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the {@link DeliveryCompression} with the given identifier.
+     *
+     * @param id
+     *          identifier of the algorithm
+     * @return DeliveryCompression or <code>null</code> if the identifier is unknown
+     */
+    public static DeliveryCompression byId(int id) {
+        return (id >= 0 && id < BY_ID.length) ? BY_ID[id] : null;
+    }
+
+    /**
+     * Returns the bit mask of all algorithms which are supported by this version.
+     *
+     * @return bit mask where bit <code>n</code> stands for the algorithm with the identifier <code>n</code>
+     */
+    static int supportedMask() {
+        int mask = 0;
+        for (DeliveryCompression compression : BY_ID)
+            mask |= 1 << compression.id;
+        return mask;
+    }
+
+    /**
+     * Reads the uncompressed length a {@link Snappy} block starts with, without consuming it.
+     *
+     * @param in
+     *          {@link ByteBuf} containing the compressed block
+     * @return uncompressed length or <code>-1</code> if the preamble is malformed
+     */
+    private static int readPreamble(ByteBuf in) {
+        int result = 0;
+        int index = in.readerIndex();
+        for (int shift = 0; shift < 35 && index < in.writerIndex(); shift += 7) {
+            byte current = in.getByte(index++);
+            result |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0)
+                return result;
+        }
+        return -1;
+    }
+
+}
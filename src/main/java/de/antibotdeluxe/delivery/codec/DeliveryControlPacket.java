@@ -0,0 +1,45 @@
+package de.antibotdeluxe.delivery.codec;
+
+/**
+ * A {@link DeliveryPacket} which is used by the library itself and written as control frame. Control packets don't need to be
+ * registered in the {@link DeliveryPacketVault}, they are identified by their control type instead.
+ *
+ * @author jhz
+ */
+interface DeliveryControlPacket extends DeliveryPacket {
+
+    /**
+     * Control type of a {@link DeliveryHandshakePacket}.
+     */
+    int HANDSHAKE = 0;
+
+    /**
+     * Control type of a {@link DeliveryTransferPacket}.
+     */
+    int TRANSFER = 1;
+
+    /**
+     * Control type of a {@link DeliveryStreamFrame}.
+     */
+    int STREAM = 2;
+
+    /**
+     * Returns the control type which is written in front of the body of the control frame.
+     *
+     * @return control type
+     */
+    int getControlType();
+
+    /**
+     * Writes the body of the control frame. Can be overwritten by control packets which carry a registered {@link DeliveryPacket}.
+     *
+     * @param buf
+     *          {@link DeliveryByteBuf} the body is written to
+     * @param vault
+     *          {@link DeliveryPacketVault} of the connection
+     */
+    default void writeControl(DeliveryByteBuf buf, DeliveryPacketVault vault) {
+        this.write(buf);
+    }
+
+}
@@ -0,0 +1,50 @@
+package de.antibotdeluxe.delivery.codec;
+
+/**
+ * Wraps a {@link DeliveryPacket} which is sent as request or as response to a request. The {@link DeliveryByteEncoder} writes the
+ * correlation id into the header of the frame and the {@link DeliveryByteDecoder} wraps the decoded {@link DeliveryPacket} again,
+ * so the {@link DeliveryCorrelationHandler} is able to match responses to their requests.
+ *
+ * @author jhz
+ */
+final class DeliveryCorrelatedPacket implements DeliveryPacket {
+
+    private final int correlationId;
+    private final boolean response;
+    private final DeliveryPacket packet;
+
+    DeliveryCorrelatedPacket(int correlationId, boolean response, DeliveryPacket packet) {
+        this.correlationId = correlationId;
+        this.response = response;
+        this.packet = packet;
+    }
+
+    @Override
+    public void write(DeliveryByteBuf buf) {
+        this.packet.write(buf);
+    }
+
+    @Override
+    public void read(DeliveryByteBuf buf) {
+        this.packet.read(buf);
+    }
+
+    @Override
+    public int estimateSize() {
+        int estimate = this.packet.estimateSize();
+        return (estimate >= 0) ? estimate + 5 : -1;
+    }
+
+    int getCorrelationId() {
+        return this.correlationId;
+    }
+
+    boolean isResponse() {
+        return this.response;
+    }
+
+    DeliveryPacket getPacket() {
+        return this.packet;
+    }
+
+}
@@ -0,0 +1,158 @@
+package de.antibotdeluxe.delivery.codec;
+
+import de.antibotdeluxe.delivery.misc.exceptions.RequestTimeoutException;
+import de.antibotdeluxe.delivery.misc.exceptions.UnsupportedFeatureException;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class will match responses to the requests which are still in flight on a connection and expose incoming requests as
+ * {@link DeliveryReply} to the {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s.
+ * <p>
+ * Each request gets a correlation id which is sent in the header of the frame, so any amount of requests can be in flight at the
+ * same time. Timeouts of all connections are tracked on a single {@link HashedWheelTimer} instead of scheduling a task per request.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryCorrelationHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Timer TIMER = new HashedWheelTimer(new DefaultThreadFactory("delivery-request-timer", true),
+            10, TimeUnit.MILLISECONDS);
+
+    private final ConcurrentHashMap<Integer, PendingRequest> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCorrelationId = new AtomicInteger();
+
+    /**
+     * Sends the {@link DeliveryPacket} as request and waits for the response.
+     * <p>
+     * <strong>Note</strong><br>
+     * The future is completed on the event loop of the {@link Channel}, blocking work should be moved to the async variants of the
+     * {@link CompletableFuture}. A {@link DeliveryRecyclablePacket} the future is completed with belongs to the caller, who has to
+     * call <code>release()</code> once it handled the response. If the future was already completed, e.g. because it was cancelled,
+     * the response is released right away.
+     *
+     * @param channel
+     *          {@link Channel} the request is sent to, has to contain this handler
+     * @param packet
+     *          {@link DeliveryPacket} which should be sent as request
+     * @param timeout
+     *          time to wait for the response
+     * @param <R>
+     *          type of the expected response
+     * @return future which completes with the response, a {@link RequestTimeoutException} or an {@link UnsupportedFeatureException}
+     *          if the other side doesn't answer requests
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends DeliveryPacket> CompletableFuture<R> request(Channel channel, DeliveryPacket packet, Duration timeout) {
+        if (packet == null || timeout == null)
+            throw new NullPointerException();
+        if (DeliveryHandshakeHandler.lacksFeature(channel, DeliveryHandshakeHandler.FEATURE_CORRELATION))
+            return CompletableFuture.failedFuture(new UnsupportedFeatureException(DeliveryHandshakeHandler.FEATURE_CORRELATION));
+        int correlationId = this.nextCorrelationId.getAndIncrement() & Integer.MAX_VALUE;
+        PendingRequest request = new PendingRequest();
+        this.pending.put(correlationId, request);
+        request.timeout = TIMER.newTimeout(expired -> {
+            if (this.pending.remove(correlationId, request))
+                request.future.completeExceptionally(new RequestTimeoutException(correlationId, timeout.toMillis()));
+        }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+
+        channel.writeAndFlush(new DeliveryCorrelatedPacket(correlationId, false, packet)).addListener(written -> {
+            if (!written.isSuccess() && this.pending.remove(correlationId, request))
+                request.fail(written.cause());
+        });
+        return (CompletableFuture<R>) request.future;
+    }
+
+    /**
+     * Completes the matching request if the message is a response, sets the {@link DeliveryReply} while the handlers for a request
+     * are called and passes every other message on.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param msg
+     *          message provided by the {@link DeliveryByteDecoder}
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof DeliveryCorrelatedPacket)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        DeliveryCorrelatedPacket correlated = (DeliveryCorrelatedPacket) msg;
+        if (correlated.isResponse()) {
+            PendingRequest request = this.pending.remove(correlated.getCorrelationId());
+            if ((request == null || !request.complete(correlated.getPacket()))
+                    && correlated.getPacket() instanceof DeliveryRecyclablePacket)
+                ((DeliveryRecyclablePacket) correlated.getPacket()).release();
+            return;
+        }
+        DeliveryReply.setCurrent(new DeliveryReply(ctx.channel(), correlated.getCorrelationId()));
+        try {
+            ctx.fireChannelRead(correlated.getPacket());
+        } finally {
+            DeliveryReply.setCurrent(null);
+        }
+    }
+
+    /**
+     * Fails every request which is still in flight because no response can arrive anymore.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        this.pending.keySet().forEach(correlationId -> {
+            PendingRequest request = this.pending.remove(correlationId);
+            if (request != null)
+                request.fail(new ClosedChannelException());
+        });
+        ctx.fireChannelInactive();
+    }
+
+    /**
+     * Returns the amount of requests which are still waiting for a response.
+     *
+     * @return pending requests
+     */
+    public int getPendingRequests() {
+        return this.pending.size();
+    }
+
+    private static final class PendingRequest {
+
+        private final CompletableFuture<DeliveryPacket> future = new CompletableFuture<>();
+        private volatile Timeout timeout;
+
+        private boolean complete(DeliveryPacket response) {
+            this.cancelTimeout();
+            return this.future.complete(response);
+        }
+
+        private void fail(Throwable cause) {
+            this.cancelTimeout();
+            this.future.completeExceptionally(cause);
+        }
+
+        private void cancelTimeout() {
+            Timeout timeout = this.timeout;
+            if (timeout != null)
+                timeout.cancel();
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package de.antibotdeluxe.delivery.codec;
+
+import java.util.function.Supplier;
+
+/**
+ * Describes how a single element of a collection is written to and red from the {@link DeliveryByteBuf}.
+ * <p>
+ * Used by the collection methods of the {@link DeliveryByteBuf} like <code>writeList(List list, DeliveryElementCodec codec)</code>.
+ * The most common types are already available as constants, nested {@link DeliveryPacket}'s can be used with
+ * <code>packet(Supplier factory)</code>.
+ *
+ * @param <T>
+ *          Type of the element
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public interface DeliveryElementCodec<T> {
+
+    DeliveryElementCodec<Boolean> BOOL = of(DeliveryByteBuf::writeBool, DeliveryByteBuf::readBool);
+    DeliveryElementCodec<Byte> BYTE = of(DeliveryByteBuf::writeByte, DeliveryByteBuf::readByte);
+    DeliveryElementCodec<Short> SHORT = of(DeliveryByteBuf::writeShort, DeliveryByteBuf::readShort);
+    DeliveryElementCodec<Integer> INT = of(DeliveryByteBuf::writeInt, DeliveryByteBuf::readInt);
+    DeliveryElementCodec<Integer> VAR_INT = of(DeliveryByteBuf::writeVarInt, DeliveryByteBuf::readVarInt);
+    DeliveryElementCodec<Integer> SIGNED_VAR_INT = of(DeliveryByteBuf::writeSignedVarInt, DeliveryByteBuf::readSignedVarInt);
+    DeliveryElementCodec<Long> LONG = of(DeliveryByteBuf::writeLong, DeliveryByteBuf::readLong);
+    DeliveryElementCodec<Long> VAR_LONG = of(DeliveryByteBuf::writeVarLong, DeliveryByteBuf::readVarLong);
+    DeliveryElementCodec<Long> SIGNED_VAR_LONG = of(DeliveryByteBuf::writeSignedVarLong, DeliveryByteBuf::readSignedVarLong);
+    DeliveryElementCodec<Float> FLOAT = of(DeliveryByteBuf::writeFloat, DeliveryByteBuf::readFloat);
+    DeliveryElementCodec<Double> DOUBLE = of(DeliveryByteBuf::writeDouble, DeliveryByteBuf::readDouble);
+    DeliveryElementCodec<String> STRING = of(DeliveryByteBuf::writeString, DeliveryByteBuf::readString);
+
+    /**
+     * Writes the element to the {@link DeliveryByteBuf}.
+     *
+     * @param buf
+     *          {@link DeliveryByteBuf} the element should be written to
+     * @param element
+     *          Element which should be written
+     */
+    void write(DeliveryByteBuf buf, T element);
+
+    /**
+     * Reads the element from the {@link DeliveryByteBuf}.
+     *
+     * @param buf
+     *          {@link DeliveryByteBuf} the element should be red from
+     * @return Element
+     */
+    T read(DeliveryByteBuf buf);
+
+    /**
+     * Creates a {@link DeliveryElementCodec} for nested {@link DeliveryPacket}'s of the same type.
+     *
+     * @param factory
+     *          creates the empty {@link DeliveryPacket} the data will be red into
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     * @return DeliveryElementCodec
+     */
+    static <T extends DeliveryPacket> DeliveryElementCodec<T> packet(Supplier<T> factory) {
+        return of(DeliveryByteBuf::writePacket, buf -> buf.readPacket(factory));
+    }
+
+    /**
+     * Creates a {@link DeliveryElementCodec} from the given write and read function.
+     *
+     * @param writer
+     *          writes a single element
+     * @param reader
+     *          reads a single element
+     * @param <T>
+     *          Type of the element
+     * @return DeliveryElementCodec
+     */
+    static <T> DeliveryElementCodec<T> of(Writer<T> writer, Reader<T> reader) {
+        return new DeliveryElementCodec<>() {
+            @Override
+            public void write(DeliveryByteBuf buf, T element) {
+                writer.write(buf, element);
+            }
+
+            @Override
+            public T read(DeliveryByteBuf buf) {
+                return reader.read(buf);
+            }
+        };
+    }
+
+    /**
+     * Write function of a {@link DeliveryElementCodec}.
+     *
+     * @param <T>
+     *          Type of the element
+     */
+    @FunctionalInterface
+    interface Writer<T> {
+        void write(DeliveryByteBuf buf, T element);
+    }
+
+    /**
+     * Read function of a {@link DeliveryElementCodec}.
+     *
+     * @param <T>
+     *          Type of the element
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(DeliveryByteBuf buf);
+    }
+
+}
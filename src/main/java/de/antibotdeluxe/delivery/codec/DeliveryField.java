@@ -0,0 +1,64 @@
+package de.antibotdeluxe.delivery.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a {@link DeliveryPacket} which should be serialized by the generated {@link DeliverySerializer}.
+ * <p>
+ * The <code>DeliveryFieldProcessor</code> generates a serializer named <code>&lt;Packet&gt;$DeliverySerializer</code> at compile time
+ * which writes and reads the annotated fields in the given order, so a {@link DeliveryPacket} doesn't need to implement
+ * <code>write(DeliveryByteBuf buf)</code> and <code>read(DeliveryByteBuf buf)</code> anymore. Annotated fields must neither be
+ * <code>private</code>, <code>final</code> nor <code>static</code>.
+ * <p>
+ * Supported are all primitives, {@link String}, enums, <code>int[]</code>, <code>long[]</code>, <code>double[]</code>, other
+ * {@link DeliveryPacket}'s and {@link java.util.List}'s, {@link java.util.Set}'s and {@link java.util.Map}'s of boxed primitives,
+ * {@link String}'s or {@link DeliveryPacket}'s.
+ *
+ * @author jhz
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface DeliveryField {
+
+    /**
+     * Position of the field in the serialized {@link DeliveryPacket}. Has to be unique within the {@link DeliveryPacket}.
+     *
+     * @return order of the field
+     */
+    int order();
+
+    /**
+     * How an <code>int</code> or <code>long</code> (also as element of a collection) is written. Other types ignore it.
+     *
+     * @return encoding of the field
+     */
+    Encoding encoding() default Encoding.FIXED;
+
+    /**
+     * Encodings of whole numbers.
+     */
+    enum Encoding {
+
+        /**
+         * Always 4 or 8 bytes. Consecutive fixed size fields are written with a single bounds check.
+         */
+        FIXED,
+
+        /**
+         * <code>VarInt</code> or <code>VarLong</code>, suited for small non-negative numbers.
+         */
+        VARIABLE,
+
+        /**
+         * ZigZag encoded <code>VarInt</code> or <code>VarLong</code>, suited for small numbers which may be negative.
+         */
+        ZIGZAG
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package de.antibotdeluxe.delivery.codec;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Decides where the bytes of a received file are written to. The bytes are written straight from the received buffers into the
+ * {@link FileChannel}, so even very large files never pass through the heap.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public interface DeliveryFileReceiver {
+
+    /**
+     * Opens the {@link FileChannel} the received file is written to. Called on the event loop of the connection.
+     *
+     * @param transfer
+     *          {@link DeliveryTransfer} which is about to be received
+     * @return FileChannel the bytes are written to, <code>null</code> if the file should be dropped
+     * @throws IOException
+     *          if the file can't be opened
+     */
+    FileChannel open(DeliveryTransfer transfer) throws IOException;
+
+    /**
+     * Called once every byte of the file has been written.
+     *
+     * @param transfer
+     *          {@link DeliveryTransfer} which was received
+     * @param file
+     *          {@link FileChannel} returned by <code>open(DeliveryTransfer)</code>, has to be closed by the receiver
+     * @throws IOException
+     *          if the file can't be finished
+     */
+    void completed(DeliveryTransfer transfer, FileChannel file) throws IOException;
+
+    /**
+     * Called if the transfer could not be completed, e.g. because the connection was lost.
+     *
+     * @param transfer
+     *          {@link DeliveryTransfer} which failed
+     * @param file
+     *          {@link FileChannel} returned by <code>open(DeliveryTransfer)</code> or <code>null</code>, has to be closed by the
+     *          receiver
+     * @param cause
+     *          cause of the failure
+     */
+    default void failed(DeliveryTransfer transfer, FileChannel file, Throwable cause) {
+        try {
+            if (file != null)
+                file.close();
+        } catch (IOException ignored) { }
+    }
+
+    /**
+     * Returns whether the bytes should be copied into memory-mapped regions of the file instead of being written with positional
+     * writes. The {@link FileChannel} has to be opened for reading and writing then.
+     *
+     * @return <code>true</code> if the file should be memory-mapped
+     */
+    default boolean isMemoryMapped() {
+        return false;
+    }
+
+    /**
+     * Returns a {@link DeliveryFileReceiver} which stores every file memory-mapped in the given directory. Only the file name of
+     * the name sent by the other side is used, so no file outside of the directory can be written.
+     *
+     * @param directory
+     *          directory the files are stored in
+     * @param onComplete
+     *          called with the {@link DeliveryTransfer} and the path of the file once it's completed
+     * @return DeliveryFileReceiver
+     */
+    static DeliveryFileReceiver directory(Path directory, BiConsumer<DeliveryTransfer, Path> onComplete) {
+        return new DeliveryFileReceiver() {
+            @Override
+            public FileChannel open(DeliveryTransfer transfer) throws IOException {
+                Path name = Path.of(transfer.getName()).getFileName();
+                if (name == null || name.toString().equals(".."))
+                    throw new IOException("Invalid file name {name: '" + transfer.getName() + "'}");
+                Files.createDirectories(directory);
+                return FileChannel.open(directory.resolve(name.toString()), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+
+            @Override
+            public void completed(DeliveryTransfer transfer, FileChannel file) throws IOException {
+                file.close();
+                onComplete.accept(transfer, directory.resolve(Path.of(transfer.getName()).getFileName().toString()));
+            }
+
+            @Override
+            public boolean isMemoryMapped() {
+                return true;
+            }
+        };
+    }
+
+}
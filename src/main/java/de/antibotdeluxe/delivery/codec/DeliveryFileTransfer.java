@@ -0,0 +1,130 @@
+package de.antibotdeluxe.delivery.codec;
+
+import de.antibotdeluxe.delivery.misc.exceptions.UnsupportedFeatureException;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the content of files to the other side of a connection without loading them into memory.
+ * <p>
+ * The file is announced with a {@link DeliveryTransferPacket} and its bytes follow unframed. If the transport supports it the bytes
+ * are sent as {@link DefaultFileRegion}, which lets the kernel copy them straight from the page cache to the socket
+ * (<code>sendfile</code>). Otherwise, e.g. if the connection is encrypted, the file is read in chunks by a {@link ChunkedNioFile}.
+ * The other side writes the bytes with the {@link DeliveryTransferHandler} into the file of its {@link DeliveryFileReceiver}.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryFileTransfer {
+
+    /**
+     * Size of a single chunk if the file can't be sent with <code>sendfile</code> (64 KiB).
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final String CHUNKED_WRITER_NAME = "delivery-chunked-writer";
+    private static final AtomicInteger NEXT_TRANSFER_ID = new AtomicInteger();
+
+    private DeliveryFileTransfer() { }
+
+    /**
+     * Sends the file to the other side of the {@link Channel} under its own file name.
+     *
+     * @param channel
+     *          {@link Channel} the file is sent to
+     * @param file
+     *          {@link Path} of the file which should be sent
+     * @return ChannelFuture which completes as soon as the whole file was written
+     * @throws IOException
+     *          if the file can't be opened
+     */
+    public static ChannelFuture send(Channel channel, Path file) throws IOException {
+        return send(channel, file, file.getFileName().toString());
+    }
+
+    /**
+     * Sends the file to the other side of the {@link Channel}.
+     *
+     * @param channel
+     *          {@link Channel} the file is sent to
+     * @param file
+     *          {@link Path} of the file which should be sent
+     * @param name
+     *          name the other side receives the file under
+     * @return ChannelFuture which completes as soon as the whole file was written, fails with an {@link UnsupportedFeatureException}
+     *          if the other side can't receive files
+     * @throws IOException
+     *          if the file can't be opened
+     */
+    public static ChannelFuture send(Channel channel, Path file, String name) throws IOException {
+        if (channel == null || file == null || name == null)
+            throw new NullPointerException();
+        if (DeliveryHandshakeHandler.lacksFeature(channel, DeliveryHandshakeHandler.FEATURE_TRANSFER))
+            return channel.newFailedFuture(new UnsupportedFeatureException(DeliveryHandshakeHandler.FEATURE_TRANSFER));
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        long length;
+        try {
+            length = fileChannel.size();
+        } catch (IOException exception) {
+            fileChannel.close();
+            throw exception;
+        }
+        DeliveryTransferPacket header = new DeliveryTransferPacket(NEXT_TRANSFER_ID.getAndIncrement() & Integer.MAX_VALUE, name,
+                length);
+        boolean zeroCopy = supportsZeroCopy(channel);
+        Object body = zeroCopy ? new DefaultFileRegion(fileChannel, 0, length) : new ChunkedNioFile(fileChannel, 0, length, CHUNK_SIZE);
+        if (!zeroCopy)
+            addChunkedWriter(channel);
+
+        // both writes have to happen in one task, otherwise a packet written by another thread could end up between them
+        ChannelPromise promise = channel.newPromise();
+        try {
+            channel.eventLoop().execute(() -> {
+                channel.write(header);
+                channel.writeAndFlush(body, promise);
+            });
+        } catch (RejectedExecutionException exception) {
+            ReferenceCountUtil.release(body);
+            fileChannel.close();
+            promise.setFailure(exception);
+        }
+        return promise;
+    }
+
+    /**
+     * Adds the {@link ChunkedWriteHandler} to the end of the pipeline if it's not there yet. It only pulls the next chunk while the
+     * {@link Channel} is writable, which keeps the memory used by a large write bound.
+     *
+     * @param channel
+     *          {@link Channel} the chunks are written to
+     */
+    static synchronized void addChunkedWriter(Channel channel) {
+        if (channel.pipeline().get(CHUNKED_WRITER_NAME) == null)
+            channel.pipeline().addLast(CHUNKED_WRITER_NAME, new ChunkedWriteHandler());
+    }
+
+    /**
+     * Returns whether the file can be written as {@link DefaultFileRegion} to the {@link Channel}, which requires a socket transport
+     * and no handler which has to see the plain bytes.
+     */
+    private static boolean supportsZeroCopy(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+        return channel instanceof SocketChannel && pipeline.get(SslHandler.class) == null;
+    }
+
+}
@@ -0,0 +1,98 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class will flush queued {@link DeliveryPacket}'s according to the {@link DeliveryFlushPolicy} of the channel.
+ * <p>
+ * It counts the writes which have not been flushed yet. Periodic flushes run on the event loop of the channel, so no additional
+ * synchronization is needed. Pending writes are flushed before the channel is closed.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryFlushHandler extends ChannelDuplexHandler {
+
+    private final DeliveryFlushPolicy policy;
+
+    private int pendingWrites;
+    private ScheduledFuture<?> tickFuture;
+
+    /**
+     * Initialize the {@link DeliveryFlushHandler}
+     *
+     * @param policy
+     *          {@link DeliveryFlushPolicy} which decides when queued writes are flushed
+     */
+    public DeliveryFlushHandler(DeliveryFlushPolicy policy) {
+        if (policy == null)
+            throw new NullPointerException();
+        this.policy = policy;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        long tickNanos = this.policy.getTickNanos();
+        if (tickNanos > 0)
+            this.tickFuture = ctx.executor().scheduleAtFixedRate(() -> {
+                if (this.pendingWrites > 0)
+                    this.flush(ctx);
+            }, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        this.cancelTick();
+        if (this.pendingWrites > 0)
+            this.flush(ctx);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        ctx.write(msg, promise);
+        if (this.policy.shouldFlush(++this.pendingWrites))
+            this.flush(ctx);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        this.pendingWrites = 0;
+        ctx.flush();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        this.cancelTick();
+        if (this.pendingWrites > 0)
+            this.flush(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        this.cancelTick();
+        ctx.fireChannelInactive();
+    }
+
+    /**
+     * Returns the amount of writes which have not been flushed yet.
+     *
+     * @return pending writes
+     */
+    public int getPendingWrites() {
+        return this.pendingWrites;
+    }
+
+    private void cancelTick() {
+        if (this.tickFuture != null) {
+            this.tickFuture.cancel(false);
+            this.tickFuture = null;
+        }
+    }
+
+}
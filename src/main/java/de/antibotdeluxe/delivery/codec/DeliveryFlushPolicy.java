@@ -0,0 +1,85 @@
+package de.antibotdeluxe.delivery.codec;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when queued {@link DeliveryPacket}'s are flushed to the socket. Every flush costs a syscall, so merging many small
+ * {@link DeliveryPacket}'s into one flush saves a lot of overhead if they are sent in bursts.
+ * <p>
+ * The policy is applied by the {@link DeliveryFlushHandler}. Explicit flushes, e.g. by <code>sendDeliveryPacket</code> or
+ * <code>flush()</code>, always take effect immediately.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public interface DeliveryFlushPolicy {
+
+    /**
+     * Called after a {@link DeliveryPacket} was queued without flushing it.
+     *
+     * @param pendingWrites
+     *          amount of writes since the last flush, including this one
+     * @return <code>true</code> if the pending writes should be flushed now
+     */
+    boolean shouldFlush(int pendingWrites);
+
+    /**
+     * Returns the interval in nanoseconds in which pending writes are flushed by the event loop of the channel.
+     *
+     * @return interval in nanoseconds or <code>0</code> if pending writes should not be flushed periodically
+     */
+    default long getTickNanos() {
+        return 0;
+    }
+
+    /**
+     * Returns a {@link DeliveryFlushPolicy} which flushes every queued {@link DeliveryPacket} right away.
+     *
+     * @return DeliveryFlushPolicy
+     */
+    static DeliveryFlushPolicy immediate() {
+        return pendingWrites -> true;
+    }
+
+    /**
+     * Returns a {@link DeliveryFlushPolicy} which flushes as soon as the given amount of {@link DeliveryPacket}'s is queued.
+     * Remaining {@link DeliveryPacket}'s have to be flushed explicitly.
+     *
+     * @param writes
+     *          amount of writes which are consolidated into one flush
+     * @return DeliveryFlushPolicy
+     */
+    static DeliveryFlushPolicy consolidate(int writes) {
+        if (writes <= 0)
+            throw new IllegalArgumentException("The amount of writes has to be positive {writes: " + writes + "}");
+        return pendingWrites -> pendingWrites >= writes;
+    }
+
+    /**
+     * Returns a {@link DeliveryFlushPolicy} which flushes all queued {@link DeliveryPacket}'s once per interval on the event loop of
+     * the channel, e.g. once per game tick.
+     *
+     * @param interval
+     *          interval between two flushes
+     * @param unit
+     *          {@link TimeUnit} of the interval
+     * @return DeliveryFlushPolicy
+     */
+    static DeliveryFlushPolicy tick(long interval, TimeUnit unit) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("The interval has to be positive {interval: " + interval + "}");
+        long tickNanos = unit.toNanos(interval);
+        return new DeliveryFlushPolicy() {
+            @Override
+            public boolean shouldFlush(int pendingWrites) {
+                return false;
+            }
+
+            @Override
+            public long getTickNanos() {
+                return tickNanos;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,46 @@
+package de.antibotdeluxe.delivery.codec;
+
+/**
+ * Layout of a single frame written by the {@link DeliveryByteEncoder} and red by the {@link DeliveryByteDecoder}.
+ * <p>
+ * <code>[VarInt length] [flags] [VarInt correlation id] [VarInt packet id] [payload]</code>
+ * <p>
+ * The length covers everything behind it. The correlation id is only present if the flags mark the frame as request or response.
+ * If the flags mark the payload as compressed, the payload starts with the uncompressed length as <code>VarInt</code> followed by
+ * the compressed bytes. Control frames carry the control type of a {@link DeliveryControlPacket} followed by its body instead of
+ * a packet id and payload.
+ * <p>
+ * A {@link DeliveryTransferPacket} is followed by the raw bytes of the transferred file, which are not framed at all.
+ *
+ * @author jhz
+ */
+final class DeliveryFrame {
+
+    /**
+     * Bits of the flags holding the identifier of the {@link DeliveryCompression} of the payload.
+     */
+    static final int COMPRESSION_MASK = 0x03;
+
+    /**
+     * Flag marking a frame as request which expects a response with the same correlation id.
+     */
+    static final int FLAG_REQUEST = 0x04;
+
+    /**
+     * Flag marking a frame as response to the request with the same correlation id.
+     */
+    static final int FLAG_RESPONSE = 0x08;
+
+    /**
+     * Flag marking a control frame.
+     */
+    static final int FLAG_CONTROL = 0x80;
+
+    /**
+     * Maximum amount of bytes of the length prefix.
+     */
+    static final int MAX_LENGTH_PREFIX_SIZE = 5;
+
+    private DeliveryFrame() { }
+
+}
@@ -0,0 +1,433 @@
+package de.antibotdeluxe.delivery.codec;
+
+import de.antibotdeluxe.delivery.misc.exceptions.FrameTooLargeException;
+import de.antibotdeluxe.delivery.misc.exceptions.HandshakeTimeoutException;
+import de.antibotdeluxe.delivery.misc.exceptions.PendingWriteLimitException;
+import de.antibotdeluxe.delivery.misc.exceptions.ProtocolVersionMismatchException;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
+import io.netty.channel.PendingWriteQueue;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class will agree on the {@link DeliveryCompression}, the features and the {@link DeliveryPacket} ids of a connection as soon as
+ * it's established.
+ * <p>
+ * The client sends the algorithms it supports and its preferred one, the server answers with the selected algorithm and both sides
+ * set it on their {@link DeliveryByteEncoder}. The preference of the server wins, the one of the client is only used if the server
+ * has none.
+ * <p>
+ * Both sides announce their {@link #PROTOCOL_VERSION}, the connection is closed with a {@link ProtocolVersionMismatchException} if
+ * they differ. Both sides also announce the fingerprint of their {@link DeliveryPacketVault}. If the fingerprints differ the ids of
+ * the other side are mapped to the own ones by their stable ids, so the vaults may register the {@link DeliveryPacket}'s in a
+ * different order or even contain different ones, e.g. during a rolling upgrade. Frames of {@link DeliveryPacket}'s only the other
+ * side knows are dropped. The encoder never writes frames larger than the maximum frame size of the other side.
+ * <p>
+ * Every write is held back until the handshake is completed, afterwards the handler removes itself from the pipeline. Held back
+ * {@link DeliveryPacket}'s are encoded right away without compression, so their real size counts against the maximum amount of
+ * held back bytes. Writes which would exceed it are failed with a {@link PendingWriteLimitException} and the connection is closed
+ * with a {@link HandshakeTimeoutException} if the handshake is not completed within its timeout.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryHandshakeHandler extends ChannelDuplexHandler {
+
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Handshake]");
+
+    /**
+     * Version of the frame layout, including the <code>VarInt</code> length prefix, described in {@link DeliveryFrame}.
+     */
+    public static final int PROTOCOL_VERSION = 1;
+
+    /**
+     * Feature of a side which answers requests sent with <code>request(...)</code>.
+     */
+    public static final int FEATURE_CORRELATION = 1;
+
+    /**
+     * Feature of a side which is able to receive files sent with {@link DeliveryFileTransfer}.
+     */
+    public static final int FEATURE_TRANSFER = 1 << 1;
+
+    /**
+     * Feature of a side which is able to receive streams sent with {@link DeliveryStreamTransfer}.
+     */
+    public static final int FEATURE_STREAM = 1 << 2;
+
+    /**
+     * Features supported by this version.
+     */
+    public static final int SUPPORTED_FEATURES = FEATURE_CORRELATION | FEATURE_TRANSFER | FEATURE_STREAM;
+
+    /**
+     * Time in milliseconds the handshake has to be completed in by default.
+     */
+    public static final long DEFAULT_HANDSHAKE_TIMEOUT_MILLIS = 10_000L;
+
+    /**
+     * Amount of bytes which may be held back until the handshake is completed by default.
+     */
+    public static final long DEFAULT_MAX_PENDING_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * Attribute holding the {@link DeliveryCompression} a {@link Channel} agreed on.
+     */
+    public static final AttributeKey<DeliveryCompression> COMPRESSION = AttributeKey.valueOf("delivery-compression");
+
+    /**
+     * Attribute holding the features both sides of a {@link Channel} support.
+     */
+    public static final AttributeKey<Integer> FEATURES = AttributeKey.valueOf("delivery-features");
+
+    /**
+     * Attribute holding the maximum size of a frame body the other side of a {@link Channel} accepts.
+     */
+    public static final AttributeKey<Integer> PEER_MAX_FRAME_SIZE = AttributeKey.valueOf("delivery-peer-max-frame-size");
+
+    private final DeliveryByteEncoder encoder;
+    private final DeliveryCompression preferred;
+    private final boolean server;
+    private final long handshakeTimeoutMillis;
+    private final long maxPendingBytes;
+    private final Set<ByteBuf> encodedFrames = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private DeliveryByteDecoder decoder;
+    private PendingWriteQueue pendingWrites;
+    private long pendingBytes;
+    private ScheduledFuture<?> timeout;
+
+    /**
+     * Initialize the {@link DeliveryHandshakeHandler}
+     *
+     * @param encoder
+     *          {@link DeliveryByteEncoder} of the same pipeline the agreed {@link DeliveryCompression} is set on
+     * @param preferred
+     *          {@link DeliveryCompression} this side would like to use
+     * @param server
+     *          whether this side accepted the connection
+     */
+    public DeliveryHandshakeHandler(DeliveryByteEncoder encoder, DeliveryCompression preferred, boolean server) {
+        this(encoder, preferred, server, DEFAULT_HANDSHAKE_TIMEOUT_MILLIS, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Initialize the {@link DeliveryHandshakeHandler}
+     *
+     * @param encoder
+     *          {@link DeliveryByteEncoder} of the same pipeline the agreed {@link DeliveryCompression} is set on
+     * @param preferred
+     *          {@link DeliveryCompression} this side would like to use
+     * @param server
+     *          whether this side accepted the connection
+     * @param handshakeTimeoutMillis
+     *          Time in milliseconds the handshake has to be completed in, <code>0</code> to wait forever
+     * @param maxPendingBytes
+     *          Maximum amount of bytes which are held back until the handshake is completed
+     */
+    public DeliveryHandshakeHandler(DeliveryByteEncoder encoder, DeliveryCompression preferred, boolean server,
+                                    long handshakeTimeoutMillis, long maxPendingBytes) {
+        if (encoder == null || preferred == null)
+            throw new NullPointerException();
+        if (handshakeTimeoutMillis < 0 || maxPendingBytes < 0)
+            throw new IllegalArgumentException("The handshake limits must not be negative {handshakeTimeoutMillis: "
+                    + handshakeTimeoutMillis + ", maxPendingBytes: " + maxPendingBytes + "}");
+        this.encoder = encoder;
+        this.preferred = preferred;
+        this.server = server;
+        this.handshakeTimeoutMillis = handshakeTimeoutMillis;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * Looks up the {@link DeliveryByteDecoder} of the pipeline the ids of the other side are mapped on and starts the timeout if
+     * the {@link Channel} is already active.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.decoder = ctx.pipeline().get(DeliveryByteDecoder.class);
+        this.pendingWrites = new PendingWriteQueue(ctx);
+        if (ctx.channel().isActive())
+            this.scheduleTimeout(ctx);
+    }
+
+    /**
+     * Fails every write which is still held back and cancels the timeout.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        this.cancelTimeout();
+        if (!this.pendingWrites.isEmpty())
+            this.failPendingWrites(new ClosedChannelException());
+    }
+
+    /**
+     * Starts the timeout and the handshake if this is the client side.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        this.scheduleTimeout(ctx);
+        if (!this.server)
+            ctx.writeAndFlush(DeliveryHandshakePacket.hello(this.preferred, SUPPORTED_FEATURES, this.getMaxFrameSize(),
+                    this.encoder.getVault()));
+        ctx.fireChannelActive();
+    }
+
+    /**
+     * Fails every write which is still held back because the handshake can't be completed anymore.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        this.cancelTimeout();
+        this.failPendingWrites(new ClosedChannelException());
+        ctx.fireChannelInactive();
+    }
+
+    /**
+     * Encodes and holds back every write until the handshake is completed and fails it if it would exceed the maximum amount of held
+     * back bytes.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param msg
+     *          message which should be written
+     * @param promise
+     *          {@link ChannelPromise} of the write
+     */
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        Object pending = msg;
+        if (msg instanceof DeliveryPacket) {
+            try {
+                pending = this.encoder.encodeFrame(ctx.alloc(), (DeliveryPacket) msg, DeliveryCompression.NONE);
+            } catch (RuntimeException exception) {
+                promise.setFailure(exception);
+                return;
+            }
+        }
+        long size = sizeOf(pending);
+        if (this.pendingBytes + size > this.maxPendingBytes) {
+            ReferenceCountUtil.release(pending);
+            promise.setFailure(new PendingWriteLimitException(this.pendingBytes + size, this.maxPendingBytes));
+            return;
+        }
+        this.pendingBytes += size;
+        if (pending != msg)
+            this.encodedFrames.add((ByteBuf) pending);
+        this.pendingWrites.add(pending, promise);
+    }
+
+    /**
+     * Handles the {@link DeliveryHandshakePacket} and passes every other message on.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param msg
+     *          message provided by the {@link DeliveryByteDecoder}
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof DeliveryHandshakePacket)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        DeliveryHandshakePacket handshake = (DeliveryHandshakePacket) msg;
+        if (handshake.getVersion() != PROTOCOL_VERSION) {
+            this.fail(ctx, new ProtocolVersionMismatchException(PROTOCOL_VERSION, handshake.getVersion()));
+            return;
+        }
+        DeliveryPacketVault vault = this.encoder.getVault();
+        boolean mismatch = handshake.getFingerprint() != vault.getFingerprint();
+        DeliveryCompression compression;
+        if (this.server) {
+            compression = this.select(handshake);
+            ctx.write(DeliveryHandshakePacket.acknowledge(compression, SUPPORTED_FEATURES, this.getMaxFrameSize(), vault, mismatch));
+        } else {
+            if (!handshake.isAcknowledge())
+                return;
+            compression = handshake.getCompression();
+        }
+        if (mismatch)
+            this.mapPacketIds(ctx, vault, handshake.getStableIds());
+        this.encoder.setCompression(compression);
+        this.encoder.limitFrameSize(handshake.getMaxFrameSize());
+        ctx.channel().attr(COMPRESSION).set(compression);
+        ctx.channel().attr(FEATURES).set(SUPPORTED_FEATURES & handshake.getFeatures());
+        ctx.channel().attr(PEER_MAX_FRAME_SIZE).set(handshake.getMaxFrameSize());
+
+        this.cancelTimeout();
+        this.writePendingWrites(handshake.getMaxFrameSize());
+        ctx.flush();
+        ctx.pipeline().remove(this);
+    }
+
+    private void scheduleTimeout(ChannelHandlerContext ctx) {
+        if (this.timeout != null || this.handshakeTimeoutMillis == 0)
+            return;
+        this.timeout = ctx.executor().schedule(() -> this.fail(ctx, new HandshakeTimeoutException(this.handshakeTimeoutMillis)),
+                this.handshakeTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelTimeout() {
+        if (this.timeout != null)
+            this.timeout.cancel(false);
+    }
+
+    /**
+     * Fails every write which is held back with the cause and closes the {@link Channel} because the handshake can't be completed.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param cause
+     *          {@link RuntimeException} the handshake failed with
+     */
+    private void fail(ChannelHandlerContext ctx, RuntimeException cause) {
+        this.cancelTimeout();
+        this.failPendingWrites(cause);
+        ctx.fireExceptionCaught(cause);
+        ctx.close();
+    }
+
+    /**
+     * Writes every held back message on, except frames which are larger than the maximum frame size of the other side. They were
+     * encoded before it was known and are failed with a {@link FrameTooLargeException}.
+     *
+     * @param peerMaxFrameSize
+     *          maximum size of a frame body the other side accepts
+     */
+    private void writePendingWrites(int peerMaxFrameSize) {
+        for (Object msg; (msg = this.pendingWrites.current()) != null; ) {
+            if (msg instanceof ByteBuf && this.encodedFrames.contains(msg) && peerMaxFrameSize > 0) {
+                ByteBuf frame = (ByteBuf) msg;
+                int bodyLength = DeliveryByteBuf.readVarInt(frame.duplicate());
+                if (bodyLength > peerMaxFrameSize) {
+                    ChannelPromise promise = this.pendingWrites.remove();
+                    frame.release();
+                    promise.setFailure(new FrameTooLargeException(bodyLength, peerMaxFrameSize));
+                    continue;
+                }
+            }
+            this.pendingWrites.removeAndWrite();
+        }
+        this.pendingBytes = 0;
+        this.encodedFrames.clear();
+    }
+
+    private void failPendingWrites(Throwable cause) {
+        this.pendingWrites.removeAndFailAll(cause);
+        this.pendingBytes = 0;
+        this.encodedFrames.clear();
+    }
+
+    private static long sizeOf(Object msg) {
+        if (msg instanceof ByteBuf)
+            return ((ByteBuf) msg).readableBytes();
+        if (msg instanceof FileRegion)
+            return ((FileRegion) msg).count();
+        return 0;
+    }
+
+    private void mapPacketIds(ChannelHandlerContext ctx, DeliveryPacketVault vault, int[] remoteStableIds) {
+        int[] mapping = vault.createMapping(remoteStableIds);
+        int unknown = 0;
+        for (int localId : mapping)
+            if (localId == -1)
+                unknown++;
+        int unknownPackets = unknown;
+        LOGGER.log(Level.INFO, () -> "The packet vault of " + ctx.channel().remoteAddress() + " differs, mapping its packet ids "
+                + "{packets: " + mapping.length + ", unknown: " + unknownPackets + "}");
+        if (this.decoder != null)
+            this.decoder.setPacketIdMapping(mapping);
+    }
+
+    private DeliveryCompression select(DeliveryHandshakePacket hello) {
+        if (this.preferred != DeliveryCompression.NONE && hello.supports(this.preferred))
+            return this.preferred;
+        return hello.getCompression();
+    }
+
+    private int getMaxFrameSize() {
+        return (this.decoder != null) ? this.decoder.getMaxFrameSize() : this.encoder.getMaxFrameSize();
+    }
+
+    /**
+     * Returns the {@link DeliveryCompression} the {@link Channel} agreed on.
+     *
+     * @param channel
+     *          {@link Channel} which should be checked
+     * @return DeliveryCompression, {@link DeliveryCompression#NONE} if the handshake is not completed yet
+     */
+    public static DeliveryCompression getCompression(Channel channel) {
+        DeliveryCompression compression = channel.attr(COMPRESSION).get();
+        return (compression == null) ? DeliveryCompression.NONE : compression;
+    }
+
+    /**
+     * Returns the maximum size of a frame body the other side of the {@link Channel} accepts.
+     *
+     * @param channel
+     *          {@link Channel} which should be checked
+     * @return maximum frame size in bytes or <code>-1</code> if the handshake is not completed yet
+     */
+    public static int getPeerMaxFrameSize(Channel channel) {
+        Integer maxFrameSize = channel.attr(PEER_MAX_FRAME_SIZE).get();
+        return (maxFrameSize == null) ? -1 : maxFrameSize;
+    }
+
+    /**
+     * Returns whether both sides of the {@link Channel} support the feature.
+     *
+     * @param channel
+     *          {@link Channel} which should be checked
+     * @param feature
+     *          one of the <code>FEATURE_</code> constants
+     * @return <code>true</code> if the feature is supported, <code>false</code> if not or if the handshake is not completed yet
+     */
+    public static boolean supportsFeature(Channel channel, int feature) {
+        Integer features = channel.attr(FEATURES).get();
+        return features != null && (features & feature) == feature;
+    }
+
+    /**
+     * Returns whether the handshake of the {@link Channel} is completed and the other side didn't announce the feature. Sending
+     * something which requires the feature is pointless then, because the other side would drop it.
+     *
+     * @param channel
+     *          {@link Channel} which should be checked
+     * @param feature
+     *          one of the <code>FEATURE_</code> constants
+     * @return <code>true</code> if the other side lacks the feature, <code>false</code> if it supports it or if the handshake is not
+     *          completed yet
+     */
+    public static boolean lacksFeature(Channel channel, int feature) {
+        Integer features = channel.attr(FEATURES).get();
+        return features != null && (features & feature) != feature;
+    }
+
+}
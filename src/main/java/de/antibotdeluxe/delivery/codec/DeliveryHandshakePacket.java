@@ -0,0 +1,158 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Control packet exchanged by the {@link DeliveryHandshakeHandler} when a connection is established. It is written as control frame
+ * and therefore doesn't need to be registered in the {@link DeliveryPacketVault}.
+ * <p>
+ * The client sends the algorithms it supports together with its preferred one, the server answers with the acknowledged algorithm
+ * which is used by both sides from then on. Both sides also announce their protocol version, their features, the maximum frame size
+ * they accept and the fingerprint of their {@link DeliveryPacketVault}. The stable ids of the vault are only included if the other
+ * side may need them to map the ids, which is always the case for the hello of the client and only on a mismatch for the answer.
+ *
+ * @author jhz
+ */
+final class DeliveryHandshakePacket implements DeliveryControlPacket {
+
+    private static final int[] NO_STABLE_IDS = new int[0];
+
+    private boolean acknowledge;
+    private int version;
+    private int supportedCompressions;
+    private DeliveryCompression compression;
+    private int features;
+    private int maxFrameSize;
+    private long fingerprint;
+    private int[] stableIds;
+
+    DeliveryHandshakePacket() { }
+
+    private DeliveryHandshakePacket(boolean acknowledge, DeliveryCompression compression, int features, int maxFrameSize,
+                                    long fingerprint, int[] stableIds) {
+        this.acknowledge = acknowledge;
+        this.version = DeliveryHandshakeHandler.PROTOCOL_VERSION;
+        this.supportedCompressions = DeliveryCompression.supportedMask();
+        this.compression = compression;
+        this.features = features;
+        this.maxFrameSize = maxFrameSize;
+        this.fingerprint = fingerprint;
+        this.stableIds = stableIds;
+    }
+
+    /**
+     * Creates the packet the client starts the handshake with.
+     *
+     * @param preferred
+     *          {@link DeliveryCompression} preferred by the client
+     * @param features
+     *          features supported by the client
+     * @param maxFrameSize
+     *          maximum size of a frame body the client accepts
+     * @param vault
+     *          {@link DeliveryPacketVault} of the client
+     * @return DeliveryHandshakePacket
+     */
+    static DeliveryHandshakePacket hello(DeliveryCompression preferred, int features, int maxFrameSize, DeliveryPacketVault vault) {
+        return new DeliveryHandshakePacket(false, preferred, features, maxFrameSize, vault.getFingerprint(), vault.getStableIds());
+    }
+
+    /**
+     * Creates the packet the server completes the handshake with.
+     *
+     * @param selected
+     *          {@link DeliveryCompression} both sides agreed on
+     * @param features
+     *          features supported by the server
+     * @param maxFrameSize
+     *          maximum size of a frame body the server accepts
+     * @param vault
+     *          {@link DeliveryPacketVault} of the server
+     * @param mismatch
+     *          whether the fingerprint of the client differs, so the stable ids have to be included
+     * @return DeliveryHandshakePacket
+     */
+    static DeliveryHandshakePacket acknowledge(DeliveryCompression selected, int features, int maxFrameSize, DeliveryPacketVault vault,
+                                               boolean mismatch) {
+        return new DeliveryHandshakePacket(true, selected, features, maxFrameSize, vault.getFingerprint(),
+                mismatch ? vault.getStableIds() : NO_STABLE_IDS);
+    }
+
+    @Override
+    public int getControlType() {
+        return HANDSHAKE;
+    }
+
+    @Override
+    public void write(DeliveryByteBuf buf) {
+        buf.writeBool(this.acknowledge);
+        buf.writeVarInt(this.version);
+        buf.writeVarInt(this.supportedCompressions);
+        buf.writeByte((byte) this.compression.getId());
+        buf.writeVarInt(this.features);
+        buf.writeVarInt(this.maxFrameSize);
+        buf.writeLong(this.fingerprint);
+        buf.writeVarInt(this.stableIds.length);
+        for (int stableId : this.stableIds)
+            buf.writeInt(stableId);
+    }
+
+    @Override
+    public void read(DeliveryByteBuf buf) {
+        this.acknowledge = buf.readBool();
+        this.version = buf.readVarInt();
+        this.supportedCompressions = buf.readVarInt();
+        this.compression = DeliveryCompression.byId(buf.readByte());
+        if (this.compression == null)
+            this.compression = DeliveryCompression.NONE;
+        this.features = buf.readVarInt();
+        this.maxFrameSize = buf.readVarInt();
+        this.fingerprint = buf.readLong();
+        int count = buf.readVarInt();
+        if (count < 0 || count > buf.getBuf().readableBytes() / 4)
+            throw new CorruptedFrameException("The handshake announced more stable ids than it contains {count: " + count + "}");
+        this.stableIds = new int[count];
+        for (int i = 0; i < count; i++)
+            this.stableIds[i] = buf.readInt();
+    }
+
+    /**
+     * Returns whether the other side is able to decompress the given algorithm.
+     *
+     * @param compression
+     *          {@link DeliveryCompression} which should be checked
+     * @return <code>true</code> if the algorithm is supported
+     */
+    boolean supports(DeliveryCompression compression) {
+        return (this.supportedCompressions & (1 << compression.getId())) != 0;
+    }
+
+    boolean isAcknowledge() {
+        return this.acknowledge;
+    }
+
+    int getVersion() {
+        return this.version;
+    }
+
+    DeliveryCompression getCompression() {
+        return this.compression;
+    }
+
+    int getFeatures() {
+        return this.features;
+    }
+
+    int getMaxFrameSize() {
+        return this.maxFrameSize;
+    }
+
+    long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    int[] getStableIds() {
+        return this.stableIds;
+    }
+
+}
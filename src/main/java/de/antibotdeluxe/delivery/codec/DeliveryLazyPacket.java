@@ -0,0 +1,133 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link DeliveryPacket} whose payload has not been deserialized yet. It is passed to
+ * {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s which accept lazy packets, the actual {@link DeliveryPacket} is only
+ * created once <code>materialize()</code> is called.
+ * <p>
+ * <strong>Note</strong><br>
+ * The payload is only valid while the {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s are called and released
+ * afterwards, unless it was retained with <code>retain()</code>. The materialized {@link DeliveryPacket} can be kept.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryLazyPacket implements DeliveryPacket {
+
+    private final int packetId;
+    private final Class<? extends DeliveryPacket> packetClass;
+    private final Supplier<? extends DeliveryPacket> factory;
+    private final DeliveryCompression compression;
+    private final ByteBufAllocator alloc;
+    private final int maxFrameSize;
+
+    private ByteBuf payload;
+    private DeliveryPacket packet;
+    private int referenceCount = 1;
+
+    DeliveryLazyPacket(int packetId, Class<? extends DeliveryPacket> packetClass, Supplier<? extends DeliveryPacket> factory,
+                       DeliveryCompression compression, ByteBuf payload, ByteBufAllocator alloc, int maxFrameSize) {
+        this.packetId = packetId;
+        this.packetClass = packetClass;
+        this.factory = factory;
+        this.compression = compression;
+        this.payload = payload;
+        this.alloc = alloc;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Deserializes the payload into the actual {@link DeliveryPacket}. Further calls return the same instance.
+     *
+     * @param <T>
+     *          type of the {@link DeliveryPacket}
+     * @return DeliveryPacket
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends DeliveryPacket> T materialize() {
+        if (this.packet == null) {
+            if (this.payload == null)
+                throw new IllegalStateException("The payload has already been released {packetClass: " + this.packetClass.getName() + "}");
+            DeliveryPacket packet = this.factory.get();
+            DeliveryByteDecoder.readPayload(packet, this.payload.duplicate(), this.compression, this.alloc, this.maxFrameSize);
+            this.packet = packet;
+        }
+        return (T) this.packet;
+    }
+
+    /**
+     * Returns whether the payload has already been deserialized.
+     *
+     * @return <code>true</code> if <code>materialize()</code> was called
+     */
+    public synchronized boolean isMaterialized() {
+        return this.packet != null;
+    }
+
+    /**
+     * Returns the identifier of the {@link DeliveryPacket} in the {@link DeliveryPacketVault}.
+     *
+     * @return packet id
+     */
+    public int getPacketId() {
+        return this.packetId;
+    }
+
+    /**
+     * Returns the type of the {@link DeliveryPacket} the payload belongs to.
+     *
+     * @return Class of the {@link DeliveryPacket}
+     */
+    public Class<? extends DeliveryPacket> getPacketClass() {
+        return this.packetClass;
+    }
+
+    /**
+     * Returns the size of the serialized payload in bytes, which is the compressed size if the payload is compressed.
+     *
+     * @return size of the payload
+     */
+    public synchronized int getPayloadSize() {
+        return (this.payload == null) ? 0 : this.payload.readableBytes();
+    }
+
+    /**
+     * Prevents the payload from being released until <code>release()</code> was called once more, e.g. while a
+     * {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler} runs on another thread.
+     *
+     * @return this {@link DeliveryLazyPacket}
+     */
+    public synchronized DeliveryLazyPacket retain() {
+        if (this.payload == null)
+            throw new IllegalStateException("The payload has already been released {packetClass: " + this.packetClass.getName() + "}");
+        this.referenceCount++;
+        return this;
+    }
+
+    /**
+     * Releases one reference. The payload is released with the last one, which happens after the
+     * {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s have been called.
+     */
+    public synchronized void release() {
+        if (this.payload != null && --this.referenceCount == 0) {
+            this.payload.release();
+            this.payload = null;
+        }
+    }
+
+    @Override
+    public void write(DeliveryByteBuf buf) {
+        this.materialize().write(buf);
+    }
+
+    @Override
+    public void read(DeliveryByteBuf buf) {
+        throw new UnsupportedOperationException("A lazy packet is created by the decoder");
+    }
+
+}
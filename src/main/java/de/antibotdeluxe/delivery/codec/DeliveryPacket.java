@@ -7,6 +7,9 @@ package de.antibotdeluxe.delivery.codec;
  * The {@link DeliveryPacket} will be used as template to generalise the data transfer. It's mandatory that {@link DeliveryPacket}'s from
  * the same type have the data set at the same point in the {@link DeliveryByteBuf}. Other wise the encoding and decoding would not be
  * possible.
+ * <p>
+ * Instead of implementing the methods by hand the fields can be annotated with {@link DeliveryField}. A {@link DeliverySerializer} is
+ * generated for them at compile time which is used by the default implementations of the methods.
  *
  * @author jhz
  */
@@ -22,7 +25,9 @@ public interface DeliveryPacket {
      *
      * @see io.netty.buffer.ByteBuf
      */
-    void write(DeliveryByteBuf buf);
+    default void write(DeliveryByteBuf buf) {
+        DeliverySerializers.require(this.getClass()).write(buf, this);
+    }
 
     /**
      * Used to read out data from the {@link DeliveryByteBuf} which has been sent from <i>another</i> application via the
@@ -32,6 +37,19 @@ public interface DeliveryPacket {
      *          {@link DeliveryByteBuf} which contains all the data which was received by the
      *          <a target="_blank" href="http://netty.io">Netty.io</a>
      */
-    void read(DeliveryByteBuf buf);
+    default void read(DeliveryByteBuf buf) {
+        DeliverySerializers.require(this.getClass()).read(buf, this);
+    }
+
+    /**
+     * Can be overwritten to return the expected amount of bytes <code>write(DeliveryByteBuf buf)</code> will write. The
+     * {@link DeliveryByteEncoder} uses it as initial capacity of the buffer, so large {@link DeliveryPacket}'s don't need to grow
+     * and copy the buffer several times while they are written. The estimate doesn't need to be exact.
+     *
+     * @return expected amount of bytes or <code>-1</code> if unknown
+     */
+    default int estimateSize() {
+        return -1;
+    }
 
 }
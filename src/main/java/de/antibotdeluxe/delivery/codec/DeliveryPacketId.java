@@ -0,0 +1,30 @@
+package de.antibotdeluxe.delivery.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a fixed stable id to a {@link DeliveryPacket}.
+ * <p>
+ * Two sides of a connection identify a {@link DeliveryPacket} by its stable id during the handshake, so their
+ * {@link DeliveryPacketVault}'s may register the {@link DeliveryPacket}'s in a different order or contain different ones. Without
+ * this annotation the stable id is derived from the hash of the class name, which changes if the class is renamed or moved.
+ *
+ * @author jhz
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DeliveryPacketId {
+
+    /**
+     * Stable id of the {@link DeliveryPacket}. Has to be unique within the {@link DeliveryPacketVault}.
+     *
+     * @return stable id
+     */
+    int value();
+
+}
@@ -0,0 +1,65 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.util.Recycler;
+
+import java.util.function.Supplier;
+
+/**
+ * Per thread pool of {@link DeliveryRecyclablePacket}'s based on the {@link Recycler} by
+ * <a target="_blank" href="http://netty.io">Netty.io</a>.
+ * <p>
+ * The pool is used as factory in the {@link DeliveryPacketVault}, so the {@link DeliveryByteDecoder} takes the
+ * {@link DeliveryPacket}'s from it. They return to the pool of the thread which took them as soon as they are released.
+ *
+ * @param <T>
+ *          Type of the {@link DeliveryRecyclablePacket}
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryPacketPool<T extends DeliveryRecyclablePacket> implements Supplier<T> {
+
+    /**
+     * Default maximum amount of {@link DeliveryPacket}'s pooled per thread.
+     */
+    public static final int DEFAULT_MAX_CAPACITY_PER_THREAD = 4096;
+
+    private final Recycler<T> recycler;
+
+    public DeliveryPacketPool(Supplier<T> factory) {
+        this(factory, DEFAULT_MAX_CAPACITY_PER_THREAD);
+    }
+
+    /**
+     * Initialize the {@link DeliveryPacketPool}
+     *
+     * @param factory
+     *          creates a new empty {@link DeliveryPacket} if the pool of the current thread is empty
+     * @param maxCapacityPerThread
+     *          maximum amount of {@link DeliveryPacket}'s pooled per thread
+     */
+    public DeliveryPacketPool(Supplier<T> factory, int maxCapacityPerThread) {
+        this.recycler = new Recycler<>(maxCapacityPerThread) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected T newObject(Handle<T> handle) {
+                T packet = factory.get();
+                packet.bind((Handle<DeliveryRecyclablePacket>) (Handle<?>) handle);
+                return packet;
+            }
+        };
+    }
+
+    /**
+     * Takes a {@link DeliveryPacket} from the pool of the current thread or creates a new one if the pool is empty.
+     *
+     * @return empty {@link DeliveryPacket} with exactly one reference
+     */
+    @Override
+    public T get() {
+        T packet = this.recycler.get();
+        packet.reuse();
+        return packet;
+    }
+
+}
@@ -1,10 +1,30 @@
 package de.antibotdeluxe.delivery.codec;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.function.Supplier;
 
 /**
  * Used from the Server and Client to get the {@link DeliveryPacket} id and parse them into the right {@link DeliveryPacket}.
+ * <p>
+ * Once all {@link DeliveryPacket}'s are registered the vault is frozen by calling <code>freeze()</code>, which is done automatically
+ * when a {@link de.antibotdeluxe.delivery.server.DeliveryServer} or {@link de.antibotdeluxe.delivery.client.DeliveryClient} starts.
+ * A frozen vault can't be changed anymore and answers every lookup in constant time without any locking, so it can be shared
+ * between all event loops.
+ * <p>
+ * {@link DeliveryPacket}'s with fields annotated with {@link DeliveryField} are registered together with their generated
+ * {@link DeliverySerializer}, which is looked up once when the {@link DeliveryPacket} is registered.
+ * <p>
+ * Besides its id, which is the position it was registered at, every {@link DeliveryPacket} has a stable id. It is taken from the
+ * {@link DeliveryPacketId} annotation or derived from the class name, so it is the same on every side no matter in which order the
+ * {@link DeliveryPacket}'s were registered. The {@link DeliveryHandshakeHandler} compares the fingerprint of both vaults and maps the
+ * ids of the other side by their stable ids if they differ.
  *
  * @author jhz
  *
@@ -17,6 +37,21 @@ public class DeliveryPacketVault {
      */
     private final ArrayList<Class<? extends DeliveryPacket>> vault = new ArrayList<>();
 
+    /**
+     * List that holds the factory of every {@link DeliveryPacket} registered at the same index as its class.
+     */
+    private final ArrayList<Supplier<? extends DeliveryPacket>> factories = new ArrayList<>();
+
+    /**
+     * List that holds the stable id of every {@link DeliveryPacket} registered at the same index as its class.
+     */
+    private final ArrayList<Integer> stableIds = new ArrayList<>();
+
+    /**
+     * Immutable lookup tables, set as soon as the vault is frozen.
+     */
+    private volatile Frozen frozen;
+
     /**
      * Retrieves a specific {@link DeliveryPacket} id by it's class.
      *
@@ -36,8 +71,12 @@ public class DeliveryPacketVault {
      * @return The {@link DeliveryPacket} id
      */
     public int getPacketIdByClass(Class<? extends DeliveryPacket> clazz) {
-
-        return this.vault.indexOf(clazz);
+        Frozen frozen = this.frozen;
+        if (frozen != null)
+            return frozen.ids.get(clazz);
+        synchronized (this) {
+            return this.vault.indexOf(clazz);
+        }
     }
 
     /**
@@ -69,7 +108,7 @@ public class DeliveryPacketVault {
      *          {@link DeliveryPacket} which should be registered
      */
     public void addPacketClass(Class<? extends DeliveryPacket> param) {
-        this.vault.add(param);
+        this.register(param, createFactory(param));
     }
 
     /**
@@ -80,7 +119,125 @@ public class DeliveryPacketVault {
      */
     @SafeVarargs
     public final void addPacketClasses(Class<? extends DeliveryPacket>... classes) {
-        Collections.addAll(this.vault, classes);
+        for (Class<? extends DeliveryPacket> clazz : classes)
+            this.addPacketClass(clazz);
+    }
+
+    /**
+     * Adds the given factory to the vault. The factory is called once to find out the {@link Class} of the {@link DeliveryPacket}.
+     *
+     * @param factory
+     *          creates a new empty {@link DeliveryPacket} every time a {@link DeliveryPacket} of this type is received
+     */
+    public void addPacketFactory(Supplier<? extends DeliveryPacket> factory) {
+        this.register(factory.get().getClass(), factory);
+    }
+
+    /**
+     * Adds the given {@link DeliveryPacket} class together with the factory which creates new instances of it to the vault.
+     *
+     * @param clazz
+     *          {@link DeliveryPacket} {@link Class} which should be registered
+     * @param factory
+     *          creates a new empty {@link DeliveryPacket} every time a {@link DeliveryPacket} of this type is received
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     */
+    public <T extends DeliveryPacket> void addPacketFactory(Class<T> clazz, Supplier<? extends T> factory) {
+        this.register(clazz, factory);
+    }
+
+    /**
+     * Adds the given {@link DeliveryRecyclablePacket} class to the vault. Received {@link DeliveryPacket}'s of this type are taken
+     * from a {@link DeliveryPacketPool} and returned to it after they were handled.
+     *
+     * @param clazz
+     *          {@link DeliveryRecyclablePacket} {@link Class} which should be registered
+     * @param factory
+     *          creates a new empty {@link DeliveryPacket} if the pool is empty
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     */
+    public <T extends DeliveryRecyclablePacket> void addRecyclablePacket(Class<T> clazz, Supplier<T> factory) {
+        this.register(clazz, new DeliveryPacketPool<>(factory));
+    }
+
+    private synchronized void register(Class<? extends DeliveryPacket> clazz, Supplier<? extends DeliveryPacket> factory) {
+        if (clazz == null || factory == null)
+            throw new NullPointerException("The packet class and the factory must not be null");
+        if (this.frozen != null)
+            throw new IllegalStateException("The vault is frozen and can't register any new packets {packet: '" + clazz.getName() + "'}");
+        if (!DeliverySerializers.isSerializable(clazz))
+            throw new IllegalStateException("The packet neither overrides write and read nor has a generated serializer, is the "
+                    + "annotation processor enabled? {packet: '" + clazz.getName() + "'}");
+        int stableId = stableIdOf(clazz);
+        int existing = this.stableIds.indexOf(stableId);
+        if (existing != -1)
+            throw new IllegalStateException("Two packets have the same stable id, annotate one with @DeliveryPacketId {packet: '"
+                    + clazz.getName() + "', other: '" + this.vault.get(existing).getName() + "', stableId: " + stableId + "}");
+        this.vault.add(clazz);
+        this.factories.add(factory);
+        this.stableIds.add(stableId);
+    }
+
+    /**
+     * Returns the stable id of the {@link DeliveryPacket} class, either the value of its {@link DeliveryPacketId} annotation or the
+     * 32 bit FNV-1a hash of its class name.
+     *
+     * @param clazz
+     *          {@link DeliveryPacket} {@link Class}
+     * @return stable id
+     */
+    static int stableIdOf(Class<? extends DeliveryPacket> clazz) {
+        DeliveryPacketId annotation = clazz.getAnnotation(DeliveryPacketId.class);
+        if (annotation != null)
+            return annotation.value();
+        String name = clazz.getName();
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * Freezes the vault. Afterwards no {@link DeliveryPacket}'s can be registered anymore and every lookup is answered from immutable
+     * tables which are safe to be read by any thread without locking. Calling this method more than once has no effect.
+     *
+     * @return this {@link DeliveryPacketVault}
+     */
+    public DeliveryPacketVault freeze() {
+        if (this.frozen == null) {
+            synchronized (this) {
+                if (this.frozen == null)
+                    this.frozen = new Frozen(this.vault, this.factories, this.stableIds);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns whether the vault is frozen.
+     *
+     * @return Boolean whether <code>freeze()</code> was called
+     */
+    public boolean isFrozen() {
+        return this.frozen != null;
+    }
+
+    /**
+     * Returns the amount of registered {@link DeliveryPacket}'s.
+     *
+     * @return amount of {@link DeliveryPacket}'s
+     */
+    public int getPacketCount() {
+        Frozen frozen = this.frozen;
+        if (frozen != null)
+            return frozen.classes.length;
+        synchronized (this) {
+            return this.vault.size();
+        }
     }
 
     /**
@@ -88,10 +245,180 @@ public class DeliveryPacketVault {
      *
      * @param packetId
      *          from the {@link DeliveryPacket}
-     * @return DeliveryPacket as {@link Class}
+     * @return DeliveryPacket as {@link Class} or <code>null</code> if the id is unknown
      */
     public Class<? extends DeliveryPacket> getPacket(int packetId) {
-        return this.vault.get(packetId);
+        Frozen frozen = this.frozen;
+        if (frozen != null)
+            return (packetId >= 0 && packetId < frozen.classes.length) ? frozen.classes[packetId] : null;
+        synchronized (this) {
+            return (packetId >= 0 && packetId < this.vault.size()) ? this.vault.get(packetId) : null;
+        }
+    }
+
+    /**
+     * Returns the factory which creates new instances of the {@link DeliveryPacket} with the given id.
+     *
+     * @param packetId
+     *          from the {@link DeliveryPacket}
+     * @return factory of the {@link DeliveryPacket} or <code>null</code> if the id is unknown
+     */
+    public Supplier<? extends DeliveryPacket> getPacketFactory(int packetId) {
+        Frozen frozen = this.frozen;
+        if (frozen != null)
+            return (packetId >= 0 && packetId < frozen.factories.length) ? frozen.factories[packetId] : null;
+        synchronized (this) {
+            return (packetId >= 0 && packetId < this.factories.size()) ? this.factories.get(packetId) : null;
+        }
+    }
+
+    /**
+     * Returns the stable id of the {@link DeliveryPacket} with the given id.
+     *
+     * @param packetId
+     *          from the {@link DeliveryPacket}
+     * @return stable id
+     * @throws IndexOutOfBoundsException
+     *          if the id is unknown
+     */
+    public int getStableId(int packetId) {
+        Frozen frozen = this.frozen;
+        if (frozen != null)
+            return frozen.stableIds[packetId];
+        synchronized (this) {
+            return this.stableIds.get(packetId);
+        }
+    }
+
+    /**
+     * Returns the stable ids of all registered {@link DeliveryPacket}'s, ordered by their id.
+     *
+     * @return stable ids
+     */
+    public int[] getStableIds() {
+        Frozen frozen = this.frozen;
+        if (frozen != null)
+            return frozen.stableIds.clone();
+        synchronized (this) {
+            return this.stableIds.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the vault. Two vaults have the same fingerprint if they assign the same ids to the same
+     * {@link DeliveryPacket}'s, so no ids have to be mapped between them.
+     *
+     * @return fingerprint
+     */
+    public long getFingerprint() {
+        Frozen frozen = this.frozen;
+        return (frozen != null) ? frozen.fingerprint : fingerprintOf(this.getStableIds());
+    }
+
+    /**
+     * Creates the table which maps the ids of another vault to the ids of this one.
+     *
+     * @param remoteStableIds
+     *          stable ids of the other vault, ordered by their id
+     * @return table with the local id at the index of the remote id, <code>-1</code> for {@link DeliveryPacket}'s this vault doesn't
+     *          know
+     */
+    public int[] createMapping(int[] remoteStableIds) {
+        int[] local = this.getStableIds();
+        HashMap<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < local.length; i++)
+            index.put(local[i], i);
+        int[] mapping = new int[remoteStableIds.length];
+        for (int i = 0; i < remoteStableIds.length; i++)
+            mapping[i] = index.getOrDefault(remoteStableIds[i], -1);
+        return mapping;
+    }
+
+    /**
+     * 64 bit FNV-1a hash over the stable ids in the order of their ids.
+     */
+    private static long fingerprintOf(int[] stableIds) {
+        long hash = 0xCBF29CE484222325L;
+        for (int stableId : stableIds) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                hash ^= (stableId >>> shift) & 0xFF;
+                hash *= 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Creates a factory for the no-args constructor of the given {@link DeliveryPacket} class once, so no reflection is needed
+     * whenever a {@link DeliveryPacket} is received.
+     * <p>
+     * The constructor is bound to a {@link Supplier} with the {@link LambdaMetafactory} which the JIT is able to inline. If the class
+     * is not visible to the class loader of the vault the {@link MethodHandle} is invoked directly instead. Classes without an
+     * accessible no-args constructor can still be registered to be sent, but receiving them fails.
+     *
+     * @param clazz
+     *          {@link DeliveryPacket} {@link Class} the factory should be created for
+     * @return factory
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<? extends DeliveryPacket> createFactory(Class<? extends DeliveryPacket> clazz) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException exception) {
+            return () -> {
+                throw new IllegalStateException("The packet has no accessible no-args constructor {packet: '" + clazz.getName() + "'}",
+                        exception);
+            };
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), constructor, MethodType.methodType(clazz));
+            return (Supplier<? extends DeliveryPacket>) site.getTarget().invoke();
+        } catch (Throwable ignored) {
+            MethodHandle handle = constructor.asType(MethodType.methodType(DeliveryPacket.class));
+            return () -> {
+                try {
+                    return (DeliveryPacket) handle.invokeExact();
+                } catch (RuntimeException | Error exception) {
+                    throw exception;
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException(throwable);
+                }
+            };
+        }
+    }
+
+    /**
+     * Immutable lookup tables of a frozen {@link DeliveryPacketVault}. The id of a class is cached in a {@link ClassValue}, the
+     * factory and the stable id of an id are stored in plain arrays.
+     */
+    private static final class Frozen {
+
+        private final Class<? extends DeliveryPacket>[] classes;
+        private final Supplier<? extends DeliveryPacket>[] factories;
+        private final int[] stableIds;
+        private final long fingerprint;
+        private final ClassValue<Integer> ids;
+
+        @SuppressWarnings("unchecked")
+        private Frozen(ArrayList<Class<? extends DeliveryPacket>> classes, ArrayList<Supplier<? extends DeliveryPacket>> factories,
+                       ArrayList<Integer> stableIds) {
+            this.classes = (Class<? extends DeliveryPacket>[]) classes.toArray(new Class<?>[0]);
+            this.factories = (Supplier<? extends DeliveryPacket>[]) factories.toArray(new Supplier<?>[0]);
+            this.stableIds = stableIds.stream().mapToInt(Integer::intValue).toArray();
+            this.fingerprint = fingerprintOf(this.stableIds);
+            IdentityHashMap<Class<?>, Integer> index = new IdentityHashMap<>();
+            for (int i = this.classes.length - 1; i >= 0; i--)
+                index.put(this.classes[i], i);
+            this.ids = new ClassValue<>() {
+                @Override
+                protected Integer computeValue(Class<?> type) {
+                    return index.getOrDefault(type, -1);
+                }
+            };
+        }
+
     }
 
 }
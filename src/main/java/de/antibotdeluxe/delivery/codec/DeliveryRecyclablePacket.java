@@ -0,0 +1,99 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.util.Recycler;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Base class for {@link DeliveryPacket}'s which are received very often and should be reused instead of being created for every
+ * single frame.
+ * <p>
+ * Register the {@link DeliveryPacket} with <code>addRecyclablePacket(Class clazz, Supplier factory)</code> in the
+ * {@link DeliveryPacketVault}. The {@link DeliveryByteDecoder} will then take the instances from a {@link DeliveryPacketPool} and the
+ * {@link de.antibotdeluxe.delivery.server.DeliveryServer} or {@link de.antibotdeluxe.delivery.client.DeliveryClient} returns them
+ * after all {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s were called.
+ * <p>
+ * <strong>Notice</strong><br>
+ * A {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler} which keeps the {@link DeliveryPacket} after <code>call</code>
+ * returned has to call <code>retain()</code> and later <code>release()</code> once it doesn't need it anymore. Otherwise the
+ * {@link DeliveryPacket} may be reset and filled with the data of another frame in the meantime.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public abstract class DeliveryRecyclablePacket implements DeliveryPacket {
+
+    private static final AtomicIntegerFieldUpdater<DeliveryRecyclablePacket> REFERENCE_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(DeliveryRecyclablePacket.class, "referenceCount");
+
+    private volatile int referenceCount = 1;
+    private Recycler.Handle<DeliveryRecyclablePacket> handle;
+
+    /**
+     * Will be overwritten by each {@link DeliveryRecyclablePacket} to clear every field before the {@link DeliveryPacket} is
+     * returned to its {@link DeliveryPacketPool}.
+     */
+    protected abstract void reset();
+
+    /**
+     * Prevents the {@link DeliveryPacket} from being reused until <code>release()</code> was called once more.
+     *
+     * @return this {@link DeliveryRecyclablePacket}
+     */
+    public final DeliveryRecyclablePacket retain() {
+        for (;;) {
+            int count = this.referenceCount;
+            if (count <= 0)
+                throw new IllegalStateException("The packet was already released {packet: '" + getClass().getName() + "'}");
+            if (REFERENCE_COUNT.compareAndSet(this, count, count + 1))
+                return this;
+        }
+    }
+
+    /**
+     * Releases one reference. As soon as no reference is left the {@link DeliveryPacket} is reset and returned to its
+     * {@link DeliveryPacketPool}.
+     *
+     * @return Boolean whether the {@link DeliveryPacket} was returned to its {@link DeliveryPacketPool}
+     */
+    public final boolean release() {
+        int count = REFERENCE_COUNT.decrementAndGet(this);
+        if (count > 0)
+            return false;
+        if (count < 0) {
+            REFERENCE_COUNT.incrementAndGet(this);
+            throw new IllegalStateException("The packet was already released {packet: '" + getClass().getName() + "'}");
+        }
+        this.reset();
+        if (this.handle != null)
+            this.handle.recycle(this);
+        return true;
+    }
+
+    /**
+     * Returns the current amount of references.
+     *
+     * @return amount of references
+     */
+    public final int referenceCount() {
+        return this.referenceCount;
+    }
+
+    /**
+     * Called by the {@link DeliveryPacketPool} when the {@link DeliveryPacket} was created.
+     *
+     * @param handle
+     *          {@link Recycler.Handle} the {@link DeliveryPacket} belongs to
+     */
+    final void bind(Recycler.Handle<DeliveryRecyclablePacket> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Called by the {@link DeliveryPacketPool} when the {@link DeliveryPacket} is handed out.
+     */
+    final void reuse() {
+        this.referenceCount = 1;
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Allows a {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler} to answer a request sent with <code>request(...)</code>.
+ * <p>
+ * While the handlers for a request are called, <code>DeliveryReply.current()</code> returns the {@link DeliveryReply} of it. The
+ * {@link DeliveryReply} can be kept and used later from any thread, e.g. after an asynchronous lookup. Only the first response is
+ * accepted by the requesting side.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryReply {
+
+    private static final FastThreadLocal<DeliveryReply> CURRENT = new FastThreadLocal<>();
+
+    private final Channel channel;
+    private final int correlationId;
+
+    DeliveryReply(Channel channel, int correlationId) {
+        this.channel = channel;
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * Returns the {@link DeliveryReply} of the request whose handlers are currently called on this thread.
+     *
+     * @return DeliveryReply or <code>null</code> if the current {@link DeliveryPacket} is not a request
+     */
+    public static DeliveryReply current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sends the response to the request.
+     *
+     * @param response
+     *          {@link DeliveryPacket} which should be sent as response
+     * @return ChannelFuture which completes as soon as the response was written
+     */
+    public ChannelFuture send(DeliveryPacket response) {
+        if (response == null)
+            throw new NullPointerException();
+        return this.channel.writeAndFlush(new DeliveryCorrelatedPacket(this.correlationId, true, response));
+    }
+
+    /**
+     * Wraps the task so <code>DeliveryReply.current()</code> returns this {@link DeliveryReply} while it runs, which is used to call
+     * {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s on another thread.
+     *
+     * @param task
+     *          {@link Runnable} which should be wrapped
+     * @return Runnable
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            DeliveryReply previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                task.run();
+            } finally {
+                setCurrent(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the identifier of the request.
+     *
+     * @return correlation id
+     */
+    public int getCorrelationId() {
+        return this.correlationId;
+    }
+
+    static void setCurrent(DeliveryReply reply) {
+        if (reply == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(reply);
+    }
+
+}
@@ -0,0 +1,34 @@
+package de.antibotdeluxe.delivery.codec;
+
+/**
+ * Writes and reads the fields of a {@link DeliveryPacket}. Implementations are generated at compile time for every
+ * {@link DeliveryPacket} with fields annotated with {@link DeliveryField} and found automatically by the {@link DeliveryPacketVault}.
+ *
+ * @param <T>
+ *          Type of the {@link DeliveryPacket}
+ *
+ * @author jhz
+ */
+public interface DeliverySerializer<T extends DeliveryPacket> {
+
+    /**
+     * Writes the fields of the {@link DeliveryPacket} to the {@link DeliveryByteBuf}.
+     *
+     * @param buf
+     *          {@link DeliveryByteBuf} the fields are written to
+     * @param packet
+     *          {@link DeliveryPacket} which should be written
+     */
+    void write(DeliveryByteBuf buf, T packet);
+
+    /**
+     * Reads the fields of the {@link DeliveryPacket} from the {@link DeliveryByteBuf}.
+     *
+     * @param buf
+     *          {@link DeliveryByteBuf} the fields are red from
+     * @param packet
+     *          {@link DeliveryPacket} the fields are set on
+     */
+    void read(DeliveryByteBuf buf, T packet);
+
+}
@@ -0,0 +1,87 @@
+package de.antibotdeluxe.delivery.codec;
+
+/**
+ * Finds the {@link DeliverySerializer} generated for a {@link DeliveryPacket}. The lookup is done once per class and cached in a
+ * {@link ClassValue}, so no reflection is needed while {@link DeliveryPacket}'s are written or red.
+ *
+ * @author jhz
+ */
+final class DeliverySerializers {
+
+    /**
+     * Suffix appended to the binary name of the {@link DeliveryPacket} to get the name of the generated serializer.
+     */
+    static final String SUFFIX = "$DeliverySerializer";
+
+    private static final ClassValue<DeliverySerializer<?>> SERIALIZERS = new ClassValue<>() {
+        @Override
+        protected DeliverySerializer<?> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    private DeliverySerializers() { }
+
+    /**
+     * Returns the generated {@link DeliverySerializer} of the {@link DeliveryPacket}.
+     *
+     * @param clazz
+     *          {@link DeliveryPacket} {@link Class}
+     * @return DeliverySerializer or <code>null</code> if none was generated
+     */
+    static DeliverySerializer<?> get(Class<?> clazz) {
+        return SERIALIZERS.get(clazz);
+    }
+
+    /**
+     * Returns the generated {@link DeliverySerializer} of the {@link DeliveryPacket}.
+     *
+     * @param clazz
+     *          {@link DeliveryPacket} {@link Class}
+     * @return DeliverySerializer
+     * @throws UnsupportedOperationException
+     *          if no serializer was generated
+     */
+    @SuppressWarnings("unchecked")
+    static DeliverySerializer<DeliveryPacket> require(Class<?> clazz) {
+        DeliverySerializer<?> serializer = SERIALIZERS.get(clazz);
+        if (serializer == null)
+            throw new UnsupportedOperationException("The packet neither overrides write and read nor has fields annotated with "
+                    + "@DeliveryField {packet: '" + clazz.getName() + "'}");
+        return (DeliverySerializer<DeliveryPacket>) serializer;
+    }
+
+    /**
+     * Returns whether the {@link DeliveryPacket} can be serialized, either by its own methods or by a generated serializer.
+     *
+     * @param clazz
+     *          {@link DeliveryPacket} {@link Class}
+     * @return <code>true</code> if the {@link DeliveryPacket} can be serialized
+     */
+    static boolean isSerializable(Class<? extends DeliveryPacket> clazz) {
+        if (get(clazz) != null)
+            return true;
+        try {
+            return !clazz.getMethod("write", DeliveryByteBuf.class).getDeclaringClass().isInterface()
+                    && !clazz.getMethod("read", DeliveryByteBuf.class).getDeclaringClass().isInterface();
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    private static DeliverySerializer<?> load(Class<?> type) {
+        Class<?> serializerClass;
+        try {
+            serializerClass = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            return null;
+        }
+        try {
+            return (DeliverySerializer<?>) serializerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException exception) {
+            throw new IllegalStateException("The generated serializer can't be created {serializer: '" + serializerClass.getName()
+                    + "'}", exception);
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.channel.Channel;
+
+/**
+ * Describes a stream which is received from the other side of a connection. The {@link DeliveryPacket} sent when opening the stream
+ * describes its content, the bytes themselves are passed chunk by chunk to the {@link DeliveryStreamReceiver}.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryStream {
+
+    private final Channel channel;
+    private final int streamId;
+    private final DeliveryPacket header;
+
+    private long received;
+    private Object attachment;
+
+    DeliveryStream(Channel channel, int streamId, DeliveryPacket header) {
+        this.channel = channel;
+        this.streamId = streamId;
+        this.header = header;
+    }
+
+    /**
+     * Returns the {@link Channel} the stream is received from.
+     *
+     * @return Channel
+     */
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Returns the identifier of the stream which is unique per sending side.
+     *
+     * @return stream id
+     */
+    public int getStreamId() {
+        return this.streamId;
+    }
+
+    /**
+     * Returns the {@link DeliveryPacket} the sender opened the stream with.
+     *
+     * @return header of the stream
+     */
+    public DeliveryPacket getHeader() {
+        return this.header;
+    }
+
+    /**
+     * Returns the amount of bytes which have been received so far.
+     *
+     * @return received bytes
+     */
+    public long getReceived() {
+        return this.received;
+    }
+
+    /**
+     * Returns the object attached by the {@link DeliveryStreamReceiver}.
+     *
+     * @return attachment or <code>null</code>
+     */
+    public Object getAttachment() {
+        return this.attachment;
+    }
+
+    /**
+     * Attaches an object to the stream, e.g. the state the {@link DeliveryStreamReceiver} needs to process the following chunks.
+     *
+     * @param attachment
+     *          attachment or <code>null</code>
+     */
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    void addReceived(long bytes) {
+        this.received += bytes;
+    }
+
+}
@@ -0,0 +1,124 @@
+package de.antibotdeluxe.delivery.codec;
+
+import de.antibotdeluxe.delivery.misc.exceptions.NoSuchPacketException;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.function.Supplier;
+
+/**
+ * Control packet carrying a part of a stream. A stream is opened with the {@link DeliveryPacket} describing it, followed by any
+ * amount of data chunks and closed by an end or abort frame.
+ * <p>
+ * <code>[VarInt stream id] [kind] [VarInt packet id] [header payload]</code> for an open frame,
+ * <code>[VarInt stream id] [kind] [data]</code> for a data frame.
+ *
+ * @author jhz
+ */
+final class DeliveryStreamFrame implements DeliveryControlPacket {
+
+    static final int OPEN = 0;
+    static final int DATA = 1;
+    static final int END = 2;
+    static final int ABORT = 3;
+
+    private final int streamId;
+    private final int kind;
+    private final DeliveryPacket header;
+    private final ByteBuf data;
+
+    private DeliveryStreamFrame(int streamId, int kind, DeliveryPacket header, ByteBuf data) {
+        this.streamId = streamId;
+        this.kind = kind;
+        this.header = header;
+        this.data = data;
+    }
+
+    static DeliveryStreamFrame open(int streamId, DeliveryPacket header) {
+        return new DeliveryStreamFrame(streamId, OPEN, header, null);
+    }
+
+    static DeliveryStreamFrame end(int streamId) {
+        return new DeliveryStreamFrame(streamId, END, null, null);
+    }
+
+    static DeliveryStreamFrame abort(int streamId) {
+        return new DeliveryStreamFrame(streamId, ABORT, null, null);
+    }
+
+    /**
+     * Decodes the body of a stream control frame. The data of a data frame is a retained slice of the frame.
+     *
+     * @param frame
+     *          {@link ByteBuf} positioned behind the control type
+     * @param decoder
+     *          {@link DeliveryByteDecoder} the header of an open frame is created by
+     * @return DeliveryStreamFrame
+     */
+    static DeliveryStreamFrame decode(ByteBuf frame, DeliveryByteDecoder decoder) {
+        int streamId = DeliveryByteBuf.readVarInt(frame);
+        int kind = frame.readUnsignedByte();
+        switch (kind) {
+            case OPEN:
+                int packetId = DeliveryByteBuf.readVarInt(frame);
+                Supplier<? extends DeliveryPacket> factory = decoder.getPacketFactory(packetId);
+                if (factory == null)
+                    throw new NoSuchPacketException(packetId);
+                DeliveryPacket header = factory.get();
+                header.read(new DeliveryByteBuf(frame));
+                return new DeliveryStreamFrame(streamId, OPEN, header, null);
+            case DATA:
+                return new DeliveryStreamFrame(streamId, DATA, null, frame.retainedSlice());
+            case END:
+            case ABORT:
+                return new DeliveryStreamFrame(streamId, kind, null, null);
+            default:
+                throw new CorruptedFrameException("Unknown stream frame {kind: " + kind + "}");
+        }
+    }
+
+    @Override
+    public int getControlType() {
+        return STREAM;
+    }
+
+    @Override
+    public void writeControl(DeliveryByteBuf buf, DeliveryPacketVault vault) {
+        buf.writeVarInt(this.streamId);
+        buf.writeByte((byte) this.kind);
+        if (this.kind == OPEN) {
+            int packetId = vault.getPacketId(this.header);
+            if (packetId == -1)
+                throw new NoSuchPacketException(this.header.getClass());
+            buf.writeVarInt(packetId);
+            this.header.write(buf);
+        }
+    }
+
+    @Override
+    public void write(DeliveryByteBuf buf) {
+        throw new UnsupportedOperationException("A stream frame is written by the encoder");
+    }
+
+    @Override
+    public void read(DeliveryByteBuf buf) {
+        throw new UnsupportedOperationException("A stream frame is created by the decoder");
+    }
+
+    int getStreamId() {
+        return this.streamId;
+    }
+
+    int getKind() {
+        return this.kind;
+    }
+
+    DeliveryPacket getHeader() {
+        return this.header;
+    }
+
+    ByteBuf getData() {
+        return this.data;
+    }
+
+}
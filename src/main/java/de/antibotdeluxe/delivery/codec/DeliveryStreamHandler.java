@@ -0,0 +1,136 @@
+package de.antibotdeluxe.delivery.codec;
+
+import de.antibotdeluxe.delivery.misc.exceptions.StreamAbortedException;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class will pass the chunks of received streams to the {@link DeliveryStreamReceiver} as soon as they arrive.
+ * <p>
+ * A chunk is a slice of the received buffer and is released right after the {@link DeliveryStreamReceiver} processed it, so the
+ * memory needed per stream is bound by the size of a single chunk instead of the size of the whole stream.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryStreamHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Stream]");
+
+    private final DeliveryStreamReceiver receiver;
+    private final IntObjectMap<DeliveryStream> streams = new IntObjectHashMap<>();
+
+    /**
+     * Initialize the {@link DeliveryStreamHandler}
+     *
+     * @param receiver
+     *          {@link DeliveryStreamReceiver} which processes received streams, <code>null</code> to drop them
+     */
+    public DeliveryStreamHandler(DeliveryStreamReceiver receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Passes the message to the {@link DeliveryStreamReceiver} if it belongs to a stream and every other message on.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param msg
+     *          message provided by the {@link DeliveryByteDecoder}
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof DeliveryStreamFrame)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        DeliveryStreamFrame frame = (DeliveryStreamFrame) msg;
+        switch (frame.getKind()) {
+            case DeliveryStreamFrame.OPEN:
+                this.open(ctx, frame);
+                break;
+            case DeliveryStreamFrame.DATA:
+                ByteBuf data = frame.getData();
+                try {
+                    this.receive(frame.getStreamId(), data);
+                } finally {
+                    data.release();
+                }
+                break;
+            case DeliveryStreamFrame.END:
+                this.complete(frame.getStreamId());
+                break;
+            default:
+                DeliveryStream stream = this.streams.remove(frame.getStreamId());
+                if (stream != null)
+                    this.receiver.failed(stream, new StreamAbortedException(stream.getStreamId()));
+        }
+    }
+
+    /**
+     * Fails every open stream because no more chunks can arrive.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        if (!this.streams.isEmpty()) {
+            ArrayList<DeliveryStream> open = new ArrayList<>(this.streams.values());
+            this.streams.clear();
+            for (DeliveryStream stream : open)
+                this.receiver.failed(stream, new ClosedChannelException());
+        }
+        ctx.fireChannelInactive();
+    }
+
+    private void open(ChannelHandlerContext ctx, DeliveryStreamFrame frame) {
+        if (this.receiver == null)
+            return;
+        DeliveryStream stream = new DeliveryStream(ctx.channel(), frame.getStreamId(), frame.getHeader());
+        DeliveryStream previous = this.streams.remove(stream.getStreamId());
+        if (previous != null)
+            this.receiver.failed(previous, new IllegalStateException("A new stream was opened with the same id {streamId: "
+                    + stream.getStreamId() + "}"));
+        try {
+            if (this.receiver.opened(stream))
+                this.streams.put(stream.getStreamId(), stream);
+        } catch (Exception exception) {
+            this.receiver.failed(stream, exception);
+        }
+    }
+
+    private void receive(int streamId, ByteBuf data) {
+        DeliveryStream stream = this.streams.get(streamId);
+        if (stream == null)
+            return;
+        int length = data.readableBytes();
+        try {
+            this.receiver.received(stream, data);
+            stream.addReceived(length);
+        } catch (Exception exception) {
+            this.streams.remove(streamId);
+            this.receiver.failed(stream, exception);
+        }
+    }
+
+    private void complete(int streamId) {
+        DeliveryStream stream = this.streams.remove(streamId);
+        if (stream == null)
+            return;
+        try {
+            this.receiver.completed(stream);
+        } catch (Exception exception) {
+            LOGGER.log(Level.SEVERE, exception, () -> "Completing the stream " + streamId + " failed");
+        }
+    }
+
+}
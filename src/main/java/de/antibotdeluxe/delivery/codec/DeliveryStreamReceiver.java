@@ -0,0 +1,57 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Processes the chunks of received streams as they arrive. The chunks are never reassembled, so only a single chunk of a stream is
+ * held in memory at once no matter how large the stream is. Every method is called on the event loop of the connection.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public interface DeliveryStreamReceiver {
+
+    /**
+     * Called once the other side opened a stream.
+     *
+     * @param stream
+     *          {@link DeliveryStream} which is about to be received
+     * @return <code>true</code> if the stream should be received, <code>false</code> to drop its chunks
+     * @throws Exception
+     *          if the stream can't be received, the chunks are dropped then
+     */
+    boolean opened(DeliveryStream stream) throws Exception;
+
+    /**
+     * Called for every chunk of the stream in the order they were sent.
+     *
+     * @param stream
+     *          {@link DeliveryStream} the chunk belongs to
+     * @param chunk
+     *          {@link ByteBuf} containing the bytes of the chunk, only valid until the method returns and must not be released
+     * @throws Exception
+     *          if the chunk can't be processed, the remaining chunks are dropped then
+     */
+    void received(DeliveryStream stream, ByteBuf chunk) throws Exception;
+
+    /**
+     * Called once every chunk of the stream was received.
+     *
+     * @param stream
+     *          {@link DeliveryStream} which was received
+     * @throws Exception
+     *          if the stream can't be finished
+     */
+    void completed(DeliveryStream stream) throws Exception;
+
+    /**
+     * Called if the stream could not be completed, e.g. because the connection was lost or the sender aborted it.
+     *
+     * @param stream
+     *          {@link DeliveryStream} which failed
+     * @param cause
+     *          cause of the failure
+     */
+    default void failed(DeliveryStream stream, Throwable cause) { }
+
+}
@@ -0,0 +1,111 @@
+package de.antibotdeluxe.delivery.codec;
+
+import de.antibotdeluxe.delivery.misc.exceptions.UnsupportedFeatureException;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelPromise;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends payloads of any size to the other side of a connection as a stream of chunks instead of a single frame.
+ * <p>
+ * The stream is opened with a {@link DeliveryPacket} describing it, followed by the chunks read from the source. The chunks are
+ * written by a {@link io.netty.handler.stream.ChunkedWriteHandler}, which only reads the next chunk while the channel is writable.
+ * A slow receiver therefore slows down reading the source instead of filling up the outbound buffer. The other side passes every
+ * chunk to its {@link DeliveryStreamReceiver} without reassembling the stream.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryStreamTransfer {
+
+    /**
+     * Default size of a single chunk (64 KiB).
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final AtomicInteger NEXT_STREAM_ID = new AtomicInteger();
+
+    private DeliveryStreamTransfer() { }
+
+    /**
+     * Sends the bytes of the {@link InputStream} to the other side of the {@link Channel}. The stream is closed once it was sent.
+     *
+     * @param channel
+     *          {@link Channel} the stream is sent to
+     * @param header
+     *          registered {@link DeliveryPacket} describing the stream
+     * @param source
+     *          {@link InputStream} the bytes are read from
+     * @return ChannelFuture which completes as soon as the whole stream was written
+     */
+    public static ChannelFuture send(Channel channel, DeliveryPacket header, InputStream source) {
+        return send(channel, header, Channels.newChannel(source), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Sends the bytes of the {@link ReadableByteChannel} to the other side of the {@link Channel}. The source is closed once it was
+     * sent.
+     *
+     * @param channel
+     *          {@link Channel} the stream is sent to
+     * @param header
+     *          registered {@link DeliveryPacket} describing the stream
+     * @param source
+     *          {@link ReadableByteChannel} the bytes are read from
+     * @param chunkSize
+     *          maximum amount of bytes per chunk, cut down to fit into a single frame of the other side
+     * @return ChannelFuture which completes as soon as the whole stream was written, fails with an
+     *          {@link UnsupportedFeatureException} if the other side can't receive streams
+     */
+    public static ChannelFuture send(Channel channel, DeliveryPacket header, ReadableByteChannel source, int chunkSize) {
+        if (channel == null || header == null || source == null)
+            throw new NullPointerException();
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size has to be positive {chunkSize: " + chunkSize + "}");
+        if (DeliveryHandshakeHandler.lacksFeature(channel, DeliveryHandshakeHandler.FEATURE_STREAM)) {
+            closeQuietly(source);
+            return channel.newFailedFuture(new UnsupportedFeatureException(DeliveryHandshakeHandler.FEATURE_STREAM));
+        }
+        int streamId = NEXT_STREAM_ID.getAndIncrement() & Integer.MAX_VALUE;
+        DeliveryChunkedStream chunks = new DeliveryChunkedStream(streamId, source, chunkSize,
+                channel.pipeline().get(DeliveryByteEncoder.class));
+        DeliveryFileTransfer.addChunkedWriter(channel);
+
+        // a failed source leaves the stream open on the other side, so it's aborted there explicitly
+        ChannelPromise promise = channel.newPromise();
+        promise.addListener((ChannelFutureListener) future -> {
+            if (!future.isSuccess() && future.channel().isActive())
+                future.channel().writeAndFlush(DeliveryStreamFrame.abort(streamId));
+        });
+        try {
+            channel.eventLoop().execute(() -> {
+                ChannelFuture opened = channel.write(DeliveryStreamFrame.open(streamId, header));
+                if (opened.isDone() && !opened.isSuccess()) {
+                    closeQuietly(source);
+                    promise.setFailure(opened.cause());
+                    return;
+                }
+                channel.writeAndFlush(chunks, promise);
+            });
+        } catch (RejectedExecutionException exception) {
+            closeQuietly(source);
+            promise.setFailure(exception);
+        }
+        return promise;
+    }
+
+    private static void closeQuietly(ReadableByteChannel source) {
+        try {
+            source.close();
+        } catch (IOException ignored) { }
+    }
+
+}
@@ -0,0 +1,117 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.MathUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded cache for {@link String}'s which are received over and over again, like player names or host names.
+ * <p>
+ * <code>DeliveryByteBuf.readString(DeliveryStringCache cache)</code> compares the received UTF-8 bytes with the cached entry and
+ * returns the already existing {@link String} instead of decoding a new one. The cache is direct mapped, so every hash slot holds
+ * exactly one entry and a colliding {@link String} simply replaces the old one. It never grows beyond its capacity.
+ * <p>
+ * The cache can be shared between all threads. Entries are immutable, so a lost update only results in a cache miss.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryStringCache {
+
+    /**
+     * {@link String}'s longer than this amount of bytes are never cached.
+     */
+    private static final int MAX_CACHED_LENGTH = 256;
+
+    private final Entry[] entries;
+    private final int mask;
+
+    /**
+     * Initialize the {@link DeliveryStringCache}
+     *
+     * @param capacity
+     *          Amount of entries, will be rounded up to the next power of two
+     */
+    public DeliveryStringCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity has to be positive {capacity: " + capacity + "}");
+        int size = MathUtil.findNextPositivePowerOfTwo(capacity);
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the cached {@link String} for the given UTF-8 bytes or decodes and caches a new one.
+     *
+     * @param buf
+     *          {@link ByteBuf} containing the UTF-8 bytes
+     * @param offset
+     *          index of the first byte
+     * @param length
+     *          amount of bytes
+     * @return String
+     */
+    String get(ByteBuf buf, int offset, int length) {
+        if (length > MAX_CACHED_LENGTH)
+            return buf.toString(offset, length, StandardCharsets.UTF_8);
+        int hash = hash(buf, offset, length);
+        int slot = hash & this.mask;
+        Entry entry = this.entries[slot];
+        if (entry != null && entry.hash == hash && entry.matches(buf, offset, length))
+            return entry.value;
+        byte[] bytes = new byte[length];
+        buf.getBytes(offset, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        this.entries[slot] = new Entry(hash, bytes, value);
+        return value;
+    }
+
+    /**
+     * Removes every entry from the {@link DeliveryStringCache}.
+     */
+    public void clear() {
+        Arrays.fill(this.entries, null);
+    }
+
+    /**
+     * Returns the maximum amount of entries.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return this.entries.length;
+    }
+
+    private static int hash(ByteBuf buf, int offset, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = offset, end = offset + length; i < end; i++)
+            hash = (hash ^ buf.getByte(i)) * 0x01000193;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+
+        private boolean matches(ByteBuf buf, int offset, int length) {
+            if (this.bytes.length != length)
+                return false;
+            for (int i = 0; i < length; i++)
+                if (this.bytes[i] != buf.getByte(offset + i))
+                    return false;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.channel.Channel;
+
+/**
+ * Describes a file which is received from the other side of a connection.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryTransfer {
+
+    private final Channel channel;
+    private final int transferId;
+    private final String name;
+    private final long length;
+
+    private long received;
+
+    DeliveryTransfer(Channel channel, int transferId, String name, long length) {
+        this.channel = channel;
+        this.transferId = transferId;
+        this.name = name;
+        this.length = length;
+    }
+
+    /**
+     * Returns the {@link Channel} the file is received from.
+     *
+     * @return Channel
+     */
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Returns the identifier of the transfer which is unique per sending side.
+     *
+     * @return transfer id
+     */
+    public int getTransferId() {
+        return this.transferId;
+    }
+
+    /**
+     * Returns the name the sender gave the file. It is chosen by the other side and must not be trusted as path.
+     *
+     * @return name of the file
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the size of the file in bytes.
+     *
+     * @return length of the file
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the amount of bytes which have been received so far.
+     *
+     * @return received bytes
+     */
+    public long getReceived() {
+        return this.received;
+    }
+
+    void addReceived(long bytes) {
+        this.received += bytes;
+    }
+
+}
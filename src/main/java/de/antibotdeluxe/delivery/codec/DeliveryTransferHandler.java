@@ -0,0 +1,193 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class will write the raw bytes of a received file into the {@link FileChannel} provided by the {@link DeliveryFileReceiver}.
+ * <p>
+ * The bytes arrive as slices of the received buffers and are written with positional writes, or copied into memory-mapped windows of
+ * the file if the {@link DeliveryFileReceiver} asks for it. Either way they never pass through the heap.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryTransferHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Transfer]");
+
+    /**
+     * Maximum size of a memory-mapped window of the received file (64 MiB).
+     */
+    private static final long MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final DeliveryFileReceiver receiver;
+
+    private DeliveryTransfer transfer;
+    private FileChannel file;
+    private MappedByteBuffer window;
+    private boolean failed;
+
+    /**
+     * Initialize the {@link DeliveryTransferHandler}
+     *
+     * @param receiver
+     *          {@link DeliveryFileReceiver} which decides where received files are written to, <code>null</code> to drop them
+     */
+    public DeliveryTransferHandler(DeliveryFileReceiver receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Starts a transfer if the message announces one, writes the message to the file if it contains bytes of the current transfer and
+     * passes every other message on.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param msg
+     *          message provided by the {@link DeliveryByteDecoder}
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof DeliveryTransferPacket) {
+            this.start(ctx, (DeliveryTransferPacket) msg);
+        } else if (msg instanceof ByteBuf) {
+            ByteBuf chunk = (ByteBuf) msg;
+            try {
+                this.write(chunk);
+            } finally {
+                chunk.release();
+            }
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    /**
+     * Fails the current transfer because no more bytes can arrive.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        if (this.transfer != null)
+            this.fail(new ClosedChannelException());
+        ctx.fireChannelInactive();
+    }
+
+    private void start(ChannelHandlerContext ctx, DeliveryTransferPacket packet) {
+        if (this.transfer != null)
+            this.fail(new IllegalStateException("A new transfer started before the current one was completed"));
+        this.transfer = new DeliveryTransfer(ctx.channel(), packet.getTransferId(), packet.getName(), packet.getLength());
+        this.failed = false;
+        if (this.receiver != null) {
+            try {
+                this.file = this.receiver.open(this.transfer);
+            } catch (Exception exception) {
+                this.fail(exception);
+            }
+        }
+        if (this.transfer != null && this.transfer.getLength() == 0)
+            this.complete();
+    }
+
+    private void write(ByteBuf chunk) {
+        DeliveryTransfer transfer = this.transfer;
+        if (transfer == null)
+            return;
+        int length = chunk.readableBytes();
+        if (this.file != null && !this.failed) {
+            try {
+                if (this.receiver.isMemoryMapped())
+                    this.writeMapped(chunk, transfer);
+                else
+                    for (long position = transfer.getReceived(); chunk.isReadable(); )
+                        position += chunk.readBytes(this.file, position, chunk.readableBytes());
+            } catch (Exception exception) {
+                this.fail(exception);
+            }
+        }
+        transfer.addReceived(length);
+        if (transfer.getReceived() >= transfer.getLength())
+            this.finish(transfer);
+    }
+
+    private void writeMapped(ByteBuf chunk, DeliveryTransfer transfer) throws IOException {
+        long position = transfer.getReceived();
+        while (chunk.isReadable()) {
+            if (this.window == null || !this.window.hasRemaining()) {
+                this.unmapWindow();
+                long size = Math.min(MAPPED_WINDOW_SIZE, transfer.getLength() - position);
+                this.window = this.file.map(FileChannel.MapMode.READ_WRITE, position, size);
+            }
+            int bytes = Math.min(chunk.readableBytes(), this.window.remaining());
+            int limit = this.window.limit();
+            this.window.limit(this.window.position() + bytes);
+            chunk.readBytes(this.window);
+            this.window.limit(limit);
+            position += bytes;
+        }
+    }
+
+    private void finish(DeliveryTransfer transfer) {
+        if (this.failed) {
+            this.transfer = null;
+            this.failed = false;
+            return;
+        }
+        this.complete();
+    }
+
+    private void complete() {
+        DeliveryTransfer transfer = this.transfer;
+        FileChannel file = this.file;
+        this.reset();
+        if (this.receiver == null || file == null)
+            return;
+        try {
+            this.receiver.completed(transfer, file);
+        } catch (Exception exception) {
+            LOGGER.log(Level.SEVERE, exception, () -> "Completing the transfer of '" + transfer.getName() + "' failed");
+        }
+    }
+
+    /**
+     * Reports the failure to the {@link DeliveryFileReceiver}. The remaining bytes of the transfer are still consumed, but dropped.
+     */
+    private void fail(Throwable cause) {
+        DeliveryTransfer transfer = this.transfer;
+        FileChannel file = this.file;
+        boolean remaining = transfer.getReceived() < transfer.getLength() && !(cause instanceof ClosedChannelException);
+        this.reset();
+        if (remaining) {
+            this.transfer = transfer;
+            this.failed = true;
+        }
+        if (this.receiver != null)
+            this.receiver.failed(transfer, file, cause);
+    }
+
+    private void reset() {
+        this.unmapWindow();
+        this.transfer = null;
+        this.file = null;
+    }
+
+    private void unmapWindow() {
+        if (this.window != null) {
+            PlatformDependent.freeDirectBuffer(this.window);
+            this.window = null;
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package de.antibotdeluxe.delivery.codec;
+
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Control packet announcing a file transfer. The raw bytes of the file follow right after the frame.
+ *
+ * @author jhz
+ */
+final class DeliveryTransferPacket implements DeliveryControlPacket {
+
+    private int transferId;
+    private String name;
+    private long length;
+
+    DeliveryTransferPacket() { }
+
+    DeliveryTransferPacket(int transferId, String name, long length) {
+        this.transferId = transferId;
+        this.name = name;
+        this.length = length;
+    }
+
+    @Override
+    public int getControlType() {
+        return TRANSFER;
+    }
+
+    @Override
+    public void write(DeliveryByteBuf buf) {
+        buf.writeVarInt(this.transferId);
+        buf.writeString(this.name);
+        buf.writeVarLong(this.length);
+    }
+
+    @Override
+    public void read(DeliveryByteBuf buf) {
+        this.transferId = buf.readVarInt();
+        this.name = buf.readString();
+        this.length = buf.readVarLong();
+        if (this.length < 0)
+            throw new CorruptedFrameException("Negative transfer length {length: " + this.length + "}");
+    }
+
+    int getTransferId() {
+        return this.transferId;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    long getLength() {
+        return this.length;
+    }
+
+}
@@ -0,0 +1,59 @@
+package de.antibotdeluxe.delivery.event;
+
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link DeliveryPacket}'s collected by a {@link DeliveryBatchHandler}, each together with the {@link ChannelHandlerContext} of the
+ * connection it was received from.
+ * <p>
+ * <strong>Note</strong><br>
+ * {@link de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket}'s and lazy packets are released once the batch was handled, they
+ * have to be retained to keep them longer.
+ *
+ * @param <T>
+ *          Type of the {@link DeliveryPacket}
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryBatch<T extends DeliveryPacket> {
+
+    private final List<T> packets;
+    private final List<ChannelHandlerContext> contexts;
+
+    DeliveryBatch(List<T> packets, List<ChannelHandlerContext> contexts) {
+        this.packets = Collections.unmodifiableList(packets);
+        this.contexts = Collections.unmodifiableList(contexts);
+    }
+
+    /**
+     * Returns the collected {@link DeliveryPacket}'s in the order they were received.
+     *
+     * @return List of {@link DeliveryPacket}'s
+     */
+    public List<T> getPackets() {
+        return this.packets;
+    }
+
+    /**
+     * Returns the {@link ChannelHandlerContext} the {@link DeliveryPacket} at the same index was received from.
+     *
+     * @return List of {@link ChannelHandlerContext}'s
+     */
+    public List<ChannelHandlerContext> getContexts() {
+        return this.contexts;
+    }
+
+    /**
+     * Returns the amount of collected {@link DeliveryPacket}'s.
+     *
+     * @return size of the batch
+     */
+    public int size() {
+        return this.packets.size();
+    }
+
+}
@@ -0,0 +1,309 @@
+package de.antibotdeluxe.delivery.event;
+
+import de.antibotdeluxe.delivery.codec.DeliveryLazyPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link DeliveryEventHandler} which collects the {@link DeliveryPacket}'s of its type and handles them together, e.g. to write them
+ * with a single bulk insert.
+ * <p>
+ * By default a batch contains the {@link DeliveryPacket}'s of a connection decoded during one read cycle and is handled on
+ * <code>channelReadComplete</code>. With {@link Scope#EVENT_LOOP} the {@link DeliveryPacket}'s of every connection of an event loop
+ * are collected and handled once the event loop finished processing its reads. A batch is handled earlier if it reaches the maximum
+ * batch size, and later if a maximum wait time is set, in which case it is handled once that time has passed since its first
+ * {@link DeliveryPacket}.
+ * <p>
+ * Batches are always handled on the event loop, blocking work should be handed over to another thread. The remaining batches are
+ * handled once the {@link DeliveryBatchHandler} is unbound or, with {@link Scope#CHANNEL}, once the connection is closed.
+ *
+ * @param <T>
+ *          Type of the {@link DeliveryPacket}
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public abstract class DeliveryBatchHandler<T extends DeliveryPacket> extends DeliveryEventHandler {
+
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Event]");
+
+    /**
+     * Default maximum amount of {@link DeliveryPacket}'s in a single batch.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private static final AttributeKey<Map<DeliveryBatchHandler<?>, Buffer>> CHANNEL_BUFFERS =
+            AttributeKey.valueOf("delivery-batch-buffers");
+    private static final FastThreadLocal<Map<DeliveryBatchHandler<?>, Buffer>> LOOP_BUFFERS = new FastThreadLocal<>() {
+        @Override
+        protected Map<DeliveryBatchHandler<?>, Buffer> initialValue() {
+            return new IdentityHashMap<>();
+        }
+    };
+
+    private final Set<Buffer> buffers = ConcurrentHashMap.newKeySet();
+    private volatile boolean unbound;
+
+    public DeliveryBatchHandler() {
+        super();
+    }
+
+    public DeliveryBatchHandler(UUID uuid) {
+        super(uuid);
+    }
+
+    /**
+     * Will be overwritten by each {@link DeliveryBatchHandler} with the code which handles a batch.
+     *
+     * @param batch
+     *          {@link DeliveryBatch} containing at least one {@link DeliveryPacket}
+     */
+    public abstract void call(DeliveryBatch<T> batch);
+
+    /**
+     * Can be overwritten to collect the {@link DeliveryPacket}'s of every connection of an event loop in one batch.
+     *
+     * @return {@link Scope}, {@link Scope#CHANNEL} by default
+     */
+    public Scope getScope() {
+        return Scope.CHANNEL;
+    }
+
+    /**
+     * Can be overwritten to change the maximum amount of {@link DeliveryPacket}'s in a single batch.
+     *
+     * @return maximum batch size
+     */
+    public int getMaxBatchSize() {
+        return DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    /**
+     * Can be overwritten to keep collecting {@link DeliveryPacket}'s over several read cycles. The batch is handled once the time
+     * passed since its first {@link DeliveryPacket} or it is full.
+     *
+     * @return maximum wait time, {@link Duration#ZERO} to handle the batch at the end of the read cycle
+     */
+    public Duration getMaxWait() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * A {@link DeliveryBatchHandler} collects the {@link DeliveryPacket}'s on the event loop, so it is always called inline.
+     *
+     * @return {@link DeliveryExecutionMode#INLINE}
+     */
+    @Override
+    public final DeliveryExecutionMode getExecutionMode() {
+        return DeliveryExecutionMode.INLINE;
+    }
+
+    /**
+     * Adds the {@link DeliveryPacket} to the current batch. Without a {@link ChannelHandlerContext} there is no event loop to collect
+     * on, so the {@link DeliveryPacket} is handled as a batch of its own.
+     *
+     * @param packet
+     *          {@link DeliveryPacket} which was decoded by the {@link de.antibotdeluxe.delivery.codec.DeliveryByteDecoder}
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+        if (ctx == null || this.unbound) {
+            this.call(new DeliveryBatch<>(Collections.singletonList((T) packet), Collections.singletonList(ctx)));
+            return;
+        }
+        Buffer buffer = this.getBuffer(ctx);
+        retain(packet);
+        buffer.packets.add(packet);
+        buffer.contexts.add(ctx);
+        if (buffer.packets.size() >= this.getMaxBatchSize()) {
+            this.flush(buffer);
+            return;
+        }
+        if (buffer.packets.size() > 1)
+            return;
+        Duration maxWait = this.getMaxWait();
+        if (!maxWait.isZero())
+            buffer.timer = ctx.executor().schedule(() -> this.flush(buffer), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        else if (this.getScope() == Scope.EVENT_LOOP)
+            ctx.executor().execute(() -> this.flush(buffer));
+    }
+
+    /**
+     * Handles the batch of the connection if its read cycle is completed.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    void readComplete(ChannelHandlerContext ctx) {
+        if (this.getScope() != Scope.CHANNEL || !this.getMaxWait().isZero())
+            return;
+        Map<DeliveryBatchHandler<?>, Buffer> buffers = ctx.channel().attr(CHANNEL_BUFFERS).get();
+        if (buffers != null)
+            this.flush(buffers.get(this));
+    }
+
+    /**
+     * Handles the remaining batch of the connection because no more {@link DeliveryPacket}'s can arrive.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    void channelInactive(ChannelHandlerContext ctx) {
+        if (this.getScope() == Scope.EVENT_LOOP) {
+            this.flush(LOOP_BUFFERS.get().get(this));
+            return;
+        }
+        Map<DeliveryBatchHandler<?>, Buffer> buffers = ctx.channel().attr(CHANNEL_BUFFERS).get();
+        if (buffers != null)
+            this.discard(buffers.remove(this));
+    }
+
+    /**
+     * Resumes collecting batches after the {@link DeliveryBatchHandler} was bound (again).
+     */
+    void bound() {
+        this.unbound = false;
+    }
+
+    /**
+     * Handles the remaining batches on their event loops because the {@link DeliveryBatchHandler} was unbound. A batch whose event
+     * loop is already shut down can't be handled anymore, its {@link DeliveryPacket}'s are released.
+     */
+    void unbound() {
+        this.unbound = true;
+        for (Buffer buffer : this.buffers) {
+            try {
+                buffer.executor.execute(() -> this.discard(buffer.owner.remove(this)));
+            } catch (RejectedExecutionException exception) {
+                this.buffers.remove(buffer);
+                for (DeliveryPacket packet : buffer.packets)
+                    release(packet);
+                buffer.packets.clear();
+                buffer.contexts.clear();
+            }
+        }
+    }
+
+    private Buffer getBuffer(ChannelHandlerContext ctx) {
+        Map<DeliveryBatchHandler<?>, Buffer> buffers;
+        if (this.getScope() == Scope.EVENT_LOOP) {
+            buffers = LOOP_BUFFERS.get();
+        } else {
+            Attribute<Map<DeliveryBatchHandler<?>, Buffer>> attribute = ctx.channel().attr(CHANNEL_BUFFERS);
+            buffers = attribute.get();
+            if (buffers == null)
+                attribute.set(buffers = new IdentityHashMap<>());
+        }
+        Buffer buffer = buffers.get(this);
+        if (buffer == null) {
+            buffers.put(this, buffer = new Buffer(ctx.executor(), buffers));
+            this.buffers.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Handles the remaining batch of a {@link Buffer} which was removed and forgets about it.
+     */
+    private void discard(Buffer buffer) {
+        if (buffer == null)
+            return;
+        this.buffers.remove(buffer);
+        this.flush(buffer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void flush(Buffer buffer) {
+        if (buffer == null || buffer.packets.isEmpty())
+            return;
+        if (buffer.timer != null) {
+            buffer.timer.cancel(false);
+            buffer.timer = null;
+        }
+        DeliveryBatch<T> batch = new DeliveryBatch<>(new ArrayList<>((List<T>) (List<?>) buffer.packets),
+                new ArrayList<>(buffer.contexts));
+        buffer.packets.clear();
+        buffer.contexts.clear();
+        try {
+            this.call(batch);
+        } catch (Throwable throwable) {
+            LOGGER.log(Level.SEVERE, throwable, () -> "The batch handler failed {handler: " + this.getUuid() + ", size: "
+                    + batch.size() + "}");
+        } finally {
+            for (T packet : batch.getPackets())
+                release(packet);
+        }
+    }
+
+    private static void retain(DeliveryPacket packet) {
+        if (packet instanceof DeliveryRecyclablePacket)
+            ((DeliveryRecyclablePacket) packet).retain();
+        else if (packet instanceof DeliveryLazyPacket)
+            ((DeliveryLazyPacket) packet).retain();
+    }
+
+    private static void release(DeliveryPacket packet) {
+        if (packet instanceof DeliveryRecyclablePacket)
+            ((DeliveryRecyclablePacket) packet).release();
+        else if (packet instanceof DeliveryLazyPacket)
+            ((DeliveryLazyPacket) packet).release();
+    }
+
+    /**
+     * Which {@link DeliveryPacket}'s are collected in the same batch.
+     */
+    public enum Scope {
+
+        /**
+         * The {@link DeliveryPacket}'s of a single connection.
+         */
+        CHANNEL,
+
+        /**
+         * The {@link DeliveryPacket}'s of every connection of the same event loop.
+         */
+        EVENT_LOOP
+
+    }
+
+    /**
+     * The batch which is currently collected, only accessed by its event loop.
+     */
+    private static final class Buffer {
+
+        private final ArrayList<DeliveryPacket> packets = new ArrayList<>();
+        private final ArrayList<ChannelHandlerContext> contexts = new ArrayList<>();
+        private final EventExecutor executor;
+        private final Map<DeliveryBatchHandler<?>, Buffer> owner;
+        private ScheduledFuture<?> timer;
+
+        private Buffer(EventExecutor executor, Map<DeliveryBatchHandler<?>, Buffer> owner) {
+            this.executor = executor;
+            this.owner = owner;
+        }
+
+    }
+
+}
@@ -32,6 +32,47 @@ public abstract class DeliveryEventHandler {
      */
     public abstract Class<? extends DeliveryPacket> getPacketCapture();
 
+    /**
+     * Can be overwritten to receive a {@link de.antibotdeluxe.delivery.codec.DeliveryLazyPacket} instead of the decoded
+     * {@link DeliveryPacket}. The payload is only deserialized if the {@link DeliveryEventHandler} calls <code>materialize()</code>,
+     * which saves the work for {@link DeliveryPacket}'s that are only counted or forwarded.
+     * <p>
+     * <strong>Note</strong><br>
+     * The lazy packet is only passed if every {@link DeliveryEventHandler} for the type accepts it.
+     *
+     * @return <code>true</code> if a lazy packet should be passed
+     */
+    public boolean acceptsLazyPacket() {
+        return false;
+    }
+
+    /**
+     * Can be overwritten to call the {@link DeliveryEventHandler} on another thread than the event loop, e.g. if it blocks. The mode
+     * is read once when the {@link DeliveryEventHandler} is bound.
+     * <p>
+     * {@link de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket}'s and lazy packets are retained until the call returned and
+     * <code>DeliveryReply.current()</code> works the same on every thread.
+     *
+     * @return {@link DeliveryExecutionMode}, {@link DeliveryExecutionMode#INLINE} by default
+     */
+    public DeliveryExecutionMode getExecutionMode() {
+        return DeliveryExecutionMode.INLINE;
+    }
+
+    /**
+     * Can be overwritten to choose the key whose calls are kept in order if the {@link DeliveryExecutionMode} is
+     * {@link DeliveryExecutionMode#ORDERED}, e.g. a player or account the {@link DeliveryPacket} belongs to.
+     *
+     * @param packet
+     *          {@link DeliveryPacket} which is about to be handled
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @return ordering key, the {@link io.netty.channel.Channel} of the connection by default
+     */
+    public Object getOrderingKey(DeliveryPacket packet, ChannelHandlerContext ctx) {
+        return (ctx == null) ? null : ctx.channel();
+    }
+
     /**
      * The {@link UUID} is for giving each {@link DeliveryEventHandler} a unique identifier. If the {@link UUID} is empty it will be
      * generated automatically.
@@ -1,44 +1,120 @@
 package de.antibotdeluxe.delivery.event;
 
+import de.antibotdeluxe.delivery.codec.DeliveryLazyPacket;
 import de.antibotdeluxe.delivery.codec.DeliveryPacket;
-import de.antibotdeluxe.delivery.misc.exceptions.UUIDAlreadyBoundException;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+import de.antibotdeluxe.delivery.codec.DeliveryReply;
 import io.netty.channel.ChannelHandlerContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Class is used to store all specific {@link DeliveryEventHandler}'s (further called handlers) and call them if specific
  * {@link DeliveryPacket} was detected in the {@link DeliveryEventManager}.
+ * <p>
+ * A {@link DeliveryEventHandlerList} is immutable. Binding or unbinding a handler creates a new list, so the handlers are called by
+ * walking a plain array without any locking, even while other threads bind new handlers.
  *
  * @author jhz
  */
 @SuppressWarnings("unused")
 public class DeliveryEventHandlerList {
 
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Event]");
+    private static final DeliveryEventHandler[] NO_HANDLERS = new DeliveryEventHandler[0];
+
     /**
-     * List containing all {@link DeliveryEventHandler}'s for a specific type of {@link DeliveryPacket}.
+     * Array containing all {@link DeliveryEventHandler}'s for a specific type of {@link DeliveryPacket}.
      */
-    private final List<DeliveryEventHandler> handlers = new ArrayList<>();
+    private final DeliveryEventHandler[] handlers;
 
     /**
      * Stores which type of {@link DeliveryPacket} is used in this {@link DeliveryEventHandlerList}.
      */
-    private Class<? extends DeliveryPacket> packetCapture;
+    private final Class<? extends DeliveryPacket> packetCapture;
+
+    /**
+     * Whether every stored {@link DeliveryEventHandler} accepts a lazy packet.
+     */
+    private final boolean acceptsLazyPacket;
 
     /**
-     * Will add a new {@link DeliveryEventHandler} to the list.
+     * The {@link DeliveryExecutionMode} of every stored {@link DeliveryEventHandler}, <code>null</code> if all are called inline.
+     */
+    private final DeliveryExecutionMode[] modes;
+
+    DeliveryEventHandlerList(Class<? extends DeliveryPacket> packetCapture) {
+        this(packetCapture, NO_HANDLERS);
+    }
+
+    private DeliveryEventHandlerList(Class<? extends DeliveryPacket> packetCapture, DeliveryEventHandler[] handlers) {
+        this.packetCapture = packetCapture;
+        this.handlers = handlers;
+        boolean acceptsLazyPacket = true;
+        for (DeliveryEventHandler handler : handlers)
+            acceptsLazyPacket &= handler.acceptsLazyPacket();
+        this.acceptsLazyPacket = acceptsLazyPacket;
+        DeliveryExecutionMode[] modes = new DeliveryExecutionMode[handlers.length];
+        boolean inline = true;
+        for (int i = 0; i < handlers.length; i++) {
+            modes[i] = handlers[i].getExecutionMode();
+            inline &= modes[i] == DeliveryExecutionMode.INLINE;
+        }
+        this.modes = inline ? null : modes;
+    }
+
+    /**
+     * Returns a new list with the {@link DeliveryEventHandler} added to the end.
      *
      * @param handler
      *          {@link DeliveryEventHandler} which should be added
+     * @return DeliveryEventHandlerList
+     */
+    DeliveryEventHandlerList with(DeliveryEventHandler handler) {
+        DeliveryEventHandler[] handlers = Arrays.copyOf(this.handlers, this.handlers.length + 1);
+        handlers[this.handlers.length] = handler;
+        return new DeliveryEventHandlerList(this.packetCapture, handlers);
+    }
+
+    /**
+     * Returns a new list without the {@link DeliveryEventHandler} with the given {@link UUID}.
+     *
+     * @param uuid
+     *          {@link UUID} of the {@link DeliveryEventHandler} which should be removed
+     * @return DeliveryEventHandlerList, the same one if no {@link DeliveryEventHandler} has the {@link UUID}
      */
-    void addHandler(DeliveryEventHandler handler) {
-        if (packetCapture == null) packetCapture = handler.getPacketCapture();
+    DeliveryEventHandlerList without(UUID uuid) {
+        for (int i = 0; i < this.handlers.length; i++) {
+            if (this.handlers[i].getUuid().equals(uuid)) {
+                DeliveryEventHandler[] handlers = new DeliveryEventHandler[this.handlers.length - 1];
+                System.arraycopy(this.handlers, 0, handlers, 0, i);
+                System.arraycopy(this.handlers, i + 1, handlers, i, handlers.length - i);
+                return new DeliveryEventHandlerList(this.packetCapture, handlers);
+            }
+        }
+        return this;
+    }
 
-        for (DeliveryEventHandler storedHandler : this.handlers)
-            if (storedHandler.getUuid().equals(handler.getUuid()))
-                throw new UUIDAlreadyBoundException(handler.getUuid());
-        this.handlers.add(handler);
+    /**
+     * Returns a new list containing the {@link DeliveryEventHandler}'s of this list followed by the ones of the other list.
+     *
+     * @param other
+     *          {@link DeliveryEventHandlerList} whose handlers are appended, may be <code>null</code>
+     * @return DeliveryEventHandlerList with the capture of the other list
+     */
+    DeliveryEventHandlerList concat(DeliveryEventHandlerList other) {
+        if (other == null)
+            return this;
+        if (this.handlers.length == 0)
+            return other;
+        DeliveryEventHandler[] handlers = Arrays.copyOf(this.handlers, this.handlers.length + other.handlers.length);
+        System.arraycopy(other.handlers, 0, handlers, this.handlers.length, other.handlers.length);
+        return new DeliveryEventHandlerList(other.packetCapture, handlers);
     }
 
     /**
@@ -50,7 +126,100 @@ public class DeliveryEventHandlerList {
      *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
      */
     void callHandlers(DeliveryPacket packet, ChannelHandlerContext context) {
-        this.handlers.forEach(handler -> handler.call(packet, context));
+        for (DeliveryEventHandler handler : this.handlers)
+            handler.call(packet, context);
+    }
+
+    /**
+     * Executes the stored code in the {@link DeliveryEventHandler}, each with its {@link DeliveryExecutionMode}.
+     *
+     * @param packet
+     *          {@link DeliveryPacket} which has the same type as the capture
+     * @param context
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @param executor
+     *          provides the {@link DeliveryHandlerExecutor} for handlers which are not called inline
+     */
+    void callHandlers(DeliveryPacket packet, ChannelHandlerContext context, Supplier<DeliveryHandlerExecutor> executor) {
+        DeliveryExecutionMode[] modes = this.modes;
+        if (modes == null) {
+            this.callHandlers(packet, context);
+            return;
+        }
+        for (int i = 0; i < this.handlers.length; i++) {
+            DeliveryEventHandler handler = this.handlers[i];
+            if (modes[i] == DeliveryExecutionMode.INLINE)
+                handler.call(packet, context);
+            else
+                dispatch(handler, modes[i], packet, context, executor.get());
+        }
+    }
+
+    /**
+     * Hands the call over to the {@link DeliveryHandlerExecutor}. The {@link DeliveryPacket} is retained until the call returned and
+     * the {@link DeliveryReply} of a request is carried over to the other thread.
+     */
+    private static void dispatch(DeliveryEventHandler handler, DeliveryExecutionMode mode, DeliveryPacket packet,
+                                 ChannelHandlerContext context, DeliveryHandlerExecutor executor) {
+        retain(packet);
+        Runnable task = () -> {
+            try {
+                handler.call(packet, context);
+            } catch (Throwable throwable) {
+                LOGGER.log(Level.SEVERE, throwable, () -> "The handler failed {handler: " + handler.getUuid() + "}");
+            } finally {
+                release(packet);
+            }
+        };
+        DeliveryReply reply = DeliveryReply.current();
+        try {
+            executor.execute(mode, handler.getOrderingKey(packet, context), (reply != null) ? reply.wrap(task) : task);
+        } catch (RejectedExecutionException exception) {
+            release(packet);
+            LOGGER.log(Level.WARNING, () -> "The handler was not called because its queue is full {handler: " + handler.getUuid()
+                    + ", packet: '" + packet.getClass().getName() + "'}");
+        }
+    }
+
+    private static void retain(DeliveryPacket packet) {
+        if (packet instanceof DeliveryRecyclablePacket)
+            ((DeliveryRecyclablePacket) packet).retain();
+        else if (packet instanceof DeliveryLazyPacket)
+            ((DeliveryLazyPacket) packet).retain();
+    }
+
+    private static void release(DeliveryPacket packet) {
+        if (packet instanceof DeliveryRecyclablePacket)
+            ((DeliveryRecyclablePacket) packet).release();
+        else if (packet instanceof DeliveryLazyPacket)
+            ((DeliveryLazyPacket) packet).release();
+    }
+
+    /**
+     * Returns whether no {@link DeliveryEventHandler} is stored.
+     *
+     * @return <code>true</code> if the list is empty
+     */
+    boolean isEmpty() {
+        return this.handlers.length == 0;
+    }
+
+    /**
+     * Returns whether every stored {@link DeliveryEventHandler} accepts a lazy packet.
+     *
+     * @return <code>true</code> if every {@link DeliveryEventHandler} accepts a lazy packet
+     */
+    boolean acceptsLazyPacket() {
+        return this.acceptsLazyPacket;
+    }
+
+    /**
+     * Returns the amount of stored {@link DeliveryEventHandler}'s.
+     *
+     * @return amount of handlers
+     */
+    public int size() {
+        return this.handlers.length;
     }
 
     /**
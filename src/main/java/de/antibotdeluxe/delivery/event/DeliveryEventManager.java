@@ -1,21 +1,38 @@
 package de.antibotdeluxe.delivery.event;
 
+import de.antibotdeluxe.delivery.codec.DeliveryLazyPacket;
 import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.misc.exceptions.UUIDAlreadyBoundException;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Used by the server and the client to automatically call stored code in the {@link DeliveryEventHandler}'s or bind new ones to the
  * {@link DeliveryEventHandlerList} for each specific {@link DeliveryPacket}.
+ * <p>
+ * The handlers are stored in an immutable registry which is replaced as a whole whenever a handler is bound or unbound, so handlers
+ * can be bound at any time while the event loops keep dispatching. For every type of {@link DeliveryPacket} the global and the
+ * specific handlers are merged into a single {@link DeliveryEventHandlerList} once and cached in a {@link ClassValue}, so dispatching
+ * a {@link DeliveryPacket} only walks an array and allocates nothing.
+ * <p>
+ * {@link DeliveryEventHandler}'s which are not called inline are handed over to the {@link DeliveryHandlerExecutor}, which is
+ * created as soon as the first one is called and shut down by the server or client once it is stopped.
  *
  * @author jhz
  */
 @SuppressWarnings("unused")
 public class DeliveryEventManager {
 
-    private final HashMap<Class<? extends DeliveryPacket>, DeliveryEventHandlerList> localEventVault = new HashMap<>();
-    private final DeliveryEventHandlerList globalEventVault = new DeliveryEventHandlerList();
+    private final Supplier<DeliveryHandlerExecutor> executorSupplier = this::getExecutor;
+    private volatile DeliveryHandlerExecutor executor;
+    private boolean ownsExecutor;
+    private volatile Registry registry = new Registry(new DeliveryEventHandlerList(DeliveryPacket.class), new HashMap<>(),
+            new LinkedHashMap<>());
 
     /**
      * Binds a new {@link DeliveryEventHandler} to the system.<br>
@@ -26,15 +43,95 @@ public class DeliveryEventManager {
      *
      * @param handler
      *          {@link DeliveryEventHandler} which should be bound to the system
+     * @throws UUIDAlreadyBoundException
+     *          if another {@link DeliveryEventHandler} with the same {@link UUID} is bound
      */
-    public void bindHandlers(DeliveryEventHandler handler) {
+    public synchronized void bindHandlers(DeliveryEventHandler handler) {
+        Registry registry = this.registry;
+        if (registry.handlers.containsKey(handler.getUuid()))
+            throw new UUIDAlreadyBoundException(handler.getUuid());
+        LinkedHashMap<UUID, DeliveryEventHandler> handlers = new LinkedHashMap<>(registry.handlers);
+        handlers.put(handler.getUuid(), handler);
+        if (handler instanceof DeliveryBatchHandler)
+            ((DeliveryBatchHandler<?>) handler).bound();
+
         Class<? extends DeliveryPacket> packetCapture = handler.getPacketCapture();
         if (packetCapture.equals(DeliveryPacket.class)) {
-            this.globalEventVault.addHandler(handler);
+            this.registry = new Registry(registry.global.with(handler), registry.local, handlers);
             return;
         }
-        this.localEventVault.computeIfAbsent(packetCapture, k -> new DeliveryEventHandlerList());
-        this.localEventVault.get(packetCapture).addHandler(handler);
+        HashMap<Class<? extends DeliveryPacket>, DeliveryEventHandlerList> local = new HashMap<>(registry.local);
+        local.put(packetCapture, local.getOrDefault(packetCapture, new DeliveryEventHandlerList(packetCapture)).with(handler));
+        this.registry = new Registry(registry.global, local, handlers);
+    }
+
+    /**
+     * Binds the {@link DeliveryEventHandler} unless another one with the same {@link UUID} is already bound.
+     *
+     * @param handler
+     *          {@link DeliveryEventHandler} which should be bound to the system
+     * @return <code>true</code> if the {@link DeliveryEventHandler} was bound
+     */
+    public synchronized boolean bindHandlerIfAbsent(DeliveryEventHandler handler) {
+        if (this.registry.handlers.containsKey(handler.getUuid()))
+            return false;
+        this.bindHandlers(handler);
+        return true;
+    }
+
+    /**
+     * Unbinds the {@link DeliveryEventHandler} with the given {@link UUID}. {@link DeliveryPacket}'s which are dispatched at the same
+     * time on other threads may still reach it.
+     *
+     * @param uuid
+     *          {@link UUID} of the {@link DeliveryEventHandler} which should be unbound
+     * @return <code>true</code> if a {@link DeliveryEventHandler} was unbound
+     */
+    public synchronized boolean unbindHandler(UUID uuid) {
+        Registry registry = this.registry;
+        DeliveryEventHandler handler = registry.handlers.get(uuid);
+        if (handler == null)
+            return false;
+        LinkedHashMap<UUID, DeliveryEventHandler> handlers = new LinkedHashMap<>(registry.handlers);
+        handlers.remove(uuid);
+        if (handler instanceof DeliveryBatchHandler)
+            ((DeliveryBatchHandler<?>) handler).unbound();
+
+        Class<? extends DeliveryPacket> packetCapture = handler.getPacketCapture();
+        if (packetCapture.equals(DeliveryPacket.class)) {
+            this.registry = new Registry(registry.global.without(uuid), registry.local, handlers);
+            return true;
+        }
+        HashMap<Class<? extends DeliveryPacket>, DeliveryEventHandlerList> local = new HashMap<>(registry.local);
+        DeliveryEventHandlerList remaining = local.get(packetCapture).without(uuid);
+        if (remaining.isEmpty())
+            local.remove(packetCapture);
+        else
+            local.put(packetCapture, remaining);
+        this.registry = new Registry(registry.global, local, handlers);
+        return true;
+    }
+
+    /**
+     * Unbinds the {@link DeliveryEventHandler}.
+     *
+     * @param handler
+     *          {@link DeliveryEventHandler} which should be unbound
+     * @return <code>true</code> if the {@link DeliveryEventHandler} was unbound
+     */
+    public boolean unbindHandler(DeliveryEventHandler handler) {
+        return this.unbindHandler(handler.getUuid());
+    }
+
+    /**
+     * Returns the bound {@link DeliveryEventHandler} with the given {@link UUID}.
+     *
+     * @param uuid
+     *          {@link UUID} of the {@link DeliveryEventHandler}
+     * @return DeliveryEventHandler or <code>null</code> if none is bound
+     */
+    public DeliveryEventHandler getHandler(UUID uuid) {
+        return this.registry.handlers.get(uuid);
     }
 
     /**
@@ -46,11 +143,148 @@ public class DeliveryEventManager {
      *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
      */
     public void callHandlers(DeliveryPacket packet, ChannelHandlerContext ctx) {
-        this.globalEventVault.callHandlers(packet, ctx);
-        this.localEventVault.computeIfPresent(packet.getClass(), (k, v) -> {
-            v.callHandlers(packet, ctx);
-            return v;
-        });
+        Class<? extends DeliveryPacket> packetClass = (packet instanceof DeliveryLazyPacket)
+                ? ((DeliveryLazyPacket) packet).getPacketClass()
+                : packet.getClass();
+        this.registry.dispatch.get(packetClass).callHandlers(packet, ctx, this.executorSupplier);
+    }
+
+    /**
+     * Handles the batches of the {@link DeliveryBatchHandler}'s which were collected during the read cycle of the connection.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    public void readComplete(ChannelHandlerContext ctx) {
+        for (DeliveryBatchHandler<?> handler : this.registry.batchHandlers)
+            handler.readComplete(ctx);
+    }
+
+    /**
+     * Handles the remaining batches of the {@link DeliveryBatchHandler}'s which were collected for the closed connection.
+     *
+     * @param ctx
+     *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    public void channelInactive(ChannelHandlerContext ctx) {
+        for (DeliveryBatchHandler<?> handler : this.registry.batchHandlers)
+            handler.channelInactive(ctx);
+    }
+
+    /**
+     * Returns whether any {@link DeliveryEventHandler} listens for the type of {@link DeliveryPacket}, either directly or globally.
+     * The {@link de.antibotdeluxe.delivery.codec.DeliveryByteDecoder} skips frames of types nobody listens for.
+     *
+     * @param packetClass
+     *          type of the {@link DeliveryPacket}
+     * @return <code>true</code> if at least one {@link DeliveryEventHandler} would be called
+     */
+    public boolean hasHandlers(Class<? extends DeliveryPacket> packetClass) {
+        return !this.registry.dispatch.get(packetClass).isEmpty();
+    }
+
+    /**
+     * Returns whether every {@link DeliveryEventHandler} for the type of {@link DeliveryPacket}, including the global ones, accepts
+     * a {@link DeliveryLazyPacket}.
+     *
+     * @param packetClass
+     *          type of the {@link DeliveryPacket}
+     * @return <code>true</code> if the {@link DeliveryPacket} can be passed without decoding it first
+     */
+    public boolean acceptsLazyPacket(Class<? extends DeliveryPacket> packetClass) {
+        return this.registry.dispatch.get(packetClass).acceptsLazyPacket();
+    }
+
+    /**
+     * Returns the {@link DeliveryEventHandlerList} which is called for the type of {@link DeliveryPacket}, including the global
+     * {@link DeliveryEventHandler}'s.
+     *
+     * @param packetClass
+     *          type of the {@link DeliveryPacket}
+     * @return DeliveryEventHandlerList
+     */
+    public DeliveryEventHandlerList getHandlers(Class<? extends DeliveryPacket> packetClass) {
+        return this.registry.dispatch.get(packetClass);
+    }
+
+    /**
+     * Returns the {@link DeliveryHandlerExecutor} which calls the {@link DeliveryEventHandler}'s that are not called inline. It is
+     * created with the default settings on first use if none was set.
+     *
+     * @return DeliveryHandlerExecutor
+     */
+    public DeliveryHandlerExecutor getExecutor() {
+        DeliveryHandlerExecutor executor = this.executor;
+        if (executor == null) {
+            synchronized (this) {
+                if (this.executor == null) {
+                    this.executor = new DeliveryHandlerExecutor();
+                    this.ownsExecutor = true;
+                }
+                executor = this.executor;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Sets the {@link DeliveryHandlerExecutor} which calls the {@link DeliveryEventHandler}'s that are not called inline, e.g. to
+     * change the amount of lanes. The previous one is not shut down and neither is this one when the server or client is stopped.
+     *
+     * @param executor
+     *          {@link DeliveryHandlerExecutor}
+     */
+    public synchronized void setExecutor(DeliveryHandlerExecutor executor) {
+        if (executor == null)
+            throw new NullPointerException("The executor must not be null");
+        this.executor = executor;
+        this.ownsExecutor = false;
+    }
+
+    /**
+     * Hands the {@link DeliveryHandlerExecutor} which was created by the {@link DeliveryEventManager} itself over to the caller, who
+     * has to shut it down. The next {@link DeliveryEventHandler} which is not called inline creates a new one.
+     *
+     * @return DeliveryHandlerExecutor or <code>null</code> if none was created or it was set with <code>setExecutor(...)</code>
+     */
+    public synchronized DeliveryHandlerExecutor detachExecutor() {
+        if (!this.ownsExecutor)
+            return null;
+        DeliveryHandlerExecutor executor = this.executor;
+        this.executor = null;
+        this.ownsExecutor = false;
+        return executor;
+    }
+
+    /**
+     * Immutable state of the {@link DeliveryEventManager}. The merged {@link DeliveryEventHandlerList} of a type is computed on its
+     * first dispatch and stays valid until the registry is replaced. The handlers are kept in the order they were bound, so the
+     * batches of the {@link DeliveryBatchHandler}'s are handled in the same order as their {@link DeliveryEventHandlerList}'s.
+     */
+    private static final class Registry {
+
+        private final DeliveryEventHandlerList global;
+        private final Map<Class<? extends DeliveryPacket>, DeliveryEventHandlerList> local;
+        private final Map<UUID, DeliveryEventHandler> handlers;
+        private final DeliveryBatchHandler<?>[] batchHandlers;
+        private final ClassValue<DeliveryEventHandlerList> dispatch = new ClassValue<>() {
+            @Override
+            protected DeliveryEventHandlerList computeValue(Class<?> type) {
+                DeliveryEventHandlerList specific = local.get(type);
+                return (specific != null) ? global.concat(specific) : global;
+            }
+        };
+
+        private Registry(DeliveryEventHandlerList global, Map<Class<? extends DeliveryPacket>, DeliveryEventHandlerList> local,
+                         Map<UUID, DeliveryEventHandler> handlers) {
+            this.global = global;
+            this.local = local;
+            this.handlers = handlers;
+            this.batchHandlers = handlers.values().stream()
+                    .filter(handler -> handler instanceof DeliveryBatchHandler)
+                    .toArray(DeliveryBatchHandler<?>[]::new);
+        }
+
     }
 
 }
@@ -0,0 +1,29 @@
+package de.antibotdeluxe.delivery.event;
+
+/**
+ * Decides on which thread a {@link DeliveryEventHandler} is called.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public enum DeliveryExecutionMode {
+
+    /**
+     * The {@link DeliveryEventHandler} is called directly on the event loop of the connection. It must never block, otherwise every
+     * other connection of the same event loop is stalled. This is the default.
+     */
+    INLINE,
+
+    /**
+     * The {@link DeliveryEventHandler} is called on a new virtual thread if the runtime supports them, otherwise on a thread of an
+     * unbounded pool. There is no order between the calls, so this suits independent blocking work.
+     */
+    VIRTUAL_THREAD,
+
+    /**
+     * The {@link DeliveryEventHandler} is called on one of the lanes of a bounded pool. The lane is chosen by the ordering key of the
+     * {@link DeliveryEventHandler}, which is the connection by default, so all calls with the same key keep their order.
+     */
+    ORDERED
+
+}
@@ -0,0 +1,190 @@
+package de.antibotdeluxe.delivery.event;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the {@link DeliveryEventHandler}'s which should not be called on the event loop, see {@link DeliveryExecutionMode}.
+ * <p>
+ * Ordered calls are spread over a fixed amount of lanes. Each lane is a single thread with a bounded queue, so calls with the same
+ * ordering key always run one after another in the order they were received. A call which doesn't fit into the queue of its lane is
+ * rejected and counted. The threads of idle lanes are stopped and started again on demand. Without virtual threads the calls which
+ * should run on one are spread over a bounded pool of daemon threads instead, whose queue is as large as the queue of a lane.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public class DeliveryHandlerExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Event]");
+
+    /**
+     * Default capacity of the queue of a single lane.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Maximum amount of threads used for {@link DeliveryExecutionMode#VIRTUAL_THREAD} if the runtime has no virtual threads.
+     */
+    public static final int DEFAULT_FALLBACK_THREADS = 64;
+
+    private final ThreadPoolExecutor[] lanes;
+    private final ExecutorService virtualThreads;
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LongAdder pendingVirtualTasks = new LongAdder();
+
+    /**
+     * Initialize the {@link DeliveryHandlerExecutor} with one lane per available processor.
+     */
+    public DeliveryHandlerExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Initialize the {@link DeliveryHandlerExecutor}
+     *
+     * @param lanes
+     *          amount of lanes for ordered calls
+     * @param queueCapacity
+     *          maximum amount of calls waiting in a single lane
+     */
+    public DeliveryHandlerExecutor(int lanes, int queueCapacity) {
+        if (lanes <= 0 || queueCapacity <= 0)
+            throw new IllegalArgumentException("The amount of lanes and the queue capacity have to be positive {lanes: " + lanes
+                    + ", queueCapacity: " + queueCapacity + "}");
+        DefaultThreadFactory laneFactory = new DefaultThreadFactory("delivery-handler", true);
+        this.lanes = new ThreadPoolExecutor[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), laneFactory);
+            this.lanes[i].allowCoreThreadTimeOut(true);
+        }
+        this.virtualThreads = createVirtualThreadExecutor(queueCapacity);
+    }
+
+    /**
+     * Runs the task with the given {@link DeliveryExecutionMode}.
+     *
+     * @param mode
+     *          {@link DeliveryExecutionMode} of the {@link DeliveryEventHandler}
+     * @param key
+     *          ordering key, only used by {@link DeliveryExecutionMode#ORDERED}
+     * @param task
+     *          {@link Runnable} calling the {@link DeliveryEventHandler}
+     * @throws RejectedExecutionException
+     *          if the lane of the key or the fallback pool of the virtual threads is full or the executor was shut down
+     */
+    public void execute(DeliveryExecutionMode mode, Object key, Runnable task) {
+        try {
+            switch (mode) {
+                case INLINE:
+                    task.run();
+                    break;
+                case VIRTUAL_THREAD:
+                    this.pendingVirtualTasks.increment();
+                    try {
+                        this.virtualThreads.execute(() -> {
+                            try {
+                                task.run();
+                            } finally {
+                                this.pendingVirtualTasks.decrement();
+                            }
+                        });
+                    } catch (RejectedExecutionException exception) {
+                        this.pendingVirtualTasks.decrement();
+                        throw exception;
+                    }
+                    break;
+                default:
+                    this.lanes[this.laneOf(key)].execute(task);
+            }
+        } catch (RejectedExecutionException exception) {
+            this.rejectedTasks.increment();
+            throw exception;
+        }
+    }
+
+    private int laneOf(Object key) {
+        int hash = (key == null) ? 0 : key.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % this.lanes.length;
+    }
+
+    /**
+     * Returns the amount of ordered calls waiting in each lane.
+     *
+     * @return queue depth per lane
+     */
+    public int[] getQueueDepths() {
+        int[] depths = new int[this.lanes.length];
+        for (int i = 0; i < depths.length; i++)
+            depths[i] = this.lanes[i].getQueue().size();
+        return depths;
+    }
+
+    /**
+     * Returns the amount of calls which have not been completed yet, ordered ones waiting in a lane and calls on virtual threads.
+     *
+     * @return amount of pending calls
+     */
+    public long getPendingTasks() {
+        long pending = this.pendingVirtualTasks.sum();
+        for (ThreadPoolExecutor lane : this.lanes)
+            pending += lane.getQueue().size();
+        return pending;
+    }
+
+    /**
+     * Returns the amount of calls which were rejected because their lane or the fallback pool of the virtual threads was full.
+     *
+     * @return amount of rejected calls
+     */
+    public long getRejectedTasks() {
+        return this.rejectedTasks.sum();
+    }
+
+    /**
+     * Returns the amount of lanes for ordered calls.
+     *
+     * @return amount of lanes
+     */
+    public int getLaneCount() {
+        return this.lanes.length;
+    }
+
+    /**
+     * Stops accepting new calls. Calls which are already queued are still completed.
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : this.lanes)
+            lane.shutdown();
+        this.virtualThreads.shutdown();
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task if the runtime supports them (Java 21+), which is looked up reflectively
+     * so the library still runs on older runtimes. Otherwise a bounded pool of daemon threads is used, so blocking handlers can't
+     * start an unlimited amount of platform threads.
+     */
+    private static ExecutorService createVirtualThreadExecutor(int queueCapacity) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            LOGGER.log(Level.WARNING, () -> "Virtual threads are not supported, using a bounded thread pool instead {threads: "
+                    + DEFAULT_FALLBACK_THREADS + "}");
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_FALLBACK_THREADS, DEFAULT_FALLBACK_THREADS, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new DefaultThreadFactory("delivery-virtual", true));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+}
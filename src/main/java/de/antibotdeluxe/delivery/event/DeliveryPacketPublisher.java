@@ -0,0 +1,365 @@
+package de.antibotdeluxe.delivery.event;
+
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link Flow.Publisher} of the {@link DeliveryPacket}'s of one type which are received from a single connection. In contrast to a
+ * {@link DeliveryEventHandler} the subscriber decides how many {@link DeliveryPacket}'s it can take: as soon as a
+ * {@link DeliveryPacket} arrives without outstanding demand it is buffered and <code>autoRead</code> of the {@link Channel} is turned
+ * off, so the socket is not read any further. Reading is resumed once the buffer was drained and more {@link DeliveryPacket}'s were
+ * requested. The buffer therefore never holds more than the {@link DeliveryPacket}'s of a single read.
+ * <p>
+ * Each {@link DeliveryPacketPublisher} accepts a single subscriber, whose methods are called on the event loop of the
+ * {@link Channel}. The subscription completes when the {@link Channel} is closed and all buffered {@link DeliveryPacket}'s were
+ * delivered. {@link DeliveryRecyclablePacket}'s are only valid during <code>onNext</code> unless they are retained.
+ * <p>
+ * The {@link DeliveryPacketPublisher}'s of a type share one {@link DeliveryEventHandler} per {@link DeliveryEventManager}, which is
+ * unbound again once the last of them was cancelled or completed, so frames of that type can be skipped or decoded lazily again.
+ *
+ * @param <T>
+ *          Type of the {@link DeliveryPacket}
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryPacketPublisher<T extends DeliveryPacket> implements Flow.Publisher<T> {
+
+    private static final Logger LOGGER = Logger.getLogger("[Delivery-Event]");
+    private static final AttributeKey<Publishers> PUBLISHERS = AttributeKey.valueOf("delivery-publishers");
+
+    private final Channel channel;
+    private final Class<T> packetClass;
+    private final Publishers publishers;
+    private final Dispatcher dispatcher;
+    private final AtomicReference<Flow.Subscriber<? super T>> subscriber = new AtomicReference<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final ArrayDeque<T> buffer = new ArrayDeque<>();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private boolean completed;
+    private boolean terminated;
+    private boolean paused;
+
+    private DeliveryPacketPublisher(Channel channel, Class<T> packetClass, Publishers publishers, Dispatcher dispatcher) {
+        this.channel = channel;
+        this.packetClass = packetClass;
+        this.publishers = publishers;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Returns the {@link DeliveryPacketPublisher} for the type of {@link DeliveryPacket}'s received from the {@link Channel}, a new
+     * one is created if there is none or the previous one was cancelled. <code>DeliveryPacket.class</code> publishes every
+     * {@link DeliveryPacket}, which keeps the {@link de.antibotdeluxe.delivery.codec.DeliveryByteDecoder} from skipping any frame.
+     *
+     * @param eventManager
+     *          {@link DeliveryEventManager} of the server or client the {@link Channel} belongs to
+     * @param channel
+     *          {@link Channel} of the connection
+     * @param packetClass
+     *          type of the {@link DeliveryPacket}
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     * @return DeliveryPacketPublisher
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends DeliveryPacket> DeliveryPacketPublisher<T> of(DeliveryEventManager eventManager, Channel channel,
+                                                                           Class<T> packetClass) {
+        Attribute<Publishers> attribute = channel.attr(PUBLISHERS);
+        Publishers publishers = attribute.get();
+        if (publishers == null) {
+            Publishers created = new Publishers();
+            publishers = attribute.setIfAbsent(created);
+            if (publishers == null) {
+                publishers = created;
+                channel.closeFuture().addListener(future -> created.complete());
+            }
+        }
+        Publishers owner = publishers;
+        DeliveryPacketPublisher<T> publisher = (DeliveryPacketPublisher<T>) publishers.publishers.get(packetClass);
+        if (publisher == null) {
+            DeliveryPacketPublisher<T> created = new DeliveryPacketPublisher<>(channel, packetClass, owner,
+                    Dispatcher.acquire(eventManager, packetClass));
+            publisher = (DeliveryPacketPublisher<T>) publishers.publishers.putIfAbsent(packetClass, created);
+            if (publisher != null)
+                created.dispatcher.release();
+            else
+                publisher = created;
+        }
+        if (!channel.isOpen())
+            channel.eventLoop().execute(owner::complete);
+        return publisher;
+    }
+
+    /**
+     * Subscribes a {@link DeliveryPacketQueue} which buffers up to the given amount of {@link DeliveryPacket}'s for a consumer that
+     * polls them from its own thread.
+     *
+     * @param capacity
+     *          maximum amount of {@link DeliveryPacket}'s which are requested at once
+     * @return the subscribed {@link DeliveryPacketQueue}
+     */
+    public DeliveryPacketQueue<T> toQueue(int capacity) {
+        DeliveryPacketQueue<T> queue = new DeliveryPacketQueue<>(capacity);
+        this.subscribe(queue);
+        return queue;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (!this.subscriber.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) { }
+
+                @Override
+                public void cancel() { }
+            });
+            subscriber.onError(new IllegalStateException("The publisher already has a subscriber {packet: '"
+                    + this.packetClass.getName() + "'}"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    this.cancel();
+                    subscriber.onError(new IllegalArgumentException("The demand must be positive {n: " + n + "}"));
+                    return;
+                }
+                demand.accumulateAndGet(n, (current, added) -> (current + added < 0) ? Long.MAX_VALUE : current + added);
+                channel.eventLoop().execute(DeliveryPacketPublisher.this::drain);
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                publishers.publishers.remove(packetClass, DeliveryPacketPublisher.this);
+                releaseDispatcher();
+                channel.eventLoop().execute(DeliveryPacketPublisher.this::drain);
+            }
+        });
+        this.channel.eventLoop().execute(this::drain);
+    }
+
+    /**
+     * Returns the {@link Channel} whose {@link DeliveryPacket}'s are published.
+     *
+     * @return Channel
+     */
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Returns the type of the published {@link DeliveryPacket}'s.
+     *
+     * @return type of the {@link DeliveryPacket}
+     */
+    public Class<T> getPacketClass() {
+        return this.packetClass;
+    }
+
+    /**
+     * Returns whether the subscription was cancelled.
+     *
+     * @return <code>true</code> if the {@link DeliveryPacketPublisher} stopped publishing
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Passes a received {@link DeliveryPacket} to the subscriber or buffers it and stops reading if there is no demand. Only called on
+     * the event loop.
+     *
+     * @param packet
+     *          received {@link DeliveryPacket}
+     */
+    private void offer(T packet) {
+        if (this.cancelled)
+            return;
+        if (this.buffer.isEmpty() && this.demand.get() > 0 && this.subscriber.get() != null) {
+            this.demand.decrementAndGet();
+            this.deliver(packet);
+            return;
+        }
+        if (packet instanceof DeliveryRecyclablePacket)
+            ((DeliveryRecyclablePacket) packet).retain();
+        this.buffer.add(packet);
+        this.pause();
+    }
+
+    /**
+     * Delivers the buffered {@link DeliveryPacket}'s as far as there is demand and resumes reading once the buffer is empty. Only
+     * called on the event loop.
+     */
+    private void drain() {
+        Flow.Subscriber<? super T> subscriber = this.subscriber.get();
+        while (subscriber != null && !this.cancelled && !this.buffer.isEmpty() && this.demand.get() > 0) {
+            this.demand.decrementAndGet();
+            T packet = this.buffer.poll();
+            try {
+                this.deliver(packet);
+            } finally {
+                if (packet instanceof DeliveryRecyclablePacket)
+                    ((DeliveryRecyclablePacket) packet).release();
+            }
+        }
+        if (this.cancelled) {
+            for (T packet; (packet = this.buffer.poll()) != null; )
+                if (packet instanceof DeliveryRecyclablePacket)
+                    ((DeliveryRecyclablePacket) packet).release();
+            this.resume();
+            return;
+        }
+        if (!this.buffer.isEmpty())
+            return;
+        if (this.completed) {
+            if (subscriber != null && !this.terminated) {
+                this.terminated = true;
+                subscriber.onComplete();
+            }
+            return;
+        }
+        if (this.demand.get() > 0)
+            this.resume();
+    }
+
+    private void deliver(T packet) {
+        try {
+            this.subscriber.get().onNext(packet);
+        } catch (Throwable throwable) {
+            this.cancelled = true;
+            this.publishers.publishers.remove(this.packetClass, this);
+            this.releaseDispatcher();
+            LOGGER.log(Level.SEVERE, throwable, () -> "The subscriber failed and was cancelled {packet: '" + this.packetClass.getName()
+                    + "'}");
+        }
+    }
+
+    /**
+     * Gives up the share of the {@link Dispatcher} once the {@link DeliveryPacketPublisher} stopped publishing.
+     */
+    private void releaseDispatcher() {
+        if (this.released.compareAndSet(false, true))
+            this.dispatcher.release();
+    }
+
+    private void pause() {
+        if (this.paused)
+            return;
+        this.paused = true;
+        if (this.publishers.paused++ == 0)
+            this.channel.config().setAutoRead(false);
+    }
+
+    private void resume() {
+        if (!this.paused)
+            return;
+        this.paused = false;
+        if (--this.publishers.paused == 0)
+            this.channel.config().setAutoRead(true);
+    }
+
+    /**
+     * {@link DeliveryPacketPublisher}'s of a {@link Channel}, stored as attribute of the {@link Channel}.
+     */
+    private static final class Publishers {
+
+        private final Map<Class<? extends DeliveryPacket>, DeliveryPacketPublisher<?>> publishers = new ConcurrentHashMap<>();
+        private int paused;
+
+        private void complete() {
+            for (DeliveryPacketPublisher<?> publisher : this.publishers.values()) {
+                publisher.completed = true;
+                publisher.releaseDispatcher();
+                publisher.drain();
+            }
+        }
+
+    }
+
+    /**
+     * Passes the {@link DeliveryPacket}'s of one type to the {@link DeliveryPacketPublisher} of the {@link Channel} they were received
+     * from. One is bound per type and {@link DeliveryEventManager} as long as any {@link DeliveryPacketPublisher} of that type
+     * is publishing.
+     */
+    private static final class Dispatcher extends DeliveryEventHandler {
+
+        private final DeliveryEventManager eventManager;
+        private final Class<? extends DeliveryPacket> packetCapture;
+        private int publishers;
+
+        private Dispatcher(DeliveryEventManager eventManager, Class<? extends DeliveryPacket> packetCapture) {
+            super(uuidOf(packetCapture));
+            this.eventManager = eventManager;
+            this.packetCapture = packetCapture;
+        }
+
+        /**
+         * Returns the bound {@link Dispatcher} of the type and binds one if there is none, both counting one more
+         * {@link DeliveryPacketPublisher}. Guarded by the {@link DeliveryEventManager} which also guards binding.
+         */
+        private static Dispatcher acquire(DeliveryEventManager eventManager, Class<? extends DeliveryPacket> packetCapture) {
+            synchronized (eventManager) {
+                Dispatcher dispatcher = (Dispatcher) eventManager.getHandler(uuidOf(packetCapture));
+                if (dispatcher == null)
+                    eventManager.bindHandlers(dispatcher = new Dispatcher(eventManager, packetCapture));
+                dispatcher.publishers++;
+                return dispatcher;
+            }
+        }
+
+        /**
+         * Counts one {@link DeliveryPacketPublisher} less and unbinds the {@link Dispatcher} if it was the last one.
+         */
+        private void release() {
+            synchronized (this.eventManager) {
+                if (--this.publishers == 0)
+                    this.eventManager.unbindHandler(this);
+            }
+        }
+
+        private static UUID uuidOf(Class<? extends DeliveryPacket> packetCapture) {
+            return UUID.nameUUIDFromBytes(("delivery-publisher:" + packetCapture.getName()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+            if (ctx == null)
+                return;
+            Publishers publishers = ctx.channel().attr(PUBLISHERS).get();
+            if (publishers == null)
+                return;
+            DeliveryPacketPublisher<DeliveryPacket> publisher =
+                    (DeliveryPacketPublisher<DeliveryPacket>) publishers.publishers.get(this.packetCapture);
+            if (publisher != null)
+                publisher.offer(packet);
+        }
+
+        @Override
+        public Class<? extends DeliveryPacket> getPacketCapture() {
+            return this.packetCapture;
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+package de.antibotdeluxe.delivery.event;
+
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Flow.Subscriber} for consumers which fetch the {@link DeliveryPacket}'s on their own schedule, e.g. once per tick of a game
+ * loop. It never requests more {@link DeliveryPacket}'s than it can hold, so a consumer that falls behind stops the connection from
+ * being read instead of filling the heap.
+ * <p>
+ * <strong>Note</strong><br>
+ * {@link DeliveryRecyclablePacket}'s are retained while they are queued, the consumer has to call <code>release()</code> once it
+ * handled them.
+ *
+ * @param <T>
+ *          Type of the {@link DeliveryPacket}
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryPacketQueue<T extends DeliveryPacket> implements Flow.Subscriber<T> {
+
+    private final int capacity;
+    private final ArrayBlockingQueue<T> queue;
+    private volatile Flow.Subscription subscription;
+    private volatile boolean done;
+    private volatile Throwable failure;
+
+    public DeliveryPacketQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be positive {capacity: " + capacity + "}");
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(this.capacity);
+    }
+
+    @Override
+    public void onNext(T packet) {
+        if (packet instanceof DeliveryRecyclablePacket)
+            ((DeliveryRecyclablePacket) packet).retain();
+        this.queue.offer(packet);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        this.failure = throwable;
+        this.done = true;
+    }
+
+    @Override
+    public void onComplete() {
+        this.done = true;
+    }
+
+    /**
+     * Takes the next {@link DeliveryPacket} without waiting.
+     *
+     * @return DeliveryPacket or <code>null</code> if none is queued
+     */
+    public T poll() {
+        T packet = this.queue.poll();
+        if (packet != null)
+            this.subscription.request(1);
+        return packet;
+    }
+
+    /**
+     * Takes the next {@link DeliveryPacket}, waiting up to the timeout for one to arrive.
+     *
+     * @param timeout
+     *          maximum time to wait
+     * @param unit
+     *          {@link TimeUnit} of the timeout
+     * @return DeliveryPacket or <code>null</code> if none arrived in time
+     * @throws InterruptedException
+     *          if the thread is interrupted while waiting
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        T packet = this.queue.poll(timeout, unit);
+        if (packet != null)
+            this.subscription.request(1);
+        return packet;
+    }
+
+    /**
+     * Moves up to the given amount of queued {@link DeliveryPacket}'s to the {@link Collection} without waiting.
+     *
+     * @param target
+     *          {@link Collection} the {@link DeliveryPacket}'s are added to
+     * @param maxPackets
+     *          maximum amount of {@link DeliveryPacket}'s
+     * @return amount of moved {@link DeliveryPacket}'s
+     */
+    public int drainTo(Collection<? super T> target, int maxPackets) {
+        int drained = this.queue.drainTo(target, maxPackets);
+        if (drained > 0)
+            this.subscription.request(drained);
+        return drained;
+    }
+
+    /**
+     * Cancels the subscription, {@link DeliveryPacket}'s which are already queued can still be taken.
+     */
+    public void cancel() {
+        Flow.Subscription subscription = this.subscription;
+        if (subscription != null)
+            subscription.cancel();
+        this.done = true;
+    }
+
+    /**
+     * Returns the amount of queued {@link DeliveryPacket}'s.
+     *
+     * @return size of the queue
+     */
+    public int size() {
+        return this.queue.size();
+    }
+
+    /**
+     * Returns whether no more {@link DeliveryPacket}'s will arrive and the queue is empty.
+     *
+     * @return <code>true</code> if the queue was fully consumed
+     */
+    public boolean isDone() {
+        return this.done && this.queue.isEmpty();
+    }
+
+    /**
+     * Returns the error the publisher failed with.
+     *
+     * @return Throwable or <code>null</code> if it didn't fail
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+}
@@ -0,0 +1,222 @@
+package de.antibotdeluxe.delivery.misc;
+
+import de.antibotdeluxe.delivery.misc.exceptions.TransportUnavailableException;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The I/O transports the {@link de.antibotdeluxe.delivery.server.DeliveryServer} and the
+ * {@link de.antibotdeluxe.delivery.client.DeliveryClient} can run on.
+ * <p>
+ * io_uring is provided by the <code>netty-incubator-transport-native-io_uring</code> artifact, which is not bundled and therefore
+ * looked up by reflection. It is only available if the artifact is on the classpath and the kernel supports it.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public enum DeliveryTransport {
+
+    /**
+     * Java NIO, available everywhere.
+     */
+    NIO {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new NioEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelClass() {
+            return NioSocketChannel.class;
+        }
+    },
+
+    /**
+     * Native epoll on Linux, which also supports <code>SO_REUSEPORT</code>.
+     */
+    EPOLL {
+        @Override
+        public boolean isAvailable() {
+            return Epoll.isAvailable();
+        }
+
+        @Override
+        EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelClass() {
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+    },
+
+    /**
+     * Native io_uring on Linux 5.9 and newer.
+     */
+    IO_URING {
+        @Override
+        public boolean isAvailable() {
+            return IoUring.UNAVAILABILITY_CAUSE == null;
+        }
+
+        @Override
+        EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            try {
+                return IoUring.EVENT_LOOP_GROUP.newInstance(threads, threadFactory);
+            } catch (ReflectiveOperationException exception) {
+                throw new TransportUnavailableException(this, exception);
+            }
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass() {
+            this.ensureAvailability();
+            return IoUring.SERVER_CHANNEL;
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelClass() {
+            this.ensureAvailability();
+            return IoUring.CHANNEL;
+        }
+    };
+
+    /**
+     * Returns whether the {@link DeliveryTransport} can be used on this machine.
+     *
+     * @return <code>true</code> if it is available
+     */
+    public abstract boolean isAvailable();
+
+    abstract EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory);
+
+    /**
+     * Returns the {@link ServerChannel} implementation of the {@link DeliveryTransport}.
+     *
+     * @return {@link Class} of the {@link ServerChannel}
+     */
+    public abstract Class<? extends ServerChannel> getServerChannelClass();
+
+    /**
+     * Returns the {@link Channel} implementation of the {@link DeliveryTransport}.
+     *
+     * @return {@link Class} of the {@link Channel}
+     */
+    public abstract Class<? extends Channel> getChannelClass();
+
+    /**
+     * Returns whether several server sockets can be bound to the same port with <code>SO_REUSEPORT</code>, so the kernel spreads
+     * incoming connections across them.
+     *
+     * @return <code>true</code> if <code>SO_REUSEPORT</code> is supported
+     */
+    public boolean supportsReusePort() {
+        return false;
+    }
+
+    /**
+     * Creates an {@link EventLoopGroup} of the {@link DeliveryTransport}.
+     *
+     * @param threads
+     *          amount of threads, <code>0</code> for twice the amount of cores
+     * @param name
+     *          prefix of the thread names
+     * @return EventLoopGroup
+     * @throws TransportUnavailableException
+     *          if the {@link DeliveryTransport} is not available
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, String name) {
+        this.ensureAvailability();
+        return this.createEventLoopGroup(threads, new DefaultThreadFactory(name));
+    }
+
+    /**
+     * Returns the fastest {@link DeliveryTransport} which is available on this machine.
+     *
+     * @return io_uring if available, epoll otherwise and NIO as last resort
+     */
+    public static DeliveryTransport getDefault() {
+        if (IO_URING.isAvailable())
+            return IO_URING;
+        return (EPOLL.isAvailable()) ? EPOLL : NIO;
+    }
+
+    void ensureAvailability() {
+        if (this.isAvailable())
+            return;
+        throw new TransportUnavailableException(this, (this == EPOLL) ? Epoll.unavailabilityCause() : IoUring.UNAVAILABILITY_CAUSE);
+    }
+
+    /**
+     * Classes of the io_uring transport, loaded on first use.
+     */
+    private static final class IoUring {
+
+        private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+        private static final Throwable UNAVAILABILITY_CAUSE;
+        private static final Constructor<? extends EventLoopGroup> EVENT_LOOP_GROUP;
+        private static final Class<? extends ServerChannel> SERVER_CHANNEL;
+        private static final Class<? extends Channel> CHANNEL;
+
+        static {
+            Throwable cause = null;
+            Constructor<? extends EventLoopGroup> eventLoopGroup = null;
+            Class<? extends ServerChannel> serverChannel = null;
+            Class<? extends Channel> channel = null;
+            try {
+                Class<?> ioUring = Class.forName(PACKAGE + "IOUring");
+                if ((boolean) ioUring.getMethod("isAvailable").invoke(null)) {
+                    eventLoopGroup = Class.forName(PACKAGE + "IOUringEventLoopGroup").asSubclass(EventLoopGroup.class)
+                            .getConstructor(int.class, ThreadFactory.class);
+                    serverChannel = Class.forName(PACKAGE + "IOUringServerSocketChannel").asSubclass(ServerChannel.class);
+                    channel = Class.forName(PACKAGE + "IOUringSocketChannel").asSubclass(Channel.class);
+                } else {
+                    cause = (Throwable) ioUring.getMethod("unavailabilityCause").invoke(null);
+                }
+            } catch (ReflectiveOperationException | LinkageError exception) {
+                cause = exception;
+            }
+            UNAVAILABILITY_CAUSE = (cause == null && eventLoopGroup == null)
+                    ? new UnsupportedOperationException("io_uring is not supported") : cause;
+            EVENT_LOOP_GROUP = eventLoopGroup;
+            SERVER_CHANNEL = serverChannel;
+            CHANNEL = channel;
+        }
+
+    }
+
+}
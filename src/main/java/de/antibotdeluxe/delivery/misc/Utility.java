@@ -1,10 +1,12 @@
 package de.antibotdeluxe.delivery.misc;
 
 import de.antibotdeluxe.delivery.misc.exceptions.PortAlreadyBoundException;
+import io.netty.util.concurrent.Future;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.util.stream.Collectors;
@@ -46,8 +48,7 @@ public class Utility {
      * @return Boolean including the expression whether the port is bound or not
      */
     public static boolean checkPortAvailability(int port) {
-        if (!(port > 1023 && port < 65536))
-            throw new IllegalArgumentException("The port regulations were violated. This port is not suitable. {port: " + port + "}");
+        checkPortRegulations(port);
         try {
             ServerSocket socket = new ServerSocket(port);
             socket.close();
@@ -57,6 +58,37 @@ public class Utility {
         return true;
     }
 
+    /**
+     * Checks if the given port is suitable for running the application without checking whether it is bound, see
+     * <code>checkPortAvailability(int port)</code> for the regulations.
+     *
+     * @param port
+     *          The port which should be checked
+     */
+    public static void checkPortRegulations(int port) {
+        if (!(port > 1023 && port < 65536))
+            throw new IllegalArgumentException("The port regulations were violated. This port is not suitable. {port: " + port + "}");
+    }
+
+    /**
+     * Transforms a {@link Future} of <a target="_blank" href="http://netty.io">Netty.io</a> into a {@link CompletableFuture} which
+     * completes in the same way, without blocking any thread.
+     *
+     * @param future
+     *          {@link Future} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+     * @return CompletableFuture
+     */
+    public static CompletableFuture<Void> toCompletableFuture(Future<?> future) {
+        CompletableFuture<Void> completable = new CompletableFuture<>();
+        future.addListener(result -> {
+            if (result.isSuccess())
+                completable.complete(null);
+            else
+                completable.completeExceptionally(result.cause());
+        });
+        return completable;
+    }
+
     /**
      * Transforms any given {@link List} into a single {@link String}.<br>
      * This will be a benefit if a large amount of data need to be sent.
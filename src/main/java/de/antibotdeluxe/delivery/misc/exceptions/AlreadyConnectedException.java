@@ -14,6 +14,8 @@ import io.netty.channel.Channel;
 
 public class AlreadyConnectedException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor takes the message to the super class which is then displayed.
      *
@@ -11,6 +11,8 @@ package de.antibotdeluxe.delivery.misc.exceptions;
 
 public class ConnectionFailedException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor takes the message to the super class which is then displayed.
      *
@@ -23,4 +25,18 @@ public class ConnectionFailedException extends RuntimeException {
         super("The connection has failed! {address: '" + host + ":" + port + "'}");
     }
 
+    /**
+     * Constructor takes the message and the reason why connecting failed to the super class which are then displayed.
+     *
+     * @param host
+     *          host address
+     * @param port
+     *          host port
+     * @param cause
+     *          {@link Throwable} thrown while connecting
+     */
+    public ConnectionFailedException(String host, int port, Throwable cause) {
+        super("The connection has failed! {address: '" + host + ":" + port + "'}", cause);
+    }
+
 }
\ No newline at end of file
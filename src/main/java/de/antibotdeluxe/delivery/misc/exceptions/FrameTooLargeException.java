@@ -0,0 +1,30 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be thrown if a frame which should be encoded or was received is larger than the configured maximum frame size.<br>
+ * The {@link FrameTooLargeException} is just a regular {@link RuntimeException} with just a different name to make it easier to
+ * catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the frame size and the maximum frame size will be passed.
+ *
+ * @author jhz
+ */
+
+public class FrameTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param frameSize
+     *          Size of the frame in bytes
+     * @param maxFrameSize
+     *          Maximum size a frame is allowed to have in bytes
+     */
+    public FrameTooLargeException(long frameSize, int maxFrameSize) {
+        super("The frame exceeds the maximum frame size {frameSize: " + frameSize + ", maxFrameSize: " + maxFrameSize + "}");
+    }
+
+}
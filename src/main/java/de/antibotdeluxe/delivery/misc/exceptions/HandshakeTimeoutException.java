@@ -0,0 +1,28 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be used to close a connection if the handshake was not completed within its timeout.<br>
+ * The {@link HandshakeTimeoutException} is just a regular {@link RuntimeException} with just a different name to make it easier to
+ * catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the timeout will be passed.
+ *
+ * @author jhz
+ */
+
+public class HandshakeTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param timeoutMillis
+     *          Timeout of the handshake in milliseconds
+     */
+    public HandshakeTimeoutException(long timeoutMillis) {
+        super("The handshake was not completed within the timeout {timeoutMillis: " + timeoutMillis + "}");
+    }
+
+}
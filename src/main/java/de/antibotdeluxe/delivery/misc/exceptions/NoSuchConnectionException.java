@@ -0,0 +1,27 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be thrown if no connection with a specific id is registered in the
+ * {@link de.antibotdeluxe.delivery.server.DeliveryConnectionRegistry}, e.g. because it was closed in the meantime.
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the connection id will be passed.
+ *
+ * @author jhz
+ */
+
+public class NoSuchConnectionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param connectionId
+     *          id of the connection which was not found
+     */
+    public NoSuchConnectionException(int connectionId) {
+        super("The connection with the id couldn't be found {connectionId: " + connectionId + "}");
+    }
+
+}
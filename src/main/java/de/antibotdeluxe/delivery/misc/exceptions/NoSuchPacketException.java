@@ -17,6 +17,8 @@ import de.antibotdeluxe.delivery.codec.DeliveryPacketVault;
 
 public class NoSuchPacketException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor takes the message to the super class which is then displayed.
      *
@@ -27,4 +29,14 @@ public class NoSuchPacketException extends RuntimeException {
         super("The packet with the packet id couldn't be found {packetId: " + packetId + "}");
     }
 
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param packetClass
+     *          {@link de.antibotdeluxe.delivery.codec.DeliveryPacket} {@link Class} which was not found in the {@link DeliveryPacketVault}
+     */
+    public NoSuchPacketException(Class<?> packetClass) {
+        super("The packet isn't registered in the vault {packet: '" + packetClass.getName() + "'}");
+    }
+
 }
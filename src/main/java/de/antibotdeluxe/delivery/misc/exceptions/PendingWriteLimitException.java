@@ -0,0 +1,32 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be used to fail a write which is held back until the handshake is completed if too many bytes are held back
+ * already.<br>
+ * The {@link PendingWriteLimitException} is just a regular {@link RuntimeException} with just a different name to make it easier
+ * to catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the held back bytes and the limit will be passed.
+ *
+ * @author jhz
+ */
+
+public class PendingWriteLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param pendingBytes
+     *          Amount of bytes which are held back already
+     * @param maxPendingBytes
+     *          Maximum amount of bytes which may be held back
+     */
+    public PendingWriteLimitException(long pendingBytes, long maxPendingBytes) {
+        super("Too many writes are held back until the handshake is completed {pendingBytes: " + pendingBytes
+                + ", maxPendingBytes: " + maxPendingBytes + "}");
+    }
+
+}
@@ -13,6 +13,8 @@ package de.antibotdeluxe.delivery.misc.exceptions;
 
 public class PortAlreadyBoundException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor takes the message to the super class which is then displayed.
      *
@@ -25,4 +27,16 @@ public class PortAlreadyBoundException extends RuntimeException {
         super("The given port is already bound to another service {port: " + port + "}");
     }
 
+    /**
+     * Constructor takes the message and the reason why binding failed to the super class which are then displayed.
+     *
+     * @param port
+     *          Port which could not be bound
+     * @param cause
+     *          {@link Throwable} thrown while binding
+     */
+    public PortAlreadyBoundException(int port, Throwable cause) {
+        super("The given port is already bound to another service {port: " + port + "}", cause);
+    }
+
 }
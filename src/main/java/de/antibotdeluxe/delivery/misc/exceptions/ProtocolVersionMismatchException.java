@@ -0,0 +1,30 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be used to close a connection if the other side announced a different protocol version during the handshake.<br>
+ * The {@link ProtocolVersionMismatchException} is just a regular {@link RuntimeException} with just a different name to make it
+ * easier to catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the own and the remote version will be passed.
+ *
+ * @author jhz
+ */
+
+public class ProtocolVersionMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param version
+     *          Protocol version of this side
+     * @param remoteVersion
+     *          Protocol version the other side announced
+     */
+    public ProtocolVersionMismatchException(int version, int remoteVersion) {
+        super("The other side speaks a different protocol version {version: " + version + ", remoteVersion: " + remoteVersion + "}");
+    }
+
+}
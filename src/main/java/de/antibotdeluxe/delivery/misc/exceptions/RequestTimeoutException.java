@@ -0,0 +1,30 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be used to complete the future of a request if no response arrived within its timeout.<br>
+ * The {@link RequestTimeoutException} is just a regular {@link RuntimeException} with just a different name to make it easier to
+ * catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the correlation id and the timeout will be passed.
+ *
+ * @author jhz
+ */
+
+public class RequestTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param correlationId
+     *          Identifier of the request
+     * @param timeoutMillis
+     *          Timeout of the request in milliseconds
+     */
+    public RequestTimeoutException(int correlationId, long timeoutMillis) {
+        super("No response arrived within the timeout {correlationId: " + correlationId + ", timeoutMillis: " + timeoutMillis + "}");
+    }
+
+}
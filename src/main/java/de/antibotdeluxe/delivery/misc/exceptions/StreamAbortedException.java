@@ -0,0 +1,29 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be passed to the {@link de.antibotdeluxe.delivery.codec.DeliveryStreamReceiver} if the sender aborted a stream,
+ * e.g. because its source could not be read.<br>
+ * The {@link StreamAbortedException} is just a regular {@link RuntimeException} with just a different name to make it easier to
+ * catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the stream id will be passed.
+ *
+ * @author jhz
+ */
+
+public class StreamAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param streamId
+     *          Identifier of the stream
+     */
+    public StreamAbortedException(int streamId) {
+        super("The stream was aborted by the sender {streamId: " + streamId + "}");
+    }
+
+}
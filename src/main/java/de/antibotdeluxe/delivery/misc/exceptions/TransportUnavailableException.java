@@ -0,0 +1,30 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+import de.antibotdeluxe.delivery.misc.DeliveryTransport;
+
+/**
+ * Exception will be thrown if a {@link DeliveryTransport} was chosen which can't be used on this machine, e.g. epoll outside of
+ * Linux or io_uring without its native library on the classpath.
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the {@link DeliveryTransport} and the cause will be passed.
+ *
+ * @author jhz
+ */
+
+public class TransportUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @param transport
+     *          {@link DeliveryTransport} which is not available
+     * @param cause
+     *          reason why it is not available, may be <code>null</code>
+     */
+    public TransportUnavailableException(DeliveryTransport transport, Throwable cause) {
+        super("The transport is not available on this machine. {transport: " + transport.name() + "}", cause);
+    }
+
+}
@@ -15,6 +15,8 @@ import java.util.UUID;
 
 public class UUIDAlreadyBoundException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor takes the message to the super class which is then displayed.
      *
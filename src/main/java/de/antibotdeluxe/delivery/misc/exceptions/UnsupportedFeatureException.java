@@ -0,0 +1,31 @@
+package de.antibotdeluxe.delivery.misc.exceptions;
+
+/**
+ * Exception will be used to fail a request or a transfer if the other side didn't announce the feature it requires during the
+ * handshake.<br>
+ * The {@link UnsupportedFeatureException} is just a regular {@link RuntimeException} with just a different name to make it easier
+ * to catch it or recognize the error by just looking at the name of it.<br>
+ * <p>
+ * <strong>Notice</strong><br>
+ * The message is already filled in and only the feature will be passed.
+ *
+ * @author jhz
+ */
+
+public class UnsupportedFeatureException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor takes the message to the super class which is then displayed.
+     *
+     * @see de.antibotdeluxe.delivery.codec.DeliveryHandshakeHandler for the features
+     *
+     * @param feature
+     *          Feature the other side does not support
+     */
+    public UnsupportedFeatureException(int feature) {
+        super("The other side does not support the feature {feature: " + feature + "}");
+    }
+
+}
@@ -0,0 +1,327 @@
+package de.antibotdeluxe.delivery.processor;
+
+import de.antibotdeluxe.delivery.codec.DeliveryField;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@link de.antibotdeluxe.delivery.codec.DeliverySerializer} for every {@link de.antibotdeluxe.delivery.codec.DeliveryPacket}
+ * with fields annotated with {@link DeliveryField}.
+ * <p>
+ * The generated serializer is straight-line code without any reflection. Each field is written with the matching method of the
+ * {@link de.antibotdeluxe.delivery.codec.DeliveryByteBuf}, consecutive fixed size fields are folded into a single bounds check and
+ * written with absolute index operations. The serializer is placed next to the {@link de.antibotdeluxe.delivery.codec.DeliveryPacket}
+ * and named <code>&lt;Packet&gt;$DeliverySerializer</code>, so the {@link de.antibotdeluxe.delivery.codec.DeliveryPacketVault} is
+ * able to find it.
+ *
+ * @author jhz
+ */
+@SupportedAnnotationTypes("de.antibotdeluxe.delivery.codec.DeliveryField")
+public class DeliveryFieldProcessor extends AbstractProcessor {
+
+    private static final String CODEC = "de.antibotdeluxe.delivery.codec.";
+    private static final String PACKET = CODEC + "DeliveryPacket";
+    private static final String ELEMENT_CODEC = CODEC + "DeliveryElementCodec";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> fieldsByPacket = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(DeliveryField.class))
+            if (element.getKind() == ElementKind.FIELD)
+                fieldsByPacket.computeIfAbsent((TypeElement) element.getEnclosingElement(), key -> new ArrayList<>())
+                        .add((VariableElement) element);
+        fieldsByPacket.forEach(this::generate);
+        return true;
+    }
+
+    private void generate(TypeElement packet, List<VariableElement> fields) {
+        if (!this.isPacket(packet.asType())) {
+            this.error(packet, "Classes with @DeliveryField fields have to implement DeliveryPacket");
+            return;
+        }
+        if (packet.getModifiers().contains(Modifier.PRIVATE)) {
+            this.error(packet, "Packets with @DeliveryField fields must not be private");
+            return;
+        }
+        fields.sort(Comparator.comparingInt(field -> field.getAnnotation(DeliveryField.class).order()));
+        Set<Integer> orders = new HashSet<>();
+        List<Field> resolved = new ArrayList<>();
+        for (VariableElement field : fields) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+                this.error(field, "@DeliveryField fields must neither be private, final nor static");
+                return;
+            }
+            DeliveryField annotation = field.getAnnotation(DeliveryField.class);
+            if (!orders.add(annotation.order())) {
+                this.error(field, "The order of the @DeliveryField is not unique {order: " + annotation.order() + "}");
+                return;
+            }
+            Field resolvedField = this.resolve(field, annotation.encoding(), resolved.size());
+            if (resolvedField == null)
+                return;
+            resolved.add(resolvedField);
+        }
+
+        String packageName = this.processingEnv.getElementUtils().getPackageOf(packet).getQualifiedName().toString();
+        String binaryName = this.processingEnv.getElementUtils().getBinaryName(packet).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + "$DeliverySerializer";
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, packet).openWriter()) {
+            writer.write(this.render(packageName, simpleName, packet.getQualifiedName().toString(), resolved));
+        } catch (IOException exception) {
+            this.error(packet, "The serializer could not be written: " + exception.getMessage());
+        }
+    }
+
+    private String render(String packageName, String simpleName, String packetName, List<Field> fields) {
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * Serializer of {@link ").append(packetName).append("} generated by the DeliveryFieldProcessor.\n */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(DeliveryFieldProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(simpleName).append(" implements ").append(CODEC).append("DeliverySerializer<")
+                .append(packetName).append("> {\n\n");
+        for (Field field : fields)
+            for (String constant : field.constants)
+                source.append("    private static final ").append(constant).append(";\n");
+        if (fields.stream().anyMatch(field -> !field.constants.isEmpty()))
+            source.append('\n');
+
+        source.append("    @Override\n    public void write(").append(CODEC).append("DeliveryByteBuf buf, ").append(packetName)
+                .append(" packet) {\n");
+        this.renderBody(source, fields, true);
+        source.append("    }\n\n");
+        source.append("    @Override\n    public void read(").append(CODEC).append("DeliveryByteBuf buf, ").append(packetName)
+                .append(" packet) {\n");
+        this.renderBody(source, fields, false);
+        source.append("    }\n\n}\n");
+        return source.toString();
+    }
+
+    private void renderBody(StringBuilder source, List<Field> fields, boolean write) {
+        boolean raw = false;
+        int run = 0;
+        for (int i = 0; i < fields.size(); ) {
+            int end = i;
+            int size = 0;
+            while (end < fields.size() && fields.get(end).fixedSize > 0)
+                size += fields.get(end++).fixedSize;
+            if (end - i >= 2) {
+                if (!raw) {
+                    source.append("        io.netty.buffer.ByteBuf raw = buf.getBuf();\n");
+                    raw = true;
+                }
+                String index = "index" + run++;
+                if (write) {
+                    source.append("        int ").append(index).append(" = raw.writerIndex();\n")
+                            .append("        raw.ensureWritable(").append(size).append(");\n");
+                } else {
+                    source.append("        int ").append(index).append(" = raw.readerIndex();\n")
+                            .append("        raw.skipBytes(").append(size).append(");\n");
+                }
+                int offset = 0;
+                for (int j = i; j < end; j++) {
+                    Field field = fields.get(j);
+                    String position = (offset == 0) ? index : index + " + " + offset;
+                    if (write)
+                        source.append("        raw.set").append(field.absolute).append('(').append(position).append(", packet.")
+                                .append(field.name).append(");\n");
+                    else
+                        source.append("        packet.").append(field.name).append(" = raw.get").append(field.absolute).append('(')
+                                .append(position).append(");\n");
+                    offset += field.fixedSize;
+                }
+                if (write)
+                    source.append("        raw.writerIndex(").append(index).append(" + ").append(size).append(");\n");
+                i = end;
+                continue;
+            }
+            Field field = fields.get(i++);
+            source.append("        ").append(write ? field.write : field.read).append('\n');
+        }
+    }
+
+    /**
+     * Resolves how a single field is written and red.
+     */
+    private Field resolve(VariableElement element, DeliveryField.Encoding encoding, int position) {
+        String name = element.getSimpleName().toString();
+        TypeMirror type = element.asType();
+        String access = "packet." + name;
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return Field.fixed(name, 1, "Boolean", "buf.writeBool(" + access + ");", access + " = buf.readBool();");
+            case BYTE:
+                return Field.fixed(name, 1, "Byte", "buf.writeByte(" + access + ");", access + " = buf.readByte();");
+            case SHORT:
+                return Field.fixed(name, 2, "Short", "buf.writeShort(" + access + ");", access + " = buf.readShort();");
+            case CHAR:
+                return Field.fixed(name, 2, "Char", "buf.getBuf().writeChar(" + access + ");", access + " = buf.getBuf().readChar();");
+            case FLOAT:
+                return Field.fixed(name, 4, "Float", "buf.writeFloat(" + access + ");", access + " = buf.readFloat();");
+            case DOUBLE:
+                return Field.fixed(name, 8, "Double", "buf.writeDouble(" + access + ");", access + " = buf.readDouble();");
+            case INT:
+                if (encoding == DeliveryField.Encoding.FIXED)
+                    return Field.fixed(name, 4, "Int", "buf.writeInt(" + access + ");", access + " = buf.readInt();");
+                String intType = (encoding == DeliveryField.Encoding.ZIGZAG) ? "SignedVarInt" : "VarInt";
+                return new Field(name, "buf.write" + intType + "(" + access + ");", access + " = buf.read" + intType + "();");
+            case LONG:
+                if (encoding == DeliveryField.Encoding.FIXED)
+                    return Field.fixed(name, 8, "Long", "buf.writeLong(" + access + ");", access + " = buf.readLong();");
+                String longType = (encoding == DeliveryField.Encoding.ZIGZAG) ? "SignedVarLong" : "VarLong";
+                return new Field(name, "buf.write" + longType + "(" + access + ");", access + " = buf.read" + longType + "();");
+            case ARRAY:
+                TypeKind component = ((ArrayType) type).getComponentType().getKind();
+                String arrayType = (component == TypeKind.INT) ? "Int" : (component == TypeKind.LONG) ? "Long"
+                        : (component == TypeKind.DOUBLE) ? "Double" : null;
+                if (arrayType == null)
+                    break;
+                return new Field(name, "buf.write" + arrayType + "Array(" + access + ");", access + " = buf.read" + arrayType + "Array();");
+            case DECLARED:
+                return this.resolveDeclared(element, (DeclaredType) type, encoding, position);
+            default:
+                break;
+        }
+        this.error(element, "The type of the @DeliveryField is not supported {type: " + type + "}");
+        return null;
+    }
+
+    private Field resolveDeclared(VariableElement element, DeclaredType type, DeliveryField.Encoding encoding, int position) {
+        String name = element.getSimpleName().toString();
+        String access = "packet." + name;
+        TypeElement typeElement = (TypeElement) type.asElement();
+        String typeName = typeElement.getQualifiedName().toString();
+        if (typeName.equals("java.lang.String"))
+            return new Field(name, "buf.writeString(" + access + ");", access + " = buf.readString();");
+        if (typeElement.getKind() == ElementKind.ENUM) {
+            String values = "VALUES_" + position;
+            return new Field(name, "buf.writeEnum(" + access + ");", access + " = buf.readEnum(" + values + ");",
+                    typeName + "[] " + values + " = " + typeName + ".values()");
+        }
+        if (this.isPacket(type))
+            return new Field(name, "buf.writePacket(" + access + ");", access + " = buf.readPacket(" + typeName + "::new);");
+
+        List<? extends TypeMirror> arguments = type.getTypeArguments();
+        String codecs = "CODEC_" + position;
+        if ((typeName.equals("java.util.List") || typeName.equals("java.util.Set")) && arguments.size() == 1) {
+            String codec = this.elementCodec(arguments.get(0), encoding);
+            if (codec != null) {
+                String collection = typeName.substring(typeName.lastIndexOf('.') + 1);
+                return new Field(name, "buf.write" + collection + "(" + access + ", " + codecs + ");",
+                        access + " = buf.read" + collection + "(" + codecs + ");",
+                        ELEMENT_CODEC + "<" + arguments.get(0) + "> " + codecs + " = " + codec);
+            }
+        } else if (typeName.equals("java.util.Map") && arguments.size() == 2) {
+            String keyCodec = this.elementCodec(arguments.get(0), encoding);
+            String valueCodec = this.elementCodec(arguments.get(1), encoding);
+            if (keyCodec != null && valueCodec != null) {
+                String keys = codecs + "_KEY";
+                String values = codecs + "_VALUE";
+                return new Field(name, "buf.writeMap(" + access + ", " + keys + ", " + values + ");",
+                        access + " = buf.readMap(" + keys + ", " + values + ");",
+                        ELEMENT_CODEC + "<" + arguments.get(0) + "> " + keys + " = " + keyCodec,
+                        ELEMENT_CODEC + "<" + arguments.get(1) + "> " + values + " = " + valueCodec);
+            }
+        }
+        this.error(element, "The type of the @DeliveryField is not supported {type: " + type + "}");
+        return null;
+    }
+
+    /**
+     * Returns the expression of the {@link de.antibotdeluxe.delivery.codec.DeliveryElementCodec} for an element type.
+     */
+    private String elementCodec(TypeMirror type, DeliveryField.Encoding encoding) {
+        if (type.getKind() != TypeKind.DECLARED)
+            return null;
+        String typeName = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        String prefix = (encoding == DeliveryField.Encoding.ZIGZAG) ? "SIGNED_VAR_" : (encoding == DeliveryField.Encoding.VARIABLE)
+                ? "VAR_" : "";
+        switch (typeName) {
+            case "java.lang.Boolean":
+                return ELEMENT_CODEC + ".BOOL";
+            case "java.lang.Byte":
+                return ELEMENT_CODEC + ".BYTE";
+            case "java.lang.Short":
+                return ELEMENT_CODEC + ".SHORT";
+            case "java.lang.Integer":
+                return ELEMENT_CODEC + "." + prefix + "INT";
+            case "java.lang.Long":
+                return ELEMENT_CODEC + "." + prefix + "LONG";
+            case "java.lang.Float":
+                return ELEMENT_CODEC + ".FLOAT";
+            case "java.lang.Double":
+                return ELEMENT_CODEC + ".DOUBLE";
+            case "java.lang.String":
+                return ELEMENT_CODEC + ".STRING";
+            default:
+                return this.isPacket(type) ? ELEMENT_CODEC + ".packet(" + typeName + "::new)" : null;
+        }
+    }
+
+    private boolean isPacket(TypeMirror type) {
+        TypeElement packet = this.processingEnv.getElementUtils().getTypeElement(PACKET);
+        return packet != null && this.processingEnv.getTypeUtils().isAssignable(type, packet.asType());
+    }
+
+    private void error(Element element, String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Code which writes and reads a single field.
+     */
+    private static final class Field {
+
+        private final String name;
+        private final String write;
+        private final String read;
+        private final List<String> constants;
+        private int fixedSize;
+        private String absolute;
+
+        private Field(String name, String write, String read, String... constants) {
+            this.name = name;
+            this.write = write;
+            this.read = read;
+            this.constants = List.of(constants);
+        }
+
+        private static Field fixed(String name, int fixedSize, String absolute, String write, String read) {
+            Field field = new Field(name, write, read);
+            field.fixedSize = fixedSize;
+            field.absolute = absolute;
+            return field;
+        }
+
+    }
+
+}
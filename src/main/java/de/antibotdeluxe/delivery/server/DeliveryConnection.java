@@ -0,0 +1,110 @@
+package de.antibotdeluxe.delivery.server;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A connection accepted by the {@link DeliveryServer}, registered in the {@link DeliveryConnectionRegistry} while it is active.
+ * Besides its compact id it carries a session object of the application, e.g. the state of the proxy on the other side, and the
+ * keys it can be looked up by.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryConnection {
+
+    static final AttributeKey<DeliveryConnection> ATTRIBUTE = AttributeKey.valueOf("delivery-connection");
+
+    private final int id;
+    private final Channel channel;
+    final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private volatile Object session;
+    volatile boolean registered = true;
+
+    DeliveryConnection(int id, Channel channel) {
+        this.id = id;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the {@link DeliveryConnection} of an accepted {@link Channel}.
+     *
+     * @param channel
+     *          {@link Channel} accepted by the {@link DeliveryServer}
+     * @return DeliveryConnection or <code>null</code> if the {@link Channel} was not registered
+     */
+    public static DeliveryConnection of(Channel channel) {
+        return channel.attr(ATTRIBUTE).get();
+    }
+
+    /**
+     * Returns the id of the {@link DeliveryConnection}, which is unique for the lifetime of the {@link DeliveryServer}.
+     *
+     * @return connection id
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the {@link Channel} of the {@link DeliveryConnection}.
+     *
+     * @return Channel
+     */
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Returns the session object of the {@link DeliveryConnection}.
+     *
+     * @param type
+     *          {@link Class} of the session object
+     * @param <S>
+     *          Type of the session object
+     * @return session object or <code>null</code> if none was set
+     * @throws ClassCastException
+     *          if the session object is of another type
+     */
+    public <S> S getSession(Class<S> type) {
+        return type.cast(this.session);
+    }
+
+    /**
+     * Sets the session object of the {@link DeliveryConnection}.
+     *
+     * @param session
+     *          session object, <code>null</code> to remove it
+     */
+    public void setSession(Object session) {
+        this.session = session;
+    }
+
+    /**
+     * Returns the keys the {@link DeliveryConnection} can be looked up by in the {@link DeliveryConnectionRegistry}.
+     *
+     * @return unmodifiable view of the keys
+     */
+    public Set<Object> getKeys() {
+        return Collections.unmodifiableSet(this.keys);
+    }
+
+    /**
+     * Returns whether the {@link DeliveryConnection} is still registered, it is unregistered as soon as the {@link Channel} is closed.
+     *
+     * @return <code>true</code> if it is registered
+     */
+    public boolean isRegistered() {
+        return this.registered;
+    }
+
+    @Override
+    public String toString() {
+        return "DeliveryConnection{id=" + this.id + ", address=" + this.channel.remoteAddress() + "}";
+    }
+
+}
@@ -0,0 +1,149 @@
+package de.antibotdeluxe.delivery.server;
+
+import io.netty.channel.Channel;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Index of the active connections of a {@link DeliveryServer}. Every accepted {@link Channel} is registered as
+ * {@link DeliveryConnection} with a compact id and unregistered once it is closed, so a connection can be found by its id or by any
+ * key the application bound to it, e.g. the name of a proxy, without scanning all connections.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryConnectionRegistry {
+
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final Map<Integer, DeliveryConnection> connectionsById = new ConcurrentHashMap<>();
+    private final Map<Object, DeliveryConnection> connectionsByKey = new ConcurrentHashMap<>();
+    private volatile Function<DeliveryConnection, ?> sessionFactory;
+
+    /**
+     * Registers an accepted {@link Channel} and creates its session object if a factory is set.
+     *
+     * @param channel
+     *          {@link Channel} which became active
+     * @return the registered {@link DeliveryConnection}
+     */
+    DeliveryConnection register(Channel channel) {
+        DeliveryConnection connection = new DeliveryConnection(this.lastId.incrementAndGet(), channel);
+        Function<DeliveryConnection, ?> sessionFactory = this.sessionFactory;
+        if (sessionFactory != null)
+            connection.setSession(sessionFactory.apply(connection));
+        channel.attr(DeliveryConnection.ATTRIBUTE).set(connection);
+        this.connectionsById.put(connection.getId(), connection);
+        return connection;
+    }
+
+    /**
+     * Unregisters the {@link DeliveryConnection} of a closed {@link Channel} together with its keys.
+     *
+     * @param channel
+     *          {@link Channel} which became inactive
+     */
+    void unregister(Channel channel) {
+        DeliveryConnection connection = DeliveryConnection.of(channel);
+        if (connection == null || !connection.registered)
+            return;
+        connection.registered = false;
+        this.connectionsById.remove(connection.getId(), connection);
+        for (Object key : connection.keys)
+            this.connectionsByKey.remove(key, connection);
+    }
+
+    /**
+     * Returns the {@link DeliveryConnection} with the id.
+     *
+     * @param id
+     *          connection id
+     * @return DeliveryConnection or <code>null</code> if none is registered with the id
+     */
+    public DeliveryConnection get(int id) {
+        return this.connectionsById.get(id);
+    }
+
+    /**
+     * Returns the {@link DeliveryConnection} the key is bound to.
+     *
+     * @param key
+     *          key which was bound with <code>bindKey(DeliveryConnection, Object)</code>
+     * @return DeliveryConnection or <code>null</code> if the key is not bound
+     */
+    public DeliveryConnection getByKey(Object key) {
+        return this.connectionsByKey.get(key);
+    }
+
+    /**
+     * Binds a key to the {@link DeliveryConnection}, so it can be looked up by it. A key can only be bound to one
+     * {@link DeliveryConnection} at a time, binding it again moves it, e.g. after a proxy reconnected. The key is removed as soon as
+     * the {@link DeliveryConnection} is unregistered.
+     *
+     * @param connection
+     *          registered {@link DeliveryConnection}
+     * @param key
+     *          key with a proper <code>equals</code> and <code>hashCode</code>
+     * @return <code>true</code> if the key was bound, <code>false</code> if the {@link DeliveryConnection} is no longer registered
+     */
+    public boolean bindKey(DeliveryConnection connection, Object key) {
+        if (!connection.registered)
+            return false;
+        connection.keys.add(key);
+        DeliveryConnection previous = this.connectionsByKey.put(key, connection);
+        if (previous != null && previous != connection)
+            previous.keys.remove(key);
+        if (connection.registered)
+            return true;
+        this.connectionsByKey.remove(key, connection);
+        return false;
+    }
+
+    /**
+     * Removes the key from the {@link DeliveryConnection} it is bound to.
+     *
+     * @param key
+     *          key which was bound
+     * @return <code>true</code> if the key was bound
+     */
+    public boolean unbindKey(Object key) {
+        DeliveryConnection connection = this.connectionsByKey.remove(key);
+        if (connection == null)
+            return false;
+        connection.keys.remove(key);
+        return true;
+    }
+
+    /**
+     * Returns all registered {@link DeliveryConnection}'s.
+     *
+     * @return unmodifiable view of the connections
+     */
+    public Collection<DeliveryConnection> getConnections() {
+        return Collections.unmodifiableCollection(this.connectionsById.values());
+    }
+
+    /**
+     * Returns the amount of registered {@link DeliveryConnection}'s.
+     *
+     * @return amount of connections
+     */
+    public int size() {
+        return this.connectionsById.size();
+    }
+
+    /**
+     * Sets the factory which creates the session object of every {@link DeliveryConnection} registered afterwards.
+     *
+     * @param sessionFactory
+     *          factory, <code>null</code> to register connections without a session object
+     */
+    public void setSessionFactory(Function<DeliveryConnection, ?> sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+}
@@ -1,24 +1,56 @@
 package de.antibotdeluxe.delivery.server;
 
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
 import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
 import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryCompression;
+import de.antibotdeluxe.delivery.codec.DeliveryCorrelationHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryFileReceiver;
+import de.antibotdeluxe.delivery.codec.DeliveryFileTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryFlushHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryFlushPolicy;
+import de.antibotdeluxe.delivery.codec.DeliveryHandshakeHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryLazyPacket;
 import de.antibotdeluxe.delivery.codec.DeliveryPacket;
 import de.antibotdeluxe.delivery.codec.DeliveryPacketVault;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamReceiver;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryTransferHandler;
 import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import de.antibotdeluxe.delivery.event.DeliveryHandlerExecutor;
+import de.antibotdeluxe.delivery.event.DeliveryPacketPublisher;
+import de.antibotdeluxe.delivery.misc.DeliveryTransport;
 import de.antibotdeluxe.delivery.misc.Utility;
+import de.antibotdeluxe.delivery.misc.exceptions.FrameTooLargeException;
+import de.antibotdeluxe.delivery.misc.exceptions.NoSuchConnectionException;
+import de.antibotdeluxe.delivery.misc.exceptions.PortAlreadyBoundException;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.*;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.io.InputStream;
+import java.net.BindException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,19 +73,30 @@ public class DeliveryServer {
     private final int port;
 
     private final ChannelGroup channelGroup;
-    private final EventLoopGroup slaveGroup;
-    private final EventLoopGroup masterGroup;
+    private final DeliveryConnectionRegistry connectionRegistry = new DeliveryConnectionRegistry();
+    private final List<Channel> serverChannels = new ArrayList<>();
+    private volatile EventLoopGroup slaveGroup;
+    private volatile EventLoopGroup masterGroup;
 
     private final DeliveryPacketVault packetVault;
     private final DeliveryEventManager eventManager;
 
-    private ServerSocket serverSocket;
+    private CompletableFuture<Void> startFuture;
+    private DeliveryByteEncoder broadcastEncoder;
+    private int maxFrameSize = DeliveryByteDecoder.DEFAULT_MAX_FRAME_SIZE;
+    private boolean preferDirectBuffers = true;
+    private DeliveryCompression compression = DeliveryCompression.NONE;
+    private int compressionThreshold = DeliveryByteEncoder.DEFAULT_COMPRESSION_THRESHOLD;
+    private DeliveryFlushPolicy flushPolicy = DeliveryFlushPolicy.immediate();
+    private DeliveryFileReceiver fileReceiver;
+    private DeliveryStreamReceiver streamReceiver;
+    private final DeliveryServerConfig config;
 
     /**
      * Initializes the {@link DeliveryServer}.
      *
      * @param port
-     *          port the DeliveryServer will be trying to reserve until it's started
+     *          port the DeliveryServer will be bound to once it's started
      */
     public DeliveryServer(int port) {
         this(port, new DeliveryPacketVault());
@@ -63,68 +106,413 @@ public class DeliveryServer {
      * Initializes the {@link DeliveryServer}.
      *
      * @param port
-     *          port The {@link DeliveryServer} will be trying to reserve until it's started
+     *          port The {@link DeliveryServer} will be bound to once it's started
      * @param vault
      *          vault The {@link DeliveryServer} will try to communicate with the {@link DeliveryPacket}'s containing in this
      *          {@link DeliveryPacketVault}
      */
     public DeliveryServer(int port, DeliveryPacketVault vault) {
-        Utility.checkPortAvailability(port);
+        this(port, vault, DeliveryServerConfig.defaults());
+    }
+
+    /**
+     * Initializes the {@link DeliveryServer}.
+     *
+     * @param port
+     *          port The {@link DeliveryServer} will be bound to once it's started
+     * @param vault
+     *          vault The {@link DeliveryServer} will try to communicate with the {@link DeliveryPacket}'s containing in this
+     *          {@link DeliveryPacketVault}
+     * @param config
+     *          {@link DeliveryServerConfig} with the transport, threads and {@link ChannelOption}'s applied once it's started
+     */
+    public DeliveryServer(int port, DeliveryPacketVault vault, DeliveryServerConfig config) {
+        Utility.checkPortRegulations(port);
         this.port = port;
-        try { this.serverSocket = new ServerSocket(port); } catch (IOException exception) { exception.printStackTrace(); }
         this.packetVault = vault;
+        this.config = config;
         this.eventManager = new DeliveryEventManager();
         this.channelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
-        this.slaveGroup = (Epoll.isAvailable()) ? new EpollEventLoopGroup() : new NioEventLoopGroup();
-        this.masterGroup = (Epoll.isAvailable()) ? new EpollEventLoopGroup() : new NioEventLoopGroup();
     }
 
     /**
-     * Start up the {@link DeliveryServer} and accept connections.
+     * Starts up the {@link DeliveryServer} without blocking. The port is bound once by <a target="_blank" href="http://netty.io">
+     * Netty.io</a>, if it is already in use the returned future fails with a {@link PortAlreadyBoundException}. Calling it again while
+     * the {@link DeliveryServer} is starting or running returns the same future, after a failure it can be tried again.
+     * <p>
+     * <strong>Note</strong><br>
+     * The {@link DeliveryPacketVault} will be frozen, so all {@link DeliveryPacket}'s have to be registered before. The master
+     * {@link EventLoopGroup} accepts the connections and the slave {@link EventLoopGroup} handles their I/O, both are created as
+     * described by the {@link DeliveryServerConfig} when the {@link DeliveryServer} is started.
+     *
+     * @return future which completes as soon as the {@link DeliveryServer} accepts connections
      */
-    public void runServer() {
+    public synchronized CompletableFuture<Void> start() {
+        if (this.startFuture != null)
+            return this.startFuture;
         LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Starting up the server...");
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        this.startFuture = future;
+        int binds;
+        ServerBootstrap bootstrap;
         try {
-            this.serverSocket.close();
-            new ServerBootstrap()
-                    .group(masterGroup, masterGroup)
-                    .channel((Epoll.isAvailable()) ? EpollServerSocketChannel.class : NioServerSocketChannel.class)
+            this.packetVault.freeze();
+            this.broadcastEncoder = new DeliveryByteEncoder(this.packetVault, this.maxFrameSize, this.preferDirectBuffers);
+            this.broadcastEncoder.setCompressionThreshold(this.compressionThreshold);
+            DeliveryTransport transport = this.config.getTransport();
+            binds = (transport.supportsReusePort()) ? this.config.getReusePortBinds() : 1;
+            this.masterGroup = transport.newEventLoopGroup(Math.max(this.config.getBossThreads(), binds), "delivery-boss");
+            this.slaveGroup = transport.newEventLoopGroup(this.config.getWorkerThreads(), "delivery-worker");
+            bootstrap = new ServerBootstrap()
+                    .group(masterGroup, slaveGroup)
+                    .channel(transport.getServerChannelClass())
                     .childHandler(new ChannelInitializer<>() {
                         @Override
                         protected void initChannel(Channel channel) {
-                            channel.pipeline().addLast(new DeliveryByteDecoder(packetVault));
-                            channel.pipeline().addLast(new DeliveryByteEncoder(packetVault));
+                            DeliveryByteEncoder encoder = new DeliveryByteEncoder(packetVault, maxFrameSize, preferDirectBuffers);
+                            encoder.setCompressionThreshold(compressionThreshold);
+                            channel.pipeline().addLast(new DeliveryByteDecoder(packetVault, maxFrameSize, eventManager));
+                            channel.pipeline().addLast(encoder);
+                            channel.pipeline().addLast(new DeliveryHandshakeHandler(encoder, compression, true));
+                            channel.pipeline().addLast(new DeliveryCorrelationHandler());
+                            channel.pipeline().addLast(new DeliveryTransferHandler(fileReceiver));
+                            channel.pipeline().addLast(new DeliveryStreamHandler(streamReceiver));
+                            channel.pipeline().addLast(new DeliveryFlushHandler(flushPolicy));
                             channel.pipeline().addLast(new DeliveryServerNetworkWorkAdapter(DeliveryServer.this));
                         }
-                    }).bind(this.port).sync();
-            LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Server is running fine and is now accepting connections!");
-        } catch (Exception exception) {
-            LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] An error occurred while starting the server.");
-            exception.printStackTrace();
+                    });
+            this.config.apply(bootstrap);
+            if (binds > 1)
+                bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        } catch (RuntimeException exception) {
+            this.failStart(future, exception);
+            return future;
+        }
+        AtomicInteger pendingBinds = new AtomicInteger(binds);
+        for (int i = 0; i < binds; i++) {
+            ChannelFuture bind = bootstrap.bind(this.port);
+            this.serverChannels.add(bind.channel());
+            bind.addListener(result -> {
+                if (!result.isSuccess())
+                    this.failStart(future, (isAddressInUse(result.cause()))
+                            ? new PortAlreadyBoundException(this.port, result.cause())
+                            : result.cause());
+                else if (pendingBinds.decrementAndGet() == 0 && future.complete(null))
+                    LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Server is running fine and is now accepting connections!");
+            });
         }
+        return future;
     }
 
     /**
-     * Shutdown the {@link DeliveryServer} gracefully by dropping all connections.
+     * NIO reports an occupied port as {@link BindException}, the native transports only as {@link IOException} carrying the message of
+     * the errno.
      */
-    public void endServer() {
+    private static boolean isAddressInUse(Throwable cause) {
+        return cause instanceof BindException
+                || (cause instanceof IOException && String.valueOf(cause.getMessage()).contains("Address already in use"));
+    }
+
+    private void failStart(CompletableFuture<Void> future, Throwable cause) {
+        if (!future.completeExceptionally(cause))
+            return;
+        LOGGER.log(Level.SEVERE, cause, () -> "[Delivery-Server] An error occurred while starting the server.");
+        synchronized (this) {
+            if (this.startFuture == future)
+                this.shutdown();
+        }
+    }
+
+    /**
+     * Start up the {@link DeliveryServer} and accept connections, blocking until the port is bound. Failures are only logged, use
+     * <code>start()</code> to react to them.
+     * <p>
+     * <strong>Note</strong><br>
+     * The {@link DeliveryPacketVault} will be frozen, so all {@link DeliveryPacket}'s have to be registered before.
+     */
+    public void runServer() {
+        try {
+            this.start().join();
+        } catch (CompletionException ignored) {
+            // already logged by start()
+        }
+    }
+
+    /**
+     * Shuts down the {@link DeliveryServer} without blocking by dropping all connections, closing the listening sockets and the
+     * {@link EventLoopGroup}'s. The {@link DeliveryHandlerExecutor} of the {@link DeliveryEventManager} is shut down once the
+     * {@link EventLoopGroup}'s are terminated. Afterwards it can be started again.
+     *
+     * @return future which completes as soon as the {@link EventLoopGroup}'s are terminated
+     */
+    public synchronized CompletableFuture<Void> stop() {
         LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Shutting down the server...");
         LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Disconnecting Channels..");
         this.channelGroup.close();
-        LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Closing EventLoopGroup..");
-        this.slaveGroup.shutdownGracefully();
-        this.masterGroup.shutdownGracefully();
-        LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Stopping server...");
+        CompletableFuture<Void> future = this.shutdown();
+        future.thenRun(() -> LOGGER.log(Level.SEVERE, () -> "[Delivery-Server] Stopping server..."));
+        return future;
+    }
+
+    /**
+     * Shutdown the {@link DeliveryServer} gracefully by dropping all connections, blocking until it is stopped. Must not be called on
+     * one of its event loops, use <code>stop()</code> there.
+     */
+    public void endServer() {
+        this.stop().join();
+    }
+
+    private CompletableFuture<Void> shutdown() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        this.serverChannels.forEach(channel -> futures.add(Utility.toCompletableFuture(channel.close())));
+        this.serverChannels.clear();
+        if (this.slaveGroup != null)
+            futures.add(Utility.toCompletableFuture(this.slaveGroup.shutdownGracefully(0, 15, TimeUnit.SECONDS)));
+        if (this.masterGroup != null)
+            futures.add(Utility.toCompletableFuture(this.masterGroup.shutdownGracefully(0, 15, TimeUnit.SECONDS)));
+        this.slaveGroup = null;
+        this.masterGroup = null;
+        this.startFuture = null;
+        CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        DeliveryHandlerExecutor executor = this.eventManager.detachExecutor();
+        return (executor != null) ? future.whenComplete((ignored, throwable) -> executor.shutdown()) : future;
+    }
+
+    /**
+     * Broadcasts a {@link DeliveryPacket} to each currently connected {@link Channel}.<br>
+     * The {@link DeliveryPacket} is encoded only once per {@link DeliveryCompression} the {@link Channel}'s agreed on and the same
+     * bytes are sent to every {@link Channel}.
+     *
+     * @param deliveryPacket
+     *          {@link DeliveryPacket} which should be sent
+     * @return future which completes as soon as the {@link DeliveryPacket} was written to every {@link Channel}
+     */
+    public CompletableFuture<Void> broadcastDeliveryPacket(DeliveryPacket deliveryPacket) {
+        return this.broadcast(deliveryPacket, true);
     }
 
     /**
-     * Broadcasts a {@link DeliveryPacket} to each currently connected {@link Channel}.
+     * Queues a {@link DeliveryPacket} for each currently connected {@link Channel} without flushing it. It is sent as soon as the
+     * {@link DeliveryFlushPolicy} decides so or <code>flush()</code> is called.
      *
      * @param deliveryPacket
      *          {@link DeliveryPacket} which should be sent
+     * @return future which completes as soon as the {@link DeliveryPacket} was written to every {@link Channel}
+     */
+    public CompletableFuture<Void> queueBroadcastDeliveryPacket(DeliveryPacket deliveryPacket) {
+        return this.broadcast(deliveryPacket, false);
+    }
+
+    /**
+     * Sends a {@link DeliveryPacket} to the connection with the id, see {@link DeliveryConnectionRegistry}.
+     *
+     * @param connectionId
+     *          id of the {@link DeliveryConnection}
+     * @param deliveryPacket
+     *          {@link DeliveryPacket} which should be sent
+     * @return future which completes as soon as the {@link DeliveryPacket} was written, or fails with a
+     *          {@link NoSuchConnectionException} if no connection is registered with the id
+     */
+    public CompletableFuture<Void> sendTo(int connectionId, DeliveryPacket deliveryPacket) {
+        DeliveryConnection connection = this.connectionRegistry.get(connectionId);
+        if (connection == null)
+            return CompletableFuture.failedFuture(new NoSuchConnectionException(connectionId));
+        return Utility.toCompletableFuture(connection.getChannel().writeAndFlush(deliveryPacket));
+    }
+
+    /**
+     * Sends a {@link DeliveryPacket} to the connections with the ids, see {@link DeliveryConnectionRegistry}. Like a broadcast the
+     * {@link DeliveryPacket} is encoded only once per {@link DeliveryCompression} and the writes are handed to each event loop in a
+     * single task. Ids without a registered connection are skipped.
+     *
+     * @param connectionIds
+     *          ids of the {@link DeliveryConnection}'s
+     * @param deliveryPacket
+     *          {@link DeliveryPacket} which should be sent
+     * @return future which completes as soon as the {@link DeliveryPacket} was written to every found connection
+     */
+    public CompletableFuture<Void> sendToAll(int[] connectionIds, DeliveryPacket deliveryPacket) {
+        List<Channel> targets = new ArrayList<>(connectionIds.length);
+        for (int connectionId : connectionIds) {
+            DeliveryConnection connection = this.connectionRegistry.get(connectionId);
+            if (connection != null)
+                targets.add(connection.getChannel());
+        }
+        return this.broadcast(targets, deliveryPacket, true);
+    }
+
+    /**
+     * Sends the content of a file to a connected {@link Channel} without loading it into memory. The client writes it into the file
+     * provided by its {@link DeliveryFileReceiver}.
+     *
+     * @param channel
+     *          {@link Channel} the file is sent to
+     * @param file
+     *          {@link Path} of the file which should be sent
+     * @return ChannelFuture which completes as soon as the whole file was written
+     * @throws IOException
+     *          if the file can't be opened
+     */
+    public ChannelFuture sendFile(Channel channel, Path file) throws IOException {
+        return DeliveryFileTransfer.send(channel, file);
+    }
+
+    /**
+     * Sends the bytes of the {@link InputStream} as stream of chunks to a connected {@link Channel}, which passes them chunk by chunk
+     * to its {@link DeliveryStreamReceiver}. The next chunk is only read while the {@link Channel} is writable, so the payload can be
+     * of any size.
+     *
+     * @param channel
+     *          {@link Channel} the stream is sent to
+     * @param header
+     *          registered {@link DeliveryPacket} describing the stream
+     * @param source
+     *          {@link InputStream} the bytes are read from, closed once it was sent
+     * @return ChannelFuture which completes as soon as the whole stream was written
+     */
+    public ChannelFuture sendStream(Channel channel, DeliveryPacket header, InputStream source) {
+        return DeliveryStreamTransfer.send(channel, header, source);
+    }
+
+    /**
+     * Returns a {@link java.util.concurrent.Flow.Publisher} of the {@link DeliveryPacket}'s of the type received from a connected
+     * {@link Channel}. The {@link Channel} stops being read while its subscriber has no demand left, so a slow consumer throttles the
+     * connection instead of buffering without limit.
+     *
+     * @param channel
+     *          {@link Channel} of the connection
+     * @param packetClass
+     *          type of the {@link DeliveryPacket}
+     * @param <T>
+     *          Type of the {@link DeliveryPacket}
+     * @return DeliveryPacketPublisher
+     */
+    public <T extends DeliveryPacket> DeliveryPacketPublisher<T> getPublisher(Channel channel, Class<T> packetClass) {
+        return DeliveryPacketPublisher.of(this.eventManager, channel, packetClass);
+    }
+
+    /**
+     * Flushes all queued {@link DeliveryPacket}'s of each currently connected {@link Channel}.
+     */
+    public void flush() {
+        this.channelGroup.flush();
+    }
+
+    private CompletableFuture<Void> broadcast(DeliveryPacket deliveryPacket, boolean flush) {
+        return this.broadcast(this.channelGroup, deliveryPacket, flush);
+    }
+
+    private CompletableFuture<Void> broadcast(Collection<Channel> targets, DeliveryPacket deliveryPacket, boolean flush) {
+        if (deliveryPacket == null)
+            throw new NullPointerException();
+        if (targets.isEmpty() || this.broadcastEncoder == null)
+            return CompletableFuture.completedFuture(null);
+        Map<DeliveryCompression, List<Channel>> channelsByCompression = new EnumMap<>(DeliveryCompression.class);
+        for (Channel channel : targets)
+            channelsByCompression.computeIfAbsent(DeliveryHandshakeHandler.getCompression(channel), key -> new ArrayList<>()).add(channel);
+        if (channelsByCompression.size() == 1) {
+            Map.Entry<DeliveryCompression, List<Channel>> entry = channelsByCompression.entrySet().iterator().next();
+            return this.broadcastFrame(deliveryPacket, entry.getKey(), entry.getValue(), flush);
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(channelsByCompression.size());
+        channelsByCompression.forEach((compression, channels) ->
+                futures.add(this.broadcastFrame(deliveryPacket, compression, channels, flush)));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Encodes the {@link DeliveryPacket} once and writes the frame to the {@link Channel}'s. {@link Channel}'s whose other side
+     * announced a smaller maximum frame size during the handshake are skipped, because their decoder would reject the frame and close
+     * the connection. The returned future fails with a {@link FrameTooLargeException} if at least one {@link Channel} was skipped.
+     */
+    private CompletableFuture<Void> broadcastFrame(DeliveryPacket deliveryPacket, DeliveryCompression compression,
+                                                   List<Channel> channels, boolean flush) {
+        ByteBuf frame = this.broadcastEncoder.encodeFrame(this.config.getAllocator(), deliveryPacket, compression);
+        try {
+            int bodyLength = new DeliveryByteBuf(frame.duplicate()).readVarInt();
+            List<Channel> accepting = new ArrayList<>(channels.size());
+            int smallestLimit = Integer.MAX_VALUE;
+            for (Channel channel : channels) {
+                int limit = DeliveryHandshakeHandler.getPeerMaxFrameSize(channel);
+                if (limit < 0 || bodyLength <= limit)
+                    accepting.add(channel);
+                else
+                    smallestLimit = Math.min(smallestLimit, limit);
+            }
+            CompletableFuture<Void> written = writeFrame(accepting, frame, flush);
+            if (accepting.size() == channels.size())
+                return written;
+            FrameTooLargeException exception = new FrameTooLargeException(bodyLength, smallestLimit);
+            return written.thenCompose(ignored -> CompletableFuture.failedFuture(exception));
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Writes an already encoded frame to each of the given {@link Channel}'s.<br>
+     * The {@link Channel}'s are grouped by their {@link EventLoop}, so only a single task is scheduled per {@link EventLoop} which
+     * writes a <code>retainedDuplicate()</code> of the frame to all of its {@link Channel}'s.
+     *
+     * @param channels
+     *          {@link Channel}'s the frame should be written to
+     * @param frame
+     *          encoded frame, the reference of the caller is not released
+     * @param flush
+     *          whether the frame should be flushed right away or left to the {@link DeliveryFlushPolicy}
+     * @return future which completes as soon as the frame was written to every {@link Channel}
      */
-    public void broadcastDeliveryPacket(DeliveryPacket deliveryPacket) {
-        this.getChannelGroup().forEach(c -> c.writeAndFlush(deliveryPacket));
+    private static CompletableFuture<Void> writeFrame(Iterable<Channel> channels, ByteBuf frame, boolean flush) {
+        Map<EventLoop, List<Channel>> channelsByLoop = new IdentityHashMap<>();
+        int count = 0;
+        for (Channel channel : channels) {
+            channelsByLoop.computeIfAbsent(channel.eventLoop(), loop -> new ArrayList<>()).add(channel);
+            count++;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (count == 0) {
+            future.complete(null);
+            return future;
+        }
+        AtomicInteger remaining = new AtomicInteger(count);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Consumer<Throwable> onWritten = cause -> {
+            if (cause != null)
+                failure.compareAndSet(null, cause);
+            if (remaining.decrementAndGet() == 0) {
+                if (failure.get() == null)
+                    future.complete(null);
+                else
+                    future.completeExceptionally(failure.get());
+            }
+        };
+        ChannelFutureListener listener = written -> onWritten.accept(written.cause());
+
+        channelsByLoop.forEach((loop, loopChannels) -> {
+            ByteBuf loopFrame = frame.retain();
+            Runnable task = () -> {
+                try {
+                    for (Channel channel : loopChannels) {
+                        ChannelFuture written = flush ? channel.writeAndFlush(loopFrame.retainedDuplicate())
+                                : channel.write(loopFrame.retainedDuplicate());
+                        written.addListener(listener);
+                    }
+                } finally {
+                    loopFrame.release();
+                }
+            };
+            if (loop.inEventLoop()) {
+                task.run();
+                return;
+            }
+            try {
+                loop.execute(task);
+            } catch (RejectedExecutionException exception) {
+                loopFrame.release();
+                loopChannels.forEach(channel -> onWritten.accept(exception));
+            }
+        });
+        return future;
     }
 
     /**
@@ -141,7 +529,8 @@ public class DeliveryServer {
 
         /**
          * Calls {@link DeliveryEventManager} which then calls the {@link de.antibotdeluxe.delivery.event.DeliveryEventHandler}'s for the
-         * correct {@link DeliveryPacket}.
+         * correct {@link DeliveryPacket}. A {@link DeliveryRecyclablePacket} or {@link DeliveryLazyPacket} is
+         * released afterwards.
          *
          * @param ctx
          *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
@@ -150,11 +539,29 @@ public class DeliveryServer {
          */
         @Override
         protected void channelRead0(ChannelHandlerContext ctx, DeliveryPacket msg) {
-            this.server.getEventManager().callHandlers(msg, ctx);
+            try {
+                this.server.getEventManager().callHandlers(msg, ctx);
+            } finally {
+                if (msg instanceof DeliveryRecyclablePacket)
+                    ((DeliveryRecyclablePacket) msg).release();
+                else if (msg instanceof DeliveryLazyPacket)
+                    ((DeliveryLazyPacket) msg).release();
+            }
+        }
+
+        /**
+         * Lets the {@link DeliveryEventManager} handle the batches collected during the read cycle.
+         *
+         * @param ctx
+         *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
+         */
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            this.server.getEventManager().readComplete(ctx);
         }
 
         /**
-         * Adds a new {@link Channel} to the {@link ChannelGroup} if it connects successfully.
+         * Adds a new {@link Channel} to the {@link ChannelGroup} and the {@link DeliveryConnectionRegistry} if it connects successfully.
          *
          * @param ctx
          *          {@link ChannelHandlerContext provided by <a target="_blank" href="http://netty.io">Netty.io</a>}
@@ -162,10 +569,12 @@ public class DeliveryServer {
         @Override
         public void channelActive(ChannelHandlerContext ctx) {
             this.server.getChannelGroup().add(ctx.channel());
+            this.server.getConnectionRegistry().register(ctx.channel());
         }
 
         /**
-         * Drops an old {@link Channel} from the {@link ChannelGroup} if it has lost the connection or disconnected.
+         * Drops an old {@link Channel} from the {@link ChannelGroup} and the {@link DeliveryConnectionRegistry} if it has lost the
+         * connection or disconnected.
          *
          * @param ctx
          *          {@link ChannelHandlerContext} provided by <a target="_blank" href="http://netty.io">Netty.io</a>
@@ -173,6 +582,8 @@ public class DeliveryServer {
         @Override
         public void channelInactive(ChannelHandlerContext ctx) {
             this.server.getChannelGroup().remove(ctx.channel());
+            this.server.getConnectionRegistry().unregister(ctx.channel());
+            this.server.getEventManager().channelInactive(ctx);
         }
 
     }
@@ -195,6 +606,155 @@ public class DeliveryServer {
         return this.port;
     }
 
+    /**
+     * Returns the maximum size of a single frame in bytes.
+     *
+     * @return maximum frame size
+     */
+    public int getMaxFrameSize() {
+        return this.maxFrameSize;
+    }
+
+    /**
+     * Sets the maximum size of a single frame in bytes. Only connections accepted after the change are affected.
+     *
+     * @param maxFrameSize
+     *          maximum frame size, has to be positive
+     */
+    public void setMaxFrameSize(int maxFrameSize) {
+        if (maxFrameSize <= 0)
+            throw new IllegalArgumentException("The maximum frame size has to be positive {maxFrameSize: " + maxFrameSize + "}");
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Returns whether outgoing frames are written to direct buffers instead of heap buffers.
+     *
+     * @return Boolean whether direct buffers are preferred
+     */
+    public boolean isPreferDirectBuffers() {
+        return this.preferDirectBuffers;
+    }
+
+    /**
+     * Sets whether outgoing frames are written to direct buffers, which is the default, or to heap buffers.<br>
+     * Only connections accepted after the change are affected.
+     *
+     * @param preferDirectBuffers
+     *          whether direct buffers should be preferred
+     */
+    public void setPreferDirectBuffers(boolean preferDirectBuffers) {
+        this.preferDirectBuffers = preferDirectBuffers;
+    }
+
+    /**
+     * Returns the {@link DeliveryFileReceiver} which decides where received files are written to.
+     *
+     * @return file receiver or <code>null</code> if received files are dropped
+     */
+    public DeliveryFileReceiver getFileReceiver() {
+        return this.fileReceiver;
+    }
+
+    /**
+     * Sets the {@link DeliveryFileReceiver} which decides where received files are written to.<br>
+     * Only connections accepted after the change are affected.
+     *
+     * @param fileReceiver
+     *          file receiver, <code>null</code> to drop received files
+     */
+    public void setFileReceiver(DeliveryFileReceiver fileReceiver) {
+        this.fileReceiver = fileReceiver;
+    }
+
+    /**
+     * Returns the {@link DeliveryStreamReceiver} which processes received streams.
+     *
+     * @return stream receiver or <code>null</code> if received streams are dropped
+     */
+    public DeliveryStreamReceiver getStreamReceiver() {
+        return this.streamReceiver;
+    }
+
+    /**
+     * Sets the {@link DeliveryStreamReceiver} which processes received streams.<br>
+     * Only connections accepted after the change are affected.
+     *
+     * @param streamReceiver
+     *          stream receiver, <code>null</code> to drop received streams
+     */
+    public void setStreamReceiver(DeliveryStreamReceiver streamReceiver) {
+        this.streamReceiver = streamReceiver;
+    }
+
+    /**
+     * Returns the {@link DeliveryFlushPolicy} which decides when queued {@link DeliveryPacket}'s are flushed.
+     *
+     * @return flush policy
+     */
+    public DeliveryFlushPolicy getFlushPolicy() {
+        return this.flushPolicy;
+    }
+
+    /**
+     * Sets the {@link DeliveryFlushPolicy} which decides when queued {@link DeliveryPacket}'s are flushed.<br>
+     * Only connections accepted after the change are affected.
+     *
+     * @param flushPolicy
+     *          flush policy
+     */
+    public void setFlushPolicy(DeliveryFlushPolicy flushPolicy) {
+        if (flushPolicy == null)
+            throw new NullPointerException("The flush policy must not be null");
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Returns the {@link DeliveryCompression} the {@link DeliveryServer} prefers for its connections.
+     *
+     * @return preferred compression
+     */
+    public DeliveryCompression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Sets the {@link DeliveryCompression} the {@link DeliveryServer} prefers for its connections. It is agreed on with each client
+     * when the connection is established, the preference of the server wins over the one of the client.<br>
+     * Only connections accepted after the change are affected.
+     *
+     * @param compression
+     *          preferred compression, {@link DeliveryCompression#NONE} leaves the choice to the client
+     */
+    public void setCompression(DeliveryCompression compression) {
+        if (compression == null)
+            throw new NullPointerException("The compression must not be null");
+        this.compression = compression;
+    }
+
+    /**
+     * Returns the minimum size of a payload in bytes before it gets compressed.
+     *
+     * @return compression threshold
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of a payload in bytes before it gets compressed.<br>
+     * Only connections accepted after the change are affected.
+     *
+     * @param compressionThreshold
+     *          compression threshold, must not be negative
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0)
+            throw new IllegalArgumentException("The compression threshold must not be negative {compressionThreshold: "
+                    + compressionThreshold + "}");
+        this.compressionThreshold = compressionThreshold;
+    }
+
     /**
      * Returns the {@link ChannelGroup} which includes all currently connected connections.
      *
@@ -205,28 +765,48 @@ public class DeliveryServer {
     }
 
     /**
-     * Returns the slave {@link EventLoopGroup}.
+     * Returns the {@link DeliveryConnectionRegistry} which indexes all currently connected connections by id and by key.
+     *
+     * @return DeliveryConnectionRegistry
+     */
+    public DeliveryConnectionRegistry getConnectionRegistry() {
+        return this.connectionRegistry;
+    }
+
+    /**
+     * Returns the slave {@link EventLoopGroup} which handles the I/O of the connections.
      *
-     * @return EventLoopGroup
+     * @return EventLoopGroup or <code>null</code> if the {@link DeliveryServer} was not started yet
      */
     public EventLoopGroup getSlaveGroup() {
         return this.slaveGroup;
     }
 
     /**
-     * Returns the master {@link EventLoopGroup}.
+     * Returns the master {@link EventLoopGroup} which accepts the connections.
      *
-     * @return EventLoopGroup
+     * @return EventLoopGroup or <code>null</code> if the {@link DeliveryServer} was not started yet
      */
     public EventLoopGroup getMasterGroup() {
         return this.masterGroup;
     }
 
+    /**
+     * Returns the {@link DeliveryServerConfig} with the network settings of the {@link DeliveryServer}.
+     *
+     * @return DeliveryServerConfig
+     */
+    public DeliveryServerConfig getConfig() {
+        return this.config;
+    }
+
     /**
      * Returns the {@link DeliveryPacketVault} which includes all registered packets.
      * <p>
      * <strong>Note</strong><br>
-     * The {@link DeliveryPacketVault} has to be equal with the one on the client side.
+     * The {@link DeliveryPacketVault} doesn't have to be equal with the one on the client side. If the fingerprints differ the
+     * {@link de.antibotdeluxe.delivery.codec.DeliveryHandshakeHandler} maps the ids by the stable ids of the {@link DeliveryPacket}'s,
+     * and {@link DeliveryPacket}'s only one side knows are dropped by the other one.
      *
      * @return DeliveryPacketVault containing all registered {@link DeliveryPacket}'s
      */
@@ -0,0 +1,368 @@
+package de.antibotdeluxe.delivery.server;
+
+import de.antibotdeluxe.delivery.misc.DeliveryTransport;
+import de.antibotdeluxe.delivery.misc.exceptions.TransportUnavailableException;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable network settings of a {@link DeliveryServer}: the {@link DeliveryTransport}, the amount of threads and the
+ * {@link ChannelOption}'s of the listening sockets and of the accepted connections. Everything which is not set keeps the default
+ * of <a target="_blank" href="http://netty.io">Netty.io</a>.
+ * <p>
+ * Options which only exist for epoll, e.g. <code>TCP_QUICKACK</code>, are ignored with a warning by the other transports.
+ *
+ * @author jhz
+ */
+@SuppressWarnings("unused")
+public final class DeliveryServerConfig {
+
+    private final DeliveryTransport transport;
+    private final int bossThreads;
+    private final int workerThreads;
+    private final int reusePortBinds;
+    private final Map<ChannelOption<?>, Object> options;
+    private final Map<ChannelOption<?>, Object> childOptions;
+
+    private DeliveryServerConfig(Builder builder) {
+        this.transport = builder.transport;
+        this.bossThreads = builder.bossThreads;
+        this.workerThreads = builder.workerThreads;
+        this.reusePortBinds = builder.reusePortBinds;
+        this.options = Collections.unmodifiableMap(new LinkedHashMap<>(builder.options));
+        this.childOptions = Collections.unmodifiableMap(new LinkedHashMap<>(builder.childOptions));
+    }
+
+    /**
+     * Returns a {@link DeliveryServerConfig} which keeps every default.
+     *
+     * @return DeliveryServerConfig
+     */
+    public static DeliveryServerConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a new {@link Builder} starting with the defaults.
+     *
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Applies the {@link ChannelOption}'s to the {@link ServerBootstrap}.
+     *
+     * @param bootstrap
+     *          {@link ServerBootstrap} of the {@link DeliveryServer}
+     */
+    @SuppressWarnings("unchecked")
+    void apply(ServerBootstrap bootstrap) {
+        this.options.forEach((option, value) -> bootstrap.option((ChannelOption<Object>) option, value));
+        this.childOptions.forEach((option, value) -> bootstrap.childOption((ChannelOption<Object>) option, value));
+    }
+
+    /**
+     * Returns the {@link DeliveryTransport} the {@link DeliveryServer} runs on.
+     *
+     * @return DeliveryTransport
+     */
+    public DeliveryTransport getTransport() {
+        return this.transport;
+    }
+
+    /**
+     * Returns the amount of threads which accept the connections.
+     *
+     * @return amount of boss threads
+     */
+    public int getBossThreads() {
+        return this.bossThreads;
+    }
+
+    /**
+     * Returns the amount of threads which handle the I/O of the connections.
+     *
+     * @return amount of worker threads, <code>0</code> for twice the amount of cores
+     */
+    public int getWorkerThreads() {
+        return this.workerThreads;
+    }
+
+    /**
+     * Returns the amount of listening sockets bound to the port with <code>SO_REUSEPORT</code>.
+     *
+     * @return amount of listening sockets
+     */
+    public int getReusePortBinds() {
+        return this.reusePortBinds;
+    }
+
+    /**
+     * Returns the {@link ChannelOption}'s of the listening sockets.
+     *
+     * @return unmodifiable map of the options
+     */
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Returns the {@link ChannelOption}'s of the accepted connections.
+     *
+     * @return unmodifiable map of the options
+     */
+    public Map<ChannelOption<?>, Object> getChildOptions() {
+        return this.childOptions;
+    }
+
+    /**
+     * Returns the {@link ByteBufAllocator} of the accepted connections.
+     *
+     * @return ByteBufAllocator set with <code>allocator(...)</code> or the default one of
+     *          <a target="_blank" href="http://netty.io">Netty.io</a>
+     */
+    public ByteBufAllocator getAllocator() {
+        Object allocator = this.childOptions.get(ChannelOption.ALLOCATOR);
+        return (allocator instanceof ByteBufAllocator) ? (ByteBufAllocator) allocator : ByteBufAllocator.DEFAULT;
+    }
+
+    /**
+     * Collects the settings of a {@link DeliveryServerConfig}.
+     */
+    public static final class Builder {
+
+        private DeliveryTransport transport = DeliveryTransport.getDefault();
+        private int bossThreads = 1;
+        private int workerThreads;
+        private int reusePortBinds = 1;
+        private final Map<ChannelOption<?>, Object> options = new LinkedHashMap<>();
+        private final Map<ChannelOption<?>, Object> childOptions = new LinkedHashMap<>();
+
+        private Builder() { }
+
+        /**
+         * Sets the {@link DeliveryTransport}, the fastest available one is used by default.
+         *
+         * @param transport
+         *          {@link DeliveryTransport}
+         * @return this Builder
+         * @throws TransportUnavailableException
+         *          if the {@link DeliveryTransport} is not available on this machine
+         */
+        public Builder transport(DeliveryTransport transport) {
+            if (!transport.isAvailable())
+                throw new TransportUnavailableException(transport, null);
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sets the amount of threads which accept the connections. A single listening socket is only served by one of them, so more
+         * than one only help together with <code>reusePortBinds(int)</code>.
+         *
+         * @param bossThreads
+         *          amount of boss threads, at least one
+         * @return this Builder
+         */
+        public Builder bossThreads(int bossThreads) {
+            if (bossThreads < 1)
+                throw new IllegalArgumentException("The amount of boss threads must be positive {bossThreads: " + bossThreads + "}");
+            this.bossThreads = bossThreads;
+            return this;
+        }
+
+        /**
+         * Sets the amount of threads which handle the I/O of the connections.
+         *
+         * @param workerThreads
+         *          amount of worker threads, <code>0</code> for twice the amount of cores
+         * @return this Builder
+         */
+        public Builder workerThreads(int workerThreads) {
+            if (workerThreads < 0)
+                throw new IllegalArgumentException("The amount of worker threads must not be negative {workerThreads: "
+                        + workerThreads + "}");
+            this.workerThreads = workerThreads;
+            return this;
+        }
+
+        /**
+         * Sets the amount of listening sockets which are bound to the port with <code>SO_REUSEPORT</code>. The kernel spreads incoming
+         * connections across them and each is served by its own boss thread, so accepting doesn't bottleneck on a single thread
+         * during connection floods. Only used if the {@link DeliveryTransport} supports it, a single socket is bound otherwise.
+         *
+         * @param reusePortBinds
+         *          amount of listening sockets, at least one
+         * @return this Builder
+         */
+        public Builder reusePortBinds(int reusePortBinds) {
+            if (reusePortBinds < 1)
+                throw new IllegalArgumentException("The amount of binds must be positive {reusePortBinds: " + reusePortBinds + "}");
+            this.reusePortBinds = reusePortBinds;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of connections which wait to be accepted.
+         *
+         * @param backlog
+         *          length of the accept queue
+         * @return this Builder
+         */
+        public Builder backlog(int backlog) {
+            return this.option(ChannelOption.SO_BACKLOG, backlog);
+        }
+
+        /**
+         * Enables or disables Nagle's algorithm of the connections. Disabling it lowers the latency of small writes.
+         *
+         * @param tcpNoDelay
+         *          <code>true</code> to send small writes right away
+         * @return this Builder
+         */
+        public Builder tcpNoDelay(boolean tcpNoDelay) {
+            return this.childOption(ChannelOption.TCP_NODELAY, tcpNoDelay);
+        }
+
+        /**
+         * Sets the size of the socket send buffer of the connections.
+         *
+         * @param sendBufferSize
+         *          size in bytes
+         * @return this Builder
+         */
+        public Builder sendBufferSize(int sendBufferSize) {
+            return this.childOption(ChannelOption.SO_SNDBUF, sendBufferSize);
+        }
+
+        /**
+         * Sets the size of the socket receive buffer. It is set on the listening sockets as well, because a TCP window above 64 KiB
+         * has to be negotiated while the connection is established.
+         *
+         * @param receiveBufferSize
+         *          size in bytes
+         * @return this Builder
+         */
+        public Builder receiveBufferSize(int receiveBufferSize) {
+            this.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+            return this.childOption(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        }
+
+        /**
+         * Sets the amount of pending outbound bytes at which a connection turns unwritable and writable again.
+         *
+         * @param low
+         *          bytes below which the connection turns writable again
+         * @param high
+         *          bytes above which the connection turns unwritable
+         * @return this Builder
+         */
+        public Builder writeBufferWaterMark(int low, int high) {
+            return this.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(low, high));
+        }
+
+        /**
+         * Sets the {@link RecvByteBufAllocator} which decides how large the buffers for reading the connections are.
+         *
+         * @param allocator
+         *          {@link RecvByteBufAllocator}, e.g. a <code>FixedRecvByteBufAllocator</code> for equally sized frames
+         * @return this Builder
+         */
+        public Builder receiveBufferAllocator(RecvByteBufAllocator allocator) {
+            return this.childOption(ChannelOption.RCVBUF_ALLOCATOR, allocator);
+        }
+
+        /**
+         * Sets the {@link ByteBufAllocator} of the listening sockets and the connections.
+         *
+         * @param allocator
+         *          {@link ByteBufAllocator}
+         * @return this Builder
+         */
+        public Builder allocator(ByteBufAllocator allocator) {
+            this.option(ChannelOption.ALLOCATOR, allocator);
+            return this.childOption(ChannelOption.ALLOCATOR, allocator);
+        }
+
+        /**
+         * Enables or disables delayed acknowledgements of the connections, epoll only.
+         *
+         * @param tcpQuickAck
+         *          <code>true</code> to acknowledge received segments right away
+         * @return this Builder
+         */
+        public Builder tcpQuickAck(boolean tcpQuickAck) {
+            return this.childOption(EpollChannelOption.TCP_QUICKACK, tcpQuickAck);
+        }
+
+        /**
+         * Enables TCP Fast Open on the listening sockets, epoll only.
+         *
+         * @param pendingRequests
+         *          maximum amount of pending Fast Open requests
+         * @return this Builder
+         */
+        public Builder tcpFastOpen(int pendingRequests) {
+            return this.option(EpollChannelOption.TCP_FASTOPEN, pendingRequests);
+        }
+
+        /**
+         * Sets any {@link ChannelOption} of the listening sockets.
+         *
+         * @param option
+         *          {@link ChannelOption}
+         * @param value
+         *          value of the option, <code>null</code> to remove it
+         * @param <T>
+         *          Type of the value
+         * @return this Builder
+         */
+        public <T> Builder option(ChannelOption<T> option, T value) {
+            if (value == null)
+                this.options.remove(option);
+            else
+                this.options.put(option, value);
+            return this;
+        }
+
+        /**
+         * Sets any {@link ChannelOption} of the accepted connections.
+         *
+         * @param option
+         *          {@link ChannelOption}
+         * @param value
+         *          value of the option, <code>null</code> to remove it
+         * @param <T>
+         *          Type of the value
+         * @return this Builder
+         */
+        public <T> Builder childOption(ChannelOption<T> option, T value) {
+            if (value == null)
+                this.childOptions.remove(option);
+            else
+                this.childOptions.put(option, value);
+            return this;
+        }
+
+        /**
+         * Creates the {@link DeliveryServerConfig}.
+         *
+         * @return DeliveryServerConfig
+         */
+        public DeliveryServerConfig build() {
+            return new DeliveryServerConfig(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryElementCodec;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test if lists, sets, maps and primitive arrays are written and red properly by the {@link DeliveryByteBuf}.
+ *
+ * @author jhz
+ */
+
+public class CollectionEncodingTest {
+
+    private DeliveryByteBuf buf;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing CollectionEncodingTest..");
+        this.buf = new DeliveryByteBuf(Unpooled.buffer());
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing CollectionEncodingTest..\n");
+        this.buf.getBuf().release();
+    }
+
+    /**
+     * Using the test environment to check the round trip of every collection type.
+     */
+    @Test
+    public void testCollectionEncoding() {
+        System.out.println("[Test] Running CollectionEncodingTest..");
+        List<String> names = Arrays.asList("Lisa", "is::a", "beautiful", "woman");
+        Set<Long> addresses = new HashSet<>(Arrays.asList(3232235777L, 167772161L, 2130706433L));
+        Map<String, Integer> scores = new HashMap<>();
+        scores.put("Jane", 1);
+        scores.put("Lisa", -42);
+        List<TestJaneDoePacket> packets = Arrays.asList(new TestJaneDoePacket("Jane"), new TestJaneDoePacket("Doe"));
+        int[] ints = {1, -2, Integer.MAX_VALUE};
+        long[] longs = {Long.MIN_VALUE, 0L, 42L};
+        double[] doubles = {0.5D, -1.25D, Double.MAX_VALUE};
+
+        this.buf.writeList(names);
+        this.buf.writeSet(addresses, DeliveryElementCodec.VAR_LONG);
+        this.buf.writeMap(scores, DeliveryElementCodec.STRING, DeliveryElementCodec.SIGNED_VAR_INT);
+        this.buf.writeList(packets, DeliveryElementCodec.packet(TestJaneDoePacket::new));
+        this.buf.writeIntArray(ints);
+        this.buf.writeLongArray(longs);
+        this.buf.writeDoubleArray(doubles);
+
+        Assert.assertEquals("The list did not match the written list.", names, this.buf.readList());
+        Assert.assertEquals("The set did not match the written set.", addresses, this.buf.readSet(DeliveryElementCodec.VAR_LONG));
+        Assert.assertEquals("The map did not match the written map.", scores,
+                this.buf.readMap(DeliveryElementCodec.STRING, DeliveryElementCodec.SIGNED_VAR_INT));
+        List<TestJaneDoePacket> readPackets = this.buf.readList(DeliveryElementCodec.packet(TestJaneDoePacket::new));
+        Assert.assertEquals("The nested packet did not match the written packet.", "Doe", readPackets.get(1).getName());
+        Assert.assertArrayEquals("The int array did not match the written array.", ints, this.buf.readIntArray());
+        Assert.assertArrayEquals("The long array did not match the written array.", longs, this.buf.readLongArray());
+        Assert.assertArrayEquals("The double array did not match the written array.", doubles, this.buf.readDoubleArray(), 0D);
+        Assert.assertFalse("Bytes were left after reading all values.", this.buf.getBuf().isReadable());
+        System.out.println("[Test] No conflicts running CollectionEncodingTest..");
+    }
+
+    /**
+     * Using the test environment to check if empty {@link String}'s inside collections survive the round trip.
+     */
+    @Test
+    public void testEmptyStrings() {
+        System.out.println("[Test] Running CollectionEncodingTest (empty strings)..");
+        List<String> names = Arrays.asList("Jane", "", "Doe");
+        Map<String, String> aliases = new HashMap<>();
+        aliases.put("", "Lisa");
+        aliases.put("Jane", "");
+
+        this.buf.writeList(names);
+        this.buf.writeMap(aliases, DeliveryElementCodec.STRING, DeliveryElementCodec.STRING);
+
+        Assert.assertEquals("The list with an empty string did not match the written list.", names, this.buf.readList());
+        Assert.assertEquals("The map with empty strings did not match the written map.", aliases,
+                this.buf.readMap(DeliveryElementCodec.STRING, DeliveryElementCodec.STRING));
+        Assert.assertFalse("Bytes were left after reading all values.", this.buf.getBuf().isReadable());
+        System.out.println("[Test] No conflicts running CollectionEncodingTest (empty strings)..");
+    }
+
+}
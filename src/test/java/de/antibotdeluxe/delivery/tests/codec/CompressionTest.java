@@ -0,0 +1,132 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
+import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryCompression;
+import de.antibotdeluxe.delivery.codec.DeliveryHandshakeHandler;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if payloads above the threshold are compressed by the {@link DeliveryByteEncoder} and restored by the
+ * {@link DeliveryByteDecoder}, and if both sides agree on the {@link DeliveryCompression} during the handshake.
+ *
+ * @author jhz
+ */
+
+public class CompressionTest {
+
+    private TestPacketVault vault;
+    private String payload;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing CompressionTest..");
+        this.vault = new TestPacketVault();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+            builder.append("Jane Doe ");
+        this.payload = builder.toString();
+    }
+
+    /**
+     * Using the test environment to check if every algorithm restores the payload and actually shrinks it.
+     */
+    @Test
+    public void testRoundTrip() {
+        System.out.println("[Test] Running CompressionTest..");
+        for (DeliveryCompression compression : DeliveryCompression.values()) {
+            DeliveryByteEncoder encoder = new DeliveryByteEncoder(this.vault);
+            encoder.setCompression(compression);
+            EmbeddedChannel out = new EmbeddedChannel(encoder);
+            EmbeddedChannel in = new EmbeddedChannel(new DeliveryByteDecoder(this.vault));
+
+            out.writeOutbound(new TestJaneDoePacket(this.payload), new TestJaneDoePacket("Jane"));
+            ByteBuf large = out.readOutbound();
+            if (compression != DeliveryCompression.NONE)
+                Assert.assertTrue("The payload was not compressed {compression: " + compression + "}",
+                        large.readableBytes() < this.payload.length() / 2);
+            in.writeInbound(large, out.readOutbound());
+
+            TestJaneDoePacket first = in.readInbound();
+            TestJaneDoePacket second = in.readInbound();
+            Assert.assertEquals("The compressed payload was not restored {compression: " + compression + "}",
+                    this.payload, first.getName());
+            Assert.assertEquals("The payload below the threshold was not restored {compression: " + compression + "}",
+                    "Jane", second.getName());
+            out.finishAndReleaseAll();
+            in.finishAndReleaseAll();
+        }
+        System.out.println("[Test] No conflicts running CompressionTest..");
+    }
+
+    /**
+     * Using the test environment to check if the preference of the server wins during the handshake.
+     */
+    @Test
+    public void testHandshake() {
+        System.out.println("[Test] Running CompressionTest (handshake)..");
+        DeliveryByteEncoder clientEncoder = new DeliveryByteEncoder(this.vault);
+        DeliveryByteEncoder serverEncoder = new DeliveryByteEncoder(this.vault);
+        EmbeddedChannel client = new EmbeddedChannel(new DeliveryByteDecoder(this.vault), clientEncoder,
+                new DeliveryHandshakeHandler(clientEncoder, DeliveryCompression.DEFLATE, false));
+        EmbeddedChannel server = new EmbeddedChannel(new DeliveryByteDecoder(this.vault), serverEncoder,
+                new DeliveryHandshakeHandler(serverEncoder, DeliveryCompression.SNAPPY, true));
+
+        server.writeInbound(client.<Object>readOutbound());
+        client.writeInbound(server.<Object>readOutbound());
+
+        Assert.assertEquals("The server did not use its preference.", DeliveryCompression.SNAPPY, serverEncoder.getCompression());
+        Assert.assertEquals("The client did not accept the preference of the server.", DeliveryCompression.SNAPPY,
+                clientEncoder.getCompression());
+        Assert.assertEquals("The agreed compression was not stored.", DeliveryCompression.SNAPPY,
+                DeliveryHandshakeHandler.getCompression(client));
+        Assert.assertNull("The handshake handler was not removed.", client.pipeline().get(DeliveryHandshakeHandler.class));
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running CompressionTest (handshake)..");
+    }
+
+    /**
+     * Using the test environment to check if a {@link DeliveryCompression#SNAPPY} frame whose preamble announces more bytes
+     * than the frame header is rejected before anything is decompressed.
+     */
+    @Test
+    public void testForgedPreamble() {
+        System.out.println("[Test] Running CompressionTest (forged preamble)..");
+        EmbeddedChannel in = new EmbeddedChannel(new DeliveryByteDecoder(this.vault));
+        DeliveryByteBuf body = new DeliveryByteBuf(Unpooled.buffer());
+        body.writeByte((byte) DeliveryCompression.SNAPPY.getId());
+        body.writeVarInt(this.vault.getPacketIdByClass(TestJaneDoePacket.class));
+        body.writeVarInt(10);
+        body.writeVarInt(250_000_000);
+        body.getBuf().writeBytes(new byte[]{0x00, 0x4A, 0x61, 0x6E, 0x65});
+        DeliveryByteBuf frame = new DeliveryByteBuf(Unpooled.buffer());
+        frame.writeVarInt(body.getBuf().readableBytes());
+        frame.getBuf().writeBytes(body.getBuf());
+        body.getBuf().release();
+
+        try {
+            in.writeInbound(frame.getBuf());
+            Assert.fail("The forged preamble was accepted.");
+        } catch (CorruptedFrameException exception) {
+            Assert.assertTrue("The forged preamble was not named {message: " + exception.getMessage() + "}",
+                    exception.getMessage().contains("preamble: 250000000"));
+        }
+        Assert.assertNull("A packet was decoded from the forged frame.", in.readInbound());
+        in.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running CompressionTest (forged preamble)..");
+    }
+
+}
@@ -0,0 +1,58 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryFlushHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryFlushPolicy;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test if the {@link DeliveryFlushHandler} flushes queued writes according to its {@link DeliveryFlushPolicy}.
+ *
+ * @author jhz
+ */
+
+public class FlushPolicyTest {
+
+    /**
+     * Using the test environment to check if writes are consolidated into a single flush.
+     */
+    @Test
+    public void testConsolidate() {
+        System.out.println("[Test] Running FlushPolicyTest (consolidate)..");
+        EmbeddedChannel channel = new EmbeddedChannel(new DeliveryFlushHandler(DeliveryFlushPolicy.consolidate(3)));
+        channel.write("first");
+        channel.write("second");
+        Assert.assertTrue("Writes were flushed before the limit was reached.", channel.outboundMessages().isEmpty());
+        channel.write("third");
+        Assert.assertEquals("The writes were not flushed after the limit was reached.", 3, channel.outboundMessages().size());
+        channel.write("fourth");
+        channel.flush();
+        Assert.assertEquals("The explicit flush was not passed on.", 4, channel.outboundMessages().size());
+        channel.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running FlushPolicyTest (consolidate)..");
+    }
+
+    /**
+     * Using the test environment to check if pending writes are flushed once per tick.
+     *
+     * @throws InterruptedException
+     *          InterruptedException
+     */
+    @Test
+    public void testTick() throws InterruptedException {
+        System.out.println("[Test] Running FlushPolicyTest (tick)..");
+        EmbeddedChannel channel = new EmbeddedChannel(new DeliveryFlushHandler(DeliveryFlushPolicy.tick(10, TimeUnit.MILLISECONDS)));
+        channel.write("first");
+        channel.write("second");
+        Assert.assertTrue("Writes were flushed before the tick.", channel.outboundMessages().isEmpty());
+        Thread.sleep(20);
+        channel.runScheduledPendingTasks();
+        Assert.assertEquals("The writes were not flushed by the tick.", 2, channel.outboundMessages().size());
+        channel.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running FlushPolicyTest (tick)..");
+    }
+
+}
@@ -0,0 +1,99 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
+import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if the frames written by the {@link DeliveryByteEncoder} are split correctly by the {@link DeliveryByteDecoder} even if
+ * multiple frames arrive at once or a frame is split across multiple reads.
+ *
+ * @author jhz
+ */
+
+public class FramingTest {
+
+    private EmbeddedChannel encoder;
+    private EmbeddedChannel decoder;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing FramingTest..");
+        TestPacketVault vault = new TestPacketVault();
+        this.encoder = new EmbeddedChannel(new DeliveryByteEncoder(vault));
+        this.decoder = new EmbeddedChannel(new DeliveryByteDecoder(vault, 64));
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing FramingTest..\n");
+        this.encoder.finishAndReleaseAll();
+        this.decoder.finishAndReleaseAll();
+    }
+
+    /**
+     * Using the test environment to check if multiple frames in one read and a frame split across two reads are decoded.
+     */
+    @Test
+    public void testFraming() {
+        System.out.println("[Test] Running FramingTest..");
+        this.encoder.writeOutbound(new TestJaneDoePacket("Jane"), new TestLisaEmberPacket("Lisa"), new TestJaneDoePacket("Doe"));
+        ByteBuf merged = Unpooled.buffer();
+        for (ByteBuf frame; (frame = this.encoder.readOutbound()) != null; frame.release())
+            merged.writeBytes(frame);
+
+        ByteBuf first = merged.readRetainedSlice(merged.readableBytes() - 3);
+        ByteBuf second = merged.readRetainedSlice(3);
+        merged.release();
+
+        this.decoder.writeInbound(first);
+        TestJaneDoePacket jane = this.decoder.readInbound();
+        TestLisaEmberPacket lisa = this.decoder.readInbound();
+        Assert.assertEquals("The first frame was not decoded correctly.", "Jane", jane.getName());
+        Assert.assertEquals("The second frame was not decoded correctly.", "Lisa", lisa.getName());
+        Assert.assertNull("An incomplete frame was decoded.", this.decoder.readInbound());
+
+        this.decoder.writeInbound(second);
+        TestJaneDoePacket doe = this.decoder.readInbound();
+        Assert.assertEquals("The split frame was not decoded correctly.", "Doe", doe.getName());
+        System.out.println("[Test] No conflicts running FramingTest..");
+    }
+
+    /**
+     * Using the test environment to check if frames exceeding the maximum frame size are rejected.
+     */
+    @Test
+    public void testMaxFrameSize() {
+        System.out.println("[Test] Running FramingTest (max frame size)..");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            builder.append('x');
+        this.encoder.writeOutbound(new TestJaneDoePacket(builder.toString()), new TestJaneDoePacket("Jane"));
+        ByteBuf large = this.encoder.readOutbound();
+        ByteBuf small = this.encoder.readOutbound();
+        try {
+            this.decoder.writeInbound(large);
+            Assert.fail("The frame exceeded the maximum frame size but was decoded.");
+        } catch (Exception ignored) { }
+        this.decoder.writeInbound(small);
+        TestJaneDoePacket jane = this.decoder.readInbound();
+        Assert.assertEquals("The frame after the discarded frame was not decoded correctly.", "Jane", jane.getName());
+        System.out.println("[Test] No conflicts running FramingTest (max frame size)..");
+    }
+
+}
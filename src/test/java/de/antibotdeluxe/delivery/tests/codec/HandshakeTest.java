@@ -0,0 +1,226 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
+import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryCompression;
+import de.antibotdeluxe.delivery.codec.DeliveryCorrelationHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryFileTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryHandshakeHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryPacketVault;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamTransfer;
+import de.antibotdeluxe.delivery.misc.exceptions.HandshakeTimeoutException;
+import de.antibotdeluxe.delivery.misc.exceptions.PendingWriteLimitException;
+import de.antibotdeluxe.delivery.misc.exceptions.ProtocolVersionMismatchException;
+import de.antibotdeluxe.delivery.misc.exceptions.UnsupportedFeatureException;
+import de.antibotdeluxe.delivery.tests.packets.TestAnnotatedPacket;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test if the {@link DeliveryHandshakeHandler} maps the {@link de.antibotdeluxe.delivery.codec.DeliveryPacket} ids of two differing
+ * {@link DeliveryPacketVault}'s, holds back writes until the handshake is completed and rejects an incompatible side.
+ *
+ * @author jhz
+ */
+public class HandshakeTest {
+
+    /**
+     * Test if equal vaults have the same fingerprint and the order of registration changes it.
+     */
+    @Test
+    public void testFingerprint() {
+        System.out.println("[Test] Running HandshakeTest (fingerprint)..");
+        DeliveryPacketVault reordered = new DeliveryPacketVault();
+        reordered.addPacketClasses(TestLisaEmberPacket.class, TestJaneDoePacket.class);
+        Assert.assertEquals("Equal vaults have different fingerprints.", new TestPacketVault().getFingerprint(),
+                new TestPacketVault().freeze().getFingerprint());
+        Assert.assertNotEquals("Differently ordered vaults have the same fingerprint.", new TestPacketVault().getFingerprint(),
+                reordered.getFingerprint());
+        Assert.assertArrayEquals("The mapping of the reordered vault is wrong.", new int[]{1, 0},
+                reordered.createMapping(new TestPacketVault().getStableIds()));
+        System.out.println("[Test] No conflicts running HandshakeTest (fingerprint)..");
+    }
+
+    /**
+     * Test if packets arrive as the right type although both sides registered them in a different order, and packets only one side
+     * knows are dropped.
+     */
+    @Test
+    public void testMapping() {
+        System.out.println("[Test] Running HandshakeTest (mapping)..");
+        DeliveryPacketVault clientVault = new DeliveryPacketVault();
+        clientVault.addPacketClasses(TestAnnotatedPacket.class, TestJaneDoePacket.class, TestLisaEmberPacket.class);
+        DeliveryPacketVault serverVault = new DeliveryPacketVault();
+        serverVault.addPacketClasses(TestLisaEmberPacket.class, TestJaneDoePacket.class);
+        DeliveryByteEncoder clientEncoder = new DeliveryByteEncoder(clientVault);
+        DeliveryByteEncoder serverEncoder = new DeliveryByteEncoder(serverVault);
+        EmbeddedChannel client = new EmbeddedChannel(new DeliveryByteDecoder(clientVault), clientEncoder,
+                new DeliveryHandshakeHandler(clientEncoder, DeliveryCompression.NONE, false));
+        EmbeddedChannel server = new EmbeddedChannel(new DeliveryByteDecoder(serverVault), serverEncoder,
+                new DeliveryHandshakeHandler(serverEncoder, DeliveryCompression.NONE, true));
+
+        client.writeOutbound(createAnnotatedPacket(), new TestLisaEmberPacket("Lisa"));
+        server.writeOutbound(new TestJaneDoePacket("Jane"));
+        Assert.assertNull("The server wrote before the handshake was completed.", server.readOutbound());
+
+        for (Object frame; (frame = client.readOutbound()) != null; )
+            server.writeInbound(frame);
+        for (Object frame; (frame = server.readOutbound()) != null; )
+            client.writeInbound(frame);
+        for (Object frame; (frame = client.readOutbound()) != null; )
+            server.writeInbound(frame);
+
+        TestJaneDoePacket jane = client.readInbound();
+        Assert.assertEquals("The packet of the server was not mapped.", "Jane", jane.getName());
+        TestLisaEmberPacket lisa = server.readInbound();
+        Assert.assertEquals("The packet of the client was not mapped.", "Lisa", lisa.getName());
+        Assert.assertNull("A packet unknown to the server was not dropped.", server.readInbound());
+        Assert.assertTrue("The features were not agreed on.", DeliveryHandshakeHandler.supportsFeature(client,
+                DeliveryHandshakeHandler.FEATURE_STREAM));
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running HandshakeTest (mapping)..");
+    }
+
+    /**
+     * Test if held back writes are counted with their encoded size and the write which would exceed the limit is failed.
+     */
+    @Test
+    public void testPendingLimit() {
+        System.out.println("[Test] Running HandshakeTest (pending limit)..");
+        DeliveryPacketVault vault = new TestPacketVault();
+        DeliveryByteEncoder encoder = new DeliveryByteEncoder(vault);
+        EmbeddedChannel server = new EmbeddedChannel(new DeliveryByteDecoder(vault), encoder,
+                new DeliveryHandshakeHandler(encoder, DeliveryCompression.NONE, true, 0, 10_000));
+        String large = "J".repeat(4_000);
+
+        ChannelFuture first = server.write(new TestJaneDoePacket(large));
+        ChannelFuture second = server.write(new TestJaneDoePacket(large));
+        ChannelFuture third = server.write(new TestJaneDoePacket(large));
+        Assert.assertFalse("The first write below the limit was not held back.", first.isDone());
+        Assert.assertFalse("The second write below the limit was not held back.", second.isDone());
+        Assert.assertTrue("The write above the limit was not failed.", third.cause() instanceof PendingWriteLimitException);
+        ChannelFuture small = server.write(new TestJaneDoePacket("Jane"));
+        Assert.assertFalse("A small write still fitting below the limit was failed.", small.isDone());
+        server.finishAndReleaseAll();
+        Assert.assertFalse("A held back write succeeded without a handshake.", first.isSuccess());
+        System.out.println("[Test] No conflicts running HandshakeTest (pending limit)..");
+    }
+
+    /**
+     * Test if the connection is closed if the other side never completes the handshake.
+     */
+    @Test
+    public void testTimeout() throws InterruptedException {
+        System.out.println("[Test] Running HandshakeTest (timeout)..");
+        DeliveryPacketVault vault = new TestPacketVault();
+        DeliveryByteEncoder encoder = new DeliveryByteEncoder(vault);
+        EmbeddedChannel server = new EmbeddedChannel(new DeliveryByteDecoder(vault), encoder,
+                new DeliveryHandshakeHandler(encoder, DeliveryCompression.NONE, true, 50,
+                        DeliveryHandshakeHandler.DEFAULT_MAX_PENDING_BYTES));
+
+        ChannelFuture pending = server.write(new TestJaneDoePacket("Jane"));
+        Assert.assertFalse("The write was not held back.", pending.isDone());
+
+        Thread.sleep(100);
+        server.runPendingTasks();
+        Assert.assertFalse("The connection was not closed after the timeout.", server.isOpen());
+        Assert.assertTrue("The held back write was not failed with the timeout.", pending.cause() instanceof HandshakeTimeoutException);
+        try {
+            server.checkException();
+            Assert.fail("The timeout was not passed through the pipeline.");
+        } catch (HandshakeTimeoutException ignored) {
+        }
+        server.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running HandshakeTest (timeout)..");
+    }
+
+    /**
+     * Test if the connection is closed if the other side announces a different protocol version.
+     */
+    @Test
+    public void testVersionMismatch() {
+        System.out.println("[Test] Running HandshakeTest (version)..");
+        DeliveryPacketVault vault = new TestPacketVault();
+        DeliveryByteEncoder encoder = new DeliveryByteEncoder(vault);
+        EmbeddedChannel client = new EmbeddedChannel(new DeliveryByteDecoder(vault), encoder,
+                new DeliveryHandshakeHandler(encoder, DeliveryCompression.NONE, false));
+        client.releaseOutbound();
+        ChannelFuture pending = client.write(new TestJaneDoePacket("Jane"));
+
+        DeliveryByteBuf body = new DeliveryByteBuf(Unpooled.buffer());
+        body.writeByte((byte) 0x80);
+        body.writeByte((byte) 0);
+        body.writeBool(true);
+        body.writeVarInt(DeliveryHandshakeHandler.PROTOCOL_VERSION + 1);
+        body.writeVarInt(1);
+        body.writeByte((byte) DeliveryCompression.NONE.getId());
+        body.writeVarInt(DeliveryHandshakeHandler.SUPPORTED_FEATURES);
+        body.writeVarInt(DeliveryByteDecoder.DEFAULT_MAX_FRAME_SIZE);
+        body.writeLong(vault.getFingerprint());
+        body.writeVarInt(0);
+        DeliveryByteBuf frame = new DeliveryByteBuf(Unpooled.buffer());
+        frame.writeVarInt(body.getBuf().readableBytes());
+        frame.getBuf().writeBytes(body.getBuf());
+        body.getBuf().release();
+
+        try {
+            client.writeInbound(frame.getBuf());
+            Assert.fail("The different protocol version was accepted.");
+        } catch (ProtocolVersionMismatchException ignored) {
+        }
+        Assert.assertFalse("The connection was not closed after the version mismatch.", client.isOpen());
+        Assert.assertTrue("The held back write was not failed with the mismatch.",
+                pending.cause() instanceof ProtocolVersionMismatchException);
+        client.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running HandshakeTest (version)..");
+    }
+
+    /**
+     * Test if requests and transfers fail fast if the other side didn't announce the feature they require.
+     */
+    @Test
+    public void testMissingFeature() throws Exception {
+        System.out.println("[Test] Running HandshakeTest (features)..");
+        DeliveryCorrelationHandler correlation = new DeliveryCorrelationHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(correlation);
+        Assert.assertFalse("A feature is missing before the handshake was completed.",
+                DeliveryHandshakeHandler.lacksFeature(channel, DeliveryHandshakeHandler.FEATURE_STREAM));
+        channel.attr(DeliveryHandshakeHandler.FEATURES).set(0);
+
+        CompletableFuture<TestJaneDoePacket> request = correlation.request(channel, new TestJaneDoePacket("Jane"), Duration.ofSeconds(1));
+        Assert.assertTrue("The request did not fail fast.", request.isCompletedExceptionally());
+        ChannelFuture file = DeliveryFileTransfer.send(channel, Paths.get("missing.bin"));
+        Assert.assertTrue("The file transfer did not fail fast.", file.cause() instanceof UnsupportedFeatureException);
+        ChannelFuture stream = DeliveryStreamTransfer.send(channel, new TestJaneDoePacket("Jane"), new ByteArrayInputStream(new byte[1]));
+        Assert.assertTrue("The stream transfer did not fail fast.", stream.cause() instanceof UnsupportedFeatureException);
+        Assert.assertNull("Something was written although the other side lacks the features.", channel.readOutbound());
+        channel.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running HandshakeTest (features)..");
+    }
+
+    private static TestAnnotatedPacket createAnnotatedPacket() {
+        TestAnnotatedPacket packet = new TestAnnotatedPacket();
+        packet.name = "Unknown";
+        packet.unit = TimeUnit.SECONDS;
+        packet.values = Collections.emptyList();
+        packet.counters = Collections.emptyMap();
+        packet.child = new TestJaneDoePacket("Child");
+        return packet;
+    }
+
+}
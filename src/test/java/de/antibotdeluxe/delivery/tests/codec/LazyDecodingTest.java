@@ -0,0 +1,116 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
+import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryLazyPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.event.DeliveryEventHandler;
+import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if the {@link DeliveryByteDecoder} skips frames nobody listens for and passes {@link DeliveryLazyPacket}'s to handlers which
+ * accept them.
+ *
+ * @author jhz
+ */
+
+public class LazyDecodingTest {
+
+    private TestPacketVault vault;
+    private DeliveryEventManager eventManager;
+    private EmbeddedChannel encoder;
+    private EmbeddedChannel decoder;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing LazyDecodingTest..");
+        this.vault = new TestPacketVault();
+        this.eventManager = new DeliveryEventManager();
+        this.encoder = new EmbeddedChannel(new DeliveryByteEncoder(this.vault));
+        this.decoder = new EmbeddedChannel(new DeliveryByteDecoder(this.vault, DeliveryByteDecoder.DEFAULT_MAX_FRAME_SIZE,
+                this.eventManager));
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing LazyDecodingTest..\n");
+        this.encoder.finishAndReleaseAll();
+        this.decoder.finishAndReleaseAll();
+    }
+
+    /**
+     * Using the test environment to check if only frames with a handler are decoded.
+     */
+    @Test
+    public void testSkip() {
+        System.out.println("[Test] Running LazyDecodingTest (skip)..");
+        this.eventManager.bindHandlers(new TestHandler(false));
+        this.transfer(new TestLisaEmberPacket("Lisa"), new TestJaneDoePacket("Jane"));
+        TestJaneDoePacket jane = this.decoder.readInbound();
+        Assert.assertEquals("The frame with a handler was not decoded.", "Jane", jane.getName());
+        Assert.assertNull("The frame without a handler was decoded.", this.decoder.readInbound());
+        System.out.println("[Test] No conflicts running LazyDecodingTest (skip)..");
+    }
+
+    /**
+     * Using the test environment to check if a lazy packet is passed and materialized on demand.
+     */
+    @Test
+    public void testLazy() {
+        System.out.println("[Test] Running LazyDecodingTest (lazy)..");
+        this.eventManager.bindHandlers(new TestHandler(true));
+        this.transfer(new TestJaneDoePacket("Jane"));
+        DeliveryLazyPacket lazy = this.decoder.readInbound();
+        Assert.assertEquals("The lazy packet has the wrong type.", TestJaneDoePacket.class, lazy.getPacketClass());
+        Assert.assertFalse("The lazy packet was decoded eagerly.", lazy.isMaterialized());
+        TestJaneDoePacket jane = lazy.materialize();
+        Assert.assertEquals("The lazy packet was not materialized correctly.", "Jane", jane.getName());
+        lazy.release();
+        System.out.println("[Test] No conflicts running LazyDecodingTest (lazy)..");
+    }
+
+    private void transfer(DeliveryPacket... packets) {
+        this.encoder.writeOutbound((Object[]) packets);
+        for (Object frame; (frame = this.encoder.readOutbound()) != null; )
+            this.decoder.writeInbound(frame);
+    }
+
+    private static class TestHandler extends DeliveryEventHandler {
+
+        private final boolean lazy;
+
+        private TestHandler(boolean lazy) {
+            this.lazy = lazy;
+        }
+
+        @Override
+        public void call(DeliveryPacket packet, ChannelHandlerContext ctx) { }
+
+        @Override
+        public Class<? extends DeliveryPacket> getPacketCapture() {
+            return TestJaneDoePacket.class;
+        }
+
+        @Override
+        public boolean acceptsLazyPacket() {
+            return this.lazy;
+        }
+
+    }
+
+}
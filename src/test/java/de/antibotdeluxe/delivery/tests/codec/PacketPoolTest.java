@@ -0,0 +1,88 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryPacketPool;
+import de.antibotdeluxe.delivery.codec.DeliveryRecyclablePacket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if {@link DeliveryRecyclablePacket}'s are reset and returned to their {@link DeliveryPacketPool} once released and not
+ * before every reference was released.
+ *
+ * @author jhz
+ */
+
+public class PacketPoolTest {
+
+    private DeliveryPacketPool<TestCounterPacket> pool;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing PacketPoolTest..");
+        this.pool = new DeliveryPacketPool<>(TestCounterPacket::new);
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing PacketPoolTest..\n");
+        this.pool = null;
+    }
+
+    /**
+     * Using the test environment to check the reference counting of the pooled {@link DeliveryRecyclablePacket}'s.
+     */
+    @Test
+    public void testPacketPool() {
+        System.out.println("[Test] Running PacketPoolTest..");
+        TestCounterPacket packet = this.pool.get();
+        packet.counter = 42;
+        packet.retain();
+        Assert.assertFalse("The packet was recycled although it was retained.", packet.release());
+        Assert.assertEquals("The packet was reset although it was retained.", 42, packet.counter);
+        Assert.assertTrue("The packet was not recycled.", packet.release());
+        Assert.assertEquals("The packet was not reset.", 0, packet.counter);
+        try {
+            packet.release();
+            Assert.fail("The packet was released twice.");
+        } catch (IllegalStateException ignored) { }
+
+        TestCounterPacket reused = this.pool.get();
+        Assert.assertEquals("The packet from the pool had more than one reference.", 1, reused.referenceCount());
+        Assert.assertEquals("The packet from the pool was not empty.", 0, reused.counter);
+        System.out.println("[Test] No conflicts running PacketPoolTest..");
+    }
+
+    /**
+     * {@link DeliveryRecyclablePacket} used to test the {@link DeliveryPacketPool}.
+     */
+    public static class TestCounterPacket extends DeliveryRecyclablePacket {
+
+        private int counter;
+
+        @Override
+        public void write(DeliveryByteBuf buf) {
+            buf.writeVarInt(this.counter);
+        }
+
+        @Override
+        public void read(DeliveryByteBuf buf) {
+            this.counter = buf.readVarInt();
+        }
+
+        @Override
+        protected void reset() {
+            this.counter = 0;
+        }
+
+    }
+
+}
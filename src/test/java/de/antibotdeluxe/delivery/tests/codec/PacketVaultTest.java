@@ -0,0 +1,65 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryPacketVault;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if the {@link DeliveryPacketVault} registers factories and answers lookups the same way before and after it was frozen.
+ *
+ * @author jhz
+ */
+
+public class PacketVaultTest {
+
+    private DeliveryPacketVault vault;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing PacketVaultTest..");
+        this.vault = new DeliveryPacketVault();
+        this.vault.addPacketClass(TestJaneDoePacket.class);
+        this.vault.addPacketFactory(TestLisaEmberPacket.class, () -> new TestLisaEmberPacket("Lisa"));
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing PacketVaultTest..\n");
+        this.vault = null;
+    }
+
+    /**
+     * Using the test environment to check the lookups and the frozen state.
+     */
+    @Test
+    public void testPacketVault() {
+        System.out.println("[Test] Running PacketVaultTest..");
+        Assert.assertEquals("This packet id was not expected", 1, this.vault.getPacketIdByClass(TestLisaEmberPacket.class));
+        this.vault.freeze();
+        Assert.assertTrue("The vault was not frozen.", this.vault.isFrozen());
+        Assert.assertEquals("This packet id was not expected", 0, this.vault.getPacketIdByClass(TestJaneDoePacket.class));
+        Assert.assertEquals("This packet id was not expected", 1, this.vault.getPacketId(new TestLisaEmberPacket()));
+        Assert.assertEquals("An unknown packet had an id.", -1, this.vault.getPacketIdByClass(DeliveryPacket.class));
+        Assert.assertNull("An unknown packet id had a factory.", this.vault.getPacketFactory(2));
+        Assert.assertTrue("The factory created the wrong packet.", this.vault.getPacketFactory(0).get() instanceof TestJaneDoePacket);
+        TestLisaEmberPacket lisa = (TestLisaEmberPacket) this.vault.getPacketFactory(1).get();
+        Assert.assertEquals("The registered factory was not used.", "Lisa", lisa.getName());
+        try {
+            this.vault.addPacketClass(TestJaneDoePacket.class);
+            Assert.fail("A packet was registered in a frozen vault.");
+        } catch (IllegalStateException ignored) { }
+        System.out.println("[Test] No conflicts running PacketVaultTest..");
+    }
+
+}
@@ -0,0 +1,103 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryPacketVault;
+import de.antibotdeluxe.delivery.tests.packets.TestAnnotatedPacket;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test if the serializer generated for the {@link de.antibotdeluxe.delivery.codec.DeliveryField}'s of a
+ * {@link de.antibotdeluxe.delivery.codec.DeliveryPacket} restores every field.
+ *
+ * @author jhz
+ */
+
+public class SerializerTest {
+
+    /**
+     * Using the test environment to check if every annotated field survives a round trip.
+     */
+    @Test
+    public void testGeneratedSerializer() {
+        System.out.println("[Test] Running SerializerTest..");
+        new DeliveryPacketVault().addPacketClass(TestAnnotatedPacket.class);
+
+        TestAnnotatedPacket packet = new TestAnnotatedPacket();
+        packet.id = 42;
+        packet.timestamp = 1234567890123L;
+        packet.active = true;
+        packet.score = 0.75;
+        packet.name = "Jane";
+        packet.delta = -3;
+        packet.unit = TimeUnit.SECONDS;
+        packet.values = List.of(1, 300, 70000);
+        packet.counters = Map.of("Lisa", 7L);
+        packet.child = new TestJaneDoePacket("Doe");
+
+        ByteBuf buf = Unpooled.buffer();
+        packet.write(new DeliveryByteBuf(buf));
+        TestAnnotatedPacket copy = new TestAnnotatedPacket();
+        copy.read(new DeliveryByteBuf(buf));
+        Assert.assertFalse("Not every byte was red.", buf.isReadable());
+        buf.release();
+
+        Assert.assertEquals("The fixed size fields were not restored.", 42, copy.id);
+        Assert.assertEquals("The fixed size fields were not restored.", 1234567890123L, copy.timestamp);
+        Assert.assertTrue("The fixed size fields were not restored.", copy.active);
+        Assert.assertEquals("The fixed size fields were not restored.", 0.75, copy.score, 0);
+        Assert.assertEquals("The string was not restored.", "Jane", copy.name);
+        Assert.assertEquals("The zigzag encoded field was not restored.", -3, copy.delta);
+        Assert.assertEquals("The enum was not restored.", TimeUnit.SECONDS, copy.unit);
+        Assert.assertEquals("The list was not restored.", packet.values, copy.values);
+        Assert.assertEquals("The map was not restored.", packet.counters, copy.counters);
+        Assert.assertEquals("The nested packet was not restored.", "Doe", copy.child.getName());
+        System.out.println("[Test] No conflicts running SerializerTest..");
+    }
+
+    /**
+     * Using the test environment to check if an enum ordinal the enum doesn't have is rejected as corrupted input.
+     */
+    @Test
+    public void testInvalidEnumOrdinal() {
+        System.out.println("[Test] Running SerializerTest (enum ordinal)..");
+        new DeliveryPacketVault().addPacketClass(TestAnnotatedPacket.class);
+        TestAnnotatedPacket packet = new TestAnnotatedPacket();
+        packet.name = "Jane";
+        packet.values = List.of();
+        packet.counters = Map.of();
+        packet.child = new TestJaneDoePacket("Doe");
+
+        packet.unit = TimeUnit.NANOSECONDS;
+        ByteBuf valid = Unpooled.buffer();
+        packet.write(new DeliveryByteBuf(valid));
+        packet.unit = TimeUnit.DAYS;
+        ByteBuf forged = Unpooled.buffer();
+        packet.write(new DeliveryByteBuf(forged));
+        int ordinalIndex = 0;
+        while (valid.getByte(ordinalIndex) == forged.getByte(ordinalIndex))
+            ordinalIndex++;
+        forged.setByte(ordinalIndex, 0x7F);
+        valid.release();
+
+        try {
+            new TestAnnotatedPacket().read(new DeliveryByteBuf(forged));
+            Assert.fail("The enum ordinal out of range was accepted.");
+        } catch (CorruptedFrameException exception) {
+            Assert.assertTrue("The ordinal was not named {message: " + exception.getMessage() + "}",
+                    exception.getMessage().contains("ordinal: 127"));
+        } finally {
+            forged.release();
+        }
+        System.out.println("[Test] No conflicts running SerializerTest (enum ordinal)..");
+    }
+
+}
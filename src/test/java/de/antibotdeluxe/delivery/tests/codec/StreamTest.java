@@ -0,0 +1,160 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
+import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryStream;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamHandler;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamReceiver;
+import de.antibotdeluxe.delivery.codec.DeliveryStreamTransfer;
+import de.antibotdeluxe.delivery.misc.exceptions.StreamAbortedException;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Random;
+
+/**
+ * Tests if streams sent with {@link DeliveryStreamTransfer} arrive chunk by chunk at the {@link DeliveryStreamReceiver}.
+ *
+ * @author jhz
+ */
+public class StreamTest {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    /**
+     * Test if every chunk arrives in order, no chunk is larger than the chunk size and packets after the stream are decoded again.
+     */
+    @Test
+    public void testStream() {
+        System.out.println("[Test] Running StreamTest..");
+        byte[] content = new byte[1024 * 1024 + 123];
+        new Random(7).nextBytes(content);
+        RecordingReceiver recorder = new RecordingReceiver();
+        TestPacketVault vault = new TestPacketVault();
+        EmbeddedChannel sender = new EmbeddedChannel(new DeliveryByteEncoder(vault));
+        EmbeddedChannel receiver = new EmbeddedChannel(new DeliveryByteDecoder(vault), new DeliveryStreamHandler(recorder));
+
+        ChannelFuture future = DeliveryStreamTransfer.send(sender, new TestJaneDoePacket("Jane"),
+                Channels.newChannel(new ByteArrayInputStream(content)), CHUNK_SIZE);
+        sender.runPendingTasks();
+        sender.writeOutbound(new TestJaneDoePacket("John"));
+        for (Object frame; (frame = sender.readOutbound()) != null; )
+            receiver.writeInbound(frame);
+
+        Assert.assertTrue("The stream was not written.", future.isSuccess());
+        Assert.assertTrue("The stream was not completed.", recorder.completed);
+        Assert.assertEquals("The header of the stream differs.", "Jane", ((TestJaneDoePacket) recorder.header).getName());
+        Assert.assertTrue("A chunk was larger than the chunk size.", recorder.largestChunk <= CHUNK_SIZE);
+        Assert.assertArrayEquals("The received stream differs from the sent one.", content, recorder.received.toByteArray());
+        TestJaneDoePacket john = receiver.readInbound();
+        Assert.assertEquals("The packet after the stream was not decoded.", "John", john.getName());
+        sender.finishAndReleaseAll();
+        receiver.finishAndReleaseAll();
+        System.out.println("[Test] No Conflicts running StreamTest..");
+    }
+
+    /**
+     * Test if chunks larger than the maximum frame size of the other side are cut down instead of being rejected there.
+     */
+    @Test
+    public void testChunkSizeClamp() {
+        System.out.println("[Test] Running StreamTest (chunk size)..");
+        int maxFrameSize = 4 * 1024;
+        byte[] content = new byte[64 * 1024 + 7];
+        new Random(11).nextBytes(content);
+        RecordingReceiver recorder = new RecordingReceiver();
+        TestPacketVault vault = new TestPacketVault();
+        EmbeddedChannel sender = new EmbeddedChannel(new DeliveryByteEncoder(vault, maxFrameSize));
+        EmbeddedChannel receiver = new EmbeddedChannel(new DeliveryByteDecoder(vault, maxFrameSize),
+                new DeliveryStreamHandler(recorder));
+
+        ChannelFuture future = DeliveryStreamTransfer.send(sender, new TestJaneDoePacket("Jane"),
+                Channels.newChannel(new ByteArrayInputStream(content)), CHUNK_SIZE);
+        sender.runPendingTasks();
+        for (Object frame; (frame = sender.readOutbound()) != null; )
+            receiver.writeInbound(frame);
+
+        Assert.assertTrue("The stream was not written.", future.isSuccess());
+        Assert.assertTrue("The stream was not completed.", recorder.completed);
+        Assert.assertTrue("A chunk was larger than the frame size of the other side.", recorder.largestChunk < maxFrameSize);
+        Assert.assertArrayEquals("The received stream differs from the sent one.", content, recorder.received.toByteArray());
+        sender.finishAndReleaseAll();
+        receiver.finishAndReleaseAll();
+        System.out.println("[Test] No Conflicts running StreamTest (chunk size)..");
+    }
+
+    /**
+     * Test if a stream whose source fails is aborted on the other side.
+     */
+    @Test
+    public void testAbortedStream() {
+        System.out.println("[Test] Running StreamTest (aborted)..");
+        RecordingReceiver recorder = new RecordingReceiver();
+        TestPacketVault vault = new TestPacketVault();
+        EmbeddedChannel sender = new EmbeddedChannel(new DeliveryByteEncoder(vault));
+        EmbeddedChannel receiver = new EmbeddedChannel(new DeliveryByteDecoder(vault), new DeliveryStreamHandler(recorder));
+        ReadableByteChannel failing = Channels.newChannel(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Broken source");
+            }
+        });
+
+        ChannelFuture future = DeliveryStreamTransfer.send(sender, new TestJaneDoePacket("Jane"), failing, CHUNK_SIZE);
+        sender.runPendingTasks();
+        for (Object frame; (frame = sender.readOutbound()) != null; )
+            receiver.writeInbound(frame);
+
+        Assert.assertFalse("The stream was written although its source failed.", future.isSuccess());
+        Assert.assertTrue("The stream was not aborted.", recorder.failure instanceof StreamAbortedException);
+        sender.finishAndReleaseAll();
+        receiver.finishAndReleaseAll();
+        System.out.println("[Test] No Conflicts running StreamTest (aborted)..");
+    }
+
+    private static final class RecordingReceiver implements DeliveryStreamReceiver {
+
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private Object header;
+        private int largestChunk;
+        private boolean completed;
+        private Throwable failure;
+
+        @Override
+        public boolean opened(DeliveryStream stream) {
+            this.header = stream.getHeader();
+            return true;
+        }
+
+        @Override
+        public void received(DeliveryStream stream, ByteBuf chunk) {
+            this.largestChunk = Math.max(this.largestChunk, chunk.readableBytes());
+            byte[] bytes = new byte[chunk.readableBytes()];
+            chunk.readBytes(bytes);
+            this.received.write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void completed(DeliveryStream stream) {
+            this.completed = true;
+        }
+
+        @Override
+        public void failed(DeliveryStream stream, Throwable cause) {
+            this.failure = cause;
+        }
+
+    }
+
+}
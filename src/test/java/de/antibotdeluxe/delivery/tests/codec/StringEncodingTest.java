@@ -0,0 +1,74 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import de.antibotdeluxe.delivery.codec.DeliveryCharSequence;
+import de.antibotdeluxe.delivery.codec.DeliveryStringCache;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test if {@link String}'s are written UTF-8 encoded by the {@link DeliveryByteBuf} and if the {@link DeliveryStringCache} and the
+ * {@link DeliveryCharSequence} are working properly.
+ *
+ * @author jhz
+ */
+
+public class StringEncodingTest {
+
+    private DeliveryByteBuf buf;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing StringEncodingTest..");
+        this.buf = new DeliveryByteBuf(Unpooled.directBuffer());
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing StringEncodingTest..\n");
+        this.buf.getBuf().release();
+    }
+
+    /**
+     * Using the test environment to check the UTF-8 round trip, the cache and the view.
+     */
+    @Test
+    public void testStringEncoding() {
+        System.out.println("[Test] Running StringEncodingTest..");
+        String name = "J\u00fcrgen \u2603 \ud83d\ude00";
+        this.buf.writeString(name);
+        Assert.assertEquals("The String was not prefixed with its UTF-8 byte length.",
+                name.getBytes(StandardCharsets.UTF_8).length + 1, this.buf.getBuf().readableBytes());
+        Assert.assertEquals("The String did not match the written String.", name, this.buf.readString());
+
+        DeliveryStringCache cache = new DeliveryStringCache(16);
+        this.buf.writeString("lisa.example.org");
+        this.buf.writeString("lisa.example.org");
+        String first = this.buf.readString(cache);
+        String second = this.buf.readString(cache);
+        Assert.assertEquals("The cached String did not match the written String.", "lisa.example.org", first);
+        Assert.assertSame("The cache did not return the cached instance.", first, second);
+
+        this.buf.writeString("Jane Doe");
+        this.buf.writeString(name);
+        DeliveryCharSequence ascii = this.buf.readCharSequence();
+        DeliveryCharSequence unicode = this.buf.readCharSequence();
+        Assert.assertTrue("The ASCII view was not detected as ASCII.", ascii.isAscii());
+        Assert.assertEquals("The view did not match the written String.", "Jane Doe", ascii.toString());
+        Assert.assertEquals("The sub sequence of the view did not match.", "Doe", ascii.subSequence(5, 8).toString());
+        Assert.assertEquals("The non ASCII view did not match the written String.", name, unicode.toString());
+        System.out.println("[Test] No conflicts running StringEncodingTest..");
+    }
+
+}
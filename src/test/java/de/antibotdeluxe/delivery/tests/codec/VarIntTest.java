@@ -0,0 +1,76 @@
+package de.antibotdeluxe.delivery.tests.codec;
+
+import de.antibotdeluxe.delivery.codec.DeliveryByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if the <code>VarInt</code>, <code>VarLong</code> and <code>ZigZag</code> methods in the {@link DeliveryByteBuf} are
+ * working properly.
+ *
+ * @author jhz
+ */
+
+public class VarIntTest {
+
+    private DeliveryByteBuf buf;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing VarIntTest..");
+        this.buf = new DeliveryByteBuf(Unpooled.buffer());
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing VarIntTest..\n");
+        this.buf.getBuf().release();
+    }
+
+    /**
+     * Using the test environment to check if the values are the same after writing and reading them and if small values are
+     * written compactly.
+     */
+    @Test
+    public void testVarIntRoundTrip() {
+        System.out.println("[Test] Running VarIntTest..");
+        int[] ints = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        long[] longs = {0L, 1L, 127L, 128L, Long.MAX_VALUE, -1L, Long.MIN_VALUE};
+
+        this.buf.writeVarInt(100);
+        Assert.assertEquals("A small VarInt did not fit into a single byte.", 1, this.buf.getBuf().readableBytes());
+        this.buf.writeSignedVarInt(-2);
+        Assert.assertEquals("A small negative ZigZag value did not fit into a single byte.", 2, this.buf.getBuf().readableBytes());
+        Assert.assertEquals("The VarInt did not match the written value.", 100, this.buf.readVarInt());
+        Assert.assertEquals("The ZigZag value did not match the written value.", -2, this.buf.readSignedVarInt());
+
+        for (int value : ints) {
+            this.buf.writeVarInt(value);
+            this.buf.writeSignedVarInt(value);
+        }
+        for (long value : longs) {
+            this.buf.writeVarLong(value);
+            this.buf.writeSignedVarLong(value);
+        }
+        for (int value : ints) {
+            Assert.assertEquals("The VarInt did not match the written value.", value, this.buf.readVarInt());
+            Assert.assertEquals("The ZigZag value did not match the written value.", value, this.buf.readSignedVarInt());
+        }
+        for (long value : longs) {
+            Assert.assertEquals("The VarLong did not match the written value.", value, this.buf.readVarLong());
+            Assert.assertEquals("The ZigZag value did not match the written value.", value, this.buf.readSignedVarLong());
+        }
+        Assert.assertFalse("Bytes were left after reading all values.", this.buf.getBuf().isReadable());
+        System.out.println("[Test] No conflicts running VarIntTest..");
+    }
+
+}
@@ -1,16 +1,32 @@
 package de.antibotdeluxe.delivery.tests.event;
 
 import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.event.DeliveryBatch;
+import de.antibotdeluxe.delivery.event.DeliveryBatchHandler;
 import de.antibotdeluxe.delivery.event.DeliveryEventHandler;
 import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import de.antibotdeluxe.delivery.event.DeliveryExecutionMode;
+import de.antibotdeluxe.delivery.event.DeliveryHandlerExecutor;
+import de.antibotdeluxe.delivery.tests.codec.PacketPoolTest;
 import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
 import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Test if the <code>event system</code> functions properly.
  *
@@ -107,4 +123,251 @@ public class EventFunctionalityTest {
         System.out.println("[Test] No conflicts running EventTest..");
     }
 
+    /**
+     * Using the test environment to check if handlers can be bound and unbound while packets are dispatched on another thread.
+     *
+     * @throws InterruptedException
+     *          if the dispatching thread is interrupted
+     */
+    @Test
+    public void checkConcurrentBinding() throws InterruptedException {
+        System.out.println("[Test] Running EventTest (concurrent binding)..");
+        AtomicInteger calls = new AtomicInteger();
+        DeliveryEventHandler[] handlers = new DeliveryEventHandler[100];
+        Thread dispatcher = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted())
+                eventManager.callHandlers(new TestLisaEmberPacket(), null);
+        });
+        dispatcher.start();
+        try {
+            for (int i = 0; i < handlers.length; i++) {
+                handlers[i] = new DeliveryEventHandler() {
+                    @Override
+                    public void call(DeliveryPacket typeOf, ChannelHandlerContext ctx) {
+                        calls.incrementAndGet();
+                    }
+
+                    @Override
+                    public Class<? extends DeliveryPacket> getPacketCapture() {
+                        return TestLisaEmberPacket.class;
+                    }
+                };
+                eventManager.bindHandlers(handlers[i]);
+            }
+            for (DeliveryEventHandler handler : handlers)
+                Assert.assertTrue("A bound handler could not be unbound.", eventManager.unbindHandler(handler));
+        } finally {
+            dispatcher.interrupt();
+            dispatcher.join();
+        }
+        int before = calls.get();
+        eventManager.callHandlers(new TestLisaEmberPacket(), null);
+        Assert.assertEquals("An unbound handler was called.", before, calls.get());
+        Assert.assertEquals("The remaining handlers changed.", 2, eventManager.getHandlers(TestLisaEmberPacket.class).size());
+        System.out.println("[Test] No conflicts running EventTest (concurrent binding)..");
+    }
+
+    /**
+     * Using the test environment to check if ordered handlers run off the calling thread and keep the order per key.
+     *
+     * @throws InterruptedException
+     *          if the test is interrupted while waiting for the handlers
+     */
+    @Test
+    public void checkOrderedExecution() throws InterruptedException {
+        System.out.println("[Test] Running EventTest (ordered execution)..");
+        DeliveryEventManager manager = new DeliveryEventManager();
+        manager.setExecutor(new DeliveryHandlerExecutor(4, 1024));
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(1000);
+        Thread caller = Thread.currentThread();
+        manager.bindHandlers(new DeliveryEventHandler() {
+            @Override
+            public void call(DeliveryPacket typeOf, ChannelHandlerContext ctx) {
+                if (Thread.currentThread() != caller)
+                    received.add(((TestJaneDoePacket) typeOf).getName());
+                latch.countDown();
+            }
+
+            @Override
+            public Class<? extends DeliveryPacket> getPacketCapture() {
+                return TestJaneDoePacket.class;
+            }
+
+            @Override
+            public DeliveryExecutionMode getExecutionMode() {
+                return DeliveryExecutionMode.ORDERED;
+            }
+
+            @Override
+            public Object getOrderingKey(DeliveryPacket packet, ChannelHandlerContext ctx) {
+                return ((TestJaneDoePacket) packet).getName().charAt(0);
+            }
+        });
+        for (int i = 0; i < 500; i++) {
+            manager.callHandlers(new TestJaneDoePacket("a" + i), null);
+            manager.callHandlers(new TestJaneDoePacket("b" + i), null);
+        }
+        Assert.assertTrue("Not every handler was called.", latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("A handler was called on the calling thread.", 1000, received.size());
+        for (char key : new char[]{'a', 'b'}) {
+            int expected = 0;
+            for (String name : new ArrayList<>(received))
+                if (name.charAt(0) == key)
+                    Assert.assertEquals("The order of a key was not kept.", key + String.valueOf(expected++), name);
+        }
+        Assert.assertEquals("A call was rejected.", 0, manager.getExecutor().getRejectedTasks());
+        manager.getExecutor().shutdown();
+        System.out.println("[Test] No conflicts running EventTest (ordered execution)..");
+    }
+
+    /**
+     * Using the test environment to check if a batch handler receives the packets of a read cycle together and splits them at the
+     * maximum batch size.
+     */
+    @Test
+    public void checkBatchHandler() {
+        System.out.println("[Test] Running EventTest (batch handler)..");
+        List<List<String>> batches = new ArrayList<>();
+        eventManager.bindHandlers(new DeliveryBatchHandler<TestJaneDoePacket>() {
+            @Override
+            public void call(DeliveryBatch<TestJaneDoePacket> batch) {
+                List<String> names = new ArrayList<>();
+                for (TestJaneDoePacket packet : batch.getPackets())
+                    names.add(packet.getName());
+                batches.add(names);
+            }
+
+            @Override
+            public Class<? extends DeliveryPacket> getPacketCapture() {
+                return TestJaneDoePacket.class;
+            }
+
+            @Override
+            public int getMaxBatchSize() {
+                return 2;
+            }
+        });
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                eventManager.callHandlers((DeliveryPacket) msg, ctx);
+            }
+
+            @Override
+            public void channelReadComplete(ChannelHandlerContext ctx) {
+                eventManager.readComplete(ctx);
+            }
+        });
+        channel.writeInbound(new TestJaneDoePacket("a"), new TestJaneDoePacket("b"), new TestJaneDoePacket("c"));
+        Assert.assertEquals("The packets were not split at the maximum batch size.", 2, batches.size());
+        Assert.assertEquals("The first batch was wrong.", List.of("a", "b"), batches.get(0));
+        Assert.assertEquals("The rest was not handled at the end of the read cycle.", List.of("c"), batches.get(1));
+        channel.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running EventTest (batch handler)..");
+    }
+
+    /**
+     * Using the test environment to check if the batches of several batch handlers are handled in the order the handlers were
+     * bound.
+     */
+    @Test
+    public void checkBatchHandlerOrder() {
+        System.out.println("[Test] Running EventTest (batch handler order)..");
+        List<Integer> handled = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            int index = i;
+            eventManager.bindHandlers(new DeliveryBatchHandler<TestJaneDoePacket>() {
+                @Override
+                public void call(DeliveryBatch<TestJaneDoePacket> batch) {
+                    handled.add(index);
+                }
+
+                @Override
+                public Class<? extends DeliveryPacket> getPacketCapture() {
+                    return TestJaneDoePacket.class;
+                }
+            });
+        }
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                eventManager.callHandlers((DeliveryPacket) msg, ctx);
+            }
+
+            @Override
+            public void channelReadComplete(ChannelHandlerContext ctx) {
+                eventManager.readComplete(ctx);
+            }
+        });
+        channel.writeInbound(new TestJaneDoePacket("a"));
+        Assert.assertEquals("Not every batch was handled.", 32, handled.size());
+        for (int i = 0; i < handled.size(); i++)
+            Assert.assertEquals("The batches were not handled in the order the handlers were bound.", i, (int) handled.get(i));
+        channel.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running EventTest (batch handler order)..");
+    }
+
+    /**
+     * Using the test environment to check if batch handlers sharing a uuid keep their own batches and handle and release them once
+     * they are unbound or the connection is closed.
+     */
+    @Test
+    public void checkBatchHandlerRelease() {
+        System.out.println("[Test] Running EventTest (batch handler release)..");
+        UUID uuid = UUID.randomUUID();
+        DeliveryEventManager first = new DeliveryEventManager();
+        DeliveryEventManager second = new DeliveryEventManager();
+        List<Integer> firstBatches = new ArrayList<>();
+        List<Integer> secondBatches = new ArrayList<>();
+        DeliveryBatchHandler<PacketPoolTest.TestCounterPacket> handler = this.waitingBatchHandler(uuid, firstBatches);
+        first.bindHandlers(handler);
+        second.bindHandlers(this.waitingBatchHandler(uuid, secondBatches));
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                first.callHandlers((DeliveryPacket) msg, ctx);
+                second.callHandlers((DeliveryPacket) msg, ctx);
+            }
+
+            @Override
+            public void channelInactive(ChannelHandlerContext ctx) {
+                first.channelInactive(ctx);
+                second.channelInactive(ctx);
+            }
+        });
+        PacketPoolTest.TestCounterPacket packet = new PacketPoolTest.TestCounterPacket();
+        channel.writeInbound(packet);
+        Assert.assertEquals("The packet was not retained by both batches.", 3, packet.referenceCount());
+        Assert.assertTrue("The batch handler could not be unbound.", first.unbindHandler(handler));
+        channel.runPendingTasks();
+        Assert.assertEquals("The batch was not handled after the handler was unbound.", List.of(1), firstBatches);
+        Assert.assertTrue("A batch handler with the same uuid was handled too.", secondBatches.isEmpty());
+        Assert.assertEquals("The packet was not released after the handler was unbound.", 2, packet.referenceCount());
+        channel.close();
+        Assert.assertEquals("The batch was not handled after the connection was closed.", List.of(1), secondBatches);
+        Assert.assertEquals("The packet was not released after the connection was closed.", 1, packet.referenceCount());
+        channel.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running EventTest (batch handler release)..");
+    }
+
+    private DeliveryBatchHandler<PacketPoolTest.TestCounterPacket> waitingBatchHandler(UUID uuid, List<Integer> batches) {
+        return new DeliveryBatchHandler<>(uuid) {
+            @Override
+            public void call(DeliveryBatch<PacketPoolTest.TestCounterPacket> batch) {
+                batches.add(batch.size());
+            }
+
+            @Override
+            public Class<? extends DeliveryPacket> getPacketCapture() {
+                return PacketPoolTest.TestCounterPacket.class;
+            }
+
+            @Override
+            public Duration getMaxWait() {
+                return Duration.ofHours(1);
+            }
+        };
+    }
+
 }
@@ -0,0 +1,116 @@
+package de.antibotdeluxe.delivery.tests.event;
+
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.event.DeliveryEventManager;
+import de.antibotdeluxe.delivery.event.DeliveryPacketPublisher;
+import de.antibotdeluxe.delivery.event.DeliveryPacketQueue;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test if the demand of a subscriber controls reading the connection.
+ *
+ * @author jhz
+ */
+
+public class PublisherTest {
+
+    private DeliveryEventManager eventManager;
+    private EmbeddedChannel channel;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing PublisherTest..");
+        this.eventManager = new DeliveryEventManager();
+        this.channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                eventManager.callHandlers((DeliveryPacket) msg, ctx);
+            }
+        });
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        this.channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Using the test environment to check if reading stops without demand and resumes once the queue was consumed.
+     */
+    @Test
+    public void testBackpressure() {
+        System.out.println("[Test] Running PublisherTest (backpressure)..");
+        DeliveryPacketPublisher<TestJaneDoePacket> publisher = DeliveryPacketPublisher.of(eventManager, channel, TestJaneDoePacket.class);
+        channel.writeInbound(new TestJaneDoePacket("a"), new TestJaneDoePacket("b"), new TestJaneDoePacket("c"),
+                new TestLisaEmberPacket());
+        Assert.assertFalse("Reading was not paused without a subscriber.", channel.config().isAutoRead());
+
+        DeliveryPacketQueue<TestJaneDoePacket> queue = publisher.toQueue(2);
+        channel.runPendingTasks();
+        Assert.assertEquals("The queue did not take as many packets as it requested.", 2, queue.size());
+        Assert.assertFalse("Reading was resumed with packets left in the buffer.", channel.config().isAutoRead());
+
+        Assert.assertEquals("The order was not kept.", "a", queue.poll().getName());
+        channel.runPendingTasks();
+        Assert.assertFalse("Reading was resumed without demand.", channel.config().isAutoRead());
+        Assert.assertEquals("The order was not kept.", "b", queue.poll().getName());
+        channel.runPendingTasks();
+        Assert.assertTrue("Reading was not resumed after the buffer was drained.", channel.config().isAutoRead());
+        Assert.assertEquals("The order was not kept.", "c", queue.poll().getName());
+        Assert.assertNull("A packet of another type was published.", queue.poll());
+
+        Assert.assertSame("The publisher was not reused.", publisher,
+                DeliveryPacketPublisher.of(eventManager, channel, TestJaneDoePacket.class));
+        channel.close();
+        channel.runPendingTasks();
+        Assert.assertTrue("The queue was not completed with the channel.", queue.isDone());
+        System.out.println("[Test] No conflicts running PublisherTest (backpressure)..");
+    }
+
+    /**
+     * Using the test environment to check if frames of a type are skipped again once the last publisher of the type was cancelled.
+     */
+    @Test
+    public void testDispatcherUnbound() {
+        System.out.println("[Test] Running PublisherTest (dispatcher unbound)..");
+        Assert.assertFalse("A handler was bound without a publisher.", eventManager.hasHandlers(TestJaneDoePacket.class));
+        EmbeddedChannel other = new EmbeddedChannel();
+        DeliveryPacketQueue<TestJaneDoePacket> first =
+                DeliveryPacketPublisher.of(eventManager, channel, TestJaneDoePacket.class).toQueue(2);
+        DeliveryPacketQueue<TestJaneDoePacket> second =
+                DeliveryPacketPublisher.of(eventManager, other, TestJaneDoePacket.class).toQueue(2);
+        Assert.assertTrue("No handler was bound for the publisher.", eventManager.hasHandlers(TestJaneDoePacket.class));
+
+        first.cancel();
+        Assert.assertTrue("The handler was unbound while a publisher was left.", eventManager.hasHandlers(TestJaneDoePacket.class));
+        second.cancel();
+        Assert.assertFalse("The handler was not unbound after the last publisher was cancelled.",
+                eventManager.hasHandlers(TestJaneDoePacket.class));
+
+        DeliveryPacketQueue<TestJaneDoePacket> third =
+                DeliveryPacketPublisher.of(eventManager, channel, TestJaneDoePacket.class).toQueue(2);
+        Assert.assertTrue("No handler was bound for a new publisher.", eventManager.hasHandlers(TestJaneDoePacket.class));
+        channel.close();
+        channel.runPendingTasks();
+        Assert.assertTrue("The queue was not completed with the channel.", third.isDone());
+        Assert.assertFalse("The handler was not unbound after the channel was closed.",
+                eventManager.hasHandlers(TestJaneDoePacket.class));
+        other.finishAndReleaseAll();
+        System.out.println("[Test] No conflicts running PublisherTest (dispatcher unbound)..");
+    }
+
+}
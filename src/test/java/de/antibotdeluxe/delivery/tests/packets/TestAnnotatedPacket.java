@@ -0,0 +1,47 @@
+package de.antibotdeluxe.delivery.tests.packets;
+
+import de.antibotdeluxe.delivery.codec.DeliveryField;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class simulates a {@link DeliveryPacket} whose serializer is generated from its {@link DeliveryField}'s.
+ *
+ * @author jhz
+ */
+public class TestAnnotatedPacket implements DeliveryPacket {
+
+    @DeliveryField(order = 0)
+    public int id;
+
+    @DeliveryField(order = 1)
+    public long timestamp;
+
+    @DeliveryField(order = 2)
+    public boolean active;
+
+    @DeliveryField(order = 3)
+    public double score;
+
+    @DeliveryField(order = 4)
+    public String name;
+
+    @DeliveryField(order = 5, encoding = DeliveryField.Encoding.ZIGZAG)
+    public int delta;
+
+    @DeliveryField(order = 6)
+    public TimeUnit unit;
+
+    @DeliveryField(order = 7, encoding = DeliveryField.Encoding.VARIABLE)
+    public List<Integer> values;
+
+    @DeliveryField(order = 8)
+    public Map<String, Long> counters;
+
+    @DeliveryField(order = 9)
+    public TestJaneDoePacket child;
+
+}
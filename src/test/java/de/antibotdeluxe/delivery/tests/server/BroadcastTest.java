@@ -0,0 +1,155 @@
+package de.antibotdeluxe.delivery.tests.server;
+
+import de.antibotdeluxe.delivery.client.DeliveryClient;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.event.DeliveryEventHandler;
+import de.antibotdeluxe.delivery.misc.exceptions.FrameTooLargeException;
+import de.antibotdeluxe.delivery.server.DeliveryServer;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests if a {@link DeliveryPacket} broadcast by the {@link DeliveryServer} reaches every connected {@link DeliveryClient}.
+ *
+ * @author jhz
+ */
+public class BroadcastTest {
+
+    private static final int CLIENTS = 3;
+
+    private DeliveryServer server;
+    private DeliveryClient[] clients;
+    private CountDownLatch received;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing BroadcastTest..");
+        this.server = new DeliveryServer(1338, new TestPacketVault());
+        this.server.runServer();
+        this.received = new CountDownLatch(CLIENTS);
+        this.clients = new DeliveryClient[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            this.clients[i] = new DeliveryClient(new TestPacketVault());
+            this.clients[i].getEventManager().bindHandlers(new DeliveryEventHandler() {
+                @Override
+                public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+                    if ("Broadcast".equals(((TestJaneDoePacket) packet).getName()))
+                        received.countDown();
+                }
+
+                @Override
+                public Class<? extends DeliveryPacket> getPacketCapture() {
+                    return TestJaneDoePacket.class;
+                }
+            });
+            this.clients[i].connectClient("127.0.0.1", 1338);
+        }
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing BroadcastTest..");
+        for (DeliveryClient client : this.clients)
+            client.disconnectClient();
+        this.server.endServer();
+    }
+
+    /**
+     * Test if the broadcast {@link DeliveryPacket} is received by every {@link DeliveryClient}.
+     *
+     * @throws Exception
+     *          {@link InterruptedException} while waiting for the {@link DeliveryPacket}'s
+     */
+    @Test
+    public void testBroadcast() throws Exception {
+        System.out.println("[Test] Running BroadcastTest..");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.server.getCurrentConnectionsCount() < CLIENTS && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        this.server.broadcastDeliveryPacket(new TestJaneDoePacket("Broadcast")).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue("Not every client received the broadcast.", this.received.await(5, TimeUnit.SECONDS));
+        System.out.println("[Test] No Conflicts running BroadcastTest..");
+    }
+
+    /**
+     * Test if a broadcast frame larger than the maximum frame size of one {@link DeliveryClient} skips it instead of closing its
+     * connection, while every other {@link DeliveryClient} still receives it.
+     *
+     * @throws Exception
+     *          {@link InterruptedException} while waiting for the {@link DeliveryPacket}'s
+     */
+    @Test
+    public void testSmallerPeerFrameSize() throws Exception {
+        System.out.println("[Test] Running BroadcastTest (peer frame size)..");
+        String large = "B".repeat(4_000);
+        CountDownLatch smallReceived = new CountDownLatch(1);
+        CountDownLatch largeReceived = new CountDownLatch(CLIENTS);
+        DeliveryClient limited = new DeliveryClient(new TestPacketVault());
+        limited.setMaxFrameSize(1024);
+        DeliveryEventHandler counter = new DeliveryEventHandler() {
+            @Override
+            public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+                String name = ((TestJaneDoePacket) packet).getName();
+                if ("Broadcast".equals(name))
+                    smallReceived.countDown();
+                else if (large.equals(name))
+                    largeReceived.countDown();
+            }
+
+            @Override
+            public Class<? extends DeliveryPacket> getPacketCapture() {
+                return TestJaneDoePacket.class;
+            }
+        };
+        limited.getEventManager().bindHandlers(counter);
+        for (DeliveryClient client : this.clients)
+            client.getEventManager().bindHandlers(new DeliveryEventHandler() {
+                @Override
+                public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+                    if (large.equals(((TestJaneDoePacket) packet).getName()))
+                        largeReceived.countDown();
+                }
+
+                @Override
+                public Class<? extends DeliveryPacket> getPacketCapture() {
+                    return TestJaneDoePacket.class;
+                }
+            });
+        limited.connectClient("127.0.0.1", 1338);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (this.server.getCurrentConnectionsCount() < CLIENTS + 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            this.server.broadcastDeliveryPacket(new TestJaneDoePacket("Broadcast")).get(5, TimeUnit.SECONDS);
+            Assert.assertTrue("The limited client did not receive the small broadcast.", smallReceived.await(5, TimeUnit.SECONDS));
+
+            try {
+                this.server.broadcastDeliveryPacket(new TestJaneDoePacket(large)).get(5, TimeUnit.SECONDS);
+                Assert.fail("The broadcast did not report the skipped client.");
+            } catch (ExecutionException exception) {
+                Assert.assertTrue("The skipped client was not reported clearly.", exception.getCause() instanceof FrameTooLargeException);
+            }
+            Assert.assertTrue("Not every other client received the large broadcast.", largeReceived.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue("The limited client was disconnected.", limited.getChannel().isActive());
+        } finally {
+            limited.disconnectClient();
+        }
+        System.out.println("[Test] No Conflicts running BroadcastTest (peer frame size)..");
+    }
+
+}
@@ -0,0 +1,127 @@
+package de.antibotdeluxe.delivery.tests.server;
+
+import de.antibotdeluxe.delivery.client.DeliveryClient;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.event.DeliveryEventHandler;
+import de.antibotdeluxe.delivery.misc.exceptions.NoSuchConnectionException;
+import de.antibotdeluxe.delivery.server.DeliveryConnection;
+import de.antibotdeluxe.delivery.server.DeliveryConnectionRegistry;
+import de.antibotdeluxe.delivery.server.DeliveryServer;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests if the {@link DeliveryConnectionRegistry} of the {@link DeliveryServer} finds connections by id and key and if targeted
+ * {@link DeliveryPacket}'s only reach the chosen {@link DeliveryClient}'s.
+ *
+ * @author jhz
+ */
+public class ConnectionRegistryTest {
+
+    private DeliveryServer server;
+    private DeliveryClient[] clients;
+    private List<List<String>> received;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing ConnectionRegistryTest..");
+        this.server = new DeliveryServer(1342, new TestPacketVault());
+        this.server.getConnectionRegistry().setSessionFactory(connection -> new StringBuilder("session-" + connection.getId()));
+        this.server.runServer();
+        this.clients = new DeliveryClient[2];
+        this.received = List.of(new CopyOnWriteArrayList<>(), new CopyOnWriteArrayList<>());
+        for (int i = 0; i < this.clients.length; i++) {
+            List<String> names = this.received.get(i);
+            this.clients[i] = new DeliveryClient(new TestPacketVault());
+            this.clients[i].getEventManager().bindHandlers(new DeliveryEventHandler() {
+                @Override
+                public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+                    names.add(((TestJaneDoePacket) packet).getName());
+                }
+
+                @Override
+                public Class<? extends DeliveryPacket> getPacketCapture() {
+                    return TestJaneDoePacket.class;
+                }
+            });
+            this.clients[i].connectClient("127.0.0.1", 1342);
+        }
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing ConnectionRegistryTest..");
+        for (DeliveryClient client : this.clients)
+            client.disconnectClient();
+        this.server.endServer();
+    }
+
+    /**
+     * Test if {@link DeliveryPacket}'s sent to ids and keys only reach the matching {@link DeliveryClient}'s.
+     *
+     * @throws Exception
+     *          {@link InterruptedException} while waiting for the connections or the {@link DeliveryPacket}'s
+     */
+    @Test
+    public void testTargetedSends() throws Exception {
+        System.out.println("[Test] Running ConnectionRegistryTest..");
+        DeliveryConnectionRegistry registry = this.server.getConnectionRegistry();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.size() < this.clients.length && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        DeliveryConnection[] connections = new DeliveryConnection[this.clients.length];
+        for (DeliveryConnection connection : registry.getConnections())
+            for (int i = 0; i < this.clients.length; i++)
+                if (connection.getChannel().remoteAddress().equals(this.clients[i].getChannel().localAddress()))
+                    connections[i] = connection;
+        Assert.assertNotNull("The first client was not registered.", connections[0]);
+        Assert.assertNotNull("The second client was not registered.", connections[1]);
+        Assert.assertEquals("The session was not created.", "session-" + connections[0].getId(),
+                connections[0].getSession(StringBuilder.class).toString());
+        Assert.assertSame("The connection was not stored in the channel.", connections[0],
+                DeliveryConnection.of(connections[0].getChannel()));
+
+        Assert.assertTrue("The key could not be bound.", registry.bindKey(connections[0], "proxy-a"));
+        this.server.sendTo(registry.getByKey("proxy-a").getId(), new TestJaneDoePacket("Single")).get(5, TimeUnit.SECONDS);
+        this.server.sendToAll(new int[]{connections[0].getId(), connections[1].getId(), -1}, new TestJaneDoePacket("Both"))
+                .get(5, TimeUnit.SECONDS);
+        deadline = System.currentTimeMillis() + 5000;
+        while ((this.received.get(0).size() < 2 || this.received.get(1).size() < 1) && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        Assert.assertEquals("The first client received the wrong packets.", List.of("Single", "Both"), this.received.get(0));
+        Assert.assertEquals("The second client received the wrong packets.", List.of("Both"), this.received.get(1));
+
+        try {
+            this.server.sendTo(-1, new TestJaneDoePacket()).get(5, TimeUnit.SECONDS);
+            Assert.fail("Sending to an unknown id should fail.");
+        } catch (ExecutionException exception) {
+            Assert.assertTrue("The unknown id was not reported.", exception.getCause() instanceof NoSuchConnectionException);
+        }
+
+        this.clients[0].disconnect().get(5, TimeUnit.SECONDS);
+        deadline = System.currentTimeMillis() + 5000;
+        while (registry.getByKey("proxy-a") != null && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        Assert.assertNull("The key was not removed with the connection.", registry.getByKey("proxy-a"));
+        Assert.assertNull("The id was not removed with the connection.", registry.get(connections[0].getId()));
+        Assert.assertFalse("A closed connection accepted a key.", registry.bindKey(connections[0], "proxy-a"));
+        System.out.println("[Test] No Conflicts running ConnectionRegistryTest..");
+    }
+
+}
@@ -0,0 +1,142 @@
+package de.antibotdeluxe.delivery.tests.server;
+
+import de.antibotdeluxe.delivery.client.DeliveryClient;
+import de.antibotdeluxe.delivery.codec.DeliveryByteDecoder;
+import de.antibotdeluxe.delivery.codec.DeliveryByteEncoder;
+import de.antibotdeluxe.delivery.codec.DeliveryFileReceiver;
+import de.antibotdeluxe.delivery.codec.DeliveryFileTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryTransfer;
+import de.antibotdeluxe.delivery.codec.DeliveryTransferHandler;
+import de.antibotdeluxe.delivery.server.DeliveryServer;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tests if files sent with {@link DeliveryFileTransfer} arrive unchanged, both with <code>sendfile</code> over a socket and with
+ * chunks if the transport doesn't support it.
+ *
+ * @author jhz
+ */
+public class FileTransferTest {
+
+    private Path directory;
+    private Path source;
+
+    /**
+     * Initializing the test environment.
+     *
+     * @throws IOException
+     *          if the test file can't be created
+     */
+    @Before
+    public void before() throws IOException {
+        System.out.println("\n[Test] Initializing FileTransferTest..");
+        this.directory = Files.createTempDirectory("delivery-transfer");
+        this.source = this.directory.resolve("source.bin");
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        Files.write(this.source, content);
+    }
+
+    /**
+     * Cleaning up the test environment.
+     *
+     * @throws IOException
+     *          if the test files can't be deleted
+     */
+    @After
+    public void after() throws IOException {
+        System.out.println("[Test] Closing FileTransferTest..");
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Test if a file sent by the {@link DeliveryClient} is stored memory-mapped by the {@link DeliveryServer}.
+     *
+     * @throws Exception
+     *          Exception while waiting for the file
+     */
+    @Test
+    public void testSocketTransfer() throws Exception {
+        System.out.println("[Test] Running FileTransferTest (socket)..");
+        CompletableFuture<Path> received = new CompletableFuture<>();
+        DeliveryServer server = new DeliveryServer(1340, new TestPacketVault());
+        server.setFileReceiver(DeliveryFileReceiver.directory(this.directory.resolve("received"),
+                (transfer, path) -> received.complete(path)));
+        server.runServer();
+        DeliveryClient client = new DeliveryClient(new TestPacketVault());
+        try {
+            client.connectClient("127.0.0.1", 1340);
+            client.sendFile(this.source).sync();
+            Path path = received.get(10, TimeUnit.SECONDS);
+            Assert.assertArrayEquals("The received file differs from the sent one.", Files.readAllBytes(this.source),
+                    Files.readAllBytes(path));
+        } finally {
+            client.disconnectClient();
+            server.endServer();
+        }
+        System.out.println("[Test] No Conflicts running FileTransferTest (socket)..");
+    }
+
+    /**
+     * Test if a file sent in chunks is written into a provided {@link FileChannel} and packets after it are decoded again.
+     *
+     * @throws Exception
+     *          Exception while transferring the file
+     */
+    @Test
+    public void testChunkedTransfer() throws Exception {
+        System.out.println("[Test] Running FileTransferTest (chunked)..");
+        Path target = this.directory.resolve("target.bin");
+        CompletableFuture<DeliveryTransfer> received = new CompletableFuture<>();
+        TestPacketVault vault = new TestPacketVault();
+        EmbeddedChannel sender = new EmbeddedChannel(new DeliveryByteEncoder(vault));
+        EmbeddedChannel receiver = new EmbeddedChannel(new DeliveryByteDecoder(vault), new DeliveryTransferHandler(
+                new DeliveryFileReceiver() {
+                    @Override
+                    public FileChannel open(DeliveryTransfer transfer) throws IOException {
+                        return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    }
+
+                    @Override
+                    public void completed(DeliveryTransfer transfer, FileChannel file) throws IOException {
+                        file.close();
+                        received.complete(transfer);
+                    }
+                }));
+
+        DeliveryFileTransfer.send(sender, this.source, "target.bin");
+        sender.runPendingTasks();
+        sender.writeOutbound(new TestJaneDoePacket("Jane"));
+        for (Object chunk; (chunk = sender.readOutbound()) != null; )
+            receiver.writeInbound(chunk);
+
+        Assert.assertEquals("The transfer was not completed.", Files.size(this.source), received.get(1, TimeUnit.SECONDS).getLength());
+        Assert.assertArrayEquals("The received file differs from the sent one.", Files.readAllBytes(this.source),
+                Files.readAllBytes(target));
+        TestJaneDoePacket jane = receiver.readInbound();
+        Assert.assertEquals("The packet after the file was not decoded.", "Jane", jane.getName());
+        sender.finishAndReleaseAll();
+        receiver.finishAndReleaseAll();
+        System.out.println("[Test] No Conflicts running FileTransferTest (chunked)..");
+    }
+
+}
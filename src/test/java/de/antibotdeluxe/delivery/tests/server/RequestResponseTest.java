@@ -0,0 +1,106 @@
+package de.antibotdeluxe.delivery.tests.server;
+
+import de.antibotdeluxe.delivery.client.DeliveryClient;
+import de.antibotdeluxe.delivery.codec.DeliveryPacket;
+import de.antibotdeluxe.delivery.codec.DeliveryReply;
+import de.antibotdeluxe.delivery.event.DeliveryEventHandler;
+import de.antibotdeluxe.delivery.misc.exceptions.RequestTimeoutException;
+import de.antibotdeluxe.delivery.server.DeliveryServer;
+import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
+import de.antibotdeluxe.delivery.tests.packets.TestLisaEmberPacket;
+import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests if responses sent with {@link DeliveryReply} complete the matching request of the {@link DeliveryClient}, even if many
+ * requests are in flight at the same time.
+ *
+ * @author jhz
+ */
+public class RequestResponseTest {
+
+    private DeliveryServer server;
+    private DeliveryClient client;
+
+    /**
+     * Initializing the test environment.
+     */
+    @Before
+    public void before() {
+        System.out.println("\n[Test] Initializing RequestResponseTest..");
+        this.server = new DeliveryServer(1339, new TestPacketVault());
+        this.server.getEventManager().bindHandlers(new DeliveryEventHandler() {
+            @Override
+            public void call(DeliveryPacket packet, ChannelHandlerContext ctx) {
+                DeliveryReply.current().send(new TestLisaEmberPacket(((TestJaneDoePacket) packet).getName() + "!"));
+            }
+
+            @Override
+            public Class<? extends DeliveryPacket> getPacketCapture() {
+                return TestJaneDoePacket.class;
+            }
+        });
+        this.server.runServer();
+        this.client = new DeliveryClient(new TestPacketVault());
+        this.client.connectClient("127.0.0.1", 1339);
+    }
+
+    /**
+     * Cleaning up the test environment.
+     */
+    @After
+    public void after() {
+        System.out.println("[Test] Closing RequestResponseTest..");
+        this.client.disconnectClient();
+        this.server.endServer();
+    }
+
+    /**
+     * Test if every request is completed with its own response.
+     *
+     * @throws Exception
+     *          Exception while waiting for the responses
+     */
+    @Test
+    public void testRequests() throws Exception {
+        System.out.println("[Test] Running RequestResponseTest..");
+        List<CompletableFuture<TestLisaEmberPacket>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            futures.add(this.client.request(new TestJaneDoePacket("Request " + i), Duration.ofSeconds(5)));
+        for (int i = 0; i < futures.size(); i++)
+            Assert.assertEquals("The response does not match its request.", "Request " + i + "!",
+                    futures.get(i).get(5, TimeUnit.SECONDS).getName());
+        System.out.println("[Test] No Conflicts running RequestResponseTest..");
+    }
+
+    /**
+     * Test if a request without response is completed with a {@link RequestTimeoutException}.
+     *
+     * @throws Exception
+     *          Exception while waiting for the timeout
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        System.out.println("[Test] Running RequestResponseTest (timeout)..");
+        CompletableFuture<DeliveryPacket> future = this.client.request(new TestLisaEmberPacket("Lisa"), Duration.ofMillis(100));
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("The request without response was completed.");
+        } catch (ExecutionException exception) {
+            Assert.assertTrue("The request did not time out.", exception.getCause() instanceof RequestTimeoutException);
+        }
+        System.out.println("[Test] No Conflicts running RequestResponseTest (timeout)..");
+    }
+
+}
@@ -1,13 +1,28 @@
 package de.antibotdeluxe.delivery.tests.server;
 
+import de.antibotdeluxe.delivery.client.DeliveryClient;
+import de.antibotdeluxe.delivery.event.DeliveryExecutionMode;
+import de.antibotdeluxe.delivery.event.DeliveryHandlerExecutor;
+import de.antibotdeluxe.delivery.misc.exceptions.ConnectionFailedException;
+import de.antibotdeluxe.delivery.misc.exceptions.PortAlreadyBoundException;
 import de.antibotdeluxe.delivery.server.DeliveryServer;
+import de.antibotdeluxe.delivery.server.DeliveryServerConfig;
 import de.antibotdeluxe.delivery.tests.packets.TestJaneDoePacket;
 import de.antibotdeluxe.delivery.tests.packets.TestPacketVault;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.EventExecutor;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Tests if the {@link de.antibotdeluxe.delivery.server.DeliveryServer} will boot up properly and function without any problems.
  *
@@ -35,24 +50,147 @@ public class ServerBootUpFunctionalityTest {
         this.server.endServer();
     }
 
+    /**
+     * Test if a {@link DeliveryClient} whose connect failed doesn't keep its threads alive.
+     */
+    @Test
+    public void testFailedConnect() {
+        System.out.println("[Test] Running ServerBootUpFunctionalityTest (failed connect)..");
+        DeliveryClient client = new DeliveryClient(new TestPacketVault());
+        try {
+            client.connect("127.0.0.1", 1343).get(10, TimeUnit.SECONDS);
+            Assert.fail("The client connected although no server is running.");
+        } catch (ExecutionException exception) {
+            Assert.assertTrue("The connect failure was not reported clearly.", exception.getCause() instanceof ConnectionFailedException);
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            Assert.fail("Connecting did not fail in time.");
+        } finally {
+            Assert.assertNull("The event loop group was kept after the failed connect.", client.getMasterGroup());
+            client.disconnectClient();
+        }
+        System.out.println("[Test] No Conflicts running ServerBootUpFunctionalityTest (failed connect)..");
+    }
+
+    /**
+     * Test if disconnecting a {@link DeliveryClient} which is still connecting aborts the connect and lets it connect again.
+     */
+    @Test
+    public void testDisconnectWhileConnecting() {
+        System.out.println("[Test] Running ServerBootUpFunctionalityTest (disconnect while connecting)..");
+        DeliveryClient client = new DeliveryClient(new TestPacketVault());
+        try {
+            this.server.start().get(10, TimeUnit.SECONDS);
+            CompletableFuture<Channel> connect = client.connect("10.255.255.1", 1343);
+            client.disconnect().get(10, TimeUnit.SECONDS);
+            try {
+                connect.get(10, TimeUnit.SECONDS);
+                Assert.fail("The connect was not aborted by the disconnect.");
+            } catch (ExecutionException exception) {
+                Assert.assertTrue("The aborted connect was not reported clearly.",
+                        exception.getCause() instanceof ConnectionFailedException);
+            }
+            Assert.assertNull("The aborted connect set a channel.", client.getChannel());
+            client.connect("127.0.0.1", 1337).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue("The client could not connect after the aborted connect.", client.getChannel().isActive());
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            Assert.fail("Aborting the connect failed.");
+        } finally {
+            client.disconnectClient();
+        }
+        System.out.println("[Test] No Conflicts running ServerBootUpFunctionalityTest (disconnect while connecting)..");
+    }
+
+    /**
+     * Test if stopping the {@link DeliveryServer} shuts down the {@link DeliveryHandlerExecutor} its event manager created, but not
+     * one which was set from outside.
+     */
+    @Test
+    public void testExecutorShutdown() {
+        System.out.println("[Test] Running ServerBootUpFunctionalityTest (executor shutdown)..");
+        this.server.runServer();
+        DeliveryHandlerExecutor executor = this.server.getEventManager().getExecutor();
+        this.server.endServer();
+        try {
+            executor.execute(DeliveryExecutionMode.ORDERED, null, () -> { });
+            Assert.fail("The executor was not shut down with the server.");
+        } catch (RejectedExecutionException ignored) { }
+        Assert.assertNotSame("The shut down executor was kept.", executor, this.server.getEventManager().getExecutor());
+
+        DeliveryHandlerExecutor external = new DeliveryHandlerExecutor(1, 16);
+        this.server.getEventManager().setExecutor(external);
+        this.server.runServer();
+        this.server.endServer();
+        external.execute(DeliveryExecutionMode.ORDERED, null, () -> { });
+        Assert.assertSame("The executor set from outside was replaced.", external, this.server.getEventManager().getExecutor());
+        external.shutdown();
+        System.out.println("[Test] No Conflicts running ServerBootUpFunctionalityTest (executor shutdown)..");
+    }
+
     /**
      * Test if the {@link DeliveryServer} boots up properly.
      */
     @Test
     public void testServerBootUpFunctionality() {
-        try {
-            new DeliveryServer(1337, new TestPacketVault());
-            Assert.fail("The port should be blocked! {port: '" + server.getPort() + "'}");
-        } catch (Exception ignored) { }
         System.out.println("[Test] Running ServerBootUpFunctionalityTest..");
         try {
-            this.server.runServer();
+            this.server.start().get(10, TimeUnit.SECONDS);
             Assert.assertEquals("This packet id was not expected", 0, this.server.getPacketVault().getPacketIdByClass(TestJaneDoePacket.class));
         } catch (Exception exception) {
             exception.printStackTrace();
             Assert.fail("Server could not boot!");
         }
+        Assert.assertSame("Starting twice did not return the same future.", this.server.start(), this.server.start());
+        DeliveryServer blocked = new DeliveryServer(1337, new TestPacketVault());
+        try {
+            blocked.start().get(10, TimeUnit.SECONDS);
+            Assert.fail("The port should be blocked! {port: '" + server.getPort() + "'}");
+        } catch (ExecutionException exception) {
+            Assert.assertTrue("The bind failure was not reported clearly.", exception.getCause() instanceof PortAlreadyBoundException);
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            Assert.fail("Binding the blocked port did not fail in time.");
+        } finally {
+            blocked.endServer();
+        }
         System.out.println("[Test] No Conflicts running ServerBootUpFunctionalityTest..");
     }
 
+    /**
+     * Test if accepting and I/O run on separate {@link io.netty.channel.EventLoopGroup}'s with the configured amount of threads.
+     */
+    @Test
+    public void testEventLoopTopology() {
+        System.out.println("[Test] Running ServerBootUpFunctionalityTest (event loop topology)..");
+        DeliveryServer server = new DeliveryServer(1341, new TestPacketVault(), DeliveryServerConfig.builder()
+                .workerThreads(2)
+                .reusePortBinds(2)
+                .backlog(1024)
+                .tcpNoDelay(true)
+                .writeBufferWaterMark(32 * 1024, 128 * 1024)
+                .allocator(UnpooledByteBufAllocator.DEFAULT)
+                .build());
+        try {
+            server.runServer();
+            Assert.assertNotSame("Accepting and I/O share the same group.", server.getMasterGroup(), server.getSlaveGroup());
+            int workers = 0;
+            for (EventExecutor ignored : server.getSlaveGroup())
+                workers++;
+            Assert.assertEquals("The amount of worker threads was not applied.", 2, workers);
+            int bosses = 0;
+            for (EventExecutor ignored : server.getMasterGroup())
+                bosses++;
+            Assert.assertEquals("The amount of boss threads does not match the listening sockets.",
+                    server.getConfig().getTransport().supportsReusePort() ? 2 : 1, bosses);
+            Assert.assertSame("The configured allocator is not used for broadcasts.", UnpooledByteBufAllocator.DEFAULT,
+                    server.getConfig().getAllocator());
+            Assert.assertSame("The default allocator was not kept.", ByteBufAllocator.DEFAULT,
+                    DeliveryServerConfig.defaults().getAllocator());
+        } finally {
+            server.endServer();
+        }
+        System.out.println("[Test] No Conflicts running ServerBootUpFunctionalityTest (event loop topology)..");
+    }
+
 }